@@ -0,0 +1,33 @@
+#!/bin/bash
+
+# Builds the fast-start distribution for autoscaled nodes:
+#   1. packages the jar with Spring AOT processing (-Pfast-start)
+#   2. extracts it into target/fast-start, the layout the CDS archive is tied to
+#   3. trains an AppCDS archive with a run that starts the application context and exits after refresh
+# The training run connects to the database of the given profile (migrations and schema validation run as on a
+# normal start), so that database must be reachable.
+# Usage: ./build-fast-start.sh [profile]
+# Example: ./build-fast-start.sh local
+
+set -euo pipefail
+
+PROFILE="${1:-local}"
+OUT=target/fast-start
+
+./mvnw -B -q -Pfast-start -DskipTests package
+JAR=target/cognito_middleware.jar
+
+rm -rf "$OUT"
+java -Djarmode=tools -jar "$JAR" extract --destination "$OUT"
+APP_JAR="$OUT/$(basename "$JAR")"
+
+echo "Training the CDS archive with profile $PROFILE..."
+java -XX:ArchiveClassesAtExit="$OUT/application.jsa" -Xlog:cds=error \
+  -Dspring.aot.enabled=true \
+  -Dspring.context.exit=onRefresh \
+  -Dspring.profiles.active="$PROFILE" \
+  -jar "$APP_JAR"
+
+echo ""
+echo "Start with:"
+echo "  java -XX:SharedArchiveFile=$OUT/application.jsa -Dspring.aot.enabled=true -jar $APP_JAR"
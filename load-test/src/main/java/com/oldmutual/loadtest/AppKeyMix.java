@@ -0,0 +1,79 @@
+package com.oldmutual.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Weighted mix of X-APP-KEY values, so a run spreads its traffic across tenants like production does.
+ * Parsed from {@code key1:70,key2:25,key3:5}; a key without a weight counts as 1.
+ */
+public final class AppKeyMix {
+
+    private final List<String> appKeys;
+    private final double[] cumulativeWeights;
+
+    private AppKeyMix(List<String> appKeys, double[] cumulativeWeights) {
+        this.appKeys = appKeys;
+        this.cumulativeWeights = cumulativeWeights;
+    }
+
+    /**
+     * Parse a mix specification.
+     *
+     * @param spec The comma separated key:weight list
+     * @return The mix
+     * @throws IllegalArgumentException if the specification is empty or has a non-positive weight
+     */
+    public static AppKeyMix parse(String spec) {
+        List<String> keys = new ArrayList<>();
+        List<Double> weights = new ArrayList<>();
+        for (String part : spec.split(",")) {
+            String trimmed = part.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            int colon = trimmed.lastIndexOf(':');
+            String key = colon < 0 ? trimmed : trimmed.substring(0, colon);
+            double weight = colon < 0 ? 1 : Double.parseDouble(trimmed.substring(colon + 1));
+            if (weight <= 0) {
+                throw new IllegalArgumentException("App key weight must be positive: " + trimmed);
+            }
+            keys.add(key);
+            weights.add(weight);
+        }
+        if (keys.isEmpty()) {
+            throw new IllegalArgumentException("At least one app key is required");
+        }
+
+        double[] cumulative = new double[weights.size()];
+        double total = 0;
+        for (int i = 0; i < weights.size(); i++) {
+            total += weights.get(i);
+            cumulative[i] = total;
+        }
+        for (int i = 0; i < cumulative.length; i++) {
+            cumulative[i] /= total;
+        }
+        return new AppKeyMix(List.copyOf(keys), cumulative);
+    }
+
+    /**
+     * Pick an app key according to the weights.
+     *
+     * @return The app key
+     */
+    public String next() {
+        double r = ThreadLocalRandom.current().nextDouble();
+        for (int i = 0; i < cumulativeWeights.length - 1; i++) {
+            if (r < cumulativeWeights[i]) {
+                return appKeys.get(i);
+            }
+        }
+        return appKeys.get(appKeys.size() - 1);
+    }
+
+    public List<String> getAppKeys() {
+        return appKeys;
+    }
+}
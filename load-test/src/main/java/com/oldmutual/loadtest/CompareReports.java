@@ -0,0 +1,53 @@
+package com.oldmutual.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.File;
+
+/**
+ * Compares two {@link LoadReport} files, e.g. the last release against a candidate.
+ * <p>
+ * Usage: {@code java -cp load-test.jar com.oldmutual.loadtest.CompareReports baseline.json candidate.json [maxP99RegressionPercent]}
+ * <br>Exits with status 1 when the candidate's p99 response time regresses by more than the given percentage
+ * (default 10) or its throughput drops by more than the same percentage.
+ */
+public final class CompareReports {
+
+    private CompareReports() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: CompareReports baseline.json candidate.json [maxP99RegressionPercent]");
+            System.exit(2);
+        }
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        LoadReport baseline = objectMapper.readValue(new File(args[0]), LoadReport.class);
+        LoadReport candidate = objectMapper.readValue(new File(args[1]), LoadReport.class);
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10;
+
+        System.out.printf("%-22s %12s %12s %9s%n", "", baseline.label(), candidate.label(), "change");
+        row("throughput req/s", baseline.achievedRate(), candidate.achievedRate());
+        row("response p50 ms", baseline.responseTime().p50(), candidate.responseTime().p50());
+        row("response p90 ms", baseline.responseTime().p90(), candidate.responseTime().p90());
+        row("response p99 ms", baseline.responseTime().p99(), candidate.responseTime().p99());
+        row("response p99.9 ms", baseline.responseTime().p999(), candidate.responseTime().p999());
+        row("service p99 ms", baseline.serviceTime().p99(), candidate.serviceTime().p99());
+
+        boolean regressed = change(baseline.responseTime().p99(), candidate.responseTime().p99()) > threshold
+                || change(baseline.achievedRate(), candidate.achievedRate()) < -threshold;
+        if (regressed) {
+            System.out.printf("REGRESSION: p99 or throughput moved more than %.1f%%%n", threshold);
+            System.exit(1);
+        }
+    }
+
+    private static void row(String name, double baseline, double candidate) {
+        System.out.printf("%-22s %12.2f %12.2f %+8.1f%%%n", name, baseline, candidate, change(baseline, candidate));
+    }
+
+    private static double change(double baseline, double candidate) {
+        return baseline == 0 ? 0 : (candidate - baseline) / baseline * 100;
+    }
+}
@@ -0,0 +1,102 @@
+package com.oldmutual.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * Result of one run, written as JSON so runs of different releases can be compared with {@link CompareReports}.
+ * Latencies are in milliseconds; the full histograms are included compressed for later merging or re-plotting.
+ *
+ * @param label           Free-form label of the run, e.g. the release
+ * @param scenario        The scenario
+ * @param finishedAt      When the run finished
+ * @param targetRate      The arrival rate in requests per second
+ * @param achievedRate    Completed requests per second over the send window
+ * @param durationSeconds Length of the send window
+ * @param elapsedSeconds  Send window plus draining the requests still in flight
+ * @param scheduled       Arrivals scheduled
+ * @param completed       Requests that got a response or an error
+ * @param dropped         Arrivals not sent because the in-flight cap was reached
+ * @param timedOut        Requests still in flight when draining gave up
+ * @param statusCounts    Completions by HTTP status or exception name
+ * @param appKeyCounts    Requests sent per app key
+ * @param responseTime    Latency from the scheduled send time
+ * @param serviceTime     Latency from the actual send time
+ */
+public record LoadReport(
+        String label,
+        String scenario,
+        Instant finishedAt,
+        double targetRate,
+        double achievedRate,
+        double durationSeconds,
+        double elapsedSeconds,
+        long scheduled,
+        long completed,
+        long dropped,
+        long timedOut,
+        Map<String, Long> statusCounts,
+        Map<String, Long> appKeyCounts,
+        Latency responseTime,
+        Latency serviceTime
+) {
+
+    /**
+     * Latency percentiles in milliseconds, plus the compressed HdrHistogram in base64.
+     */
+    public record Latency(double mean, double p50, double p90, double p99, double p999, double max, String histogram) {
+
+        static Latency of(Histogram histogram) {
+            ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+            int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+            return new Latency(
+                    histogram.getMean() / 1000.0,
+                    histogram.getValueAtPercentile(50) / 1000.0,
+                    histogram.getValueAtPercentile(90) / 1000.0,
+                    histogram.getValueAtPercentile(99) / 1000.0,
+                    histogram.getValueAtPercentile(99.9) / 1000.0,
+                    histogram.getMaxValue() / 1000.0,
+                    Base64.getEncoder().encodeToString(java.util.Arrays.copyOf(buffer.array(), length)));
+        }
+    }
+
+    static LoadReport of(LoadTest.Options options, long scheduled, long dropped, long timedOut,
+                         double durationSeconds, double elapsedSeconds, Histogram responseTime, Histogram serviceTime,
+                         Map<String, Long> statusCounts, Map<String, Long> appKeyCounts) {
+        long completed = responseTime.getTotalCount();
+        return new LoadReport(
+                options.label,
+                options.scenario.name(),
+                Instant.now(),
+                options.rate,
+                completed / durationSeconds,
+                durationSeconds,
+                elapsedSeconds,
+                scheduled,
+                completed,
+                dropped,
+                timedOut,
+                statusCounts,
+                appKeyCounts,
+                Latency.of(responseTime),
+                Latency.of(serviceTime));
+    }
+
+    /**
+     * Get a one-paragraph human readable summary.
+     *
+     * @return The summary
+     */
+    public String summary() {
+        return String.format("%s [%s]: %.1f/%.1f req/s, completed=%d dropped=%d timedOut=%d statuses=%s%n"
+                        + "  response time ms: p50=%.2f p90=%.2f p99=%.2f p99.9=%.2f max=%.2f%n"
+                        + "  service time ms:  p50=%.2f p90=%.2f p99=%.2f p99.9=%.2f max=%.2f",
+                scenario, label, achievedRate, targetRate, completed, dropped, timedOut, statusCounts,
+                responseTime.p50(), responseTime.p90(), responseTime.p99(), responseTime.p999(), responseTime.max(),
+                serviceTime.p50(), serviceTime.p90(), serviceTime.p99(), serviceTime.p999(), serviceTime.max());
+    }
+}
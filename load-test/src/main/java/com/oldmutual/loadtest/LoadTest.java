@@ -0,0 +1,255 @@
+package com.oldmutual.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.oldmutual.loadtest.Scenario.TestUser;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load generator for a running middleware.
+ * <p>
+ * Requests are sent on a fixed arrival schedule regardless of how fast responses come back, and response
+ * time is measured from the scheduled send time, so a slow server shows up as latency instead of as a lower
+ * request rate (no coordinated omission). Service time, measured from the actual send, is reported alongside.
+ * <p>
+ * Usage: {@code java -jar load-test.jar -scenario login|introspect|logs -rate 200 -duration 60 -app-keys k1:70,k2:30}
+ * <br>Options: -base-url (http://localhost:80), -warmup seconds (10), -users per app key (20),
+ * -password (LoadTest123!), -code confirmation code of the Cognito stand-in (123456),
+ * -max-in-flight (1000), -timeout seconds (10), -label, -output file.
+ */
+public final class LoadTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private final HttpClient httpClient;
+    private final Options options;
+
+    private LoadTest(Options options) {
+        this.options = options;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        LoadTest loadTest = new LoadTest(options);
+
+        Map<String, List<TestUser>> users = options.scenario.needsUsers()
+                ? loadTest.provisionUsers()
+                : Map.of();
+
+        if (options.warmupSeconds > 0) {
+            System.out.printf("Warming up for %ds at %.0f req/s%n", options.warmupSeconds, options.rate);
+            loadTest.run(users, options.warmupSeconds);
+        }
+        System.out.printf("Running %s for %ds at %.0f req/s%n", options.scenario, options.durationSeconds, options.rate);
+        LoadReport report = loadTest.run(users, options.durationSeconds);
+
+        Path output = options.output != null ? options.output : Path.of("load-test-results",
+                options.scenario.name().toLowerCase() + "-" + DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")
+                        .format(Instant.now().atZone(ZoneOffset.UTC)) + ".json");
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        OBJECT_MAPPER.writerWithDefaultPrettyPrinter().writeValue(output.toFile(), report);
+        System.out.println(report.summary());
+        System.out.println("Report written to " + output);
+    }
+
+    /**
+     * Register, confirm and log in the users of every app key, so auth scenarios have credentials and tokens.
+     * Registration failures for users that already exist are ignored.
+     *
+     * @return The users by app key
+     */
+    private Map<String, List<TestUser>> provisionUsers() throws IOException, InterruptedException {
+        Map<String, List<TestUser>> users = new HashMap<>();
+        for (String appKey : options.appKeyMix.getAppKeys()) {
+            List<TestUser> appUsers = new ArrayList<>();
+            String tenant = appKey.length() > 8 ? appKey.substring(0, 8) : appKey;
+            for (int i = 0; i < options.usersPerApp; i++) {
+                String email = "loadtest-" + tenant + "-" + i + "@example.com";
+                post("/api/auth/register", appKey,
+                        "{\"email\":\"" + email + "\",\"password\":\"" + options.password + "\"}");
+                post("/api/auth/verify", appKey,
+                        "{\"email\":\"" + email + "\",\"confirmationCode\":\"" + options.confirmationCode + "\"}");
+                HttpResponse<String> login = post("/api/auth/login", appKey,
+                        "{\"email\":\"" + email + "\",\"password\":\"" + options.password + "\"}");
+                JsonNode accessToken = OBJECT_MAPPER.readTree(login.body()).path("data").path("accessToken");
+                if (login.statusCode() != 200 || accessToken.isMissingNode()) {
+                    throw new IllegalStateException("Could not log in provisioned user " + email + ": " + login.body());
+                }
+                appUsers.add(new TestUser(email, options.password, accessToken.asText()));
+            }
+            users.put(appKey, appUsers);
+            System.out.printf("Provisioned %d users for app key %s%n", appUsers.size(), appKey);
+        }
+        return users;
+    }
+
+    private HttpResponse<String> post(String path, String appKey, String body) throws IOException, InterruptedException {
+        return httpClient.send(Scenario.json(options.baseUrl + path, appKey, options.timeout, body),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * Drive the scenario at the configured arrival rate.
+     *
+     * @param users           The provisioned users by app key
+     * @param durationSeconds The length of the run
+     * @return The report of the run
+     */
+    private LoadReport run(Map<String, List<TestUser>> users, int durationSeconds) throws InterruptedException {
+        Histogram responseTime = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        Histogram serviceTime = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        Map<String, LongAdder> statusCounts = new ConcurrentHashMap<>();
+        Map<String, LongAdder> appKeyCounts = new ConcurrentHashMap<>();
+        AtomicInteger inFlight = new AtomicInteger();
+        LongAdder dropped = new LongAdder();
+
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / options.rate);
+        long durationNanos = TimeUnit.SECONDS.toNanos(durationSeconds);
+        long start = System.nanoTime();
+        long scheduled = 0;
+
+        for (long i = 0; ; i++) {
+            long intended = start + i * intervalNanos;
+            if (intended - start >= durationNanos) {
+                break;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            scheduled++;
+
+            // Past the in-flight cap the generator would stop being open-model; count the arrival as dropped instead
+            if (inFlight.get() >= options.maxInFlight) {
+                dropped.increment();
+                continue;
+            }
+
+            String appKey = options.appKeyMix.next();
+            List<TestUser> appUsers = users.get(appKey);
+            TestUser user = appUsers == null || appUsers.isEmpty()
+                    ? null : appUsers.get(ThreadLocalRandom.current().nextInt(appUsers.size()));
+            HttpRequest request = options.scenario.request(options.baseUrl, appKey, user, options.timeout);
+
+            inFlight.incrementAndGet();
+            appKeyCounts.computeIfAbsent(appKey, key -> new LongAdder()).increment();
+            long sent = System.nanoTime();
+            httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        long done = System.nanoTime();
+                        responseTime.recordValue(Math.min(HIGHEST_TRACKABLE_MICROS, TimeUnit.NANOSECONDS.toMicros(done - intended)));
+                        serviceTime.recordValue(Math.min(HIGHEST_TRACKABLE_MICROS, TimeUnit.NANOSECONDS.toMicros(done - sent)));
+                        String status = error != null ? error.getClass().getSimpleName() : String.valueOf(response.statusCode());
+                        statusCounts.computeIfAbsent(status, key -> new LongAdder()).increment();
+                        inFlight.decrementAndGet();
+                    });
+        }
+        long sendEnd = System.nanoTime();
+
+        long drainDeadline = System.nanoTime() + options.timeout.toNanos() + TimeUnit.SECONDS.toNanos(1);
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        return LoadReport.of(options, scheduled, dropped.sum(), inFlight.get(),
+                (sendEnd - start) / 1e9, elapsed / 1e9, responseTime, serviceTime, toMap(statusCounts), toMap(appKeyCounts));
+    }
+
+    private static Map<String, Long> toMap(Map<String, LongAdder> counts) {
+        Map<String, Long> result = new HashMap<>();
+        counts.forEach((key, count) -> result.put(key, count.sum()));
+        return result;
+    }
+
+    /**
+     * Command line options.
+     */
+    static final class Options {
+        Scenario scenario = Scenario.LOGIN;
+        String baseUrl = "http://localhost:80";
+        double rate = 100;
+        int durationSeconds = 60;
+        int warmupSeconds = 10;
+        AppKeyMix appKeyMix;
+        int usersPerApp = 20;
+        String password = "LoadTest123!";
+        String confirmationCode = "123456";
+        int maxInFlight = 1000;
+        Duration timeout = Duration.ofSeconds(10);
+        String label = UUID.randomUUID().toString().substring(0, 8);
+        Path output;
+
+        static Options parse(String[] args) {
+            Options options = new Options();
+            String appKeys = null;
+            for (int i = 0; i < args.length; i += 2) {
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + args[i]);
+                }
+                String value = args[i + 1];
+                switch (args[i]) {
+                    case "-scenario" -> options.scenario = Scenario.valueOf(value.toUpperCase());
+                    case "-base-url" -> options.baseUrl = value.endsWith("/") ? value.substring(0, value.length() - 1) : value;
+                    case "-rate" -> options.rate = Double.parseDouble(value);
+                    case "-duration" -> options.durationSeconds = Integer.parseInt(value);
+                    case "-warmup" -> options.warmupSeconds = Integer.parseInt(value);
+                    case "-app-keys" -> appKeys = value;
+                    case "-users" -> options.usersPerApp = Integer.parseInt(value);
+                    case "-password" -> options.password = value;
+                    case "-code" -> options.confirmationCode = value;
+                    case "-max-in-flight" -> options.maxInFlight = Integer.parseInt(value);
+                    case "-timeout" -> options.timeout = Duration.ofSeconds(Long.parseLong(value));
+                    case "-label" -> options.label = value;
+                    case "-output" -> options.output = Path.of(value);
+                    default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+            if (appKeys == null) {
+                if (options.scenario.needsUsers()) {
+                    throw new IllegalArgumentException("-app-keys is required for the " + options.scenario + " scenario");
+                }
+                appKeys = "none";
+            }
+            if (options.rate <= 0 || options.durationSeconds <= 0) {
+                throw new IllegalArgumentException("-rate and -duration must be positive");
+            }
+            options.appKeyMix = AppKeyMix.parse(appKeys);
+            return options;
+        }
+    }
+}
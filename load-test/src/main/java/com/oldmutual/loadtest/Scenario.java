@@ -0,0 +1,82 @@
+package com.oldmutual.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+
+/**
+ * The endpoints a run can drive. Auth scenarios need users provisioned per app key before the run.
+ */
+public enum Scenario {
+
+    LOGIN(true) {
+        @Override
+        HttpRequest request(String baseUrl, String appKey, TestUser user, Duration timeout) {
+            return json(baseUrl + "/api/auth/login", appKey, timeout,
+                    "{\"email\":\"" + user.email() + "\",\"password\":\"" + user.password() + "\"}");
+        }
+    },
+
+    INTROSPECT(true) {
+        @Override
+        HttpRequest request(String baseUrl, String appKey, TestUser user, Duration timeout) {
+            return json(baseUrl + "/api/auth/token/introspect", appKey, timeout,
+                    "{\"accessToken\":\"" + user.accessToken() + "\"}");
+        }
+    },
+
+    LOGS(false) {
+        @Override
+        HttpRequest request(String baseUrl, String appKey, TestUser user, Duration timeout) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/api/logs/paginated?page=0&size=20"))
+                    .timeout(timeout)
+                    .GET()
+                    .build();
+        }
+    };
+
+    private final boolean needsUsers;
+
+    Scenario(boolean needsUsers) {
+        this.needsUsers = needsUsers;
+    }
+
+    /**
+     * Whether the scenario needs provisioned users.
+     *
+     * @return true for the auth scenarios
+     */
+    public boolean needsUsers() {
+        return needsUsers;
+    }
+
+    /**
+     * Build the request for one arrival.
+     *
+     * @param baseUrl The middleware base URL
+     * @param appKey  The X-APP-KEY to send
+     * @param user    The user to act as, or null for scenarios without users
+     * @param timeout The request timeout
+     * @return The request
+     */
+    abstract HttpRequest request(String baseUrl, String appKey, TestUser user, Duration timeout);
+
+    static HttpRequest json(String url, String appKey, Duration timeout, String body) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .header("X-APP-KEY", appKey)
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    /**
+     * A provisioned user.
+     *
+     * @param email       The email used as username
+     * @param password    The password
+     * @param accessToken The access token from the provisioning login
+     */
+    public record TestUser(String email, String password, String accessToken) {
+    }
+}
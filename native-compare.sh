@@ -0,0 +1,71 @@
+#!/bin/bash
+
+# Compares the native image with the JVM build, then runs the offline smoke suite against the native image.
+# Both builds use the profile and datasource from the environment (e.g. SPRING_PROFILES_ACTIVE=local) and an app
+# whose endpointOverride points at the local Cognito stand-in (see load-test/README.md), which confirms any
+# user with the code 123456. Build both first:
+#   ./mvnw -DskipTests package                    -> target/cognito_middleware.jar
+#   ./mvnw -Pnative -DskipTests native:compile    -> target/cognito_middleware
+# Usage: ./native-compare.sh <app-key> [api-url]
+# Example: ./native-compare.sh your-app-key http://localhost:80
+
+set -uo pipefail
+
+if [ "$#" -lt 1 ]; then
+    echo "Usage: $0 <app-key> [api-url]"
+    exit 1
+fi
+
+APP_KEY=$1
+API_URL="${2:-http://localhost:80}"
+EMAIL="native-$(date +%s)@example.com"
+PASSWORD='Native123!'
+FAILED=0
+
+for BUILD in "java -jar target/cognito_middleware.jar" "target/cognito_middleware"; do
+    echo "=== $BUILD"
+    # The user does not exist yet; the Cognito error still proves the whole login path is up
+    ./time-to-first-login.sh "$EMAIL" "$PASSWORD" "$APP_KEY" "$API_URL" -- $BUILD
+    echo ""
+done
+
+# Smoke suite against the native image: Cognito client, Hibernate entities and projections, Jasypt, springdoc
+check() {
+    local name=$1 expected=$2 status
+    shift 2
+    status=$(curl -s -o /tmp/native-compare.out -w '%{http_code}' "$@")
+    if [ "$status" = "$expected" ]; then
+        echo "PASS $name"
+    else
+        echo "FAIL $name: HTTP $status $(head -c 300 /tmp/native-compare.out)"
+        FAILED=1
+    fi
+}
+
+auth() {
+    check "$1" 200 -X POST "$API_URL/api/auth/$1" -H "Content-Type: application/json" -H "X-APP-KEY: $APP_KEY" -d "$2"
+}
+
+echo "=== Smoke suite (native)"
+target/cognito_middleware > /tmp/native-compare.log 2>&1 &
+PID=$!
+trap 'kill $PID 2>/dev/null; wait $PID 2>/dev/null' EXIT
+until curl -s -o /dev/null "$API_URL/actuator/health"; do
+    kill -0 $PID 2>/dev/null || { tail -20 /tmp/native-compare.log; exit 1; }
+    sleep 0.1
+done
+
+auth register "{\"email\": \"$EMAIL\", \"password\": \"$PASSWORD\"}"
+auth verify "{\"email\": \"$EMAIL\", \"confirmationCode\": \"123456\"}"
+auth login "{\"email\": \"$EMAIL\", \"password\": \"$PASSWORD\"}"
+ACCESS_TOKEN=$(jq -r .data.accessToken /tmp/native-compare.out)
+auth token/introspect "{\"accessToken\": \"$ACCESS_TOKEN\"}"
+auth forgot-password "{\"email\": \"$EMAIL\"}"
+check "logs by user" 200 "$API_URL/api/logs/user/$EMAIL"
+check "logs paginated" 200 "$API_URL/api/logs/paginated?username=native"
+check "logs stats" 200 "$API_URL/api/logs/stats?from=$(date -u -d '1 hour ago' +%Y-%m-%dT%H:%M:%S)"
+check "admin apps" 200 "$API_URL/api/admin/apps"
+check "api docs" 200 "$API_URL/v3/api-docs"
+check "swagger ui" 200 "$API_URL/swagger-ui/index.html"
+
+exit $FAILED
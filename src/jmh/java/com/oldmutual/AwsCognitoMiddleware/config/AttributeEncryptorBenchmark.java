@@ -0,0 +1,75 @@
+package com.oldmutual.AwsCognitoMiddleware.config;
+
+import com.oldmutual.AwsCognitoMiddleware.model.EncryptedSecret;
+import org.jasypt.encryption.StringEncryptor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks AttributeEncryptor: encrypting a new secret, hydrating a stored one,
+ * and revealing it with a cold (Jasypt decrypt) and a warm (memoized) cache.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AttributeEncryptorBenchmark {
+
+    private static final String SECRET = "1example23clientsecret45abcdefghijklmnopqrstuvwxyz0";
+
+    private StringEncryptor encryptor;
+    private AttributeEncryptor attributeEncryptor;
+    private DecryptedSecretCache warmCache;
+    private String ciphertext;
+
+    @Setup
+    public void setUp() {
+        JasyptConfig jasyptConfig = new JasyptConfig();
+        ReflectionTestUtils.setField(jasyptConfig, "password", "benchmarkSecretKey");
+        encryptor = jasyptConfig.stringEncryptor();
+        warmCache = new DecryptedSecretCache(encryptor, 256);
+        attributeEncryptor = new AttributeEncryptor(encryptor, warmCache);
+        ciphertext = encryptor.encrypt(SECRET);
+        Arrays.fill(warmCache.decrypt(ciphertext), '\0');
+    }
+
+    @Benchmark
+    public String encrypt() {
+        return attributeEncryptor.convertToDatabaseColumn(EncryptedSecret.fromPlaintext(SECRET));
+    }
+
+    @Benchmark
+    public EncryptedSecret hydrate() {
+        return attributeEncryptor.convertToEntityAttribute(ciphertext);
+    }
+
+    @Benchmark
+    public void revealCold(Blackhole blackhole) {
+        consume(new DecryptedSecretCache(encryptor, 256).decrypt(ciphertext), blackhole);
+    }
+
+    @Benchmark
+    public void revealWarm(Blackhole blackhole) {
+        consume(attributeEncryptor.convertToEntityAttribute(ciphertext).reveal(), blackhole);
+    }
+
+    /**
+     * Consumes a revealed secret and zeroes it, as callers of reveal() are expected to.
+     *
+     * @param secret The caller-owned plaintext copy
+     * @param blackhole The JMH sink
+     */
+    private static void consume(char[] secret, Blackhole blackhole) {
+        blackhole.consume(secret);
+        Arrays.fill(secret, '\0');
+    }
+}
@@ -0,0 +1,109 @@
+package com.oldmutual.AwsCognitoMiddleware.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks JSON serialization of the ApiResponse bodies returned by the login endpoint,
+ * using an ObjectMapper configured the way Spring MVC builds it, with and without the Blackbird module.
+ * The map benchmarks build the payload the way the controller did before the response records,
+ * so run with {@code -prof gc} to compare allocation as well as time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ApiResponseBenchmark {
+
+    @Param({"true", "false"})
+    private boolean blackbird;
+
+    private ObjectMapper objectMapper;
+    private String accessToken;
+    private String refreshToken;
+    private String idToken;
+    private String session;
+    private Map<String, String> challengeParameters;
+
+    @Setup
+    public void setUp() {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        if (blackbird) {
+            builder.modulesToInstall(new BlackbirdModule());
+        }
+        objectMapper = builder.build();
+
+        accessToken = token(1100);
+        refreshToken = token(1780);
+        idToken = token(1200);
+        session = token(920);
+        challengeParameters = Map.of("USER_ID_FOR_SRP", "user@example.com");
+    }
+
+    private static String token(int length) {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append((char) ('a' + i % 26));
+        }
+        return sb.toString();
+    }
+
+    @Benchmark
+    public byte[] loginSuccessMap() throws Exception {
+        Map<String, Object> tokens = new HashMap<>();
+        tokens.put("accessToken", accessToken);
+        tokens.put("refreshToken", refreshToken);
+        tokens.put("idToken", idToken);
+        tokens.put("expiresIn", "3600");
+        return objectMapper.writeValueAsBytes(ApiResponse.success(tokens, "Login successful"));
+    }
+
+    @Benchmark
+    public byte[] loginSuccessRecord() throws Exception {
+        LoginResult tokens = new LoginResult(accessToken, refreshToken, idToken, "3600");
+        return objectMapper.writeValueAsBytes(ApiResponse.success(tokens, "Login successful"));
+    }
+
+    @Benchmark
+    public byte[] mfaChallengeMap() throws Exception {
+        Map<String, Object> challenge = new HashMap<>();
+        challenge.put("challengeName", "SOFTWARE_TOKEN_MFA");
+        challenge.put("session", session);
+        challenge.put("challengeParameters", challengeParameters);
+        return objectMapper.writeValueAsBytes(
+                ApiResponse.success(challenge, "MFA verification required. Please provide the MFA code."));
+    }
+
+    @Benchmark
+    public byte[] mfaChallengeRecord() throws Exception {
+        MfaChallenge challenge = new MfaChallenge("SOFTWARE_TOKEN_MFA", session, null, challengeParameters);
+        return objectMapper.writeValueAsBytes(
+                ApiResponse.success(challenge, "MFA verification required. Please provide the MFA code."));
+    }
+
+    @Benchmark
+    public byte[] loginErrorMap() throws Exception {
+        Map<String, Object> error = new HashMap<>();
+        error.put("errorType", "NotAuthorizedException");
+        error.put("errorMessage", "Incorrect username or password.");
+        return objectMapper.writeValueAsBytes(ApiResponse.error("Invalid credentials", error));
+    }
+
+    @Benchmark
+    public byte[] loginErrorRecord() throws Exception {
+        ErrorDetail error = ErrorDetail.of("NotAuthorizedException", "Incorrect username or password.");
+        return objectMapper.writeValueAsBytes(ApiResponse.error("Invalid credentials", error));
+    }
+}
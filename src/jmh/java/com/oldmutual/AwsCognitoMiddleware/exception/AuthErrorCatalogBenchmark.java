@@ -0,0 +1,63 @@
+package com.oldmutual.AwsCognitoMiddleware.exception;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.ResponseEntity;
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.NotAuthorizedException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks turning a failed login into its error response, as happens on every request of a
+ * credential-stuffing storm: a mapped Cognito error, a conditional mapping, and an unmapped exception.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AuthErrorCatalogBenchmark {
+
+    private AuthErrorCatalog.Endpoint login;
+    private AuthErrorCatalog.Endpoint changePassword;
+    private NotAuthorizedException notAuthorized;
+    private IllegalArgumentException unmapped;
+
+    @Setup
+    public void setUp() {
+        AuthErrorCatalog catalog = new AuthErrorCatalog();
+        login = catalog.endpoint("/api/auth/login");
+        changePassword = catalog.endpoint("/api/auth/change-password");
+        notAuthorized = NotAuthorizedException.builder()
+                .message("Incorrect username or password. (Service: CognitoIdentityProvider, Status Code: 400, "
+                        + "Request ID: 3f1c2b8e-8d7a-4c55-9a0e-2f6d1b7c9e41)")
+                .awsErrorDetails(AwsErrorDetails.builder()
+                        .errorCode("NotAuthorizedException")
+                        .errorMessage("Incorrect username or password.")
+                        .build())
+                .build();
+        unmapped = new IllegalArgumentException("Unexpected value");
+    }
+
+    @Benchmark
+    public ResponseEntity<?> mappedCognitoError() {
+        String detail = ErrorMessages.of(notAuthorized);
+        return AuthErrorCatalog.resolve(login, notAuthorized, detail).toResponse(detail, false);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> conditionalCognitoError() {
+        String detail = ErrorMessages.of(notAuthorized);
+        return AuthErrorCatalog.resolve(changePassword, notAuthorized, detail).toResponse(detail, false);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> unmappedException() {
+        String detail = ErrorMessages.of(unmapped);
+        return AuthErrorCatalog.resolve(login, unmapped, detail).toResponse(detail, false);
+    }
+}
@@ -0,0 +1,76 @@
+package com.oldmutual.AwsCognitoMiddleware.interceptor;
+
+import com.oldmutual.AwsCognitoMiddleware.model.CognitoAppConfig;
+import com.oldmutual.AwsCognitoMiddleware.repository.CognitoAppConfigRepository;
+import com.oldmutual.AwsCognitoMiddleware.service.AppConfigCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks AppKeyInterceptor.preHandle for a valid key, with the config served from the cache
+ * ("cached") or loaded through the repository on every request ("db").
+ * The repository is an in-memory stand-in, so "db" measures the miss path only; real database
+ * round trips come on top of it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AppKeyInterceptorBenchmark {
+
+    @Param({"cached", "db"})
+    public String configSource;
+
+    private AppKeyInterceptor interceptor;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setUp() {
+        UUID appKey = UUID.randomUUID();
+        CognitoAppConfig config = new CognitoAppConfig();
+        config.setAppKey(appKey);
+        config.setAppName("benchmark-app");
+        config.setAwsRegion("af-south-1");
+        config.setUserPoolId("af-south-1_benchmark");
+        config.setClientId("benchmark-client");
+
+        CognitoAppConfigRepository repository = (CognitoAppConfigRepository) Proxy.newProxyInstance(
+                CognitoAppConfigRepository.class.getClassLoader(),
+                new Class<?>[]{CognitoAppConfigRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findByAppKey")) {
+                        return appKey.equals(args[0]) ? Optional.of(config) : Optional.empty();
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+
+        Duration ttl = configSource.equals("cached") ? Duration.ofMinutes(5) : Duration.ZERO;
+        interceptor = new AppKeyInterceptor(
+                new AppConfigCache(repository, ttl),
+                new AppKeyRejectionTracker(Duration.ofSeconds(30), Duration.ofMinutes(1), 50, 10_000));
+
+        request = new MockHttpServletRequest("POST", "/api/auth/login");
+        request.addHeader("X-APP-KEY", appKey.toString());
+        request.addHeader("X-Forwarded-For", "10.0.0.1");
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public boolean preHandle() throws Exception {
+        return interceptor.preHandle(request, response, null);
+    }
+}
@@ -0,0 +1,43 @@
+package com.oldmutual.AwsCognitoMiddleware.service;
+
+import com.oldmutual.AwsCognitoMiddleware.model.UserActivityLog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks building a user activity log entry, including client IP extraction, without persisting it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AuditRecordBenchmark {
+
+    private MockHttpServletRequest request;
+
+    @Setup
+    public void setUp() {
+        request = new MockHttpServletRequest("POST", "/api/auth/login");
+        request.addHeader("X-Forwarded-For", "196.25.1.10, 10.0.0.12");
+    }
+
+    @Benchmark
+    public UserActivityLog buildSuccess() {
+        return UserActivityLogService.buildActivityLog("LOGIN", "user@example.com", "af-south-1_benchmark",
+                "benchmark-app", "SUCCESS", null, UserActivityLogService.extractIpAddress(request));
+    }
+
+    @Benchmark
+    public UserActivityLog buildFailure() {
+        return UserActivityLogService.buildActivityLog("LOGIN", "user@example.com", "af-south-1_benchmark",
+                "benchmark-app", "FAILURE", "Incorrect username or password.",
+                UserActivityLogService.extractIpAddress(request));
+    }
+}
@@ -1,10 +1,13 @@
 package com.oldmutual.AwsCognitoMiddleware;
 
 import org.springframework.boot.SpringApplication;
+import com.oldmutual.AwsCognitoMiddleware.config.NativeHints;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 import org.springframework.web.bind.annotation.CrossOrigin;
 
 @SpringBootApplication
+@ImportRuntimeHints(NativeHints.class)
 @CrossOrigin(origins = "*")
 public class AwsCognitoMiddlewareApplication {
 
@@ -0,0 +1,103 @@
+package com.oldmutual.AwsCognitoMiddleware.archive;
+
+import com.oldmutual.AwsCognitoMiddleware.dto.ActivityLogView;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * On-disk layout of the activity log archive: one {@link ActivityArchiveFile} per day and app, at
+ * {@code <directory>/<yyyy-MM-dd>/<url-encoded app name>.ual}.
+ */
+@Slf4j
+@Component
+public class ActivityArchive {
+
+    static final String SUFFIX = ".ual";
+    private static final String NO_APP = "~none";
+
+    private final Path directory;
+    private final int hotDays;
+
+    public ActivityArchive(@Value("${app.archive.directory:archive/activity}") Path directory,
+                           @Value("${app.archive.hot-days:90}") int hotDays) {
+        this.directory = directory;
+        this.hotDays = hotDays;
+    }
+
+    /**
+     * Get the start of the hot window; older logs may have been moved to the archive.
+     *
+     * @return The oldest creation time guaranteed to still be in the database
+     */
+    public LocalDateTime hotWindowStart() {
+        return LocalDate.now().minusDays(hotDays).atStartOfDay();
+    }
+
+    /**
+     * Find the archived logs created in a time range, scanning only the days in the range.
+     *
+     * @param from Start of the range, inclusive
+     * @param to   End of the range, inclusive
+     * @return The archived logs, in no particular order
+     */
+    public List<ActivityLogView> find(LocalDateTime from, LocalDateTime to) {
+        List<ActivityLogView> result = new ArrayList<>();
+        for (LocalDate day = from.toLocalDate(); !day.isAfter(to.toLocalDate()); day = day.plusDays(1)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory.resolve(day.toString()), "*" + SUFFIX)) {
+                for (Path file : files) {
+                    result.addAll(ActivityArchiveFile.read(file, from, to));
+                }
+            } catch (NoSuchFileException e) {
+                // Nothing archived for this day
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read activity archive for " + day, e);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Check whether this node's archive directory holds a day.
+     *
+     * @param day The day
+     * @return True if the day's directory exists
+     */
+    public boolean hasDay(LocalDate day) {
+        return Files.isDirectory(directory.resolve(day.toString()));
+    }
+
+    /**
+     * Get the archive directory.
+     *
+     * @return The directory path
+     */
+    public Path directory() {
+        return directory;
+    }
+
+    /**
+     * Get the file holding the archived logs of one app on one day.
+     *
+     * @param day     The day
+     * @param appName The app name, may be null
+     * @return The file path
+     */
+    Path file(LocalDate day, String appName) {
+        String name = appName == null ? NO_APP : URLEncoder.encode(appName, StandardCharsets.UTF_8);
+        return directory.resolve(day.toString()).resolve(name + SUFFIX);
+    }
+}
@@ -0,0 +1,468 @@
+package com.oldmutual.AwsCognitoMiddleware.archive;
+
+import com.oldmutual.AwsCognitoMiddleware.dto.ActivityLogView;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Columnar file of archived activity logs.
+ * <p>
+ * Rows are sorted by creation time and split into row groups. Each group stores its columns one after the other:
+ * ids and timestamps as zig-zag varint deltas, every string column as a dictionary followed by one varint code
+ * per row (0 for null). Groups are deflated independently. The uncompressed header holds the file's and every
+ * group's min/max creation time, so readers skip files and groups outside a time range without inflating them.
+ * <pre>
+ * int magic, int groupCount, long minMicros, long maxMicros
+ * groupCount x (long minMicros, long maxMicros, int rows, long offset, int compressedLength, int rawLength)
+ * deflated groups
+ * </pre>
+ * Timestamps are stored as microseconds of the local date-time, the precision of the timestamp column.
+ */
+public final class ActivityArchiveFile {
+
+    private static final int MAGIC = 0x55414C31; // "UAL1"
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 8;
+    private static final int GROUP_ENTRY_BYTES = 8 + 8 + 4 + 8 + 4 + 4;
+
+    /**
+     * Order of the rows in a file: by creation time, then id.
+     */
+    static final Comparator<ActivityLogView> ORDER =
+            Comparator.comparing(ActivityLogView::createdAt).thenComparingLong(ActivityLogView::id);
+
+    private static final List<Function<ActivityLogView, String>> STRING_COLUMNS = List.of(
+            ActivityLogView::activity,
+            ActivityLogView::username,
+            ActivityLogView::userPoolId,
+            ActivityLogView::appName,
+            ActivityLogView::status,
+            ActivityLogView::errorMessage,
+            ActivityLogView::ipAddress);
+
+    private ActivityArchiveFile() {
+    }
+
+    /**
+     * Write logs to a file, replacing it atomically.
+     *
+     * @param file         The file to write
+     * @param logs         The logs, in any order
+     * @param rowsPerGroup The number of rows per row group
+     * @throws IOException If the file cannot be written
+     */
+    public static void write(Path file, List<ActivityLogView> logs, int rowsPerGroup) throws IOException {
+        List<ActivityLogView> sorted = new ArrayList<>(logs);
+        sorted.sort(ORDER);
+        try (Writer writer = writer(file, rowsPerGroup)) {
+            for (ActivityLogView row : sorted) {
+                writer.add(row);
+            }
+            writer.finish();
+        }
+    }
+
+    /**
+     * Open a writer that builds a file one row group at a time.
+     *
+     * @param file         The file to write
+     * @param rowsPerGroup The number of rows per row group
+     * @return The writer
+     * @throws IOException If the temporary files cannot be created
+     */
+    public static Writer writer(Path file, int rowsPerGroup) throws IOException {
+        return new Writer(file, rowsPerGroup);
+    }
+
+    /**
+     * Read the logs created in a time range through a read-only memory mapping of the file.
+     *
+     * @param file The file to read
+     * @param from Start of the range, inclusive
+     * @param to   End of the range, inclusive
+     * @return The matching logs, oldest first
+     * @throws IOException If the file cannot be read or is not an archive file
+     */
+    public static List<ActivityLogView> read(Path file, LocalDateTime from, LocalDateTime to) throws IOException {
+        long fromMicros = micros(from);
+        long toMicros = micros(to);
+        List<ActivityLogView> result = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = map(channel, file);
+            int groupCount = mapped.getInt(4);
+            if (groupCount == 0 || mapped.getLong(16) < fromMicros || mapped.getLong(8) > toMicros) {
+                return result;
+            }
+            Inflater inflater = new Inflater();
+            try {
+                for (int group = 0; group < groupCount; group++) {
+                    int entry = HEADER_BYTES + group * GROUP_ENTRY_BYTES;
+                    if (mapped.getLong(entry + 8) < fromMicros || mapped.getLong(entry) > toMicros) {
+                        continue;
+                    }
+                    for (ActivityLogView row : readGroup(mapped, group, inflater, file)) {
+                        long created = micros(row.createdAt());
+                        if (created >= fromMicros && created <= toMicros) {
+                            result.add(row);
+                        }
+                    }
+                }
+            } finally {
+                inflater.end();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Open a cursor over all logs in a file, oldest first.
+     *
+     * @param file The file to read
+     * @return The cursor
+     * @throws IOException If the file cannot be read or is not an archive file
+     */
+    public static Cursor cursor(Path file) throws IOException {
+        return new Cursor(file);
+    }
+
+    /**
+     * Builds a file one row group at a time, so only the current group is held in memory. Compressed groups are
+     * spooled to a temporary file; finish() writes the header in front of them and replaces the target atomically.
+     */
+    public static final class Writer implements Closeable {
+
+        private final Path file;
+        private final Path spool;
+        private final int rowsPerGroup;
+        private final FileChannel groups;
+        private final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        private final List<ActivityLogView> pending = new ArrayList<>();
+        private final List<long[]> entries = new ArrayList<>();
+        private ActivityLogView last;
+        private long spooledBytes;
+
+        private Writer(Path file, int rowsPerGroup) throws IOException {
+            this.file = file;
+            this.rowsPerGroup = rowsPerGroup;
+            Files.createDirectories(file.getParent());
+            this.spool = file.resolveSibling(file.getFileName() + ".groups.tmp");
+            this.groups = FileChannel.open(spool, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        /**
+         * Add the next row.
+         *
+         * @param row The row, not older than the previous one (by creation time, then id)
+         * @throws IOException If a completed row group cannot be spooled
+         */
+        public void add(ActivityLogView row) throws IOException {
+            if (last != null && ORDER.compare(row, last) < 0) {
+                throw new IllegalArgumentException("Rows must be added oldest first, got " + row.id() + " after " + last.id());
+            }
+            last = row;
+            pending.add(row);
+            if (pending.size() >= rowsPerGroup) {
+                flushGroup();
+            }
+        }
+
+        /**
+         * Write the file and replace the target with it.
+         *
+         * @throws IOException If the file cannot be written
+         */
+        public void finish() throws IOException {
+            if (!pending.isEmpty()) {
+                flushGroup();
+            }
+            long headerBytes = HEADER_BYTES + (long) GROUP_ENTRY_BYTES * entries.size();
+            ByteBuffer header = ByteBuffer.allocate((int) headerBytes);
+            header.putInt(MAGIC).putInt(entries.size())
+                    .putLong(entries.isEmpty() ? 0 : entries.get(0)[0])
+                    .putLong(entries.isEmpty() ? 0 : entries.get(entries.size() - 1)[1]);
+            for (long[] entry : entries) {
+                header.putLong(entry[0]).putLong(entry[1]).putInt((int) entry[2]).putLong(headerBytes + entry[3])
+                        .putInt((int) entry[4]).putInt((int) entry[5]);
+            }
+
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                header.flip();
+                while (header.hasRemaining()) {
+                    channel.write(header);
+                }
+                for (long position = 0; position < spooledBytes; ) {
+                    position += groups.transferTo(position, spooledBytes - position, channel);
+                }
+                channel.force(true);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        @Override
+        public void close() throws IOException {
+            deflater.end();
+            groups.close();
+            Files.deleteIfExists(spool);
+            // Only still there if finish() failed before replacing the target
+            Files.deleteIfExists(file.resolveSibling(file.getFileName() + ".tmp"));
+        }
+
+        private void flushGroup() throws IOException {
+            byte[] raw = encodeGroup(pending);
+            deflater.reset();
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(raw.length / 4 + 64);
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                compressed.write(chunk, 0, deflater.deflate(chunk));
+            }
+            ByteBuffer bytes = ByteBuffer.wrap(compressed.toByteArray());
+            int length = bytes.remaining();
+            while (bytes.hasRemaining()) {
+                groups.write(bytes);
+            }
+            entries.add(new long[]{micros(pending.get(0).createdAt()), micros(pending.get(pending.size() - 1).createdAt()),
+                    pending.size(), spooledBytes, length, raw.length});
+            spooledBytes += length;
+            pending.clear();
+        }
+    }
+
+    /**
+     * Iterates over all logs in a file oldest first, inflating one row group at a time.
+     */
+    public static final class Cursor implements Closeable {
+
+        private final Path file;
+        private final FileChannel channel;
+        private final MappedByteBuffer mapped;
+        private final Inflater inflater = new Inflater();
+        private final int groupCount;
+        private int nextGroup;
+        private List<ActivityLogView> rows = List.of();
+        private int position;
+
+        private Cursor(Path file) throws IOException {
+            this.file = file;
+            this.channel = FileChannel.open(file, StandardOpenOption.READ);
+            try {
+                this.mapped = map(channel, file);
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+            this.groupCount = mapped.getInt(4);
+        }
+
+        /**
+         * Get the next row without consuming it.
+         *
+         * @return The next row, or null at the end of the file
+         * @throws IOException If a row group cannot be read
+         */
+        public ActivityLogView peek() throws IOException {
+            while (position == rows.size()) {
+                if (nextGroup == groupCount) {
+                    return null;
+                }
+                rows = readGroup(mapped, nextGroup++, inflater, file);
+                position = 0;
+            }
+            return rows.get(position);
+        }
+
+        /**
+         * Consume the next row.
+         *
+         * @return The next row, or null at the end of the file
+         * @throws IOException If a row group cannot be read
+         */
+        public ActivityLogView next() throws IOException {
+            ActivityLogView row = peek();
+            position++;
+            return row;
+        }
+
+        @Override
+        public void close() throws IOException {
+            inflater.end();
+            channel.close();
+        }
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, Path file) throws IOException {
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        if (mapped.getInt(0) != MAGIC) {
+            throw new IOException("Not an activity archive file: " + file);
+        }
+        return mapped;
+    }
+
+    private static List<ActivityLogView> readGroup(MappedByteBuffer mapped, int group, Inflater inflater, Path file)
+            throws IOException {
+        int entry = HEADER_BYTES + group * GROUP_ENTRY_BYTES;
+        int rows = mapped.getInt(entry + 16);
+        int offset = (int) mapped.getLong(entry + 20);
+        int length = mapped.getInt(entry + 28);
+        byte[] raw = new byte[mapped.getInt(entry + 32)];
+        inflater.reset();
+        inflater.setInput(mapped.duplicate().position(offset).limit(offset + length).slice());
+        inflate(inflater, raw, file);
+        return decodeGroup(ByteBuffer.wrap(raw), rows);
+    }
+
+    private static void inflate(Inflater inflater, byte[] raw, Path file) throws IOException {
+        try {
+            int read = 0;
+            while (read < raw.length && !inflater.finished()) {
+                int n = inflater.inflate(raw, read, raw.length - read);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                read += n;
+            }
+            if (read != raw.length) {
+                throw new IOException("Truncated row group in " + file);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt row group in " + file, e);
+        }
+    }
+
+    private static byte[] encodeGroup(List<ActivityLogView> rows) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(rows.size() * 16);
+        long previous = 0;
+        for (ActivityLogView row : rows) {
+            writeVarLong(out, zigZag(row.id() - previous));
+            previous = row.id();
+        }
+        previous = 0;
+        for (ActivityLogView row : rows) {
+            long created = micros(row.createdAt());
+            writeVarLong(out, zigZag(created - previous));
+            previous = created;
+        }
+        for (Function<ActivityLogView, String> column : STRING_COLUMNS) {
+            Map<String, Integer> codes = new HashMap<>();
+            List<String> dictionary = new ArrayList<>();
+            int[] rowCodes = new int[rows.size()];
+            for (int i = 0; i < rows.size(); i++) {
+                String value = column.apply(rows.get(i));
+                if (value != null) {
+                    rowCodes[i] = codes.computeIfAbsent(value, v -> {
+                        dictionary.add(v);
+                        return dictionary.size();
+                    });
+                }
+            }
+            writeVarLong(out, dictionary.size());
+            for (String value : dictionary) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                writeVarLong(out, bytes.length);
+                out.write(bytes);
+            }
+            for (int code : rowCodes) {
+                writeVarLong(out, code);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static List<ActivityLogView> decodeGroup(ByteBuffer in, int rows) {
+        long[] ids = new long[rows];
+        long previous = 0;
+        for (int i = 0; i < rows; i++) {
+            previous += unZigZag(readVarLong(in));
+            ids[i] = previous;
+        }
+        long[] created = new long[rows];
+        previous = 0;
+        for (int i = 0; i < rows; i++) {
+            previous += unZigZag(readVarLong(in));
+            created[i] = previous;
+        }
+        String[][] columns = new String[STRING_COLUMNS.size()][];
+        for (int column = 0; column < columns.length; column++) {
+            String[] dictionary = new String[(int) readVarLong(in)];
+            for (int i = 0; i < dictionary.length; i++) {
+                byte[] bytes = new byte[(int) readVarLong(in)];
+                in.get(bytes);
+                dictionary[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            String[] values = new String[rows];
+            for (int i = 0; i < rows; i++) {
+                int code = (int) readVarLong(in);
+                values[i] = code == 0 ? null : dictionary[code - 1];
+            }
+            columns[column] = values;
+        }
+        List<ActivityLogView> result = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            result.add(new ActivityLogView(ids[i], columns[0][i], columns[1][i], columns[2][i], columns[3][i],
+                    columns[4][i], columns[5][i], columns[6][i], dateTime(created[i])));
+        }
+        return result;
+    }
+
+    static long micros(LocalDateTime dateTime) {
+        return ChronoUnit.MICROS.between(LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC), dateTime);
+    }
+
+    private static LocalDateTime dateTime(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1000, ZoneOffset.UTC);
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarLong(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+}
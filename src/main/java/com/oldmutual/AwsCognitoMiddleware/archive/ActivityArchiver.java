@@ -0,0 +1,243 @@
+package com.oldmutual.AwsCognitoMiddleware.archive;
+
+import com.oldmutual.AwsCognitoMiddleware.config.Workload;
+import com.oldmutual.AwsCognitoMiddleware.dto.ActivityLogView;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Moves activity logs older than the hot window out of the database into the {@link ActivityArchive}, one day
+ * at a time: the day's rows are streamed per app into the archive files, fsynced, and only then deleted from the
+ * database. A day that was written but not deleted (e.g. after a crash) is merged with the existing files on the
+ * next run.
+ * Archived days are recorded in activity_archive_day. Enable archiving on one node only, but every node serves
+ * date-range queries from the archive directory, so it must be a volume shared by all nodes; a node whose directory
+ * lacks the newest archived day fails at startup instead of silently answering without the archived logs.
+ */
+@Slf4j
+@Service
+@Workload(Workload.Type.REPORTING)
+public class ActivityArchiver {
+
+    private static final String SELECT_DAY =
+            "SELECT id, activity, username, user_pool_id, app_name, status, error_message, ip_address, created_at "
+                    + "FROM user_activity_log WHERE created_at >= ? AND created_at < ? ORDER BY app_name, created_at, id";
+
+    private static final RowMapper<ActivityLogView> ROW_MAPPER = (rs, rowNum) -> new ActivityLogView(
+            rs.getLong("id"),
+            rs.getString("activity"),
+            rs.getString("username"),
+            rs.getString("user_pool_id"),
+            rs.getString("app_name"),
+            rs.getString("status"),
+            rs.getString("error_message"),
+            rs.getString("ip_address"),
+            rs.getTimestamp("created_at").toLocalDateTime());
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionOperations transactionOperations;
+    private final ActivityArchive activityArchive;
+    private final boolean enabled;
+    private final int maxDaysPerRun;
+    private final int rowsPerGroup;
+
+    @Autowired
+    public ActivityArchiver(JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager,
+                            ActivityArchive activityArchive,
+                            @Value("${app.archive.enabled:false}") boolean enabled,
+                            @Value("${app.archive.max-days-per-run:7}") int maxDaysPerRun,
+                            @Value("${app.archive.rows-per-group:8192}") int rowsPerGroup) {
+        this(jdbcTemplate, new TransactionTemplate(transactionManager), activityArchive, enabled, maxDaysPerRun,
+                rowsPerGroup);
+    }
+
+    ActivityArchiver(JdbcTemplate jdbcTemplate, TransactionOperations transactionOperations,
+                     ActivityArchive activityArchive, boolean enabled, int maxDaysPerRun, int rowsPerGroup) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionOperations = transactionOperations;
+        this.activityArchive = activityArchive;
+        this.enabled = enabled;
+        this.maxDaysPerRun = maxDaysPerRun;
+        this.rowsPerGroup = rowsPerGroup;
+    }
+
+    /**
+     * Fail startup when archived days are recorded but this node's archive directory does not hold them.
+     */
+    @EventListener(ApplicationStartedEvent.class)
+    public void verifyArchiveDirectory() {
+        LocalDate newest = jdbcTemplate.queryForObject("SELECT MAX(day) FROM activity_archive_day", LocalDate.class);
+        if (newest != null && !activityArchive.hasDay(newest)) {
+            throw new IllegalStateException("Activity logs up to " + newest + " were archived, but "
+                    + activityArchive.directory().toAbsolutePath()
+                    + " does not hold them; app.archive.directory must be a volume shared by all nodes");
+        }
+    }
+
+    /**
+     * Archive the oldest days before the hot window, up to the per-run limit.
+     */
+    @Scheduled(cron = "${app.archive.cron:0 30 2 * * *}")
+    public void archiveExpiredDays() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime cutoff = activityArchive.hotWindowStart();
+        for (int i = 0; i < maxDaysPerRun; i++) {
+            Timestamp oldest = jdbcTemplate.queryForObject(
+                    "SELECT MIN(created_at) FROM user_activity_log WHERE created_at < ?", Timestamp.class,
+                    Timestamp.valueOf(cutoff));
+            if (oldest == null) {
+                return;
+            }
+            try {
+                archiveDay(oldest.toLocalDateTime().toLocalDate());
+            } catch (IOException e) {
+                log.error("Could not archive activity logs of {}, keeping them in the database",
+                        oldest.toLocalDateTime().toLocalDate(), e);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Move one day of activity logs to the archive. The day is streamed from a cursor ordered by app, so only one
+     * row group per app is held in memory; the archive marker and the delete commit in the same transaction.
+     *
+     * @param day The day to archive
+     * @throws IOException If the archive files cannot be written; the rows are then left in the database
+     */
+    void archiveDay(LocalDate day) throws IOException {
+        Timestamp start = Timestamp.valueOf(day.atStartOfDay());
+        Timestamp end = Timestamp.valueOf(day.plusDays(1).atStartOfDay());
+        DaySink sink = new DaySink(day);
+        int deleted;
+        try (sink) {
+            deleted = transactionOperations.execute(status -> {
+                jdbcTemplate.query(connection -> {
+                    PreparedStatement statement = connection.prepareStatement(SELECT_DAY);
+                    // PostgreSQL only streams with a fetch size inside a transaction
+                    statement.setFetchSize(rowsPerGroup);
+                    statement.setTimestamp(1, start);
+                    statement.setTimestamp(2, end);
+                    return statement;
+                }, (RowCallbackHandler) rs -> sink.add(ROW_MAPPER.mapRow(rs, rs.getRow())));
+                sink.finishApp();
+
+                jdbcTemplate.update("INSERT INTO activity_archive_day (day) VALUES (?) "
+                        + "ON CONFLICT (day) DO UPDATE SET archived_at = now()", day);
+
+                // Bounded by the highest archived id, so nothing written after the select is deleted unarchived
+                return jdbcTemplate.update(
+                        "DELETE FROM user_activity_log WHERE created_at >= ? AND created_at < ? AND id <= ?",
+                        start, end, sink.maxId);
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        log.info("Archived {} activity logs of {} for {} apps, deleted {} rows", sink.rows, day, sink.apps, deleted);
+    }
+
+    /**
+     * Receives one day's rows ordered by app, creation time and id, and writes each app's file when its rows end.
+     * Rows already in an app's file, left by a run that did not get to its delete, are merged in order;
+     * on the same id the database row wins.
+     */
+    private final class DaySink implements Closeable {
+
+        private final LocalDate day;
+        private ActivityArchiveFile.Writer writer;
+        private ActivityArchiveFile.Cursor existing;
+        private String appName;
+        private int rows;
+        private int apps;
+        private long maxId;
+
+        DaySink(LocalDate day) {
+            this.day = day;
+        }
+
+        void add(ActivityLogView row) {
+            try {
+                if (writer == null || !Objects.equals(appName, row.appName())) {
+                    finishApp();
+                    startApp(row.appName());
+                }
+                while (existing != null && existing.peek() != null
+                        && ActivityArchiveFile.ORDER.compare(existing.peek(), row) <= 0) {
+                    ActivityLogView archived = existing.next();
+                    if (archived.id() != row.id()) {
+                        writer.add(archived);
+                    }
+                }
+                writer.add(row);
+                rows++;
+                maxId = Math.max(maxId, row.id());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void finishApp() {
+            if (writer == null) {
+                return;
+            }
+            try {
+                if (existing != null) {
+                    for (ActivityLogView archived = existing.next(); archived != null; archived = existing.next()) {
+                        writer.add(archived);
+                    }
+                    existing.close();
+                    existing = null;
+                }
+                writer.finish();
+                writer.close();
+                writer = null;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void startApp(String appName) throws IOException {
+            Path file = activityArchive.file(day, appName);
+            this.appName = appName;
+            writer = ActivityArchiveFile.writer(file, rowsPerGroup);
+            if (Files.exists(file)) {
+                existing = ActivityArchiveFile.cursor(file);
+            }
+            apps++;
+        }
+
+        @Override
+        public void close() throws IOException {
+            // Only left open when the run failed; discards the unfinished file
+            try (ActivityArchiveFile.Cursor cursor = existing; ActivityArchiveFile.Writer unfinished = writer) {
+                existing = null;
+                writer = null;
+            }
+        }
+    }
+}
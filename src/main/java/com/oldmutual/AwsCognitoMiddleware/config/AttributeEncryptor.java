@@ -1,5 +1,6 @@
 package com.oldmutual.AwsCognitoMiddleware.config;
 
+import com.oldmutual.AwsCognitoMiddleware.model.EncryptedSecret;
 import jakarta.persistence.AttributeConverter;
 import jakarta.persistence.Converter;
 import org.jasypt.encryption.StringEncryptor;
@@ -7,48 +8,62 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 
+import java.util.Arrays;
+
 /**
  * JPA attribute converter for encrypting and decrypting sensitive data.
- * Used to automatically encrypt/decrypt entity attributes.
+ * Values are written encrypted and hydrated as ciphertext; decryption is deferred
+ * until {@link EncryptedSecret#reveal()} is called.
  */
 @Component
 @Converter
-public class AttributeEncryptor implements AttributeConverter<String, String> {
+public class AttributeEncryptor implements AttributeConverter<EncryptedSecret, String> {
 
     private final StringEncryptor encryptor;
+    private final DecryptedSecretCache decryptedSecretCache;
 
     @Autowired
-    public AttributeEncryptor(@Qualifier("jasyptStringEncryptor") StringEncryptor encryptor) {
+    public AttributeEncryptor(@Qualifier("jasyptStringEncryptor") StringEncryptor encryptor,
+                              DecryptedSecretCache decryptedSecretCache) {
         this.encryptor = encryptor;
+        this.decryptedSecretCache = decryptedSecretCache;
     }
 
     /**
      * Convert the attribute value to be stored in the database.
-     * This method encrypts the value.
+     * Secrets that were loaded from the database keep their ciphertext; only new values are encrypted.
      *
      * @param attribute The attribute value to encrypt
      * @return The encrypted value
      */
     @Override
-    public String convertToDatabaseColumn(String attribute) {
+    public String convertToDatabaseColumn(EncryptedSecret attribute) {
         if (attribute == null) {
             return null;
         }
-        return encryptor.encrypt(attribute);
+        if (attribute.getCiphertext() != null) {
+            return attribute.getCiphertext();
+        }
+        char[] plaintext = attribute.reveal();
+        try {
+            return encryptor.encrypt(new String(plaintext));
+        } finally {
+            Arrays.fill(plaintext, '\0');
+        }
     }
 
     /**
      * Convert the stored database value to the entity attribute value.
-     * This method decrypts the value.
+     * The value is kept as ciphertext; no decryption happens here.
      *
-     * @param dbData The database value to decrypt
-     * @return The decrypted value
+     * @param dbData The database value
+     * @return The secret wrapping the ciphertext
      */
     @Override
-    public String convertToEntityAttribute(String dbData) {
+    public EncryptedSecret convertToEntityAttribute(String dbData) {
         if (dbData == null) {
             return null;
         }
-        return encryptor.decrypt(dbData);
+        return EncryptedSecret.fromCiphertext(dbData, decryptedSecretCache);
     }
 }
\ No newline at end of file
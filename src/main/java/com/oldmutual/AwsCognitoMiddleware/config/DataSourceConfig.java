@@ -0,0 +1,95 @@
+package com.oldmutual.AwsCognitoMiddleware.config;
+
+import com.oldmutual.AwsCognitoMiddleware.config.WorkloadRoutingDataSource.Route;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * DataSource configuration with a separate connection pool per {@link Workload}.
+ * A heavy log export or admin listing takes connections from the reporting or replica pool, never from the
+ * pools serving app key lookups and audit writes.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    /**
+     * The routing DataSource owning the pools; closing it closes them.
+     *
+     * @param dataSourceProperties The primary connection settings (spring.datasource.*)
+     * @param properties           The pool and replica settings
+     * @param meterRegistry        The registry for the pools' hikaricp.* metrics
+     * @return The routing DataSource
+     */
+    @Bean
+    public WorkloadRoutingDataSource workloadRoutingDataSource(DataSourceProperties dataSourceProperties,
+                                                               DataSourceRoutingProperties properties,
+                                                               MeterRegistry meterRegistry) {
+        Map<Route, DataSource> pools = new EnumMap<>(Route.class);
+        pools.put(Route.AUTH_CONFIG, pool(dataSourceProperties, Route.AUTH_CONFIG, properties.getAuthConfig(), meterRegistry));
+        pools.put(Route.AUDIT_WRITE, pool(dataSourceProperties, Route.AUDIT_WRITE, properties.getAuditWrite(), meterRegistry));
+        pools.put(Route.REPORTING, pool(dataSourceProperties, Route.REPORTING, properties.getReporting(), meterRegistry));
+
+        DataSourceRoutingProperties.Replica replica = properties.getReplica();
+        if (replica.getUrl() != null && !replica.getUrl().isBlank()) {
+            HikariDataSource replicaPool = pool(dataSourceProperties, Route.REPLICA, replica, meterRegistry);
+            replicaPool.setJdbcUrl(replica.getUrl());
+            if (replica.getUsername() != null) {
+                replicaPool.setUsername(replica.getUsername());
+            }
+            if (replica.getPassword() != null) {
+                replicaPool.setPassword(replica.getPassword());
+            }
+            replicaPool.setReadOnly(true);
+            // Start even when the replica is down; read-only work then falls back to the primary
+            replicaPool.setInitializationFailTimeout(-1);
+            pools.put(Route.REPLICA, replicaPool);
+        }
+        return new WorkloadRoutingDataSource(pools);
+    }
+
+    /**
+     * The application DataSource used by JPA and JdbcTemplate.
+     *
+     * @param routingDataSource The routing DataSource
+     * @return The lazy proxy, which defers fetching a connection until the first statement
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(WorkloadRoutingDataSource routingDataSource) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(routingDataSource);
+        // Known up front, so the proxy does not open a connection at startup to find them out
+        proxy.setDefaultAutoCommit(true);
+        proxy.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        return proxy;
+    }
+
+    private static HikariDataSource pool(DataSourceProperties dataSourceProperties,
+                                         Route route,
+                                         DataSourceRoutingProperties.Pool pool,
+                                         MeterRegistry meterRegistry) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(route.poolName());
+        dataSource.setDriverClassName(dataSourceProperties.determineDriverClassName());
+        dataSource.setJdbcUrl(dataSourceProperties.determineUrl());
+        dataSource.setUsername(dataSourceProperties.determineUsername());
+        dataSource.setPassword(dataSourceProperties.determinePassword());
+        dataSource.setMaximumPoolSize(pool.getMaximumPoolSize());
+        dataSource.setConnectionTimeout(pool.getConnectionTimeout().toMillis());
+        if (pool.getStatementTimeout() != null) {
+            dataSource.setConnectionInitSql("SET statement_timeout = " + pool.getStatementTimeout().toMillis());
+        }
+        dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return dataSource;
+    }
+}
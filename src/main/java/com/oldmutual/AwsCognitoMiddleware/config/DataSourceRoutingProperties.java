@@ -0,0 +1,84 @@
+package com.oldmutual.AwsCognitoMiddleware.config;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configuration for the connection pools behind the routing DataSource, one per {@link Workload}.
+ * The primary database connection itself comes from spring.datasource.*.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.datasource")
+public class DataSourceRoutingProperties {
+
+    /**
+     * Pool for the login path: app configuration and MFA challenge lookups, and undeclared read-write work.
+     */
+    private Pool authConfig = new Pool(10, Duration.ofSeconds(2), null);
+
+    /**
+     * Pool for audit inserts and activity counter flushes.
+     */
+    private Pool auditWrite = new Pool(10, Duration.ofSeconds(5), null);
+
+    /**
+     * Pool on the primary for log queries, admin work and batch jobs, and for read-only reporting work when no
+     * replica is configured or the replica is down.
+     */
+    private Pool reporting = new Pool(5, Duration.ofSeconds(30), null);
+
+    /**
+     * Read replica for read-only reporting work. Unset url disables it.
+     */
+    private Replica replica = new Replica();
+
+    @Data
+    public static class Pool {
+        private int maximumPoolSize;
+
+        /**
+         * How long a caller waits for a free connection before failing.
+         */
+        private Duration connectionTimeout;
+
+        /**
+         * Postgres statement_timeout set on the pool's connections; unset leaves the server default.
+         */
+        private Duration statementTimeout;
+
+        public Pool() {
+        }
+
+        Pool(int maximumPoolSize, Duration connectionTimeout, Duration statementTimeout) {
+            this.maximumPoolSize = maximumPoolSize;
+            this.connectionTimeout = connectionTimeout;
+            this.statementTimeout = statementTimeout;
+        }
+    }
+
+    @Data
+    @EqualsAndHashCode(callSuper = true)
+    public static class Replica extends Pool {
+        private String url;
+
+        /**
+         * Defaults to spring.datasource.username.
+         */
+        private String username;
+
+        /**
+         * Defaults to spring.datasource.password.
+         */
+        private String password;
+
+        public Replica() {
+            // A short connection timeout makes read-only work fall back to the primary quickly
+            super(10, Duration.ofSeconds(2), null);
+        }
+    }
+}
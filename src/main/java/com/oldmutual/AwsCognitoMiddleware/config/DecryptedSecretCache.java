@@ -0,0 +1,93 @@
+package com.oldmutual.AwsCognitoMiddleware.config;
+
+import jakarta.annotation.PreDestroy;
+import org.jasypt.encryption.StringEncryptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded memo of decrypted secrets keyed by ciphertext.
+ * Plaintext is held as char arrays that are zeroed when an entry is evicted or the cache is cleared, and callers
+ * get their own copy to zero after use, so no String copy of a cached secret is created.
+ * Jasypt's {@link StringEncryptor} only works on Strings, so each miss still leaves one short-lived plaintext String
+ * to the garbage collector; it is not retained.
+ */
+@Component
+public class DecryptedSecretCache {
+
+    private final StringEncryptor encryptor;
+    private final Map<String, char[]> entries;
+
+    @Autowired
+    public DecryptedSecretCache(@Qualifier("jasyptStringEncryptor") StringEncryptor encryptor,
+                                @Value("${app.secrets.cache-size:256}") int maxEntries) {
+        this.encryptor = encryptor;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, char[]> eldest) {
+                if (size() > maxEntries) {
+                    Arrays.fill(eldest.getValue(), '\0');
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Decrypt a ciphertext, reusing the memoized plaintext when available.
+     *
+     * @param ciphertext The encrypted value
+     * @return A copy of the plaintext that the caller should zero once used
+     */
+    public char[] decrypt(String ciphertext) {
+        if (ciphertext == null) {
+            return null;
+        }
+        synchronized (entries) {
+            char[] cached = entries.get(ciphertext);
+            if (cached != null) {
+                return cached.clone();
+            }
+        }
+
+        // Decrypt outside the lock so a slow PBE derivation does not block other lookups
+        char[] plaintext = encryptor.decrypt(ciphertext).toCharArray();
+        synchronized (entries) {
+            char[] cached = entries.putIfAbsent(ciphertext, plaintext);
+            if (cached != null) {
+                Arrays.fill(plaintext, '\0');
+                return cached.clone();
+            }
+        }
+        return plaintext.clone();
+    }
+
+    /**
+     * Get the number of memoized secrets.
+     *
+     * @return The cache size
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Zero and drop all memoized secrets.
+     */
+    @PreDestroy
+    public void clear() {
+        synchronized (entries) {
+            entries.values().forEach(chars -> Arrays.fill(chars, '\0'));
+            entries.clear();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.oldmutual.AwsCognitoMiddleware.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Decides which Cognito endpoint overrides an app may use. User passwords and refresh tokens are sent to the
+ * override, so plaintext http is only allowed for loopback addresses (the local Cognito stand-in) and for hosts
+ * listed in {@code app.cognito.endpoint-override.allowed-hosts}; any other override must use https.
+ */
+@Component
+public class EndpointOverridePolicy {
+
+    private static final Pattern IPV4_LOOPBACK = Pattern.compile("127(\\.\\d{1,3}){3}");
+
+    private final Set<String> allowedHttpHosts;
+
+    public EndpointOverridePolicy(@Value("${app.cognito.endpoint-override.allowed-hosts:}") List<String> allowedHttpHosts) {
+        this.allowedHttpHosts = allowedHttpHosts.stream()
+                .map(String::trim)
+                .filter(host -> !host.isEmpty())
+                .map(host -> host.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * Check whether an endpoint override may be used.
+     *
+     * @param endpointOverride The override URL, may be null or blank when the app uses the AWS endpoint
+     * @return true if the override is unset, an https URL, or an http URL to a loopback or allowed host
+     */
+    public boolean isAllowed(String endpointOverride) {
+        if (endpointOverride == null || endpointOverride.isBlank()) {
+            return true;
+        }
+        URI uri;
+        try {
+            uri = new URI(endpointOverride);
+        } catch (URISyntaxException e) {
+            return false;
+        }
+        String scheme = uri.getScheme();
+        String host = uri.getHost();
+        if (scheme == null || host == null) {
+            return false;
+        }
+        if (scheme.equalsIgnoreCase("https")) {
+            return true;
+        }
+        if (!scheme.equalsIgnoreCase("http")) {
+            return false;
+        }
+        host = host.toLowerCase(Locale.ROOT);
+        return isLoopback(host) || allowedHttpHosts.contains(host);
+    }
+
+    private static boolean isLoopback(String host) {
+        // Matched literally so validating an override never triggers a DNS lookup
+        return host.equals("localhost") || host.equals("[::1]") || IPV4_LOOPBACK.matcher(host).matches();
+    }
+}
@@ -0,0 +1,70 @@
+package com.oldmutual.AwsCognitoMiddleware.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Configuration for the failed-attempt tracker that temporarily blocks abusive IPs and slows down attempts
+ * on targeted usernames.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.failure-tracker")
+public class FailureTrackerProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Activities whose FAILURE entries count towards a block.
+     */
+    private Set<String> activities = Set.of("LOGIN", "MFA_VERIFY", "MFA_TOKEN_VERIFY", "VERIFY", "RESET_PASSWORD");
+
+    /**
+     * Length of the sliding window failures are counted over.
+     */
+    private Duration window = Duration.ofMinutes(10);
+
+    /**
+     * Number of ring buffer slots the window is divided into.
+     */
+    private int slots = 10;
+
+    /**
+     * Count-min sketch rows and counters per row; memory per dimension is slots * depth * width ints.
+     */
+    private int sketchDepth = 4;
+    private int sketchWidth = 4096;
+
+    /**
+     * Failures within the window that block the IP or slow down the username.
+     */
+    private int ipThreshold = 50;
+    private int userThreshold = 10;
+
+    /**
+     * How long an IP stays blocked.
+     */
+    private Duration ipBlockDuration = Duration.ofMinutes(15);
+
+    /**
+     * How long a username stays slowed down, and how long each attempt on it is delayed meanwhile.
+     * Usernames are never refused outright, so failing on purpose cannot lock out their owner.
+     */
+    private Duration userSlowdownDuration = Duration.ofMinutes(5);
+    private Duration userDelay = Duration.ofSeconds(2);
+
+    /**
+     * Requests held in a username delay at the same time; further attempts on slowed usernames are refused
+     * with 429, so delays cannot tie up the request threads.
+     */
+    private int maxDelayedRequests = 20;
+
+    /**
+     * Maximum number of blocked IPs and slowed usernames held.
+     */
+    private int maxBlocked = 10_000;
+}
@@ -0,0 +1,27 @@
+package com.oldmutual.AwsCognitoMiddleware.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.NativeDetector;
+
+/**
+ * Jackson configuration for the MVC ObjectMapper.
+ */
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * Replace reflective accessor calls with generated lambdas when serializing the response records.
+     * Spring Boot registers every Module bean with the auto-configured ObjectMapper.
+     * A native image cannot define classes at runtime, so there the plain reflective accessors are kept.
+     *
+     * @return The Blackbird module, or an empty module in a native image
+     */
+    @Bean
+    public Module blackbirdModule() {
+        return NativeDetector.inNativeImage() ? new SimpleModule("blackbird-disabled") : new BlackbirdModule();
+    }
+}
@@ -0,0 +1,74 @@
+package com.oldmutual.AwsCognitoMiddleware.config;
+
+import com.oldmutual.AwsCognitoMiddleware.interceptor.AppKeyRejectionTracker;
+import com.oldmutual.AwsCognitoMiddleware.service.ActivityEventBroadcaster;
+import com.oldmutual.AwsCognitoMiddleware.service.AppConfigCache;
+import com.oldmutual.AwsCognitoMiddleware.service.CognitoClientProvider;
+import com.oldmutual.AwsCognitoMiddleware.service.FailureTracker;
+import com.oldmutual.AwsCognitoMiddleware.service.RateLimiter;
+import com.oldmutual.AwsCognitoMiddleware.service.RecentActivityCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration for the application's Micrometer gauges.
+ * Cognito call timers are recorded by CognitoService itself.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Expose the sizes of the in-memory caches and trackers, for capacity planning.
+     *
+     * @return The meter binder registering the gauges
+     */
+    @Bean
+    public MeterBinder cacheMetrics(AppConfigCache appConfigCache,
+                                    DecryptedSecretCache decryptedSecretCache,
+                                    AppKeyRejectionTracker appKeyRejectionTracker,
+                                    RateLimiter rateLimiter,
+                                    FailureTracker failureTracker,
+                                    CognitoClientProvider cognitoClientProvider,
+                                    ActivityEventBroadcaster activityEventBroadcaster,
+                                    RecentActivityCache recentActivityCache,
+                                    WorkloadRoutingDataSource workloadRoutingDataSource) {
+        return registry -> {
+            Gauge.builder("app.config.cache.size", appConfigCache, AppConfigCache::size)
+                    .description("Cached app configurations")
+                    .register(registry);
+            Gauge.builder("app.secrets.cache.size", decryptedSecretCache, DecryptedSecretCache::size)
+                    .description("Decrypted client secrets held in memory")
+                    .register(registry);
+            Gauge.builder("app.key.rejections.keys", appKeyRejectionTracker, AppKeyRejectionTracker::rejectedKeyCount)
+                    .description("Rejected X-APP-KEY values in the negative cache")
+                    .register(registry);
+            Gauge.builder("app.key.rejections.ips", appKeyRejectionTracker, AppKeyRejectionTracker::trackedIpCount)
+                    .description("IPs with counted X-APP-KEY rejections")
+                    .register(registry);
+            Gauge.builder("auth.rate.limiter.keys", rateLimiter, RateLimiter::size)
+                    .description("Keys tracked by the auth rate limiter")
+                    .register(registry);
+            Gauge.builder("cognito.clients", cognitoClientProvider, CognitoClientProvider::size)
+                    .description("Live per-app Cognito clients")
+                    .register(registry);
+            Gauge.builder("auth.failures.blocked", failureTracker, FailureTracker::blockedCount)
+                    .description("IPs blocked and usernames slowed down after repeated failed attempts")
+                    .register(registry);
+            Gauge.builder("db.replica.up", workloadRoutingDataSource, ds -> ds.isReplicaUp() ? 1 : 0)
+                    .description("1 while read-only reporting work is routed to the read replica")
+                    .register(registry);
+            Gauge.builder("activity.recent.cache.users", recentActivityCache, RecentActivityCache::size)
+                    .description("Usernames with recent activity logs held in memory")
+                    .register(registry);
+            Gauge.builder("activity.stream.subscribers", activityEventBroadcaster, ActivityEventBroadcaster::subscriberCount)
+                    .description("Open live activity streams")
+                    .register(registry);
+            FunctionCounter.builder("activity.stream.dropped", activityEventBroadcaster, ActivityEventBroadcaster::droppedCount)
+                    .description("Activity events skipped for slow stream subscribers")
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,63 @@
+package com.oldmutual.AwsCognitoMiddleware.config;
+
+import com.oldmutual.AwsCognitoMiddleware.dto.ActivityLogView;
+import com.oldmutual.AwsCognitoMiddleware.model.CognitoAppConfig;
+import com.oldmutual.AwsCognitoMiddleware.model.EncryptedSecret;
+import com.oldmutual.AwsCognitoMiddleware.model.UserActivityLog;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Reflection and resource hints for the GraalVM native image (-Pnative) that Spring AOT cannot infer.
+ * The AWS SDK, Apache HTTP client and springdoc ship their own native-image metadata; this covers what
+ * the middleware looks up by name or builds reflectively:
+ * <ul>
+ *   <li>the JPA entities and the encrypted secret type, read and written by Hibernate;</li>
+ *   <li>{@link ActivityLogView}, instantiated by Hibernate for the DTO projection queries;</li>
+ *   <li>every DTO, serialized by Jackson inside untyped {@code ApiResponse} data;</li>
+ *   <li>the Jasypt salt and IV generators and the SunJCE PBE implementation, configured by name in {@link JasyptConfig};</li>
+ *   <li>the swagger-ui webjar, whose version springdoc reads from its Maven metadata.</li>
+ * </ul>
+ */
+public class NativeHints implements RuntimeHintsRegistrar {
+
+    static final String DTO_PACKAGE = "com.oldmutual.AwsCognitoMiddleware.dto";
+
+    private static final String[] JASYPT_TYPES = {
+            "org.jasypt.salt.RandomSaltGenerator",
+            "org.jasypt.iv.NoIvGenerator",
+            "com.sun.crypto.provider.PBEWithMD5AndDESCipher",
+            "com.sun.crypto.provider.PBEKeyFactory$PBEWithMD5AndDES"
+    };
+
+    private final BindingReflectionHintsRegistrar bindingRegistrar = new BindingReflectionHintsRegistrar();
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (Class<?> entity : new Class<?>[]{CognitoAppConfig.class, UserActivityLog.class, EncryptedSecret.class}) {
+            hints.reflection().registerType(entity, MemberCategory.values());
+        }
+        hints.reflection().registerType(AttributeEncryptor.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+        hints.reflection().registerType(ActivityLogView.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter((metadataReader, metadataReaderFactory) -> true);
+        for (BeanDefinition dto : scanner.findCandidateComponents(DTO_PACKAGE)) {
+            bindingRegistrar.registerReflectionHints(hints.reflection(),
+                    ClassUtils.resolveClassName(dto.getBeanClassName(), classLoader));
+        }
+
+        for (String type : JASYPT_TYPES) {
+            hints.reflection().registerType(TypeReference.of(type), MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        }
+
+        hints.resources().registerPattern("META-INF/resources/webjars/swagger-ui/**");
+        hints.resources().registerPattern("META-INF/maven/org.webjars/swagger-ui/pom.properties");
+    }
+}
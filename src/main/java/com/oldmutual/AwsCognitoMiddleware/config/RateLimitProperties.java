@@ -0,0 +1,94 @@
+package com.oldmutual.AwsCognitoMiddleware.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Rate limit configuration for the auth endpoints.
+ * Limits are keyed by endpoint name (the path after /api/auth/, e.g. "login") and can be
+ * overridden per tenant (app name). Endpoints without limits are not throttled.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Number of independent bucket maps; must be a power of two.
+     */
+    private int stripes = 16;
+
+    /**
+     * Maximum number of buckets held per stripe before idle buckets are purged.
+     */
+    private int maxKeysPerStripe = 10_000;
+
+    /**
+     * Default limits per endpoint.
+     */
+    private Map<String, EndpointLimits> endpoints = new HashMap<>();
+
+    /**
+     * Per-tenant overrides: app name to endpoint to limits.
+     */
+    private Map<String, Map<String, EndpointLimits>> tenants = new HashMap<>();
+
+    /**
+     * Resolve the limits for an endpoint, applying the tenant override where one is set.
+     *
+     * @param endpoint The endpoint name
+     * @param appName  The tenant's app name, may be null
+     * @return The limits, or null if the endpoint is not rate limited
+     */
+    public EndpointLimits limitsFor(String endpoint, String appName) {
+        EndpointLimits defaults = endpoints.get(endpoint);
+        Map<String, EndpointLimits> tenant = appName != null ? tenants.get(appName) : null;
+        EndpointLimits override = tenant != null ? tenant.get(endpoint) : null;
+        if (override == null) {
+            return defaults;
+        }
+        if (defaults == null) {
+            return override;
+        }
+        EndpointLimits merged = new EndpointLimits();
+        merged.setIp(override.getIp() != null ? override.getIp() : defaults.getIp());
+        merged.setUser(override.getUser() != null ? override.getUser() : defaults.getUser());
+        merged.setApp(override.getApp() != null ? override.getApp() : defaults.getApp());
+        return merged;
+    }
+
+    /**
+     * Limits for one endpoint, one per key dimension. A null limit disables that dimension.
+     */
+    @Data
+    public static class EndpointLimits {
+        private Limit ip;
+        private Limit user;
+        private Limit app;
+    }
+
+    /**
+     * A token bucket: {@code requests} per {@code period}, allowing bursts of up to {@code burst}.
+     */
+    @Data
+    public static class Limit {
+        private int requests;
+        private Duration period = Duration.ofMinutes(1);
+
+        /**
+         * Bucket capacity; defaults to {@code requests} when not set.
+         */
+        private int burst;
+
+        public int effectiveBurst() {
+            return burst > 0 ? burst : requests;
+        }
+    }
+}
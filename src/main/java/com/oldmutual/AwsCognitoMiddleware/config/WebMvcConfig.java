@@ -1,6 +1,7 @@
 package com.oldmutual.AwsCognitoMiddleware.config;
 
 import com.oldmutual.AwsCognitoMiddleware.interceptor.AppKeyInterceptor;
+import com.oldmutual.AwsCognitoMiddleware.interceptor.AuthThrottleInterceptor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
@@ -14,11 +15,16 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 public class WebMvcConfig implements WebMvcConfigurer {
 
     private final AppKeyInterceptor appKeyInterceptor;
+    private final AuthThrottleInterceptor authThrottleInterceptor;
 
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
         // Register the AppKeyInterceptor for all /api/auth/** endpoints
         registry.addInterceptor(appKeyInterceptor)
                 .addPathPatterns("/api/auth/**");
+
+        // Rate limits need the app config resolved above, so this must be registered after it
+        registry.addInterceptor(authThrottleInterceptor)
+                .addPathPatterns("/api/auth/**");
     }
 }
\ No newline at end of file
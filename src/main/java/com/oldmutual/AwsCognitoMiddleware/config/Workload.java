@@ -0,0 +1,40 @@
+package com.oldmutual.AwsCognitoMiddleware.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares which connection pool the database work of a bean or method uses.
+ * A method annotation overrides the class annotation; calls made from inside an annotated method keep its
+ * workload unless they declare their own. Work without a declared workload uses the reporting side when it
+ * runs in a read-only transaction and the auth-config pool otherwise.
+ *
+ * @see WorkloadRoutingDataSource
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Workload {
+
+    Type value();
+
+    enum Type {
+        /**
+         * Lookups on the login path: app configurations and pending MFA challenges.
+         */
+        AUTH_CONFIG,
+
+        /**
+         * Audit inserts and their derived counters.
+         */
+        AUDIT_WRITE,
+
+        /**
+         * Log queries, admin screens and batch jobs; read-only transactions go to the replica when it is up.
+         */
+        REPORTING
+    }
+}
@@ -0,0 +1,36 @@
+package com.oldmutual.AwsCognitoMiddleware.config;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Applies {@link Workload} declarations, so the routing DataSource picks the matching pool for the call.
+ * Runs outside the transaction advice; connections are only fetched at the first statement anyway.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class WorkloadAspect {
+
+    @Around("@annotation(com.oldmutual.AwsCognitoMiddleware.config.Workload)"
+            + " || @within(com.oldmutual.AwsCognitoMiddleware.config.Workload)")
+    public Object applyWorkload(ProceedingJoinPoint joinPoint) throws Throwable {
+        Workload workload = AnnotatedElementUtils.findMergedAnnotation(
+                ((MethodSignature) joinPoint.getSignature()).getMethod(), Workload.class);
+        if (workload == null) {
+            workload = AnnotatedElementUtils.findMergedAnnotation(joinPoint.getTarget().getClass(), Workload.class);
+        }
+        Workload.Type previous = WorkloadRoutingDataSource.setWorkload(workload.value());
+        try {
+            return joinPoint.proceed();
+        } finally {
+            WorkloadRoutingDataSource.setWorkload(previous);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.oldmutual.AwsCognitoMiddleware.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Routes database work to a connection pool by {@link Workload}, so reporting load cannot take the connections
+ * logins need. Auth-config and audit-write work use their own pools on the primary. Reporting work in a read-only
+ * transaction goes to the replica pool, or to the reporting pool on the primary when no replica is configured or
+ * the replica is down; other reporting work uses the reporting pool. Work without a declared workload is treated
+ * as reporting in a read-only transaction and as auth-config otherwise.
+ * <p>
+ * The replica is marked down when a connection attempt fails and marked up again by the periodic health check.
+ * Must be wrapped in a LazyConnectionDataSourceProxy, so the connection is fetched after the transaction's
+ * read-only flag is set.
+ */
+@Slf4j
+public class WorkloadRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    /**
+     * Routing keys, also used as pool names.
+     */
+    public enum Route {
+        AUTH_CONFIG, AUDIT_WRITE, REPORTING, REPLICA;
+
+        public String poolName() {
+            return name().toLowerCase().replace('_', '-');
+        }
+    }
+
+    private static final ThreadLocal<Workload.Type> WORKLOAD = new ThreadLocal<>();
+
+    private final Map<Route, DataSource> pools;
+    private volatile boolean replicaUp;
+
+    /**
+     * @param pools The pool per route; the replica pool is optional
+     */
+    public WorkloadRoutingDataSource(Map<Route, DataSource> pools) {
+        this.pools = new EnumMap<>(pools);
+        this.replicaUp = pools.containsKey(Route.REPLICA);
+        setTargetDataSources(new HashMap<>(pools));
+        setDefaultTargetDataSource(pools.get(Route.AUTH_CONFIG));
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Set the workload of the current thread.
+     *
+     * @param workload The workload, or null to clear it
+     * @return The previous workload, to restore afterwards
+     */
+    static Workload.Type setWorkload(Workload.Type workload) {
+        Workload.Type previous = WORKLOAD.get();
+        if (workload == null) {
+            WORKLOAD.remove();
+        } else {
+            WORKLOAD.set(workload);
+        }
+        return previous;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Workload.Type workload = WORKLOAD.get();
+        boolean readOnly = TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        if (workload == null) {
+            workload = readOnly ? Workload.Type.REPORTING : Workload.Type.AUTH_CONFIG;
+        }
+        return switch (workload) {
+            case AUTH_CONFIG -> Route.AUTH_CONFIG;
+            case AUDIT_WRITE -> Route.AUDIT_WRITE;
+            case REPORTING -> readOnly && replicaUp ? Route.REPLICA : Route.REPORTING;
+        };
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (determineCurrentLookupKey() != Route.REPLICA) {
+            return super.getConnection();
+        }
+        try {
+            return pools.get(Route.REPLICA).getConnection();
+        } catch (SQLException e) {
+            markReplicaDown(e);
+            return pools.get(Route.REPORTING).getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLException("Per-call credentials are not supported by the routing DataSource");
+    }
+
+    /**
+     * Probe the replica and route read-only reporting work back to it once it answers.
+     */
+    @Scheduled(fixedDelayString = "${app.datasource.replica.health-check-interval:10s}")
+    public void checkReplica() {
+        DataSource replica = pools.get(Route.REPLICA);
+        if (replica == null) {
+            return;
+        }
+        try (Connection connection = replica.getConnection()) {
+            if (connection.isValid(2)) {
+                if (!replicaUp) {
+                    log.info("Read replica is reachable again, routing read-only work to it");
+                }
+                replicaUp = true;
+                return;
+            }
+            markReplicaDown(new SQLException("Replica connection is not valid"));
+        } catch (SQLException e) {
+            markReplicaDown(e);
+        }
+    }
+
+    /**
+     * Check whether read-only reporting work currently goes to the replica.
+     *
+     * @return True if the replica is configured and up
+     */
+    public boolean isReplicaUp() {
+        return replicaUp;
+    }
+
+    /**
+     * Close the pools.
+     */
+    @Override
+    public void close() throws Exception {
+        for (DataSource pool : pools.values()) {
+            if (pool instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private void markReplicaDown(SQLException e) {
+        if (replicaUp) {
+            log.warn("Read replica is unreachable, routing read-only work to the primary: {}", e.getMessage());
+        }
+        replicaUp = false;
+    }
+}
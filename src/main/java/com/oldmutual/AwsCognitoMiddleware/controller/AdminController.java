@@ -9,6 +9,7 @@ import com.oldmutual.AwsCognitoMiddleware.service.AdminService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -18,11 +19,13 @@ import java.util.UUID;
 
 /**
  * Controller for admin operations related to app configuration management.
+ * Created on first use, like {@link AdminService}, so admin beans do not add to startup time.
  * 
  * @author Genuslee Mapedze
  */
 @Slf4j
 @RestController
+@Lazy
 @RequestMapping("/api/admin/apps")
 @RequiredArgsConstructor
 public class AdminController {
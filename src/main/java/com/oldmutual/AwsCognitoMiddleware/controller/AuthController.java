@@ -13,31 +13,33 @@ import com.oldmutual.AwsCognitoMiddleware.dto.VerifySoftwareTokenRequest;
 import com.oldmutual.AwsCognitoMiddleware.dto.ResendOtpRequest;
 import com.oldmutual.AwsCognitoMiddleware.dto.TokenIntrospectRequest;
 import com.oldmutual.AwsCognitoMiddleware.dto.ChangePasswordRequest;
+import com.oldmutual.AwsCognitoMiddleware.dto.CodeDeliveryResult;
+import com.oldmutual.AwsCognitoMiddleware.dto.IntrospectionResult;
+import com.oldmutual.AwsCognitoMiddleware.dto.LoginResult;
+import com.oldmutual.AwsCognitoMiddleware.dto.MessageResult;
+import com.oldmutual.AwsCognitoMiddleware.dto.MfaChallenge;
+import com.oldmutual.AwsCognitoMiddleware.dto.MfaSetupResult;
+import com.oldmutual.AwsCognitoMiddleware.dto.RegistrationResult;
+import com.oldmutual.AwsCognitoMiddleware.dto.SoftwareTokenResult;
+import com.oldmutual.AwsCognitoMiddleware.dto.StatusResult;
+import com.oldmutual.AwsCognitoMiddleware.exception.MfaChallengeExpiredException;
+import com.oldmutual.AwsCognitoMiddleware.model.CognitoAppConfig;
 import com.oldmutual.AwsCognitoMiddleware.service.CognitoService;
+import com.oldmutual.AwsCognitoMiddleware.service.MfaChallengeStore;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import software.amazon.awssdk.services.cognitoidentityprovider.model.SignUpResponse;
 import software.amazon.awssdk.services.cognitoidentityprovider.model.InitiateAuthResponse;
-import software.amazon.awssdk.services.cognitoidentityprovider.model.AuthenticationResultType;
-import software.amazon.awssdk.services.cognitoidentityprovider.model.CodeMismatchException;
-import software.amazon.awssdk.services.cognitoidentityprovider.model.ConfirmSignUpResponse;
 import software.amazon.awssdk.services.cognitoidentityprovider.model.ForgotPasswordResponse;
-import software.amazon.awssdk.services.cognitoidentityprovider.model.ConfirmForgotPasswordResponse;
-import software.amazon.awssdk.services.cognitoidentityprovider.model.NotAuthorizedException;
-import software.amazon.awssdk.services.cognitoidentityprovider.model.UserNotFoundException;
-import software.amazon.awssdk.services.cognitoidentityprovider.model.UsernameExistsException;
 import software.amazon.awssdk.services.cognitoidentityprovider.model.ChallengeNameType;
 import software.amazon.awssdk.services.cognitoidentityprovider.model.ResendConfirmationCodeResponse;
-import software.amazon.awssdk.services.cognitoidentityprovider.model.ExpiredCodeException;
-import software.amazon.awssdk.services.cognitoidentityprovider.model.InvalidParameterException;
-import software.amazon.awssdk.services.cognitoidentityprovider.model.InvalidPasswordException;
-import software.amazon.awssdk.services.cognitoidentityprovider.model.LimitExceededException;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -45,6 +47,7 @@ import java.util.Map;
 /**
  * Controller for authentication endpoints.
  * All endpoints require the X-APP-KEY header to be present.
+ * Failures are turned into error responses by {@link com.oldmutual.AwsCognitoMiddleware.exception.GlobalExceptionHandler}.
  * 
  * @author Genuslee Mapedze
  */
@@ -55,19 +58,7 @@ import java.util.Map;
 public class AuthController {
 
     private final CognitoService cognitoService;
-
-    /**
-     * Helper method to clean error messages by removing AWS service details.
-     *
-     * @param errorMessage The original error message
-     * @return Cleaned error message without AWS service details
-     */
-    private String cleanErrorMessage(String errorMessage) {
-        if (errorMessage != null && errorMessage.contains("(Service:")) {
-            return errorMessage.substring(0, errorMessage.indexOf("(Service:")).trim();
-        }
-        return errorMessage;
-    }
+    private final MfaChallengeStore mfaChallengeStore;
 
     /**
      * Register a new user.
@@ -76,51 +67,19 @@ public class AuthController {
      * @return The registration response
      */
     @PostMapping("/register")
-    public ResponseEntity<ApiResponse<Map<String, Object>>> register(@Valid @RequestBody RegisterRequest request) {
-        log.info("Received registration request for email: {}", request.getEmail());
-        try {
-            // Pass email, password, and custom attributes to the service
-            SignUpResponse response = cognitoService.registerUser(
-                request.getEmail(), 
-                request.getPassword(),
-                request.getAttributes()
-            );
-            
-            Map<String, Object> data = new HashMap<>();
-            data.put("username", response.userSub());
-            data.put("status", "UNCONFIRMED"); // User needs to verify email
-            data.put("userConfirmationNecessary", "true");
-
-            return ResponseEntity.ok(ApiResponse.success(data, "User registered successfully. Please check your email for verification code"));
-        } catch (UsernameExistsException e) {
-            log.error("Username already exists: {}", request.getEmail(), e);
-            String cleanMessage = cleanErrorMessage(e.getMessage());
-            Map<String, Object> errorData = new HashMap<>();
-            errorData.put("errorType", "UsernameExistsException");
-            errorData.put("errorMessage", cleanMessage);
-            return ResponseEntity.badRequest().body(ApiResponse.error("User with this email already exists", errorData));
-        } catch (IllegalStateException e) {
-            log.error("Configuration error: {}", e.getMessage(), e);
-            String cleanMessage = cleanErrorMessage(e.getMessage());
-            Map<String, Object> errorData = new HashMap<>();
-            errorData.put("errorType", "ConfigurationError");
-            errorData.put("errorMessage", cleanMessage);
-            return ResponseEntity.badRequest().body(ApiResponse.error("Configuration error: " + cleanMessage, errorData));
-        } catch (software.amazon.awssdk.core.exception.SdkClientException e) {
-            log.error("AWS SDK client error: {}", e.getMessage(), e);
-            String cleanMessage = cleanErrorMessage(e.getMessage());
-            Map<String, Object> errorData = new HashMap<>();
-            errorData.put("errorType", "AwsCredentialsError");
-            errorData.put("errorMessage", cleanMessage);
-            return ResponseEntity.badRequest().body(ApiResponse.error("AWS credentials error. Please contact support.", errorData));
-        } catch (Exception e) {
-            log.error("Error registering user: {}", request.getEmail(), e);
-            String cleanMessage = cleanErrorMessage(e.getMessage());
-            Map<String, Object> errorData = new HashMap<>();
-            errorData.put("errorType", "UnexpectedException");
-            errorData.put("errorMessage", cleanMessage);
-            return ResponseEntity.badRequest().body(ApiResponse.error("Error registering user: " + cleanMessage, errorData));
-        }
+    public ResponseEntity<ApiResponse<RegistrationResult>> register(@Valid @RequestBody RegisterRequest request) {
+        log.debug("Received registration request for email: {}", request.getEmail());
+        // Pass email, password, and custom attributes to the service
+        SignUpResponse response = cognitoService.registerUser(
+            request.getEmail(), 
+            request.getPassword(),
+            request.getAttributes()
+        );
+        
+        // User needs to verify email
+        RegistrationResult data = new RegistrationResult(response.userSub(), "UNCONFIRMED", "true");
+
+        return ResponseEntity.ok(ApiResponse.success(data, "User registered successfully. Please check your email for verification code"));
     }
 
     /**
@@ -130,63 +89,13 @@ public class AuthController {
      * @return The verification response
      */
     @PostMapping("/verify")
-    public ResponseEntity<ApiResponse<Map<String, Object>>> verify(@Valid @RequestBody VerifyRequest request) {
-        log.info("Received verification request for email: {}", request.getEmail());
-        try {
-            ConfirmSignUpResponse response = cognitoService.verifyUser(request.getEmail(), request.getConfirmationCode());
-
-            Map<String, Object> data = new HashMap<>();
-            data.put("status", "CONFIRMED");
-
-            return ResponseEntity.ok(ApiResponse.success(data, "User verified successfully"));
-        } catch (ExpiredCodeException e) {
-            log.error("Expired confirmation code for user: {}", request.getEmail(), e);
-            String cleanMessage = cleanErrorMessage(e.getMessage());
-            Map<String, Object> errorData = new HashMap<>();
-            errorData.put("errorType", "ExpiredCodeException");
-            errorData.put("errorMessage", "Your verification code has expired");
-            errorData.put("action", "Please use the resend OTP endpoint to get a new code");
-            errorData.put("resendEndpoint", "/api/auth/resend-otp");
-            return ResponseEntity.badRequest().body(ApiResponse.error("Verification code has expired. Please request a new code.", errorData));
-        } catch (CodeMismatchException e) {
-            log.error("Invalid confirmation code for user: {}", request.getEmail(), e);
-            String cleanMessage = cleanErrorMessage(e.getMessage());
-            Map<String, Object> errorData = new HashMap<>();
-            errorData.put("errorType", "CodeMismatchException");
-            errorData.put("errorMessage", "The verification code you entered is incorrect");
-            errorData.put("action", "Please check the code and try again, or request a new code");
-            errorData.put("resendEndpoint", "/api/auth/resend-otp");
-            return ResponseEntity.badRequest().body(ApiResponse.error("Invalid confirmation code. Please check and try again.", errorData));
-        } catch (NotAuthorizedException e) {
-            log.error("User already verified or not authorized: {}", request.getEmail(), e);
-            String cleanMessage = cleanErrorMessage(e.getMessage());
-            Map<String, Object> errorData = new HashMap<>();
-            errorData.put("errorType", "NotAuthorizedException");
-            errorData.put("errorMessage", "User is already verified or cannot be verified");
-            errorData.put("action", "Try logging in - your account may already be verified");
-            return ResponseEntity.badRequest().body(ApiResponse.error("User is already verified or cannot be verified", errorData));
-        } catch (IllegalStateException e) {
-            log.error("Configuration error: {}", e.getMessage(), e);
-            String cleanMessage = cleanErrorMessage(e.getMessage());
-            Map<String, Object> errorData = new HashMap<>();
-            errorData.put("errorType", "ConfigurationError");
-            errorData.put("errorMessage", cleanMessage);
-            return ResponseEntity.badRequest().body(ApiResponse.error("Configuration error: " + cleanMessage, errorData));
-        } catch (software.amazon.awssdk.core.exception.SdkClientException e) {
-            log.error("AWS SDK client error: {}", e.getMessage(), e);
-            String cleanMessage = cleanErrorMessage(e.getMessage());
-            Map<String, Object> errorData = new HashMap<>();
-            errorData.put("errorType", "AwsCredentialsError");
-            errorData.put("errorMessage", cleanMessage);
-            return ResponseEntity.badRequest().body(ApiResponse.error("AWS credentials error. Please contact support.", errorData));
-        } catch (Exception e) {
-            log.error("Error verifying user: {}", request.getEmail(), e);
-            String cleanMessage = cleanErrorMessage(e.getMessage());
-            Map<String, Object> errorData = new HashMap<>();
-            errorData.put("errorType", "UnexpectedException");
-            errorData.put("errorMessage", cleanMessage);
-            return ResponseEntity.badRequest().body(ApiResponse.error("Error verifying user: " + cleanMessage, errorData));
-        }
+    public ResponseEntity<ApiResponse<StatusResult>> verify(@Valid @RequestBody VerifyRequest request) {
+        log.debug("Received verification request for email: {}", request.getEmail());
+        cognitoService.verifyUser(request.getEmail(), request.getConfirmationCode());
+
+        StatusResult data = new StatusResult("CONFIRMED");
+
+        return ResponseEntity.ok(ApiResponse.success(data, "User verified successfully"));
     }
 
     /**
@@ -196,127 +105,50 @@ public class AuthController {
      * @return The resend OTP response
      */
     @PostMapping("/resend-otp")
-    public ResponseEntity<ApiResponse<Map<String, Object>>> resendOtp(@Valid @RequestBody ResendOtpRequest request) {
-        log.info("Received resend OTP request for email: {}", request.getEmail());
-        try {
-            ResendConfirmationCodeResponse response = cognitoService.resendConfirmationCode(request.getEmail());
-
-            Map<String, Object> data = new HashMap<>();
-            if (response.codeDeliveryDetails() != null) {
-                data.put("deliveryMedium", response.codeDeliveryDetails().deliveryMediumAsString());
-                data.put("destination", response.codeDeliveryDetails().destination());
-            }
-            data.put("message", "A new verification code has been sent to your email");
-
-            return ResponseEntity.ok(ApiResponse.success(data, "Confirmation code resent successfully to email"));
-        } catch (NotAuthorizedException e) {
-            log.error("User already verified or not authorized to resend code: {}", request.getEmail(), e);
-            Map<String, Object> errorData = new HashMap<>();
-            errorData.put("errorType", "NotAuthorizedException");
-            errorData.put("errorMessage", "User is already verified");
-            errorData.put("action", "Your account is already verified. You can log in directly.");
-            return ResponseEntity.badRequest().body(ApiResponse.error("User is already verified. Please log in.", errorData));
-        } catch (UserNotFoundException e) {
-            log.error("User not found: {}", request.getEmail(), e);
-            Map<String, Object> errorData = new HashMap<>();
-            errorData.put("errorType", "UserNotFoundException");
-            errorData.put("errorMessage", "No user found with this email address");
-            errorData.put("action", "Please check your email address or register a new account");
-            return ResponseEntity.badRequest().body(ApiResponse.error("User not found", errorData));
-        } catch (IllegalStateException e) {
-            log.error("Configuration error: {}", e.getMessage(), e);
-            Map<String, Object> errorData = new HashMap<>();
-            errorData.put("errorType", "ConfigurationError");
-            String cleanMsg = cleanErrorMessage(e.getMessage());
-            errorData.put("errorMessage", cleanMsg);
-            return ResponseEntity.badRequest().body(ApiResponse.error("Configuration error: " + e.getMessage(), errorData));
-        } catch (software.amazon.awssdk.core.exception.SdkClientException e) {
-            log.error("AWS SDK client error: {}", e.getMessage(), e);
-            Map<String, Object> errorData = new HashMap<>();
-            errorData.put("errorType", "AwsCredentialsError");
-            String cleanMsg = cleanErrorMessage(e.getMessage());
-            errorData.put("errorMessage", cleanMsg);
-            return ResponseEntity.badRequest().body(ApiResponse.error("AWS credentials error. Please contact support.", errorData));
-        } catch (Exception e) {
-            log.error("Error resending OTP for user: {}", request.getEmail(), e);
-            Map<String, Object> errorData = new HashMap<>();
-            errorData.put("errorType", "UnexpectedException");
-            String cleanMsg = cleanErrorMessage(e.getMessage());
-            errorData.put("errorMessage", cleanMsg);
-            return ResponseEntity.badRequest().body(ApiResponse.error("Error resending OTP: " + e.getMessage(), errorData));
-        }
+    public ResponseEntity<ApiResponse<CodeDeliveryResult>> resendOtp(@Valid @RequestBody ResendOtpRequest request) {
+        log.debug("Received resend OTP request for email: {}", request.getEmail());
+        ResendConfirmationCodeResponse response = cognitoService.resendConfirmationCode(request.getEmail());
+
+        CodeDeliveryResult data = CodeDeliveryResult.of(response.codeDeliveryDetails(),
+                "A new verification code has been sent to your email");
+
+        return ResponseEntity.ok(ApiResponse.success(data, "Confirmation code resent successfully to email"));
     }
 
     /**
      * Authenticate a user.
      * If MFA is enabled, returns a challenge that requires MFA verification.
+     * With the MFA challenge store enabled, the challenge is returned as an opaque handle instead of the Cognito session.
      *
-     * @param request The login request
+     * @param request   The login request
+     * @param appConfig The app configuration resolved by the app key interceptor
      * @return The authentication response with tokens or MFA challenge
      */
     @PostMapping("/login")
-    public ResponseEntity<ApiResponse<Map<String, Object>>> login(@Valid @RequestBody LoginRequest request) {
-        log.info("Received login request for email: {}", request.getEmail());
-        try {
-            InitiateAuthResponse response = cognitoService.authenticateUser(request.getEmail(), request.getPassword());
-
-            Map<String, Object> data = new HashMap<>();
-
-            // Check if MFA challenge is required
-            if (response.challengeName() != null && !response.challengeName().equals(ChallengeNameType.UNKNOWN_TO_SDK_VERSION)) {
-                // MFA challenge required
-                data.put("challengeName", response.challengeNameAsString());
-                data.put("session", response.session());
-                data.put("challengeParameters", response.challengeParameters());
-
-                return ResponseEntity.ok(ApiResponse.success(data, "MFA verification required. Please provide the MFA code."));
+    public ResponseEntity<ApiResponse<?>> login(@Valid @RequestBody LoginRequest request,
+                                                @RequestAttribute("appConfig") CognitoAppConfig appConfig) {
+        log.debug("Received login request for email: {}", request.getEmail());
+        InitiateAuthResponse response = cognitoService.authenticateUser(request.getEmail(), request.getPassword());
+
+        // Check if MFA challenge is required
+        if (response.challengeName() != null && !response.challengeName().equals(ChallengeNameType.UNKNOWN_TO_SDK_VERSION)) {
+            // MFA challenge required
+            MfaChallenge data;
+            if (mfaChallengeStore.isEnabled()) {
+                String handle = mfaChallengeStore.save(appConfig.getAppKey(), request.getEmail(),
+                        response.challengeNameAsString(), response.session());
+                data = new MfaChallenge(response.challengeNameAsString(), null, handle, response.challengeParameters());
+            } else {
+                data = new MfaChallenge(response.challengeNameAsString(), response.session(), null, response.challengeParameters());
             }
 
-            // No MFA challenge - return tokens
-            AuthenticationResultType authResult = response.authenticationResult();
-
-            data.put("accessToken", authResult.accessToken());
-            data.put("refreshToken", authResult.refreshToken());
-            data.put("idToken", authResult.idToken());
-            data.put("expiresIn", String.valueOf(authResult.expiresIn()));
-
-            return ResponseEntity.ok(ApiResponse.success(data, "Login successful"));
-        } catch (NotAuthorizedException e) {
-            log.error("Invalid credentials for user: {}", request.getEmail(), e);
-            Map<String, Object> errorData = new HashMap<>();
-            errorData.put("errorType", "NotAuthorizedException");
-            String cleanMsg = cleanErrorMessage(e.getMessage());
-            errorData.put("errorMessage", cleanMsg);
-            return ResponseEntity.badRequest().body(ApiResponse.error("Invalid credentials", errorData));
-        } catch (UserNotFoundException e) {
-            log.error("User not found: {}", request.getEmail(), e);
-            Map<String, Object> errorData = new HashMap<>();
-            errorData.put("errorType", "UserNotFoundException");
-            String cleanMsg = cleanErrorMessage(e.getMessage());
-            errorData.put("errorMessage", cleanMsg);
-            return ResponseEntity.badRequest().body(ApiResponse.error("User not found", errorData));
-        } catch (IllegalStateException e) {
-            log.error("Configuration error: {}", e.getMessage(), e);
-            Map<String, Object> errorData = new HashMap<>();
-            errorData.put("errorType", "ConfigurationError");
-            String cleanMsg = cleanErrorMessage(e.getMessage());
-            errorData.put("errorMessage", cleanMsg);
-            return ResponseEntity.badRequest().body(ApiResponse.error("Configuration error: " + e.getMessage(), errorData));
-        } catch (software.amazon.awssdk.core.exception.SdkClientException e) {
-            log.error("AWS SDK client error: {}", e.getMessage(), e);
-            Map<String, Object> errorData = new HashMap<>();
-            errorData.put("errorType", "AwsCredentialsError");
-            String cleanMsg = cleanErrorMessage(e.getMessage());
-            errorData.put("errorMessage", cleanMsg);
-            return ResponseEntity.badRequest().body(ApiResponse.error("AWS credentials error. Please contact support.", errorData));
-        } catch (Exception e) {
-            log.error("Error authenticating user: {}", request.getEmail(), e);
-            Map<String, Object> errorData = new HashMap<>();
-            errorData.put("errorType", "UnexpectedException");
-            String cleanMsg = cleanErrorMessage(e.getMessage());
-            errorData.put("errorMessage", cleanMsg);
-            return ResponseEntity.badRequest().body(ApiResponse.error("Error authenticating user: " + e.getMessage(), errorData));
+            return ResponseEntity.ok(ApiResponse.success(data, "MFA verification required. Please provide the MFA code."));
         }
+
+        // No MFA challenge - return tokens
+        LoginResult data = LoginResult.of(response.authenticationResult());
+
+        return ResponseEntity.ok(ApiResponse.success(data, "Login successful"));
     }
 
     /**
@@ -326,118 +158,32 @@ public class AuthController {
      * @return The forgot password response
      */
     @PostMapping("/forgot-password")
-    public ResponseEntity<ApiResponse<Map<String, Object>>> forgotPassword(@Valid @RequestBody ForgotPasswordDto request) {
-        log.info("Received forgot password request for email: {}", request.getEmail());
-        try {
-            ForgotPasswordResponse response = cognitoService.forgotPassword(request.getEmail());
-            
-            Map<String, Object> data = new HashMap<>();
-            if (response.codeDeliveryDetails() != null) {
-                data.put("deliveryMedium", response.codeDeliveryDetails().deliveryMediumAsString());
-                data.put("destination", response.codeDeliveryDetails().destination());
-            }
+    public ResponseEntity<ApiResponse<CodeDeliveryResult>> forgotPassword(@Valid @RequestBody ForgotPasswordDto request) {
+        log.debug("Received forgot password request for email: {}", request.getEmail());
+        ForgotPasswordResponse response = cognitoService.forgotPassword(request.getEmail());
+        
+        CodeDeliveryResult data = CodeDeliveryResult.of(response.codeDeliveryDetails(), null);
 
-            return ResponseEntity.ok(ApiResponse.success(data, "Password reset code sent to email"));
-        } catch (UserNotFoundException e) {
-            log.error("User not found: {}", request.getEmail(), e);
-            Map<String, Object> errorData = new HashMap<>();
-            errorData.put("errorType", "UserNotFoundException");
-            String cleanMsg = cleanErrorMessage(e.getMessage());
-            errorData.put("errorMessage", cleanMsg);
-            return ResponseEntity.badRequest().body(ApiResponse.error("User not found", errorData));
-        } catch (IllegalStateException e) {
-            log.error("Configuration error: {}", e.getMessage(), e);
-            Map<String, Object> errorData = new HashMap<>();
-            errorData.put("errorType", "ConfigurationError");
-            String cleanMsg = cleanErrorMessage(e.getMessage());
-            errorData.put("errorMessage", cleanMsg);
-            return ResponseEntity.badRequest().body(ApiResponse.error("Configuration error: " + e.getMessage(), errorData));
-        } catch (software.amazon.awssdk.services.cognitoidentityprovider.model.InvalidParameterException e) {
-            log.error("Invalid parameter for forgot password: {}", request.getEmail(), e);
-            String cleanMsg = cleanErrorMessage(e.getMessage());
-            Map<String, Object> errorData = new HashMap<>();
-            errorData.put("errorType", "InvalidParameterException");
-            errorData.put("errorMessage", cleanMsg);
-
-            // Check if it's the email verification issue
-            if (cleanMsg != null && cleanMsg.toLowerCase().contains("no registered/verified email")) {
-                return ResponseEntity.badRequest().body(ApiResponse.error(
-                    "User email is not verified. Please verify your email first or contact support.", errorData));
-            }
-
-            return ResponseEntity.badRequest().body(ApiResponse.error(cleanMsg, errorData));
-        } catch (software.amazon.awssdk.core.exception.SdkClientException e) {
-            log.error("AWS SDK client error: {}", e.getMessage(), e);
-            Map<String, Object> errorData = new HashMap<>();
-            errorData.put("errorType", "AwsCredentialsError");
-            String cleanMsg = cleanErrorMessage(e.getMessage());
-            errorData.put("errorMessage", cleanMsg);
-            return ResponseEntity.badRequest().body(ApiResponse.error("AWS credentials error. Please contact support.", errorData));
-        } catch (Exception e) {
-            log.error("Error initiating forgot password: {}", request.getEmail(), e);
-            Map<String, Object> errorData = new HashMap<>();
-            errorData.put("errorType", "UnexpectedException");
-            String cleanMsg = cleanErrorMessage(e.getMessage());
-            errorData.put("errorMessage", cleanMsg);
-            return ResponseEntity.badRequest().body(ApiResponse.error("Error initiating forgot password: " + cleanMsg, errorData));
-        }
+        return ResponseEntity.ok(ApiResponse.success(data, "Password reset code sent to email"));
     }
 
     /**
      * Confirm a new password with the confirmation code.
      *
      * @param request The confirm forgot password request
-     * @return The confirm forgot password response
+     * @return A success response with an empty data object
      */
     @PostMapping("/confirm-forgot-password")
     public ResponseEntity<ApiResponse<Map<String, Object>>> confirmForgotPassword(@Valid @RequestBody ConfirmForgotPasswordDto request) {
-        log.info("Received confirm forgot password request for email: {}", request.getEmail());
-        try {
-            ConfirmForgotPasswordResponse response = cognitoService.confirmForgotPassword(
-                request.getEmail(),
-                request.getConfirmationCode(),
-                request.getNewPassword()
-            );
-
-            Map<String, Object> data = new HashMap<>();
-
-            return ResponseEntity.ok(ApiResponse.success(data, "Password reset successful"));
-        } catch (CodeMismatchException e) {
-            log.error("Invalid confirmation code for user: {}", request.getEmail(), e);
-            Map<String, Object> errorData = new HashMap<>();
-            errorData.put("errorType", "CodeMismatchException");
-            String cleanMsg = cleanErrorMessage(e.getMessage());
-            errorData.put("errorMessage", cleanMsg);
-            return ResponseEntity.badRequest().body(ApiResponse.error("Invalid confirmation code", errorData));
-        } catch (UserNotFoundException e) {
-            log.error("User not found: {}", request.getEmail(), e);
-            Map<String, Object> errorData = new HashMap<>();
-            errorData.put("errorType", "UserNotFoundException");
-            String cleanMsg = cleanErrorMessage(e.getMessage());
-            errorData.put("errorMessage", cleanMsg);
-            return ResponseEntity.badRequest().body(ApiResponse.error("User not found", errorData));
-        } catch (IllegalStateException e) {
-            log.error("Configuration error: {}", e.getMessage(), e);
-            Map<String, Object> errorData = new HashMap<>();
-            errorData.put("errorType", "ConfigurationError");
-            String cleanMsg = cleanErrorMessage(e.getMessage());
-            errorData.put("errorMessage", cleanMsg);
-            return ResponseEntity.badRequest().body(ApiResponse.error("Configuration error: " + e.getMessage(), errorData));
-        } catch (software.amazon.awssdk.core.exception.SdkClientException e) {
-            log.error("AWS SDK client error: {}", e.getMessage(), e);
-            Map<String, Object> errorData = new HashMap<>();
-            errorData.put("errorType", "AwsCredentialsError");
-            String cleanMsg = cleanErrorMessage(e.getMessage());
-            errorData.put("errorMessage", cleanMsg);
-            return ResponseEntity.badRequest().body(ApiResponse.error("AWS credentials error. Please contact support.", errorData));
-        } catch (Exception e) {
-            log.error("Error confirming forgot password: {}", request.getEmail(), e);
-            Map<String, Object> errorData = new HashMap<>();
-            errorData.put("errorType", "UnexpectedException");
-            String cleanMsg = cleanErrorMessage(e.getMessage());
-            errorData.put("errorMessage", cleanMsg);
-            return ResponseEntity.badRequest().body(ApiResponse.error("Error confirming forgot password: " + e.getMessage(), errorData));
-        }
+        log.debug("Received confirm forgot password request for email: {}", request.getEmail());
+        cognitoService.confirmForgotPassword(
+            request.getEmail(),
+            request.getConfirmationCode(),
+            request.getNewPassword()
+        );
+
+        // Clients read data as an object, so keep the empty payload rather than null
+        return ResponseEntity.ok(ApiResponse.success(Map.of(), "Password reset successful"));
     }
 
     /**
@@ -447,35 +193,17 @@ public class AuthController {
      * @return The MFA setup response
      */
     @PostMapping("/mfa/setup")
-    public ResponseEntity<ApiResponse<Map<String, Object>>> setupMfa(@Valid @RequestBody MfaSetupRequest request) {
-        log.info("Received MFA setup request for type: {}", request.getMfaType());
-        try {
-            cognitoService.setUserMfaPreference(
-                request.getAccessToken(),
-                request.getMfaType(),
-                request.getPhoneNumber()
-            );
-
-            Map<String, Object> data = new HashMap<>();
-            data.put("mfaType", request.getMfaType());
-            data.put("status", "MFA_ENABLED");
-
-            return ResponseEntity.ok(ApiResponse.success(data, "MFA setup successful"));
-        } catch (IllegalStateException e) {
-            log.error("Configuration error: {}", e.getMessage(), e);
-            Map<String, Object> errorData = new HashMap<>();
-            errorData.put("errorType", "ConfigurationError");
-            String cleanMsg = cleanErrorMessage(e.getMessage());
-            errorData.put("errorMessage", cleanMsg);
-            return ResponseEntity.badRequest().body(ApiResponse.error("Configuration error: " + e.getMessage(), errorData));
-        } catch (Exception e) {
-            log.error("Error setting up MFA", e);
-            Map<String, Object> errorData = new HashMap<>();
-            errorData.put("errorType", "UnexpectedException");
-            String cleanMsg = cleanErrorMessage(e.getMessage());
-            errorData.put("errorMessage", cleanMsg);
-            return ResponseEntity.badRequest().body(ApiResponse.error("Error setting up MFA: " + e.getMessage(), errorData));
-        }
+    public ResponseEntity<ApiResponse<MfaSetupResult>> setupMfa(@Valid @RequestBody MfaSetupRequest request) {
+        log.debug("Received MFA setup request for type: {}", request.getMfaType());
+        cognitoService.setUserMfaPreference(
+            request.getAccessToken(),
+            request.getMfaType(),
+            request.getPhoneNumber()
+        );
+
+        MfaSetupResult data = new MfaSetupResult(request.getMfaType(), "MFA_ENABLED");
+
+        return ResponseEntity.ok(ApiResponse.success(data, "MFA setup successful"));
     }
 
     /**
@@ -485,31 +213,13 @@ public class AuthController {
      * @return The associate software token response with secret code
      */
     @PostMapping("/mfa/associate-token")
-    public ResponseEntity<ApiResponse<Map<String, Object>>> associateSoftwareToken(@Valid @RequestBody AssociateSoftwareTokenRequest request) {
-        log.info("Received associate software token request");
-        try {
-            var response = cognitoService.associateSoftwareToken(request.getAccessToken());
-
-            Map<String, Object> data = new HashMap<>();
-            data.put("secretCode", response.secretCode());
-            data.put("session", response.session());
-
-            return ResponseEntity.ok(ApiResponse.success(data, "Software token associated. Use the secret code with your authenticator app"));
-        } catch (IllegalStateException e) {
-            log.error("Configuration error: {}", e.getMessage(), e);
-            Map<String, Object> errorData = new HashMap<>();
-            errorData.put("errorType", "ConfigurationError");
-            String cleanMsg = cleanErrorMessage(e.getMessage());
-            errorData.put("errorMessage", cleanMsg);
-            return ResponseEntity.badRequest().body(ApiResponse.error("Configuration error: " + e.getMessage(), errorData));
-        } catch (Exception e) {
-            log.error("Error associating software token", e);
-            Map<String, Object> errorData = new HashMap<>();
-            errorData.put("errorType", "UnexpectedException");
-            String cleanMsg = cleanErrorMessage(e.getMessage());
-            errorData.put("errorMessage", cleanMsg);
-            return ResponseEntity.badRequest().body(ApiResponse.error("Error associating software token: " + e.getMessage(), errorData));
-        }
+    public ResponseEntity<ApiResponse<SoftwareTokenResult>> associateSoftwareToken(@Valid @RequestBody AssociateSoftwareTokenRequest request) {
+        log.debug("Received associate software token request");
+        var response = cognitoService.associateSoftwareToken(request.getAccessToken());
+
+        SoftwareTokenResult data = new SoftwareTokenResult(response.secretCode(), response.session());
+
+        return ResponseEntity.ok(ApiResponse.success(data, "Software token associated. Use the secret code with your authenticator app"));
     }
 
     /**
@@ -519,97 +229,55 @@ public class AuthController {
      * @return The verify software token response
      */
     @PostMapping("/mfa/verify-token")
-    public ResponseEntity<ApiResponse<Map<String, Object>>> verifySoftwareToken(@Valid @RequestBody VerifySoftwareTokenRequest request) {
-        log.info("Received verify software token request");
-        try {
-            var response = cognitoService.verifySoftwareToken(
-                request.getAccessToken(),
-                request.getUserCode(),
-                request.getDeviceName()
-            );
-
-            Map<String, Object> data = new HashMap<>();
-            data.put("status", response.statusAsString());
-
-            return ResponseEntity.ok(ApiResponse.success(data, "Software token verified successfully"));
-        } catch (CodeMismatchException e) {
-            log.error("Invalid verification code", e);
-            Map<String, Object> errorData = new HashMap<>();
-            errorData.put("errorType", "CodeMismatchException");
-            String cleanMsg = cleanErrorMessage(e.getMessage());
-            errorData.put("errorMessage", cleanMsg);
-            return ResponseEntity.badRequest().body(ApiResponse.error("Invalid verification code", errorData));
-        } catch (IllegalStateException e) {
-            log.error("Configuration error: {}", e.getMessage(), e);
-            Map<String, Object> errorData = new HashMap<>();
-            errorData.put("errorType", "ConfigurationError");
-            String cleanMsg = cleanErrorMessage(e.getMessage());
-            errorData.put("errorMessage", cleanMsg);
-            return ResponseEntity.badRequest().body(ApiResponse.error("Configuration error: " + e.getMessage(), errorData));
-        } catch (Exception e) {
-            log.error("Error verifying software token", e);
-            Map<String, Object> errorData = new HashMap<>();
-            errorData.put("errorType", "UnexpectedException");
-            String cleanMsg = cleanErrorMessage(e.getMessage());
-            errorData.put("errorMessage", cleanMsg);
-            return ResponseEntity.badRequest().body(ApiResponse.error("Error verifying software token: " + e.getMessage(), errorData));
-        }
+    public ResponseEntity<ApiResponse<StatusResult>> verifySoftwareToken(@Valid @RequestBody VerifySoftwareTokenRequest request) {
+        log.debug("Received verify software token request");
+        var response = cognitoService.verifySoftwareToken(
+            request.getAccessToken(),
+            request.getUserCode(),
+            request.getDeviceName()
+        );
+
+        StatusResult data = new StatusResult(response.statusAsString());
+
+        return ResponseEntity.ok(ApiResponse.success(data, "Software token verified successfully"));
     }
 
     /**
      * Verify MFA code during login.
+     * The challenge is taken from the challenge store when a handle is given, otherwise from the request.
      *
-     * @param request The MFA verification request
+     * @param request   The MFA verification request
+     * @param appConfig The app configuration resolved by the app key interceptor
      * @return The authentication response with tokens
      */
     @PostMapping("/mfa/verify")
-    public ResponseEntity<ApiResponse<Map<String, Object>>> verifyMfa(@Valid @RequestBody MfaVerifyRequest request) {
-        log.info("Received MFA verification request for email: {}", request.getEmail());
-        try {
-            var response = cognitoService.respondToMfaChallenge(
-                request.getEmail(),
-                request.getSession(),
-                request.getMfaCode(),
-                request.getChallengeName()
-            );
-
-            Map<String, Object> data = new HashMap<>();
-            AuthenticationResultType authResult = response.authenticationResult();
-
-            data.put("accessToken", authResult.accessToken());
-            data.put("refreshToken", authResult.refreshToken());
-            data.put("idToken", authResult.idToken());
-            data.put("expiresIn", String.valueOf(authResult.expiresIn()));
-
-            return ResponseEntity.ok(ApiResponse.success(data, "MFA verification successful"));
-        } catch (CodeMismatchException e) {
-            log.error("Invalid MFA code for user: {}", request.getEmail(), e);
-            Map<String, Object> errorData = new HashMap<>();
-            errorData.put("errorType", "CodeMismatchException");
-            String cleanMsg = cleanErrorMessage(e.getMessage());
-            errorData.put("errorMessage", cleanMsg);
-            return ResponseEntity.badRequest().body(ApiResponse.error("Invalid MFA code", errorData));
-        } catch (IllegalStateException e) {
-            log.error("Configuration error: {}", e.getMessage(), e);
-            Map<String, Object> errorData = new HashMap<>();
-            errorData.put("errorType", "ConfigurationError");
-            String cleanMsg = cleanErrorMessage(e.getMessage());
-            errorData.put("errorMessage", cleanMsg);
-            return ResponseEntity.badRequest().body(ApiResponse.error("Configuration error: " + e.getMessage(), errorData));
-        } catch (Exception e) {
-            log.error("Error verifying MFA for user: {}", request.getEmail(), e);
-
-            // Clean error message - remove AWS service details
-            String errorMessage = e.getMessage();
-            if (errorMessage != null && errorMessage.contains("(Service:")) {
-                errorMessage = errorMessage.substring(0, errorMessage.indexOf("(Service:")).trim();
-            }
+    public ResponseEntity<ApiResponse<LoginResult>> verifyMfa(@Valid @RequestBody MfaVerifyRequest request,
+                                                              @RequestAttribute("appConfig") CognitoAppConfig appConfig) {
+        log.debug("Received MFA verification request for email: {}", request.getEmail());
+        String session = request.getSession();
+        String challengeName = request.getChallengeName();
+        String handle = request.getChallengeHandle();
+        if (handle != null && !handle.isBlank()) {
+            MfaChallengeStore.PendingChallenge challenge = mfaChallengeStore
+                    .find(handle, appConfig.getAppKey(), request.getEmail())
+                    .orElseThrow(MfaChallengeExpiredException::new);
+            session = challenge.session();
+            challengeName = challenge.challengeName();
+        }
 
-            Map<String, Object> errorData = new HashMap<>();
-            errorData.put("errorType", "UnexpectedException");
-            errorData.put("errorMessage", errorMessage);
-            return ResponseEntity.badRequest().body(ApiResponse.error("Error verifying MFA: " + errorMessage, errorData));
+        var response = cognitoService.respondToMfaChallenge(
+            request.getEmail(),
+            session,
+            request.getMfaCode(),
+            challengeName
+        );
+        if (handle != null && !handle.isBlank()) {
+            mfaChallengeStore.remove(handle);
         }
+
+        LoginResult data = LoginResult.of(response.authenticationResult());
+
+        return ResponseEntity.ok(ApiResponse.success(data, "MFA verification successful"));
     }
 
     /**
@@ -619,51 +287,16 @@ public class AuthController {
      * @return The token validation response with user information
      */
     @PostMapping("/token/introspect")
-    public ResponseEntity<ApiResponse<Map<String, Object>>> introspectToken(@Valid @RequestBody TokenIntrospectRequest request) {
-        log.info("Received token introspection request");
-        try {
-            var response = cognitoService.introspectToken(request.getAccessToken());
-
-            Map<String, Object> data = new HashMap<>();
-            data.put("valid", true);
-            data.put("username", response.username());
-            data.put("email", response.userAttributes().stream()
-                    .filter(attr -> "email".equals(attr.name()))
-                    .findFirst()
-                    .map(attr -> attr.value())
-                    .orElse(null));
-
-            // Add other user attributes
-            Map<String, String> attributes = new HashMap<>();
-            response.userAttributes().forEach(attr -> attributes.put(attr.name(), attr.value()));
-            data.put("attributes", attributes);
-
-            return ResponseEntity.ok(ApiResponse.success(data, "Token is valid"));
-        } catch (NotAuthorizedException e) {
-            log.error("Invalid or expired token", e);
-            String cleanMessage = cleanErrorMessage(e.getMessage());
-            Map<String, Object> errorData = new HashMap<>();
-            errorData.put("valid", false);
-            errorData.put("errorType", "NotAuthorizedException");
-            errorData.put("errorMessage", cleanMessage);
-            return ResponseEntity.status(401).body(ApiResponse.error("Invalid or expired token", errorData));
-        } catch (IllegalStateException e) {
-            log.error("Configuration error: {}", e.getMessage(), e);
-            String cleanMessage = cleanErrorMessage(e.getMessage());
-            Map<String, Object> errorData = new HashMap<>();
-            errorData.put("valid", false);
-            errorData.put("errorType", "ConfigurationError");
-            errorData.put("errorMessage", cleanMessage);
-            return ResponseEntity.badRequest().body(ApiResponse.error("Configuration error: " + cleanMessage, errorData));
-        } catch (Exception e) {
-            log.error("Error introspecting token", e);
-            String cleanMessage = cleanErrorMessage(e.getMessage());
-            Map<String, Object> errorData = new HashMap<>();
-            errorData.put("valid", false);
-            errorData.put("errorType", "UnexpectedException");
-            errorData.put("errorMessage", cleanMessage);
-            return ResponseEntity.badRequest().body(ApiResponse.error("Error introspecting token: " + cleanMessage, errorData));
-        }
+    public ResponseEntity<ApiResponse<IntrospectionResult>> introspectToken(@Valid @RequestBody TokenIntrospectRequest request) {
+        log.debug("Received token introspection request");
+        var response = cognitoService.introspectToken(request.getAccessToken());
+
+        // Collect the user attributes in one pass; email is also returned on its own
+        Map<String, String> attributes = new HashMap<>(response.userAttributes().size() * 4 / 3 + 1);
+        response.userAttributes().forEach(attr -> attributes.put(attr.name(), attr.value()));
+        IntrospectionResult data = new IntrospectionResult(true, response.username(), attributes.get("email"), attributes);
+
+        return ResponseEntity.ok(ApiResponse.success(data, "Token is valid"));
     }
 
     /**
@@ -673,60 +306,16 @@ public class AuthController {
      * @return The change password response
      */
     @PostMapping("/change-password")
-    public ResponseEntity<ApiResponse<Map<String, Object>>> changePassword(@Valid @RequestBody ChangePasswordRequest request) {
-        log.info("Received change password request");
-        try {
-            cognitoService.changePassword(
-                    request.getAccessToken(),
-                    request.getPreviousPassword(),
-                    request.getProposedPassword()
-            );
-
-            Map<String, Object> data = new HashMap<>();
-            data.put("message", "Password changed successfully");
-
-            return ResponseEntity.ok(ApiResponse.success(data, "Password changed successfully"));
-        } catch (NotAuthorizedException e) {
-            log.error("Unauthorized password change attempt", e);
-            String cleanMessage = cleanErrorMessage(e.getMessage());
-            Map<String, Object> errorData = new HashMap<>();
-            errorData.put("errorType", "NotAuthorizedException");
-            errorData.put("errorMessage", cleanMessage);
-
-            // Check if it's invalid previous password
-            if (cleanMessage != null && cleanMessage.toLowerCase().contains("incorrect username or password")) {
-                return ResponseEntity.status(401).body(ApiResponse.error("Previous password is incorrect", errorData));
-            }
+    public ResponseEntity<ApiResponse<MessageResult>> changePassword(@Valid @RequestBody ChangePasswordRequest request) {
+        log.debug("Received change password request");
+        cognitoService.changePassword(
+                request.getAccessToken(),
+                request.getPreviousPassword(),
+                request.getProposedPassword()
+        );
 
-            return ResponseEntity.status(401).body(ApiResponse.error("Invalid or expired access token", errorData));
-        } catch (InvalidPasswordException e) {
-            log.error("Invalid new password", e);
-            String cleanMessage = cleanErrorMessage(e.getMessage());
-            Map<String, Object> errorData = new HashMap<>();
-            errorData.put("errorType", "InvalidPasswordException");
-            errorData.put("errorMessage", cleanMessage);
-            return ResponseEntity.badRequest().body(ApiResponse.error("New password does not meet requirements: " + cleanMessage, errorData));
-        } catch (LimitExceededException e) {
-            log.error("Limit exceeded for password change", e);
-            String cleanMessage = cleanErrorMessage(e.getMessage());
-            Map<String, Object> errorData = new HashMap<>();
-            errorData.put("errorType", "LimitExceededException");
-            errorData.put("errorMessage", cleanMessage);
-            return ResponseEntity.status(429).body(ApiResponse.error("Attempt limit exceeded. Please try again later.", errorData));
-        } catch (IllegalStateException e) {
-            log.error("Configuration error: {}", e.getMessage(), e);
-            String cleanMessage = cleanErrorMessage(e.getMessage());
-            Map<String, Object> errorData = new HashMap<>();
-            errorData.put("errorType", "ConfigurationError");
-            errorData.put("errorMessage", cleanMessage);
-            return ResponseEntity.badRequest().body(ApiResponse.error("Configuration error: " + cleanMessage, errorData));
-        } catch (Exception e) {
-            log.error("Error changing password", e);
-            String cleanMessage = cleanErrorMessage(e.getMessage());
-            Map<String, Object> errorData = new HashMap<>();
-            errorData.put("errorType", "UnexpectedException");
-            errorData.put("errorMessage", cleanMessage);
-            return ResponseEntity.badRequest().body(ApiResponse.error("Error changing password: " + cleanMessage, errorData));
-        }
+        MessageResult data = new MessageResult("Password changed successfully");
+
+        return ResponseEntity.ok(ApiResponse.success(data, "Password changed successfully"));
     }
 }
\ No newline at end of file
@@ -1,14 +1,21 @@
 package com.oldmutual.AwsCognitoMiddleware.controller;
 
+import com.oldmutual.AwsCognitoMiddleware.dto.ActivityLogView;
+import com.oldmutual.AwsCognitoMiddleware.dto.ActivityStatsResult;
 import com.oldmutual.AwsCognitoMiddleware.dto.ApiResponse;
-import com.oldmutual.AwsCognitoMiddleware.model.UserActivityLog;
+import com.oldmutual.AwsCognitoMiddleware.service.ActivityEventBroadcaster;
+import com.oldmutual.AwsCognitoMiddleware.service.ActivityStatsRollup;
 import com.oldmutual.AwsCognitoMiddleware.service.UserActivityLogService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.data.domain.Page;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
@@ -17,15 +24,21 @@ import java.util.Map;
 
 /**
  * Controller for user activity log endpoints.
+ * Created on first use, so it does not add to startup time.
  */
 @RestController
+@Lazy
 @RequestMapping("/api/logs")
 @RequiredArgsConstructor
 @Slf4j
 @CrossOrigin(origins = "*")
 public class LogActivityController {
 
+    private static final int MAX_USER_LOGS = 500;
+
     private final UserActivityLogService userActivityLogService;
+    private final ActivityStatsRollup activityStatsRollup;
+    private final ActivityEventBroadcaster activityEventBroadcaster;
 
     /**
      * Get all activity logs.
@@ -33,9 +46,9 @@ public class LogActivityController {
      * @return list of all activity logs
      */
     @GetMapping
-    public ResponseEntity<ApiResponse<List<UserActivityLog>>> getAllLogs() {
+    public ResponseEntity<ApiResponse<List<ActivityLogView>>> getAllLogs() {
         log.info("Getting all activity logs");
-        List<UserActivityLog> logs = userActivityLogService.getAllLogs();
+        List<ActivityLogView> logs = userActivityLogService.getAllLogs();
         return ResponseEntity.ok(ApiResponse.success(logs, "Activity logs retrieved successfully"));
     }
 
@@ -46,22 +59,31 @@ public class LogActivityController {
      * @return list of activity logs
      */
     @GetMapping("/user-pool/{userPoolId}")
-    public ResponseEntity<ApiResponse<List<UserActivityLog>>> getLogsByUserPool(@PathVariable String userPoolId) {
+    public ResponseEntity<ApiResponse<List<ActivityLogView>>> getLogsByUserPool(@PathVariable String userPoolId) {
         log.info("Getting activity logs for user pool: {}", userPoolId);
-        List<UserActivityLog> logs = userActivityLogService.getLogsByUserPool(userPoolId);
+        List<ActivityLogView> logs = userActivityLogService.getLogsByUserPool(userPoolId);
         return ResponseEntity.ok(ApiResponse.success(logs, "Activity logs retrieved successfully"));
     }
 
     /**
-     * Get activity logs for a specific username.
+     * Get activity logs for a specific username, newest first.
+     * To page through older logs, pass the id of the last log returned as the before cursor.
      *
      * @param username the username
+     * @param limit maximum number of logs (default: 50, at most 500)
+     * @param before optional cursor, only logs with a lower id are returned
      * @return list of activity logs
      */
     @GetMapping("/user/{username}")
-    public ResponseEntity<ApiResponse<List<UserActivityLog>>> getLogsByUsername(@PathVariable String username) {
+    public ResponseEntity<ApiResponse<List<ActivityLogView>>> getLogsByUsername(
+            @PathVariable String username,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) Long before) {
+        if (limit < 1 || limit > MAX_USER_LOGS) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("limit must be between 1 and " + MAX_USER_LOGS));
+        }
         log.info("Getting activity logs for username: {}", username);
-        List<UserActivityLog> logs = userActivityLogService.getLogsByUsername(username);
+        List<ActivityLogView> logs = userActivityLogService.getLogsByUsername(username, limit, before);
         return ResponseEntity.ok(ApiResponse.success(logs, "Activity logs retrieved successfully"));
     }
 
@@ -73,11 +95,11 @@ public class LogActivityController {
      * @return list of activity logs
      */
     @GetMapping("/user/{username}/user-pool/{userPoolId}")
-    public ResponseEntity<ApiResponse<List<UserActivityLog>>> getLogsByUsernameAndUserPool(
+    public ResponseEntity<ApiResponse<List<ActivityLogView>>> getLogsByUsernameAndUserPool(
             @PathVariable String username,
             @PathVariable String userPoolId) {
         log.info("Getting activity logs for username: {} in user pool: {}", username, userPoolId);
-        List<UserActivityLog> logs = userActivityLogService.getLogsByUsernameAndUserPool(username, userPoolId);
+        List<ActivityLogView> logs = userActivityLogService.getLogsByUsernameAndUserPool(username, userPoolId);
         return ResponseEntity.ok(ApiResponse.success(logs, "Activity logs retrieved successfully"));
     }
 
@@ -88,9 +110,9 @@ public class LogActivityController {
      * @return list of activity logs
      */
     @GetMapping("/app/{appName}")
-    public ResponseEntity<ApiResponse<List<UserActivityLog>>> getLogsByAppName(@PathVariable String appName) {
+    public ResponseEntity<ApiResponse<List<ActivityLogView>>> getLogsByAppName(@PathVariable String appName) {
         log.info("Getting activity logs for app: {}", appName);
-        List<UserActivityLog> logs = userActivityLogService.getLogsByAppName(appName);
+        List<ActivityLogView> logs = userActivityLogService.getLogsByAppName(appName);
         return ResponseEntity.ok(ApiResponse.success(logs, "Activity logs retrieved successfully"));
     }
 
@@ -102,11 +124,11 @@ public class LogActivityController {
      * @return list of activity logs
      */
     @GetMapping("/date-range")
-    public ResponseEntity<ApiResponse<List<UserActivityLog>>> getLogsByDateRange(
+    public ResponseEntity<ApiResponse<List<ActivityLogView>>> getLogsByDateRange(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
         log.info("Getting activity logs between {} and {}", startDate, endDate);
-        List<UserActivityLog> logs = userActivityLogService.getLogsByDateRange(startDate, endDate);
+        List<ActivityLogView> logs = userActivityLogService.getLogsByDateRange(startDate, endDate);
         return ResponseEntity.ok(ApiResponse.success(logs, "Activity logs retrieved successfully"));
     }
 
@@ -133,7 +155,7 @@ public class LogActivityController {
         log.info("Getting paginated logs - page: {}, size: {}, filters: [username={}, appName={}, status={}, activity={}]",
                 page, size, username, appName, status, activity);
 
-        Page<UserActivityLog> logsPage = userActivityLogService.getLogsPaginated(page, size, username, appName, status, activity);
+        Page<ActivityLogView> logsPage = userActivityLogService.getLogsPaginated(page, size, username, appName, status, activity);
 
         Map<String, Object> response = new HashMap<>();
         response.put("logs", logsPage.getContent());
@@ -146,4 +168,66 @@ public class LogActivityController {
 
         return ResponseEntity.ok(ApiResponse.success(response, "Activity logs retrieved successfully"));
     }
-}
\ No newline at end of file
+
+    /**
+     * Get activity counts per minute or hour, answered from the rollup tables instead of the activity log.
+     * Counts lag the activity log by up to the flush interval (app.activity-stats.flush-interval).
+     *
+     * @param from start of the range (inclusive)
+     * @param to end of the range (exclusive, default: now)
+     * @param granularity minute or hour (default: hour)
+     * @param appName optional app name filter
+     * @param activity optional activity type filter
+     * @param status optional status filter (SUCCESS/FAILURE)
+     * @return totals and per-bucket counts
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<ApiResponse<ActivityStatsResult>> getStats(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "hour") String granularity,
+            @RequestParam(required = false) String appName,
+            @RequestParam(required = false) String activity,
+            @RequestParam(required = false) String status) {
+        ActivityStatsRollup.Granularity rollup;
+        try {
+            rollup = ActivityStatsRollup.Granularity.valueOf(granularity.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("granularity must be minute or hour"));
+        }
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        log.debug("Getting {} activity stats between {} and {}", granularity, from, end);
+        ActivityStatsResult stats = ActivityStatsResult.of(rollup.name().toLowerCase(), from, end,
+                activityStatsRollup.query(rollup, from, end, appName, activity, status));
+        return ResponseEntity.ok(ApiResponse.success(stats, "Activity stats retrieved successfully"));
+    }
+
+    /**
+     * Stream new activity logs as Server-Sent Events ("activity" events, with the log as JSON data).
+     * Events come from an in-memory buffer, not the database; a client that cannot keep up is sent a
+     * "dropped" event with the number of events it missed. Reconnecting clients resume after Last-Event-ID
+     * while those events are still buffered.
+     * The buffer is per node: a stream only carries the activity logged through the node serving it, and behind a
+     * load balancer a reconnect must reach the same node (sticky sessions) for Last-Event-ID to apply.
+     *
+     * @param appName optional app name filter
+     * @param status optional status filter (SUCCESS/FAILURE)
+     * @param activity optional activity type filter
+     * @param lastEventId id of the last event received before reconnecting
+     * @return the event stream, or 503 when the subscriber limit is reached
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamLogs(
+            @RequestParam(required = false) String appName,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String activity,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        log.debug("Opening activity stream, filters: [appName={}, status={}, activity={}]", appName, status, activity);
+        SseEmitter emitter = activityEventBroadcaster.subscribe(
+                new ActivityEventBroadcaster.Filter(appName, status, activity), lastEventId);
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+}
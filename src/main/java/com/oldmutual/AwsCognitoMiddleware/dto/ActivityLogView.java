@@ -0,0 +1,44 @@
+package com.oldmutual.AwsCognitoMiddleware.dto;
+
+import com.oldmutual.AwsCognitoMiddleware.model.UserActivityLog;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only view of a user activity log, used for every log read instead of the managed entity.
+ * Spring Data selects straight into it, so reads carry no persistence context snapshots;
+ * the JSON output is the same as the entity's.
+ *
+ * @param id           The log id
+ * @param activity     The activity type
+ * @param username     The username
+ * @param userPoolId   The user pool ID
+ * @param appName      The application name
+ * @param status       The activity status
+ * @param errorMessage The error message, if any
+ * @param ipAddress    The client IP address
+ * @param createdAt    When the activity happened
+ */
+public record ActivityLogView(Long id,
+                              String activity,
+                              String username,
+                              String userPoolId,
+                              String appName,
+                              String status,
+                              String errorMessage,
+                              String ipAddress,
+                              LocalDateTime createdAt) {
+
+    public static ActivityLogView of(UserActivityLog activityLog) {
+        return new ActivityLogView(
+                activityLog.getId(),
+                activityLog.getActivity(),
+                activityLog.getUsername(),
+                activityLog.getUserPoolId(),
+                activityLog.getAppName(),
+                activityLog.getStatus(),
+                activityLog.getErrorMessage(),
+                activityLog.getIpAddress(),
+                activityLog.getCreatedAt());
+    }
+}
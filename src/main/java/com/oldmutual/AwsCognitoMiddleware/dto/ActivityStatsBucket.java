@@ -0,0 +1,15 @@
+package com.oldmutual.AwsCognitoMiddleware.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Activity count of one rollup bucket.
+ *
+ * @param bucketStart Start of the minute or hour
+ * @param appName     The application name
+ * @param activity    The activity type
+ * @param status      The activity status
+ * @param count       Number of activities in the bucket
+ */
+public record ActivityStatsBucket(LocalDateTime bucketStart, String appName, String activity, String status, long count) {
+}
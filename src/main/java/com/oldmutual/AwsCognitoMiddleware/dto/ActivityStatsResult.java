@@ -0,0 +1,40 @@
+package com.oldmutual.AwsCognitoMiddleware.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Activity statistics over a time range, answered from the rollup tables.
+ *
+ * @param granularity The bucket granularity (minute or hour)
+ * @param from        Start of the range
+ * @param to          End of the range
+ * @param total       Number of activities in the range
+ * @param success     Number of successful activities
+ * @param failure     Number of failed activities
+ * @param buckets     The counts per bucket, app, activity and status
+ */
+public record ActivityStatsResult(String granularity,
+                                  LocalDateTime from,
+                                  LocalDateTime to,
+                                  long total,
+                                  long success,
+                                  long failure,
+                                  List<ActivityStatsBucket> buckets) {
+
+    public static ActivityStatsResult of(String granularity, LocalDateTime from, LocalDateTime to,
+                                         List<ActivityStatsBucket> buckets) {
+        long total = 0;
+        long success = 0;
+        long failure = 0;
+        for (ActivityStatsBucket bucket : buckets) {
+            total += bucket.count();
+            if ("SUCCESS".equals(bucket.status())) {
+                success += bucket.count();
+            } else if ("FAILURE".equals(bucket.status())) {
+                failure += bucket.count();
+            }
+        }
+        return new ActivityStatsResult(granularity, from, to, total, success, failure, buckets);
+    }
+}
@@ -0,0 +1,46 @@
+package com.oldmutual.AwsCognitoMiddleware.dto;
+
+import com.oldmutual.AwsCognitoMiddleware.config.EndpointOverridePolicy;
+import jakarta.validation.Constraint;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+import jakarta.validation.Payload;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Validates an app's Cognito endpoint override against the {@link EndpointOverridePolicy}.
+ */
+@Documented
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+@Constraint(validatedBy = AllowedEndpointOverride.Validator.class)
+public @interface AllowedEndpointOverride {
+
+    String message() default "Endpoint override must use https, or http to a loopback or allowed host";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+
+    /**
+     * Created by Spring's validator factory, which injects the policy.
+     */
+    class Validator implements ConstraintValidator<AllowedEndpointOverride, String> {
+
+        private final EndpointOverridePolicy endpointOverridePolicy;
+
+        public Validator(EndpointOverridePolicy endpointOverridePolicy) {
+            this.endpointOverridePolicy = endpointOverridePolicy;
+        }
+
+        @Override
+        public boolean isValid(String value, ConstraintValidatorContext context) {
+            return endpointOverridePolicy.isAllowed(value);
+        }
+    }
+}
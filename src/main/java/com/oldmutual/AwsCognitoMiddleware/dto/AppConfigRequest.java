@@ -1,6 +1,10 @@
 package com.oldmutual.AwsCognitoMiddleware.dto;
 
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
 import lombok.Data;
 
 /**
@@ -23,4 +27,36 @@ public class AppConfigRequest {
     
     // Client secret is optional as some Cognito operations only require userPoolId and clientId
     private String clientSecret;
+    
+    // Optional endpoint override for pointing the app at a local Cognito stand-in or VPC endpoint
+    @Pattern(regexp = "(https?://\\S+)?", message = "Endpoint override must be an http or https URL")
+    @AllowedEndpointOverride
+    private String endpointOverride;
+    
+    // Optional connection tuning; service defaults apply when not set
+    @Min(value = 1, message = "Max connections must be at least 1")
+    @Max(value = 500, message = "Max connections must be at most 500")
+    private Integer maxConnections;
+    
+    @Min(value = 1, message = "Connection TTL must be at least 1 second")
+    @Max(value = 3600, message = "Connection TTL must be at most 3600 seconds")
+    private Integer connectionTtlSeconds;
+    
+    @Min(value = 100, message = "API call timeout must be at least 100 ms")
+    @Max(value = 60000, message = "API call timeout must be at most 60000 ms")
+    private Integer apiCallTimeoutMillis;
+    
+    @Min(value = 100, message = "API call attempt timeout must be at least 100 ms")
+    @Max(value = 60000, message = "API call attempt timeout must be at most 60000 ms")
+    private Integer apiCallAttemptTimeoutMillis;
+    
+    // Optional cap on auth requests per minute for the whole app
+    @Min(value = 1, message = "Rate limit must be at least 1 request per minute")
+    private Integer rateLimitPerMinute;
+    
+    @AssertTrue(message = "API call attempt timeout must not exceed the API call timeout")
+    public boolean isAttemptTimeoutWithinCallTimeout() {
+        return apiCallTimeoutMillis == null || apiCallAttemptTimeoutMillis == null
+                || apiCallAttemptTimeoutMillis <= apiCallTimeoutMillis;
+    }
 }
\ No newline at end of file
@@ -20,6 +20,12 @@ public class AppConfigResponse {
     private String awsRegion;
     private String userPoolId;
     private String clientId;
+    private String endpointOverride;
+    private Integer maxConnections;
+    private Integer connectionTtlSeconds;
+    private Integer apiCallTimeoutMillis;
+    private Integer apiCallAttemptTimeoutMillis;
+    private Integer rateLimitPerMinute;
     private boolean enabled;
     
     // Client secret is not included in the response for security reasons
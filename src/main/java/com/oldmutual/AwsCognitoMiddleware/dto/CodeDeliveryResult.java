@@ -0,0 +1,29 @@
+package com.oldmutual.AwsCognitoMiddleware.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.CodeDeliveryDetailsType;
+
+/**
+ * Where a confirmation or password reset code was sent.
+ *
+ * @param deliveryMedium The delivery medium, e.g. EMAIL
+ * @param destination    The masked destination
+ * @param message        An optional message for the user
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record CodeDeliveryResult(String deliveryMedium, String destination, String message) {
+
+    /**
+     * Create the result from Cognito code delivery details.
+     *
+     * @param details The code delivery details, may be null
+     * @param message An optional message for the user
+     * @return The code delivery result
+     */
+    public static CodeDeliveryResult of(CodeDeliveryDetailsType details, String message) {
+        if (details == null) {
+            return new CodeDeliveryResult(null, null, message);
+        }
+        return new CodeDeliveryResult(details.deliveryMediumAsString(), details.destination(), message);
+    }
+}
@@ -0,0 +1,63 @@
+package com.oldmutual.AwsCognitoMiddleware.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Error payload returned in the data of a failed API response.
+ *
+ * @param errorType      The kind of error, usually the Cognito exception name
+ * @param errorMessage   The error message, without AWS service details
+ * @param action         What the user can do about it, if anything
+ * @param resendEndpoint The endpoint to request a new code from, for code errors
+ * @param valid          Whether the token is valid, only set by token introspection
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ErrorDetail(String errorType, String errorMessage, String action, String resendEndpoint, Boolean valid) {
+
+    /**
+     * Create an error with just a type and message.
+     *
+     * @param errorType    The kind of error
+     * @param errorMessage The error message
+     * @return The error detail
+     */
+    public static ErrorDetail of(String errorType, String errorMessage) {
+        return new ErrorDetail(errorType, errorMessage, null, null, null);
+    }
+
+    /**
+     * Create an error with a suggested action.
+     *
+     * @param errorType    The kind of error
+     * @param errorMessage The error message
+     * @param action       What the user can do about it
+     * @return The error detail
+     */
+    public static ErrorDetail of(String errorType, String errorMessage, String action) {
+        return new ErrorDetail(errorType, errorMessage, action, null, null);
+    }
+
+    /**
+     * Create an error with a suggested action and the endpoint to request a new code from.
+     *
+     * @param errorType      The kind of error
+     * @param errorMessage   The error message
+     * @param action         What the user can do about it
+     * @param resendEndpoint The endpoint to request a new code from
+     * @return The error detail
+     */
+    public static ErrorDetail of(String errorType, String errorMessage, String action, String resendEndpoint) {
+        return new ErrorDetail(errorType, errorMessage, action, resendEndpoint, null);
+    }
+
+    /**
+     * Create a token introspection error, which also reports the token as invalid.
+     *
+     * @param errorType    The kind of error
+     * @param errorMessage The error message
+     * @return The error detail
+     */
+    public static ErrorDetail invalidToken(String errorType, String errorMessage) {
+        return new ErrorDetail(errorType, errorMessage, null, null, false);
+    }
+}
@@ -0,0 +1,14 @@
+package com.oldmutual.AwsCognitoMiddleware.dto;
+
+import java.util.Map;
+
+/**
+ * Result of a successful token introspection.
+ *
+ * @param valid      Always true; invalid tokens are reported as an {@link ErrorDetail}
+ * @param username   The Cognito username
+ * @param email      The email attribute, if the user has one
+ * @param attributes All user attributes
+ */
+public record IntrospectionResult(boolean valid, String username, String email, Map<String, String> attributes) {
+}
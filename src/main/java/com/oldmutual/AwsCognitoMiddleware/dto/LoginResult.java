@@ -0,0 +1,25 @@
+package com.oldmutual.AwsCognitoMiddleware.dto;
+
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AuthenticationResultType;
+
+/**
+ * Tokens returned by a successful login or MFA verification.
+ *
+ * @param accessToken  The access token
+ * @param refreshToken The refresh token
+ * @param idToken      The ID token
+ * @param expiresIn    The access token lifetime in seconds, as a string for compatibility with existing clients
+ */
+public record LoginResult(String accessToken, String refreshToken, String idToken, String expiresIn) {
+
+    /**
+     * Create the result from a Cognito authentication result.
+     *
+     * @param authResult The Cognito authentication result
+     * @return The login result
+     */
+    public static LoginResult of(AuthenticationResultType authResult) {
+        return new LoginResult(authResult.accessToken(), authResult.refreshToken(), authResult.idToken(),
+                String.valueOf(authResult.expiresIn()));
+    }
+}
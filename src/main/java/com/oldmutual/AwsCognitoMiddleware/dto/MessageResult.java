@@ -0,0 +1,9 @@
+package com.oldmutual.AwsCognitoMiddleware.dto;
+
+/**
+ * Result that only carries a message.
+ *
+ * @param message The message
+ */
+public record MessageResult(String message) {
+}
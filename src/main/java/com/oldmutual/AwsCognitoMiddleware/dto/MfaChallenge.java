@@ -0,0 +1,21 @@
+package com.oldmutual.AwsCognitoMiddleware.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.Map;
+
+/**
+ * MFA challenge returned by login when the user has to provide an MFA code.
+ * Exactly one of session and challengeHandle is set, depending on whether the MFA challenge store is enabled.
+ *
+ * @param challengeName       The Cognito challenge name
+ * @param session             The Cognito session
+ * @param challengeHandle     The handle of the challenge in the MFA challenge store
+ * @param challengeParameters The Cognito challenge parameters
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record MfaChallenge(String challengeName,
+                           String session,
+                           String challengeHandle,
+                           Map<String, String> challengeParameters) {
+}
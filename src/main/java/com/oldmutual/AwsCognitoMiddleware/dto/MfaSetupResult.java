@@ -0,0 +1,10 @@
+package com.oldmutual.AwsCognitoMiddleware.dto;
+
+/**
+ * Result of a successful MFA setup.
+ *
+ * @param mfaType The MFA type that was enabled
+ * @param status  The MFA status
+ */
+public record MfaSetupResult(String mfaType, String status) {
+}
@@ -1,5 +1,6 @@
 package com.oldmutual.AwsCognitoMiddleware.dto;
 
+import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
@@ -18,12 +19,21 @@ public class MfaVerifyRequest {
     @Email(message = "Email must be valid")
     private String email;
 
-    @NotBlank(message = "Session is required")
     private String session;
 
     @NotBlank(message = "MFA code is required")
     private String mfaCode;
 
-    @NotBlank(message = "Challenge name is required")
     private String challengeName; // SMS_MFA, SOFTWARE_TOKEN_MFA, or EMAIL_OTP
+
+    private String challengeHandle; // Returned by login instead of session when the MFA challenge store is enabled
+
+    @AssertTrue(message = "Either challengeHandle or session and challengeName are required")
+    public boolean isChallengeProvided() {
+        return hasText(challengeHandle) || (hasText(session) && hasText(challengeName));
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
 }
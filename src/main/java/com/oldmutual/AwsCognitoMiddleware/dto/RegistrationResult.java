@@ -0,0 +1,11 @@
+package com.oldmutual.AwsCognitoMiddleware.dto;
+
+/**
+ * Result of a successful registration.
+ *
+ * @param username                  The Cognito user sub
+ * @param status                    The user status, UNCONFIRMED until the email is verified
+ * @param userConfirmationNecessary Whether the user still has to verify, as a string for compatibility with existing clients
+ */
+public record RegistrationResult(String username, String status, String userConfirmationNecessary) {
+}
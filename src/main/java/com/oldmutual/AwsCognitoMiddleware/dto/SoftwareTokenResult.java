@@ -0,0 +1,10 @@
+package com.oldmutual.AwsCognitoMiddleware.dto;
+
+/**
+ * Result of associating a software token.
+ *
+ * @param secretCode The secret code to add to an authenticator app
+ * @param session    The Cognito session
+ */
+public record SoftwareTokenResult(String secretCode, String session) {
+}
@@ -0,0 +1,9 @@
+package com.oldmutual.AwsCognitoMiddleware.dto;
+
+/**
+ * Result that only reports a status.
+ *
+ * @param status The status
+ */
+public record StatusResult(String status) {
+}
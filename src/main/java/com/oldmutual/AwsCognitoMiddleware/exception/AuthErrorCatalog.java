@@ -0,0 +1,194 @@
+package com.oldmutual.AwsCognitoMiddleware.exception;
+
+import com.oldmutual.AwsCognitoMiddleware.dto.ApiResponse;
+import com.oldmutual.AwsCognitoMiddleware.dto.ErrorDetail;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.exception.SdkClientException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The error responses of the /api/auth endpoints, built once at startup.
+ * Cognito errors are looked up by endpoint and AWS error code; configuration, SDK client and
+ * unmapped errors share one template per endpoint.
+ */
+final class AuthErrorCatalog {
+
+    private static final String RESEND_ENDPOINT = "/api/auth/resend-otp";
+
+    /**
+     * How one kind of failure is answered.
+     *
+     * @param status            The HTTP status
+     * @param errorType         The error type returned to the client
+     * @param message           The response message, or its prefix when appendDetail is set
+     * @param appendDetail      Whether the exception message is appended to the response message
+     * @param errorMessage      A fixed error message, or null to return the exception message
+     * @param action            What the user can do about it, or null
+     * @param resendEndpoint    The endpoint to request a new code from, or null
+     * @param detailContains    Only use this template when the lower-cased exception message contains this, or null
+     * @param expected          Whether this is a normal business outcome, logged without a stack trace
+     */
+    record ErrorTemplate(HttpStatus status,
+                         String errorType,
+                         String message,
+                         boolean appendDetail,
+                         String errorMessage,
+                         String action,
+                         String resendEndpoint,
+                         String detailContains,
+                         boolean expected) {
+
+        boolean matches(String detail) {
+            return detailContains == null || (detail != null && detail.toLowerCase(Locale.ROOT).contains(detailContains));
+        }
+
+        ResponseEntity<ApiResponse<ErrorDetail>> toResponse(String detail, boolean reportsTokenValidity) {
+            String responseMessage = appendDetail ? message + detail : message;
+            String errorDetailMessage = errorMessage != null ? errorMessage : detail;
+            ErrorDetail errorDetail = new ErrorDetail(errorType, errorDetailMessage, action, resendEndpoint,
+                    reportsTokenValidity ? Boolean.FALSE : null);
+            return ResponseEntity.status(status).body(ApiResponse.error(responseMessage, errorDetail));
+        }
+    }
+
+    /**
+     * The templates of one endpoint.
+     *
+     * @param byErrorCode          Templates for Cognito error codes, tried in order
+     * @param fallback             The template for unmapped exceptions
+     * @param reportsTokenValidity Whether errors also report valid=false, as token introspection does
+     */
+    record Endpoint(Map<String, List<ErrorTemplate>> byErrorCode, ErrorTemplate fallback, boolean reportsTokenValidity) {
+    }
+
+    private static final ErrorTemplate CONFIGURATION_ERROR =
+            new ErrorTemplate(HttpStatus.BAD_REQUEST, "ConfigurationError", "Configuration error: ", true,
+                    null, null, null, null, false);
+    private static final ErrorTemplate AWS_CLIENT_ERROR =
+            new ErrorTemplate(HttpStatus.BAD_REQUEST, "AwsCredentialsError", "AWS credentials error. Please contact support.", false,
+                    null, null, null, null, false);
+    private static final ErrorTemplate MFA_CHALLENGE_EXPIRED =
+            new ErrorTemplate(HttpStatus.BAD_REQUEST, "ExpiredChallenge", "MFA challenge expired", false,
+                    null, null, null, null, true);
+
+    private final Map<String, Endpoint> endpoints = new HashMap<>();
+
+    AuthErrorCatalog() {
+        endpoint("/api/auth/register", "Error registering user: ", false,
+                expected("UsernameExistsException", "User with this email already exists"));
+        endpoint("/api/auth/verify", "Error verifying user: ", false,
+                expected("ExpiredCodeException", "Verification code has expired. Please request a new code.",
+                        "Your verification code has expired",
+                        "Please use the resend OTP endpoint to get a new code", RESEND_ENDPOINT),
+                expected("CodeMismatchException", "Invalid confirmation code. Please check and try again.",
+                        "The verification code you entered is incorrect",
+                        "Please check the code and try again, or request a new code", RESEND_ENDPOINT),
+                expected("NotAuthorizedException", "User is already verified or cannot be verified",
+                        "User is already verified or cannot be verified",
+                        "Try logging in - your account may already be verified", null));
+        endpoint("/api/auth/resend-otp", "Error resending OTP: ", false,
+                expected("NotAuthorizedException", "User is already verified. Please log in.",
+                        "User is already verified",
+                        "Your account is already verified. You can log in directly.", null),
+                expected("UserNotFoundException", "User not found",
+                        "No user found with this email address",
+                        "Please check your email address or register a new account", null));
+        endpoint("/api/auth/login", "Error authenticating user: ", false,
+                expected("NotAuthorizedException", "Invalid credentials"),
+                expected("UserNotFoundException", "User not found"));
+        endpoint("/api/auth/forgot-password", "Error initiating forgot password: ", false,
+                expected("UserNotFoundException", "User not found"),
+                new ErrorTemplate(HttpStatus.BAD_REQUEST, "InvalidParameterException",
+                        "User email is not verified. Please verify your email first or contact support.", false,
+                        null, null, null, "no registered/verified email", true),
+                new ErrorTemplate(HttpStatus.BAD_REQUEST, "InvalidParameterException", "", true,
+                        null, null, null, null, true));
+        endpoint("/api/auth/confirm-forgot-password", "Error confirming forgot password: ", false,
+                expected("CodeMismatchException", "Invalid confirmation code"),
+                expected("UserNotFoundException", "User not found"));
+        endpoint("/api/auth/mfa/setup", "Error setting up MFA: ", false);
+        endpoint("/api/auth/mfa/associate-token", "Error associating software token: ", false);
+        endpoint("/api/auth/mfa/verify-token", "Error verifying software token: ", false,
+                expected("CodeMismatchException", "Invalid verification code"));
+        endpoint("/api/auth/mfa/verify", "Error verifying MFA: ", false,
+                expected("CodeMismatchException", "Invalid MFA code"));
+        endpoint("/api/auth/token/introspect", "Error introspecting token: ", true,
+                new ErrorTemplate(HttpStatus.UNAUTHORIZED, "NotAuthorizedException", "Invalid or expired token", false,
+                        null, null, null, null, true));
+        endpoint("/api/auth/change-password", "Error changing password: ", false,
+                new ErrorTemplate(HttpStatus.UNAUTHORIZED, "NotAuthorizedException", "Previous password is incorrect", false,
+                        null, null, null, "incorrect username or password", true),
+                new ErrorTemplate(HttpStatus.UNAUTHORIZED, "NotAuthorizedException", "Invalid or expired access token", false,
+                        null, null, null, null, true),
+                new ErrorTemplate(HttpStatus.BAD_REQUEST, "InvalidPasswordException",
+                        "New password does not meet requirements: ", true, null, null, null, null, true),
+                new ErrorTemplate(HttpStatus.TOO_MANY_REQUESTS, "LimitExceededException",
+                        "Attempt limit exceeded. Please try again later.", false, null, null, null, null, true));
+    }
+
+    private static ErrorTemplate expected(String errorCode, String message) {
+        return new ErrorTemplate(HttpStatus.BAD_REQUEST, errorCode, message, false, null, null, null, null, true);
+    }
+
+    private static ErrorTemplate expected(String errorCode, String message, String errorMessage,
+                                          String action, String resendEndpoint) {
+        return new ErrorTemplate(HttpStatus.BAD_REQUEST, errorCode, message, false,
+                errorMessage, action, resendEndpoint, null, true);
+    }
+
+    private void endpoint(String path, String fallbackPrefix, boolean reportsTokenValidity, ErrorTemplate... templates) {
+        Map<String, List<ErrorTemplate>> byErrorCode = new HashMap<>();
+        for (ErrorTemplate template : templates) {
+            byErrorCode.computeIfAbsent(template.errorType(), code -> new ArrayList<>()).add(template);
+        }
+        byErrorCode.replaceAll((code, list) -> List.copyOf(list));
+        ErrorTemplate fallback = new ErrorTemplate(HttpStatus.BAD_REQUEST, "UnexpectedException", fallbackPrefix, true,
+                null, null, null, null, false);
+        endpoints.put(path, new Endpoint(Map.copyOf(byErrorCode), fallback, reportsTokenValidity));
+    }
+
+    /**
+     * Get the templates of an endpoint.
+     *
+     * @param path The request mapping pattern of the endpoint
+     * @return The endpoint, or null if its errors are not handled by this catalog
+     */
+    Endpoint endpoint(String path) {
+        return path != null ? endpoints.get(path) : null;
+    }
+
+    /**
+     * Find the template for an exception thrown by an endpoint.
+     *
+     * @param endpoint The endpoint
+     * @param ex       The exception
+     * @param detail   The exception message without AWS service details
+     * @return The template
+     */
+    static ErrorTemplate resolve(Endpoint endpoint, Throwable ex, String detail) {
+        if (ex instanceof AwsServiceException) {
+            List<ErrorTemplate> templates = endpoint.byErrorCode().get(ErrorMessages.codeOf(ex));
+            if (templates != null) {
+                for (ErrorTemplate template : templates) {
+                    if (template.matches(detail)) {
+                        return template;
+                    }
+                }
+            }
+        } else if (ex instanceof IllegalStateException) {
+            return CONFIGURATION_ERROR;
+        } else if (ex instanceof SdkClientException) {
+            return AWS_CLIENT_ERROR;
+        } else if (ex instanceof MfaChallengeExpiredException) {
+            return MFA_CHALLENGE_EXPIRED;
+        }
+        return endpoint.fallback();
+    }
+}
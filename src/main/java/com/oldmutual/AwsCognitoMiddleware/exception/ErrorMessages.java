@@ -0,0 +1,41 @@
+package com.oldmutual.AwsCognitoMiddleware.exception;
+
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+
+/**
+ * Helpers for turning exceptions into messages that are safe to return to clients.
+ */
+public final class ErrorMessages {
+
+    private ErrorMessages() {
+    }
+
+    /**
+     * Get the message of an exception without AWS service details.
+     * For AWS service errors this is the error message from the response, so no string searching is needed.
+     *
+     * @param ex The exception
+     * @return The message, or null if the exception has none
+     */
+    public static String of(Throwable ex) {
+        if (ex instanceof AwsServiceException awsEx && awsEx.awsErrorDetails() != null
+                && awsEx.awsErrorDetails().errorMessage() != null) {
+            return awsEx.awsErrorDetails().errorMessage();
+        }
+        return ex.getMessage();
+    }
+
+    /**
+     * Get the error code of an exception: the AWS error code for service errors, the class name otherwise.
+     *
+     * @param ex The exception
+     * @return The error code
+     */
+    public static String codeOf(Throwable ex) {
+        if (ex instanceof AwsServiceException awsEx && awsEx.awsErrorDetails() != null
+                && awsEx.awsErrorDetails().errorCode() != null) {
+            return awsEx.awsErrorDetails().errorCode();
+        }
+        return ex.getClass().getSimpleName();
+    }
+}
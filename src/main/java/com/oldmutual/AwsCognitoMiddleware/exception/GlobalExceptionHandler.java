@@ -1,15 +1,28 @@
 package com.oldmutual.AwsCognitoMiddleware.exception;
 
 import com.oldmutual.AwsCognitoMiddleware.dto.ApiResponse;
+import com.oldmutual.AwsCognitoMiddleware.dto.ErrorDetail;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
+import org.springframework.web.ErrorResponse;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.HttpMediaTypeNotSupportedException;
+import org.springframework.web.HttpRequestMethodNotSupportedException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.MissingRequestHeaderException;
+import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.resource.NoResourceFoundException;
 import software.amazon.awssdk.services.cognitoidentityprovider.model.CognitoIdentityProviderException;
 
 import java.util.HashMap;
@@ -18,11 +31,14 @@ import java.util.Map;
 /**
  * Global exception handler for the application.
  * Provides standardized error responses for common exceptions.
+ * Errors of the /api/auth endpoints are answered from the precomputed {@link AuthErrorCatalog}.
  */
 @Slf4j
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    private final AuthErrorCatalog authErrorCatalog = new AuthErrorCatalog();
+
     /**
      * Handle validation errors from @Valid annotations.
      *
@@ -66,56 +82,120 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(ApiResponse.error("Missing required header: " + ex.getHeaderName()));
     }
 
+    /**
+     * Handle requests Spring MVC rejects before they reach a controller: unreadable bodies, unsupported methods or
+     * media types, missing or mistyped parameters and unknown paths. These are client errors, so they keep their
+     * status and are logged on one line instead of reaching the general handler.
+     *
+     * @param ex      The framework exception
+     * @param request The current request
+     * @return A response with the exception's status and headers
+     */
+    @ExceptionHandler({
+            HttpMessageNotReadableException.class,
+            HttpRequestMethodNotSupportedException.class,
+            HttpMediaTypeNotSupportedException.class,
+            HttpMediaTypeNotAcceptableException.class,
+            MissingServletRequestParameterException.class,
+            MethodArgumentTypeMismatchException.class,
+            NoResourceFoundException.class
+    })
+    public ResponseEntity<ApiResponse<Void>> handleClientError(Exception ex, HttpServletRequest request) {
+        HttpStatusCode status = HttpStatus.BAD_REQUEST;
+        HttpHeaders headers = HttpHeaders.EMPTY;
+        String message;
+        if (ex instanceof ErrorResponse errorResponse) {
+            status = errorResponse.getStatusCode();
+            headers = errorResponse.getHeaders();
+            message = errorResponse.getBody().getDetail();
+        } else if (ex instanceof MethodArgumentTypeMismatchException mismatch) {
+            message = "Invalid value for parameter '" + mismatch.getName() + "'";
+        } else {
+            message = "Malformed request body";
+        }
+        log.warn("{} {} rejected with {}: {}", request.getMethod(), request.getRequestURI(), status.value(), message);
+        return ResponseEntity.status(status).headers(headers).body(ApiResponse.error(message));
+    }
+
+    /**
+     * Handle requests refused by a rate limit.
+     *
+     * @param ex The rate limit exception
+     * @return A 429 response with a Retry-After header
+     */
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ApiResponse<Void>> handleTooManyRequestsException(TooManyRequestsException ex) {
+        log.debug("Request refused: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(ApiResponse.error(ex.getMessage()));
+    }
+
     /**
      * Handle Cognito service exceptions.
      *
-     * @param ex The Cognito exception
+     * @param ex      The Cognito exception
+     * @param request The current request
      * @return A response with the Cognito error details
      */
     @ExceptionHandler(CognitoIdentityProviderException.class)
-    public ResponseEntity<ApiResponse<Map<String, String>>> handleCognitoException(CognitoIdentityProviderException ex) {
-        String fullErrorMessage = ex.getMessage();
-        log.error("Cognito error: {}", fullErrorMessage);
-        
-        // Extract the core error message without AWS service details
-        String cleanErrorMessage = extractCleanErrorMessage(fullErrorMessage);
-        
+    public ResponseEntity<? extends ApiResponse<?>> handleCognitoException(CognitoIdentityProviderException ex,
+                                                                           HttpServletRequest request) {
+        AuthErrorCatalog.Endpoint endpoint = authErrorCatalog.endpoint(mappingPattern(request));
+        if (endpoint != null) {
+            return handleAuthException(endpoint, ex, request);
+        }
+
+        String cleanErrorMessage = ErrorMessages.of(ex);
+        log.warn("Cognito error: {}", cleanErrorMessage);
+
         Map<String, String> errorData = new HashMap<>();
         errorData.put("errorType", ex.getClass().getSimpleName());
-        errorData.put("errorMessage", cleanErrorMessage);
-        
+        errorData.put("errorMessage", cleanErrorMessage != null ? cleanErrorMessage : "Unknown error");
+
         return ResponseEntity.badRequest().body(ApiResponse.error("Invalid credentials", errorData));
     }
-    
+
     /**
-     * Extracts the clean error message from the full AWS error message.
-     * Removes the AWS service details in parentheses.
+     * Answer an exception thrown by an /api/auth endpoint from its template.
+     * Expected outcomes such as wrong passwords are logged on one line; anything else is logged with its stack trace.
      *
-     * @param fullErrorMessage The full error message from AWS
-     * @return The clean error message without AWS service details
+     * @param endpoint The endpoint's templates
+     * @param ex       The exception
+     * @param request  The current request
+     * @return The error response
      */
-    private String extractCleanErrorMessage(String fullErrorMessage) {
-        if (fullErrorMessage == null) {
-            return "Unknown error";
+    private ResponseEntity<ApiResponse<ErrorDetail>> handleAuthException(AuthErrorCatalog.Endpoint endpoint,
+                                                                         Exception ex,
+                                                                         HttpServletRequest request) {
+        String detail = ErrorMessages.of(ex);
+        AuthErrorCatalog.ErrorTemplate template = AuthErrorCatalog.resolve(endpoint, ex, detail);
+        if (template.expected()) {
+            log.info("{} {} refused: {} - {}", request.getMethod(), request.getRequestURI(), template.errorType(), detail);
+        } else {
+            log.error("{} {} failed: {}", request.getMethod(), request.getRequestURI(), template.errorType(), ex);
         }
-        
-        // Extract the message before the AWS service details
-        int serviceIndex = fullErrorMessage.indexOf(" (Service:");
-        if (serviceIndex > 0) {
-            return fullErrorMessage.substring(0, serviceIndex);
-        }
-        
-        return fullErrorMessage;
+        return template.toResponse(detail, endpoint.reportsTokenValidity());
+    }
+
+    private static String mappingPattern(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : null;
     }
 
     /**
      * Handle general exceptions.
      *
-     * @param ex The exception
+     * @param ex      The exception
+     * @param request The current request
      * @return A generic error response
      */
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<ApiResponse<Void>> handleGeneralException(Exception ex) {
+    public ResponseEntity<? extends ApiResponse<?>> handleGeneralException(Exception ex, HttpServletRequest request) {
+        AuthErrorCatalog.Endpoint endpoint = authErrorCatalog.endpoint(mappingPattern(request));
+        if (endpoint != null) {
+            return handleAuthException(endpoint, ex, request);
+        }
         log.error("Unexpected error", ex);
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(ApiResponse.error("An unexpected error occurred"));
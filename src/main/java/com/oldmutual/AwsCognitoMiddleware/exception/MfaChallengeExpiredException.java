@@ -0,0 +1,12 @@
+package com.oldmutual.AwsCognitoMiddleware.exception;
+
+/**
+ * Thrown when an MFA challenge handle is unknown, expired or belongs to another user.
+ */
+public class MfaChallengeExpiredException extends RuntimeException {
+
+    public MfaChallengeExpiredException() {
+        // No stack trace: this is an expected outcome, mapped to a 400 by GlobalExceptionHandler
+        super("MFA challenge is unknown or has expired, please log in again", null, false, false);
+    }
+}
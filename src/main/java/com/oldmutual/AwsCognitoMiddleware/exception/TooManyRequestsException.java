@@ -0,0 +1,19 @@
+package com.oldmutual.AwsCognitoMiddleware.exception;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a request is refused before reaching Cognito because a limit was exceeded.
+ * Mapped to HTTP 429 with a Retry-After header by {@link GlobalExceptionHandler}.
+ */
+@Getter
+public class TooManyRequestsException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        // No stack trace: these are thrown at attack rates and are never diagnosed from a trace
+        super(message, null, false, false);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
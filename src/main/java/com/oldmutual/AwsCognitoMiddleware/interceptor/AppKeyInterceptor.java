@@ -1,21 +1,31 @@
 package com.oldmutual.AwsCognitoMiddleware.interceptor;
 
+import com.oldmutual.AwsCognitoMiddleware.interceptor.AppKeyRejectionTracker.Rejection;
+import com.oldmutual.AwsCognitoMiddleware.jfr.AppConfigResolveEvent;
+import com.oldmutual.AwsCognitoMiddleware.logging.RequestIdFilter;
 import com.oldmutual.AwsCognitoMiddleware.model.CognitoAppConfig;
-import com.oldmutual.AwsCognitoMiddleware.repository.CognitoAppConfigRepository;
+import com.oldmutual.AwsCognitoMiddleware.service.AppConfigCache;
+import com.oldmutual.AwsCognitoMiddleware.service.UserActivityLogService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Optional;
 import java.util.UUID;
 
 /**
  * Interceptor to validate the X-APP-KEY header and fetch the corresponding Cognito configuration.
  * This interceptor is applied to all requests to /api/auth/** endpoints.
+ * Rejected keys and noisy IPs are answered from memory through {@link AppKeyRejectionTracker}.
+ * Rejections are client errors and the header value is attacker-controlled, so only the first rejection of an IP
+ * per rejection window is logged at WARN, without the key; the rest are logged at DEBUG.
  */
 @Slf4j
 @Component
@@ -24,56 +34,103 @@ public class AppKeyInterceptor implements HandlerInterceptor {
 
     private static final String APP_KEY_HEADER = "X-APP-KEY";
     private static final String APP_CONFIG_ATTRIBUTE = "appConfig";
+    private static final String CONTENT_TYPE = "text/plain;charset=UTF-8";
 
-    private final CognitoAppConfigRepository cognitoAppConfigRepository;
+    private static final Rejection MISSING_KEY = rejection(HttpStatus.UNAUTHORIZED, "Missing X-APP-KEY header");
+    private static final Rejection INVALID_KEY = rejection(HttpStatus.UNAUTHORIZED, "Invalid X-APP-KEY");
+    private static final Rejection INVALID_KEY_FORMAT = rejection(HttpStatus.UNAUTHORIZED, "Invalid X-APP-KEY format");
+    private static final Rejection APP_DISABLED = rejection(HttpStatus.FORBIDDEN, "App is disabled");
+    private static final Rejection TOO_MANY_REJECTIONS = rejection(HttpStatus.TOO_MANY_REQUESTS, "Too many invalid X-APP-KEY attempts");
+
+    private final AppConfigCache appConfigCache;
+    private final AppKeyRejectionTracker rejectionTracker;
 
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        String ipAddress = UserActivityLogService.extractIpAddress(request);
+        if (rejectionTracker.isBlocked(ipAddress)) {
+            log.debug("Refusing request from {} after repeated X-APP-KEY rejections", ipAddress);
+            return write(response, TOO_MANY_REJECTIONS);
+        }
+
         String appKeyHeader = request.getHeader(APP_KEY_HEADER);
-        
+
         // Check if the X-APP-KEY header is present
         if (appKeyHeader == null || appKeyHeader.isEmpty()) {
-            log.error("Missing X-APP-KEY header");
-            response.setStatus(HttpStatus.UNAUTHORIZED.value());
-            response.getWriter().write("Missing X-APP-KEY header");
-            return false;
+            return reject(response, ipAddress, MISSING_KEY);
+        }
+
+        // Replay the rejection for keys already known to be invalid
+        Rejection cached = rejectionTracker.cachedRejection(appKeyHeader);
+        if (cached != null) {
+            return reject(response, ipAddress, cached);
         }
-        
+
+        AppConfigResolveEvent event = new AppConfigResolveEvent();
+        event.begin();
         try {
             // Parse the UUID from the header
             UUID appKey = UUID.fromString(appKeyHeader);
-            
-            // Fetch the configuration from the database
-            Optional<CognitoAppConfig> appConfigOpt = cognitoAppConfigRepository.findByAppKey(appKey);
-            
+
+            // Fetch the configuration, from the database only on a cache miss
+            Optional<CognitoAppConfig> appConfigOpt = appConfigCache.findByAppKey(appKey);
+
             if (appConfigOpt.isEmpty()) {
-                log.error("Invalid X-APP-KEY: {}", appKeyHeader);
-                response.setStatus(HttpStatus.UNAUTHORIZED.value());
-                response.getWriter().write("Invalid X-APP-KEY");
-                return false;
+                event.outcome = "UNKNOWN";
+                rejectionTracker.rememberRejection(appKeyHeader, INVALID_KEY);
+                return reject(response, ipAddress, INVALID_KEY);
             }
-            
+
             CognitoAppConfig appConfig = appConfigOpt.get();
-            
+            event.appName = appConfig.getAppName();
+
             // Check if the app is enabled
             if (!appConfig.isEnabled()) {
-                log.error("App is disabled: {}", appKeyHeader);
-                response.setStatus(HttpStatus.FORBIDDEN.value());
-                response.getWriter().write("App is disabled");
-                return false;
+                event.outcome = "DISABLED";
+                return reject(response, ipAddress, APP_DISABLED);
             }
-            
+
+            event.outcome = "FOUND";
+
             // Store the configuration in the request attributes for later use
             request.setAttribute(APP_CONFIG_ATTRIBUTE, appConfig);
+            MDC.put(RequestIdFilter.APP_MDC_KEY, appConfig.getAppName());
             log.debug("Found configuration for app: {}", appConfig.getAppName());
-            
+
             return true;
         } catch (IllegalArgumentException e) {
             // Invalid UUID format
-            log.error("Invalid X-APP-KEY format: {}", appKeyHeader);
-            response.setStatus(HttpStatus.UNAUTHORIZED.value());
-            response.getWriter().write("Invalid X-APP-KEY format");
-            return false;
+            event.outcome = "INVALID_FORMAT";
+            rejectionTracker.rememberRejection(appKeyHeader, INVALID_KEY_FORMAT);
+            return reject(response, ipAddress, INVALID_KEY_FORMAT);
+        } finally {
+            event.commit();
+        }
+    }
+
+    private boolean reject(HttpServletResponse response, String ipAddress, Rejection rejection) throws IOException {
+        if (rejectionTracker.recordRejection(ipAddress)) {
+            log.warn("Rejected request from {}: {} (further rejections from this IP in the window are logged at DEBUG)",
+                    ipAddress, reason(rejection));
+        } else if (log.isDebugEnabled()) {
+            log.debug("Rejected request from {}: {}", ipAddress, reason(rejection));
         }
+        return write(response, rejection);
+    }
+
+    private static String reason(Rejection rejection) {
+        return new String(rejection.body(), StandardCharsets.UTF_8);
+    }
+
+    private static boolean write(HttpServletResponse response, Rejection rejection) throws IOException {
+        response.setStatus(rejection.status());
+        response.setContentType(CONTENT_TYPE);
+        response.setContentLength(rejection.body().length);
+        response.getOutputStream().write(rejection.body());
+        return false;
+    }
+
+    private static Rejection rejection(HttpStatus status, String message) {
+        return new Rejection(status.value(), message.getBytes(StandardCharsets.UTF_8));
     }
-}
\ No newline at end of file
+}
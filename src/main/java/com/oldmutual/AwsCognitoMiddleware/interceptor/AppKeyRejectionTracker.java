@@ -0,0 +1,155 @@
+package com.oldmutual.AwsCognitoMiddleware.interceptor;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Remembers rejected X-APP-KEY values and counts rejections per client IP,
+ * so junk traffic is answered from memory without touching the database.
+ * Both maps are bounded; when full, expired entries are purged and new ones are dropped if still full.
+ */
+@Component
+public class AppKeyRejectionTracker {
+
+    /**
+     * A precomputed rejection response.
+     *
+     * @param status The HTTP status
+     * @param body   The response body
+     */
+    public record Rejection(int status, byte[] body) {
+    }
+
+    private record CachedRejection(Rejection rejection, long expiresAt) {
+    }
+
+    private record IpWindow(long startedAt, AtomicInteger count) {
+    }
+
+    private final ConcurrentHashMap<String, CachedRejection> rejectedKeys = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, IpWindow> rejectionsByIp = new ConcurrentHashMap<>();
+    private final long negativeTtlNanos;
+    private final long ipWindowNanos;
+    private final int maxRejectionsPerIp;
+    private final int maxEntries;
+    private final LongSupplier nanoClock;
+
+    @Autowired
+    public AppKeyRejectionTracker(@Value("${app.app-key.negative-cache.ttl:30s}") Duration negativeTtl,
+                                  @Value("${app.app-key.rejections.window:1m}") Duration ipWindow,
+                                  @Value("${app.app-key.rejections.max-per-ip:50}") int maxRejectionsPerIp,
+                                  @Value("${app.app-key.max-entries:10000}") int maxEntries) {
+        this(negativeTtl, ipWindow, maxRejectionsPerIp, maxEntries, System::nanoTime);
+    }
+
+    AppKeyRejectionTracker(Duration negativeTtl, Duration ipWindow, int maxRejectionsPerIp, int maxEntries,
+                           LongSupplier nanoClock) {
+        this.negativeTtlNanos = negativeTtl.toNanos();
+        this.ipWindowNanos = ipWindow.toNanos();
+        this.maxRejectionsPerIp = maxRejectionsPerIp;
+        this.maxEntries = maxEntries;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Get the cached rejection for an app key header value.
+     *
+     * @param appKeyHeader The raw X-APP-KEY header
+     * @return The rejection, or null if the key is not known to be invalid
+     */
+    public Rejection cachedRejection(String appKeyHeader) {
+        CachedRejection cached = rejectedKeys.get(appKeyHeader);
+        if (cached == null) {
+            return null;
+        }
+        if (nanoClock.getAsLong() - cached.expiresAt() > 0) {
+            rejectedKeys.remove(appKeyHeader, cached);
+            return null;
+        }
+        return cached.rejection();
+    }
+
+    /**
+     * Remember that an app key header value was rejected.
+     *
+     * @param appKeyHeader The raw X-APP-KEY header
+     * @param rejection    The rejection to replay for this key
+     */
+    public void rememberRejection(String appKeyHeader, Rejection rejection) {
+        long now = nanoClock.getAsLong();
+        if (rejectedKeys.size() >= maxEntries) {
+            rejectedKeys.values().removeIf(cached -> now - cached.expiresAt() > 0);
+            if (rejectedKeys.size() >= maxEntries) {
+                return;
+            }
+        }
+        rejectedKeys.put(appKeyHeader, new CachedRejection(rejection, now + negativeTtlNanos));
+    }
+
+    /**
+     * Check whether an IP has exceeded the rejection limit in the current window.
+     *
+     * @param ipAddress The client IP
+     * @return true if requests from this IP should be refused outright
+     */
+    public boolean isBlocked(String ipAddress) {
+        IpWindow window = rejectionsByIp.get(ipAddress);
+        return window != null
+                && nanoClock.getAsLong() - window.startedAt() < ipWindowNanos
+                && window.count().get() >= maxRejectionsPerIp;
+    }
+
+    /**
+     * Count a rejection for an IP.
+     *
+     * @param ipAddress The client IP
+     * @return true if this is the IP's first rejection in a new window
+     */
+    public boolean recordRejection(String ipAddress) {
+        long now = nanoClock.getAsLong();
+        if (rejectionsByIp.size() >= maxEntries && !rejectionsByIp.containsKey(ipAddress)) {
+            rejectionsByIp.values().removeIf(window -> now - window.startedAt() >= ipWindowNanos);
+            if (rejectionsByIp.size() >= maxEntries) {
+                return false;
+            }
+        }
+        boolean[] started = new boolean[1];
+        rejectionsByIp.compute(ipAddress, (ip, window) -> {
+            if (window == null || now - window.startedAt() >= ipWindowNanos) {
+                started[0] = true;
+                return new IpWindow(now, new AtomicInteger(1));
+            }
+            return incremented(window);
+        });
+        return started[0];
+    }
+
+    /**
+     * Get the number of remembered rejected keys.
+     *
+     * @return The negative cache size
+     */
+    public int rejectedKeyCount() {
+        return rejectedKeys.size();
+    }
+
+    /**
+     * Get the number of IPs with a rejection window.
+     *
+     * @return The number of tracked IPs
+     */
+    public int trackedIpCount() {
+        return rejectionsByIp.size();
+    }
+
+    private static IpWindow incremented(IpWindow window) {
+        window.count().incrementAndGet();
+        return window;
+    }
+}
@@ -0,0 +1,93 @@
+package com.oldmutual.AwsCognitoMiddleware.interceptor;
+
+import com.oldmutual.AwsCognitoMiddleware.config.RateLimitProperties;
+import com.oldmutual.AwsCognitoMiddleware.config.RateLimitProperties.EndpointLimits;
+import com.oldmutual.AwsCognitoMiddleware.controller.AuthController;
+import com.oldmutual.AwsCognitoMiddleware.dto.ConfirmForgotPasswordDto;
+import com.oldmutual.AwsCognitoMiddleware.dto.ForgotPasswordDto;
+import com.oldmutual.AwsCognitoMiddleware.dto.LoginRequest;
+import com.oldmutual.AwsCognitoMiddleware.dto.MfaVerifyRequest;
+import com.oldmutual.AwsCognitoMiddleware.dto.ResendOtpRequest;
+import com.oldmutual.AwsCognitoMiddleware.dto.VerifyRequest;
+import com.oldmutual.AwsCognitoMiddleware.model.CognitoAppConfig;
+import com.oldmutual.AwsCognitoMiddleware.service.FailureTracker;
+import com.oldmutual.AwsCognitoMiddleware.service.RateLimiter;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+
+import java.lang.reflect.Type;
+import java.util.Locale;
+
+/**
+ * Delays attempts on slowed-down usernames and applies the per-user rate limit to auth requests as soon as
+ * the request body has been read, before the controller calls Cognito.
+ */
+@ControllerAdvice(assignableTypes = AuthController.class)
+@RequiredArgsConstructor
+public class AuthThrottleBodyAdvice extends RequestBodyAdviceAdapter {
+
+    private static final String APP_CONFIG_ATTRIBUTE = "appConfig";
+
+    private final RateLimitProperties rateLimitProperties;
+    private final RateLimiter rateLimiter;
+    private final FailureTracker failureTracker;
+
+    @Override
+    public boolean supports(MethodParameter methodParameter, Type targetType,
+                            Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object afterBodyRead(Object body, HttpInputMessage inputMessage, MethodParameter parameter,
+                                Type targetType, Class<? extends HttpMessageConverter<?>> converterType) {
+        String email = emailOf(body);
+        if (email == null) {
+            return body;
+        }
+        failureTracker.checkUser(email);
+
+        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
+        if (!rateLimitProperties.isEnabled() || attributes == null) {
+            return body;
+        }
+
+        HttpServletRequest request = attributes.getRequest();
+        String endpoint = AuthThrottleInterceptor.endpointOf(request);
+        CognitoAppConfig appConfig = (CognitoAppConfig) request.getAttribute(APP_CONFIG_ATTRIBUTE);
+        EndpointLimits limits = rateLimitProperties.limitsFor(endpoint, appConfig != null ? appConfig.getAppName() : null);
+        if (limits != null) {
+            rateLimiter.check(endpoint, "user", email.toLowerCase(Locale.ROOT), limits.getUser());
+        }
+        return body;
+    }
+
+    private static String emailOf(Object body) {
+        if (body instanceof LoginRequest login) {
+            return login.getEmail();
+        }
+        if (body instanceof ForgotPasswordDto forgotPassword) {
+            return forgotPassword.getEmail();
+        }
+        if (body instanceof ResendOtpRequest resendOtp) {
+            return resendOtp.getEmail();
+        }
+        if (body instanceof MfaVerifyRequest mfaVerify) {
+            return mfaVerify.getEmail();
+        }
+        if (body instanceof VerifyRequest verify) {
+            return verify.getEmail();
+        }
+        if (body instanceof ConfirmForgotPasswordDto confirmForgotPassword) {
+            return confirmForgotPassword.getEmail();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,80 @@
+package com.oldmutual.AwsCognitoMiddleware.interceptor;
+
+import com.oldmutual.AwsCognitoMiddleware.config.RateLimitProperties;
+import com.oldmutual.AwsCognitoMiddleware.config.RateLimitProperties.EndpointLimits;
+import com.oldmutual.AwsCognitoMiddleware.config.RateLimitProperties.Limit;
+import com.oldmutual.AwsCognitoMiddleware.model.CognitoAppConfig;
+import com.oldmutual.AwsCognitoMiddleware.service.FailureTracker;
+import com.oldmutual.AwsCognitoMiddleware.service.RateLimiter;
+import com.oldmutual.AwsCognitoMiddleware.service.UserActivityLogService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Interceptor refusing blocked IPs and applying the per-IP and per-app rate limits to /api/auth/** endpoints,
+ * including the app-wide limit set on the app configuration.
+ * Runs after {@link AppKeyInterceptor} so the tenant is known, and before the request body is read.
+ * Per-user checks are applied by {@link AuthThrottleBodyAdvice} once the email is available.
+ */
+@Component
+@RequiredArgsConstructor
+public class AuthThrottleInterceptor implements HandlerInterceptor {
+
+    private static final String APP_CONFIG_ATTRIBUTE = "appConfig";
+    private static final String AUTH_PATH_PREFIX = "/api/auth/";
+    private static final String ALL_ENDPOINTS = "*";
+
+    private final RateLimitProperties rateLimitProperties;
+    private final RateLimiter rateLimiter;
+    private final FailureTracker failureTracker;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String ipAddress = UserActivityLogService.extractIpAddress(request);
+        failureTracker.checkIp(ipAddress);
+
+        if (!rateLimitProperties.isEnabled()) {
+            return true;
+        }
+
+        String endpoint = endpointOf(request);
+        CognitoAppConfig appConfig = (CognitoAppConfig) request.getAttribute(APP_CONFIG_ATTRIBUTE);
+        String appName = appConfig != null ? appConfig.getAppName() : null;
+
+        // Per-app cap configured through the admin API, across all auth endpoints; keyed by app key because
+        // app names are not unique and apps sharing a name must not share a budget
+        if (appConfig != null && appConfig.getRateLimitPerMinute() != null) {
+            rateLimiter.check(ALL_ENDPOINTS, "app", appConfig.getAppKey().toString(),
+                    perMinute(appConfig.getRateLimitPerMinute()));
+        }
+
+        EndpointLimits limits = rateLimitProperties.limitsFor(endpoint, appName);
+        if (limits == null) {
+            return true;
+        }
+
+        rateLimiter.check(endpoint, "ip", ipAddress, limits.getIp());
+        rateLimiter.check(endpoint, "app", appName, limits.getApp());
+        return true;
+    }
+
+    private static Limit perMinute(int requests) {
+        Limit limit = new Limit();
+        limit.setRequests(requests);
+        return limit;
+    }
+
+    /**
+     * Get the endpoint name used for rate limit configuration, i.e. the path after /api/auth/.
+     *
+     * @param request The HTTP request
+     * @return The endpoint name
+     */
+    static String endpointOf(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return path.startsWith(AUTH_PATH_PREFIX) ? path.substring(AUTH_PATH_PREFIX.length()) : path;
+    }
+}
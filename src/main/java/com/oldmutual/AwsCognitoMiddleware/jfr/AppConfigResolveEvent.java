@@ -0,0 +1,26 @@
+package com.oldmutual.AwsCognitoMiddleware.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for resolving the X-APP-KEY header to an app configuration in AppKeyInterceptor.
+ */
+@Name("com.oldmutual.cognito.AppConfigResolve")
+@Label("App Config Resolve")
+@Category({"Cognito Middleware", "Request"})
+@Description("Lookup of the app configuration for an X-APP-KEY, from the cache or the database")
+@StackTrace(false)
+public class AppConfigResolveEvent extends Event {
+
+    @Label("App Name")
+    public String appName;
+
+    @Label("Outcome")
+    @Description("FOUND, UNKNOWN, DISABLED or INVALID_FORMAT")
+    public String outcome;
+}
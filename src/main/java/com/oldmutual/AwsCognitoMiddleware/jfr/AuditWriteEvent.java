@@ -0,0 +1,28 @@
+package com.oldmutual.AwsCognitoMiddleware.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for writing a user activity log entry.
+ */
+@Name("com.oldmutual.cognito.AuditWrite")
+@Label("Audit Write")
+@Category({"Cognito Middleware", "Audit"})
+@Description("Persisting a user activity log entry")
+@StackTrace(false)
+public class AuditWriteEvent extends Event {
+
+    @Label("App Name")
+    public String appName;
+
+    @Label("Activity")
+    public String activity;
+
+    @Label("Status")
+    public String status;
+}
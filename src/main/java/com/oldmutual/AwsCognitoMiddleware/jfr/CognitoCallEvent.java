@@ -0,0 +1,29 @@
+package com.oldmutual.AwsCognitoMiddleware.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for a single Cognito API call.
+ */
+@Name("com.oldmutual.cognito.CognitoCall")
+@Label("Cognito Call")
+@Category({"Cognito Middleware", "Cognito"})
+@Description("Upstream Cognito API call made on behalf of an app")
+@StackTrace(false)
+public class CognitoCallEvent extends Event {
+
+    @Label("App Name")
+    public String appName;
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Outcome")
+    @Description("success, the Cognito error code, or the client-side exception")
+    public String outcome;
+}
@@ -0,0 +1,25 @@
+package com.oldmutual.AwsCognitoMiddleware.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for obtaining the Cognito client used by a request.
+ */
+@Name("com.oldmutual.cognito.CognitoClientAcquire")
+@Label("Cognito Client Acquire")
+@Category({"Cognito Middleware", "Cognito"})
+@Description("Time spent obtaining a Cognito client for the calling app")
+@StackTrace(false)
+public class CognitoClientAcquireEvent extends Event {
+
+    @Label("App Name")
+    public String appName;
+
+    @Label("Region")
+    public String region;
+}
@@ -0,0 +1,55 @@
+package com.oldmutual.AwsCognitoMiddleware.logging;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Masks personal data and credentials in log messages before they are written.
+ * <ul>
+ *     <li>Emails keep their first character and domain: {@code j***@example.com}</li>
+ *     <li>JWTs (access, ID and refresh tokens) become {@code [JWT]}</li>
+ *     <li>Values of password, secret, token, session and confirmation code fields become {@code [REDACTED]}</li>
+ *     <li>Any other run of 64 or more base64 characters, such as a Cognito session, becomes {@code [REDACTED]}</li>
+ * </ul>
+ * Runs on the async appender's worker thread, not on the request thread.
+ */
+public final class LogRedactor {
+
+    private static final Pattern EMAIL = Pattern.compile("([A-Za-z0-9._%+-])[A-Za-z0-9._%+-]*@([A-Za-z0-9-]+(?:\\.[A-Za-z0-9-]+)+)");
+    private static final Pattern JWT = Pattern.compile("eyJ[A-Za-z0-9_-]+\\.[A-Za-z0-9_-]+\\.[A-Za-z0-9_.-]*");
+    private static final Pattern SECRET_FIELD = Pattern.compile(
+            "(?i)\\b(\\w*(?:password|secret|token)|session|confirmationCode|mfaCode|userCode)(\"?\\s*[:=]\\s*\"?)([^\\s,\"'}\\[\\]]+)");
+    private static final Pattern LONG_TOKEN = Pattern.compile("[A-Za-z0-9+/_=-]{64,}");
+
+    private LogRedactor() {
+    }
+
+    /**
+     * Redact a message.
+     *
+     * @param message The message, may be null
+     * @return The redacted message
+     */
+    public static String redact(String message) {
+        if (message == null || message.isEmpty()) {
+            return message;
+        }
+        String result = message;
+        if (result.indexOf('@') >= 0) {
+            result = EMAIL.matcher(result).replaceAll("$1***@$2");
+        }
+        if (result.contains("eyJ")) {
+            result = JWT.matcher(result).replaceAll("[JWT]");
+        }
+        if (result.indexOf('=') >= 0 || result.indexOf(':') >= 0) {
+            Matcher matcher = SECRET_FIELD.matcher(result);
+            if (matcher.find()) {
+                result = matcher.replaceAll("$1$2[REDACTED]");
+            }
+        }
+        if (result.length() >= 64) {
+            result = LONG_TOKEN.matcher(result).replaceAll("[REDACTED]");
+        }
+        return result;
+    }
+}
@@ -0,0 +1,45 @@
+package com.oldmutual.AwsCognitoMiddleware.logging;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.ThrowableProxyUtil;
+import org.springframework.boot.json.JsonWriter;
+import org.springframework.boot.logging.structured.StructuredLogFormatter;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * One-line JSON log events with the request id, app and Cognito operation from the MDC,
+ * and the message and stack trace passed through {@link LogRedactor}.
+ * Selected with {@code logging.structured.format.console} or from logback-spring.xml.
+ */
+public class RedactingJsonLogFormatter implements StructuredLogFormatter<ILoggingEvent> {
+
+    private final JsonWriter<ILoggingEvent> writer = JsonWriter.<ILoggingEvent>of(members -> {
+        members.add("@timestamp", ILoggingEvent::getInstant).as(Instant::toString);
+        members.add("level", ILoggingEvent::getLevel).as(Object::toString);
+        members.add("thread", ILoggingEvent::getThreadName);
+        members.add("logger", ILoggingEvent::getLoggerName);
+        members.add("message", ILoggingEvent::getFormattedMessage).as(LogRedactor::redact);
+        members.add(RequestIdFilter.REQUEST_ID_MDC_KEY, event -> mdc(event, RequestIdFilter.REQUEST_ID_MDC_KEY)).whenNotNull();
+        members.add(RequestIdFilter.APP_MDC_KEY, event -> mdc(event, RequestIdFilter.APP_MDC_KEY)).whenNotNull();
+        members.add(RequestIdFilter.OPERATION_MDC_KEY, event -> mdc(event, RequestIdFilter.OPERATION_MDC_KEY)).whenNotNull();
+        members.add("error", ILoggingEvent::getThrowableProxy).whenNotNull()
+                .as(RedactingJsonLogFormatter::stackTrace);
+    }).withNewLineAtEnd();
+
+    @Override
+    public String format(ILoggingEvent event) {
+        return writer.writeToString(event);
+    }
+
+    private static String mdc(ILoggingEvent event, String key) {
+        Map<String, String> mdc = event.getMDCPropertyMap();
+        return mdc != null ? mdc.get(key) : null;
+    }
+
+    private static String stackTrace(IThrowableProxy throwableProxy) {
+        return LogRedactor.redact(ThrowableProxyUtil.asString(throwableProxy));
+    }
+}
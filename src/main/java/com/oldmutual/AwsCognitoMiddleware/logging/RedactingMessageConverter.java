@@ -0,0 +1,15 @@
+package com.oldmutual.AwsCognitoMiddleware.logging;
+
+import ch.qos.logback.classic.pattern.MessageConverter;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+/**
+ * Logback {@code %msg} converter that applies {@link LogRedactor}, used by the plain-text console pattern.
+ */
+public class RedactingMessageConverter extends MessageConverter {
+
+    @Override
+    public String convert(ILoggingEvent event) {
+        return LogRedactor.redact(super.convert(event));
+    }
+}
@@ -38,14 +38,43 @@ public class CognitoAppConfig {
     @Column(nullable = false)
     private String clientId;
 
+    /**
+     * Optional Cognito endpoint URL overriding the regional AWS endpoint.
+     * Used to point an app at a local Cognito stand-in for load and integration testing.
+     */
+    @Column
+    private String endpointOverride;
+
+    /**
+     * Optional Cognito client connection settings; the service defaults apply when null.
+     * Changes are applied to the app's client on the next request, without a restart.
+     */
+    @Column
+    private Integer maxConnections;
+
+    @Column
+    private Integer connectionTtlSeconds;
+
+    @Column
+    private Integer apiCallTimeoutMillis;
+
+    @Column
+    private Integer apiCallAttemptTimeoutMillis;
+
+    /**
+     * Optional cap on /api/auth requests per minute across all of the app's users.
+     */
+    @Column
+    private Integer rateLimitPerMinute;
+
     /**
      * Client secret is stored encrypted in the database.
-     * Jasypt is used for encryption/decryption.
+     * Jasypt is used for encryption/decryption; the value is only decrypted when revealed.
      * This field is optional as some Cognito operations only require userPoolId and clientId.
      */
 
     @Convert(converter = AttributeEncryptor.class)
-    private String clientSecret;
+    private EncryptedSecret clientSecret;
     
     /**
      * Flag to indicate if the application is enabled.
@@ -0,0 +1,90 @@
+package com.oldmutual.AwsCognitoMiddleware.model;
+
+import com.oldmutual.AwsCognitoMiddleware.config.DecryptedSecretCache;
+import org.hibernate.annotations.Immutable;
+
+import java.util.Objects;
+
+/**
+ * Value type holding a secret that is stored encrypted in the database.
+ * Hydrated values keep only the ciphertext; the plaintext is decrypted on first
+ * {@link #reveal()} and memoized in the {@link DecryptedSecretCache}, so loading
+ * or listing app configurations does not pay the PBE cost. The plaintext is only handed out as a char array
+ * the caller owns and should zero after use.
+ */
+@Immutable
+public final class EncryptedSecret {
+
+    private final String ciphertext;
+    private final String plaintext;
+    private final DecryptedSecretCache cache;
+
+    private EncryptedSecret(String ciphertext, String plaintext, DecryptedSecretCache cache) {
+        this.ciphertext = ciphertext;
+        this.plaintext = plaintext;
+        this.cache = cache;
+    }
+
+    /**
+     * Wrap a ciphertext read from the database. Nothing is decrypted here.
+     *
+     * @param ciphertext The encrypted value
+     * @param cache      The cache used to decrypt and memoize on first use
+     * @return The secret
+     */
+    public static EncryptedSecret fromCiphertext(String ciphertext, DecryptedSecretCache cache) {
+        return new EncryptedSecret(ciphertext, null, cache);
+    }
+
+    /**
+     * Wrap a plaintext secret supplied by an admin. It is encrypted when the entity is flushed.
+     *
+     * @param plaintext The plaintext value
+     * @return The secret
+     */
+    public static EncryptedSecret fromPlaintext(String plaintext) {
+        return new EncryptedSecret(null, plaintext, null);
+    }
+
+    /**
+     * Get the ciphertext, or null if this secret was created from plaintext and not stored yet.
+     *
+     * @return The ciphertext
+     */
+    public String getCiphertext() {
+        return ciphertext;
+    }
+
+    /**
+     * Get the plaintext value, decrypting it on first use.
+     *
+     * @return A copy of the plaintext secret; zero it with {@code Arrays.fill(secret, '\0')} once used
+     */
+    public char[] reveal() {
+        if (plaintext != null) {
+            return plaintext.toCharArray();
+        }
+        return cache.decrypt(ciphertext);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof EncryptedSecret other)) {
+            return false;
+        }
+        return Objects.equals(ciphertext, other.ciphertext) && Objects.equals(plaintext, other.plaintext);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(ciphertext, plaintext);
+    }
+
+    @Override
+    public String toString() {
+        return "EncryptedSecret[****]";
+    }
+}
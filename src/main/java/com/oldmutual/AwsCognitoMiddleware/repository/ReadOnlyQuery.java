@@ -0,0 +1,25 @@
+package com.oldmutual.AwsCognitoMiddleware.repository;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Query hints for large read-only result sets: no dirty-checking snapshots for any entity loaded, and rows
+ * fetched from the driver in batches instead of all at once (Postgres honours the fetch size inside a transaction).
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@QueryHints(value = {
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500")
+}, forCounting = false)
+public @interface ReadOnlyQuery {
+}
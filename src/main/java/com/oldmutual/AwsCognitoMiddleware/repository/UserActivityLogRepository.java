@@ -1,8 +1,10 @@
 package com.oldmutual.AwsCognitoMiddleware.repository;
 
+import com.oldmutual.AwsCognitoMiddleware.dto.ActivityLogView;
 import com.oldmutual.AwsCognitoMiddleware.model.UserActivityLog;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -12,25 +14,55 @@ import java.util.List;
 /**
  * Repository interface for UserActivityLog entity.
  * Provides methods to interact with the user_activity_log table.
+ * Entities are only used to write logs; every finder selects into {@link ActivityLogView}.
  */
 @Repository
 public interface UserActivityLogRepository extends JpaRepository<UserActivityLog, Long> {
 
+    /**
+     * Find all activity logs.
+     *
+     * @param sort the order of the logs
+     * @return list of activity logs
+     */
+    @ReadOnlyQuery
+    List<ActivityLogView> findAllBy(Sort sort);
+
+    /**
+     * Find all activity logs with pagination.
+     */
+    @ReadOnlyQuery
+    Page<ActivityLogView> findAllBy(Pageable pageable);
+
     /**
      * Find all activity logs for a specific user pool ordered by creation date descending.
      *
      * @param userPoolId the user pool ID
      * @return list of activity logs
      */
-    List<UserActivityLog> findByUserPoolIdOrderByCreatedAtDesc(String userPoolId);
+    @ReadOnlyQuery
+    List<ActivityLogView> findByUserPoolIdOrderByCreatedAtDesc(String userPoolId);
 
     /**
-     * Find all activity logs for a specific username ordered by creation date descending.
+     * Find the newest activity logs for a specific username.
      *
      * @param username the username
-     * @return list of activity logs
+     * @param pageable the number of logs to return
+     * @return list of activity logs, newest first
+     */
+    @ReadOnlyQuery
+    List<ActivityLogView> findByUsernameOrderByIdDesc(String username, Pageable pageable);
+
+    /**
+     * Find the activity logs for a specific username older than a cursor (keyset pagination on the id).
+     *
+     * @param username the username
+     * @param id the id of the last log already returned
+     * @param pageable the number of logs to return
+     * @return list of activity logs, newest first
      */
-    List<UserActivityLog> findByUsernameOrderByCreatedAtDesc(String username);
+    @ReadOnlyQuery
+    List<ActivityLogView> findByUsernameAndIdLessThanOrderByIdDesc(String username, Long id, Pageable pageable);
 
     /**
      * Find all activity logs for a specific username in a specific user pool ordered by creation date descending.
@@ -39,7 +71,8 @@ public interface UserActivityLogRepository extends JpaRepository<UserActivityLog
      * @param userPoolId the user pool ID
      * @return list of activity logs
      */
-    List<UserActivityLog> findByUsernameAndUserPoolIdOrderByCreatedAtDesc(String username, String userPoolId);
+    @ReadOnlyQuery
+    List<ActivityLogView> findByUsernameAndUserPoolIdOrderByCreatedAtDesc(String username, String userPoolId);
 
     /**
      * Find all activity logs for a specific app name ordered by creation date descending.
@@ -47,7 +80,8 @@ public interface UserActivityLogRepository extends JpaRepository<UserActivityLog
      * @param appName the app name
      * @return list of activity logs
      */
-    List<UserActivityLog> findByAppNameOrderByCreatedAtDesc(String appName);
+    @ReadOnlyQuery
+    List<ActivityLogView> findByAppNameOrderByCreatedAtDesc(String appName);
 
     /**
      * Find all activity logs created between the specified dates ordered by creation date descending.
@@ -56,57 +90,68 @@ public interface UserActivityLogRepository extends JpaRepository<UserActivityLog
      * @param endDate the end date
      * @return list of activity logs
      */
-    List<UserActivityLog> findByCreatedAtBetweenOrderByCreatedAtDesc(LocalDateTime startDate, LocalDateTime endDate);
+    @ReadOnlyQuery
+    List<ActivityLogView> findByCreatedAtBetweenOrderByCreatedAtDesc(LocalDateTime startDate, LocalDateTime endDate);
 
     // Pagination methods with filtering
 
     /**
      * Find logs by username containing (case-insensitive) with pagination.
      */
-    Page<UserActivityLog> findByUsernameContainingIgnoreCase(String username, Pageable pageable);
+    @ReadOnlyQuery
+    Page<ActivityLogView> findByUsernameContainingIgnoreCase(String username, Pageable pageable);
 
     /**
      * Find logs by app name containing (case-insensitive) with pagination.
      */
-    Page<UserActivityLog> findByAppNameContainingIgnoreCase(String appName, Pageable pageable);
+    @ReadOnlyQuery
+    Page<ActivityLogView> findByAppNameContainingIgnoreCase(String appName, Pageable pageable);
 
     /**
      * Find logs by status with pagination.
      */
-    Page<UserActivityLog> findByStatus(String status, Pageable pageable);
+    @ReadOnlyQuery
+    Page<ActivityLogView> findByStatus(String status, Pageable pageable);
 
     /**
      * Find logs by activity containing (case-insensitive) with pagination.
      */
-    Page<UserActivityLog> findByActivityContainingIgnoreCase(String activity, Pageable pageable);
+    @ReadOnlyQuery
+    Page<ActivityLogView> findByActivityContainingIgnoreCase(String activity, Pageable pageable);
 
     /**
      * Find logs by username and app name containing (case-insensitive) with pagination.
      */
-    Page<UserActivityLog> findByUsernameContainingIgnoreCaseAndAppNameContainingIgnoreCase(String username, String appName, Pageable pageable);
+    @ReadOnlyQuery
+    Page<ActivityLogView> findByUsernameContainingIgnoreCaseAndAppNameContainingIgnoreCase(String username, String appName, Pageable pageable);
 
     /**
      * Find logs by username containing and status with pagination.
      */
-    Page<UserActivityLog> findByUsernameContainingIgnoreCaseAndStatus(String username, String status, Pageable pageable);
+    @ReadOnlyQuery
+    Page<ActivityLogView> findByUsernameContainingIgnoreCaseAndStatus(String username, String status, Pageable pageable);
 
     /**
      * Find logs by username and activity containing (case-insensitive) with pagination.
      */
-    Page<UserActivityLog> findByUsernameContainingIgnoreCaseAndActivityContainingIgnoreCase(String username, String activity, Pageable pageable);
+    @ReadOnlyQuery
+    Page<ActivityLogView> findByUsernameContainingIgnoreCaseAndActivityContainingIgnoreCase(String username, String activity, Pageable pageable);
 
     /**
      * Find logs by app name containing and status with pagination.
      */
-    Page<UserActivityLog> findByAppNameContainingIgnoreCaseAndStatus(String appName, String status, Pageable pageable);
+    @ReadOnlyQuery
+    Page<ActivityLogView> findByAppNameContainingIgnoreCaseAndStatus(String appName, String status, Pageable pageable);
 
     /**
      * Find logs by app name and activity containing (case-insensitive) with pagination.
      */
-    Page<UserActivityLog> findByAppNameContainingIgnoreCaseAndActivityContainingIgnoreCase(String appName, String activity, Pageable pageable);
+    @ReadOnlyQuery
+    Page<ActivityLogView> findByAppNameContainingIgnoreCaseAndActivityContainingIgnoreCase(String appName, String activity, Pageable pageable);
 
     /**
      * Find logs by status and activity containing (case-insensitive) with pagination.
      */
-    Page<UserActivityLog> findByStatusAndActivityContainingIgnoreCase(String status, String activity, Pageable pageable);
+    @ReadOnlyQuery
+    Page<ActivityLogView> findByStatusAndActivityContainingIgnoreCase(String status, String activity, Pageable pageable);
 }
\ No newline at end of file
@@ -0,0 +1,237 @@
+package com.oldmutual.AwsCognitoMiddleware.service;
+
+import com.oldmutual.AwsCognitoMiddleware.dto.ActivityLogView;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live tail of activity events over Server-Sent Events.
+ * Saved activity logs are published into a fixed-size ring buffer; each subscriber only keeps a cursor into it,
+ * so publishing never blocks on, or allocates for, subscribers. A dispatcher hands subscribers with new events
+ * to a sender pool; a subscriber that falls a full ring behind (a slow consumer) skips ahead to the oldest event
+ * still buffered and is sent a "dropped" event with the number it missed.
+ * The ring buffer is per node: subscribers see the activity logged through the node they are connected to, and
+ * event ids are only meaningful to that node.
+ */
+@Slf4j
+@Service
+public class ActivityEventBroadcaster {
+
+    private static final long HEARTBEAT_NANOS = TimeUnit.SECONDS.toNanos(15);
+
+    /**
+     * Server-side filter of a subscription; null fields match anything.
+     *
+     * @param appName  The application name
+     * @param status   The activity status
+     * @param activity The activity type
+     */
+    public record Filter(String appName, String status, String activity) {
+
+        boolean matches(ActivityLogView activityLog) {
+            return (appName == null || appName.equals(activityLog.appName()))
+                    && (status == null || status.equals(activityLog.status()))
+                    && (activity == null || activity.equals(activityLog.activity()));
+        }
+    }
+
+    private record Entry(long sequence, ActivityLogView activityLog) {
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final Filter filter;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private long cursor;
+        private long lastSentNanos = System.nanoTime();
+
+        private Subscriber(SseEmitter emitter, Filter filter, long cursor) {
+            this.emitter = emitter;
+            this.filter = filter;
+            this.cursor = cursor;
+        }
+
+        private boolean hasWork() {
+            return cursor < head.get() || System.nanoTime() - lastSentNanos > HEARTBEAT_NANOS;
+        }
+
+        /**
+         * Send the events after the cursor. Only one thread drains a subscriber at a time.
+         */
+        private void drain() {
+            try {
+                long limit = head.get();
+                while (cursor < limit) {
+                    Entry entry = ring.get(index(cursor));
+                    if (entry == null || entry.sequence() < cursor) {
+                        break; // claimed by a publisher but not written yet
+                    }
+                    if (entry.sequence() > cursor) {
+                        // Overwritten before it was sent: skip to the oldest event a publisher cannot be overwriting
+                        long oldest = head.get() - ring.length() + 1;
+                        dropped.add(oldest - cursor);
+                        emitter.send(SseEmitter.event().name("dropped").data(oldest - cursor));
+                        lastSentNanos = System.nanoTime();
+                        cursor = oldest;
+                        continue;
+                    }
+                    if (filter.matches(entry.activityLog())) {
+                        emitter.send(SseEmitter.event()
+                                .id(Long.toString(cursor))
+                                .name("activity")
+                                .data(entry.activityLog(), MediaType.APPLICATION_JSON));
+                        lastSentNanos = System.nanoTime();
+                    }
+                    cursor++;
+                }
+                if (System.nanoTime() - lastSentNanos > HEARTBEAT_NANOS) {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                    lastSentNanos = System.nanoTime();
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Activity stream subscriber gone: {}", e.getMessage());
+                remove(this);
+                emitter.complete();
+            } finally {
+                draining.set(false);
+            }
+        }
+    }
+
+    private final AtomicReferenceArray<Entry> ring;
+    private final AtomicLong head = new AtomicLong();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    /**
+     * One permit per subscriber slot, taken before a subscriber is added and returned when it is removed.
+     */
+    private final Semaphore slots;
+    private final LongAdder dropped = new LongAdder();
+    private final ExecutorService senders;
+    private final Duration timeout;
+
+    @Autowired
+    public ActivityEventBroadcaster(@Value("${app.activity-stream.buffer-size:4096}") int bufferSize,
+                                    @Value("${app.activity-stream.max-subscribers:50}") int maxSubscribers,
+                                    @Value("${app.activity-stream.timeout:30m}") Duration timeout) {
+        this(bufferSize, maxSubscribers, timeout, new ThreadPoolExecutor(0, maxSubscribers, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "activity-stream-sender");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    ActivityEventBroadcaster(int bufferSize, int maxSubscribers, Duration timeout, ExecutorService senders) {
+        this.ring = new AtomicReferenceArray<>(Integer.highestOneBit(Math.max(bufferSize, 2) - 1) << 1);
+        this.slots = new Semaphore(maxSubscribers);
+        this.timeout = timeout;
+        this.senders = senders;
+    }
+
+    /**
+     * Publish a saved activity log to the live subscribers.
+     *
+     * @param activityLog The saved activity log
+     */
+    public void publish(ActivityLogView activityLog) {
+        long sequence = head.getAndIncrement();
+        ring.set(index(sequence), new Entry(sequence, activityLog));
+    }
+
+    /**
+     * Open a live stream of activity events.
+     *
+     * @param filter      The server-side filter
+     * @param lastEventId The id of the last event the client received when it reconnects, or null to start from now
+     * @return The emitter, or null when the subscriber limit is reached
+     */
+    public SseEmitter subscribe(Filter filter, Long lastEventId) {
+        return subscribe(new SseEmitter(timeout.toMillis()), filter, lastEventId);
+    }
+
+    SseEmitter subscribe(SseEmitter emitter, Filter filter, Long lastEventId) {
+        if (!slots.tryAcquire()) {
+            return null;
+        }
+        long now = head.get();
+        long cursor = lastEventId == null ? now : Math.max(Math.min(lastEventId + 1, now), now - ring.length() + 1);
+        Subscriber subscriber = new Subscriber(emitter, filter, Math.max(cursor, 0));
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    /**
+     * Hand every subscriber with pending events, or due a heartbeat, to the sender pool.
+     */
+    @Scheduled(fixedDelayString = "${app.activity-stream.dispatch-interval:200ms}")
+    public void dispatch() {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.hasWork() && subscriber.draining.compareAndSet(false, true)) {
+                try {
+                    senders.execute(subscriber::drain);
+                } catch (RejectedExecutionException e) {
+                    subscriber.draining.set(false);
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the number of live subscribers.
+     *
+     * @return The subscriber count
+     */
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Get the number of events skipped for slow subscribers since startup.
+     *
+     * @return The dropped event count
+     */
+    public long droppedCount() {
+        return dropped.sum();
+    }
+
+    @PreDestroy
+    public void close() {
+        senders.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            slots.release();
+        }
+    }
+
+    private int index(long sequence) {
+        return (int) (sequence & (ring.length() - 1));
+    }
+}
@@ -0,0 +1,51 @@
+package com.oldmutual.AwsCognitoMiddleware.service;
+
+import com.oldmutual.AwsCognitoMiddleware.config.Workload;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+
+/**
+ * Keeps monthly user_activity_log partitions created ahead of time.
+ * The partitions come from the V2 migration and the ensure_user_activity_log_partitions function from V7; this only
+ * calls the function, which is idempotent, so it can run on every node. The function moves rows that landed in the
+ * default partition into the month it creates; rows left in the default partition after that (months outside the
+ * window) are reported, since they slow down every later partition creation.
+ */
+@Slf4j
+@Service
+@Workload(Workload.Type.REPORTING)
+public class ActivityLogPartitionMaintainer {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int monthsAhead;
+
+    public ActivityLogPartitionMaintainer(JdbcTemplate jdbcTemplate,
+                                          @Value("${app.activity-log.partitions.months-ahead:3}") int monthsAhead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthsAhead = monthsAhead;
+    }
+
+    /**
+     * Create the partitions of the current month and the next months that do not exist yet.
+     */
+    @Scheduled(cron = "${app.activity-log.partitions.cron:0 15 1 * * *}")
+    public void ensurePartitions() {
+        Integer created = jdbcTemplate.queryForObject(
+                "SELECT ensure_user_activity_log_partitions(?)", Integer.class, monthsAhead);
+        if (created != null && created > 0) {
+            log.info("Created {} user_activity_log partitions", created);
+        }
+        jdbcTemplate.query("SELECT MIN(created_at), MAX(created_at) FROM user_activity_log_default", rs -> {
+            Timestamp oldest = rs.getTimestamp(1);
+            if (oldest != null) {
+                log.warn("The default user_activity_log partition holds rows from {} to {} outside the monthly partitions",
+                        oldest.toLocalDateTime(), rs.getTimestamp(2).toLocalDateTime());
+            }
+        });
+    }
+}
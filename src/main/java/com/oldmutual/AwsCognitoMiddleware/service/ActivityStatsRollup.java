@@ -0,0 +1,206 @@
+package com.oldmutual.AwsCognitoMiddleware.service;
+
+import com.oldmutual.AwsCognitoMiddleware.config.Workload;
+import com.oldmutual.AwsCognitoMiddleware.dto.ActivityStatsBucket;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Per-minute and per-hour activity counters by app, activity and status.
+ * Audit writes only increment an in-memory LongAdder; the counters are flushed periodically to the
+ * activity_stats_minute and activity_stats_hour tables with additive upserts, so every node can flush
+ * into the same rows. Statistics are answered from those tables instead of scanning user_activity_log,
+ * and lag the audit log by at most one flush interval.
+ */
+@Slf4j
+@Service
+@Workload(Workload.Type.REPORTING)
+public class ActivityStatsRollup {
+
+    /**
+     * Rollup granularity, with the table it is stored in.
+     */
+    public enum Granularity {
+        MINUTE("activity_stats_minute", ChronoUnit.MINUTES),
+        HOUR("activity_stats_hour", ChronoUnit.HOURS);
+
+        private final String table;
+        private final ChronoUnit unit;
+
+        Granularity(String table, ChronoUnit unit) {
+            this.table = table;
+            this.unit = unit;
+        }
+    }
+
+    record Key(LocalDateTime minute, String appName, String activity, String status) {
+    }
+
+    private final ConcurrentHashMap<Key, LongAdder> counters = new ConcurrentHashMap<>();
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionOperations transactionOperations;
+    private final Supplier<LocalDateTime> clock;
+    private final Duration minuteRetention;
+
+    @Autowired
+    public ActivityStatsRollup(JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${app.activity-stats.minute-retention:2d}") Duration minuteRetention) {
+        this(jdbcTemplate, new TransactionTemplate(transactionManager), minuteRetention, LocalDateTime::now);
+    }
+
+    ActivityStatsRollup(JdbcTemplate jdbcTemplate, TransactionOperations transactionOperations,
+                        Duration minuteRetention, Supplier<LocalDateTime> clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionOperations = transactionOperations;
+        this.minuteRetention = minuteRetention;
+        this.clock = clock;
+    }
+
+    /**
+     * Count one activity in the current minute.
+     *
+     * @param appName  The application name
+     * @param activity The activity type
+     * @param status   The activity status
+     */
+    public void record(String appName, String activity, String status) {
+        Key key = new Key(clock.get().truncatedTo(ChronoUnit.MINUTES),
+                appName != null ? appName : "", activity != null ? activity : "", status != null ? status : "");
+        counters.computeIfAbsent(key, k -> new LongAdder()).increment();
+    }
+
+    /**
+     * Write the counts gathered since the last flush to the rollup tables.
+     * Buckets of past minutes are dropped once drained; the previous minute is kept for one more round
+     * so increments racing with the minute change are not lost.
+     * Both upserts run in one transaction, so a failed flush leaves neither table changed and can be retried as a whole.
+     * The final flush runs on context close, before the pools are shut down and through the proxy, so it also
+     * uses the audit-write pool.
+     */
+    @Scheduled(fixedDelayString = "${app.activity-stats.flush-interval:10s}")
+    @EventListener(ContextClosedEvent.class)
+    @Workload(Workload.Type.AUDIT_WRITE)
+    public void flush() {
+        LocalDateTime previousMinute = clock.get().truncatedTo(ChronoUnit.MINUTES).minusMinutes(1);
+        List<Object[]> minuteRows = new ArrayList<>();
+        Map<Key, Long> hourCounts = new HashMap<>();
+        counters.forEach((key, adder) -> {
+            long count = adder.sumThenReset();
+            if (count > 0) {
+                minuteRows.add(row(key.minute(), key, count));
+                hourCounts.merge(new Key(key.minute().truncatedTo(ChronoUnit.HOURS), key.appName(), key.activity(), key.status()),
+                        count, Long::sum);
+            } else if (key.minute().isBefore(previousMinute)) {
+                counters.remove(key, adder);
+            }
+        });
+        if (minuteRows.isEmpty()) {
+            return;
+        }
+        List<Object[]> hourRows = new ArrayList<>(hourCounts.size());
+        hourCounts.forEach((key, count) -> hourRows.add(row(key.minute(), key, count)));
+        try {
+            transactionOperations.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(upsert(Granularity.MINUTE), minuteRows);
+                jdbcTemplate.batchUpdate(upsert(Granularity.HOUR), hourRows);
+            });
+        } catch (RuntimeException e) {
+            // Put the counts back so the next flush retries them
+            log.warn("Could not flush activity stats, retrying next round: {}", e.getMessage());
+            minuteRows.forEach(values -> counters.computeIfAbsent(
+                    new Key(((Timestamp) values[0]).toLocalDateTime(), (String) values[1], (String) values[2], (String) values[3]),
+                    k -> new LongAdder()).add((Long) values[4]));
+        }
+    }
+
+    private static Object[] row(LocalDateTime bucketStart, Key key, long count) {
+        return new Object[]{Timestamp.valueOf(bucketStart), key.appName(), key.activity(), key.status(), count};
+    }
+
+    private static String upsert(Granularity granularity) {
+        return "INSERT INTO " + granularity.table + " AS t (bucket_start, app_name, activity, status, count) "
+                + "VALUES (?, ?, ?, ?, ?) "
+                + "ON CONFLICT (bucket_start, app_name, activity, status) DO UPDATE SET count = t.count + EXCLUDED.count";
+    }
+
+    /**
+     * Delete minute rollups older than the retention; hour rollups are kept.
+     */
+    @Scheduled(cron = "${app.activity-stats.cleanup-cron:0 5 * * * *}")
+    public void deleteExpiredMinutes() {
+        int deleted = jdbcTemplate.update("DELETE FROM " + Granularity.MINUTE.table + " WHERE bucket_start < ?",
+                Timestamp.valueOf(clock.get().minus(minuteRetention)));
+        log.debug("Deleted {} expired minute rollups", deleted);
+    }
+
+    /**
+     * Query rollup buckets.
+     *
+     * @param granularity The granularity to query
+     * @param from        Start of the range, inclusive
+     * @param to          End of the range, exclusive
+     * @param appName     Optional app name filter
+     * @param activity    Optional activity filter
+     * @param status      Optional status filter
+     * @return The buckets, ordered by time
+     */
+    @Transactional(readOnly = true)
+    public List<ActivityStatsBucket> query(Granularity granularity, LocalDateTime from, LocalDateTime to,
+                                           String appName, String activity, String status) {
+        StringBuilder sql = new StringBuilder("SELECT bucket_start, app_name, activity, status, count FROM ")
+                .append(granularity.table)
+                .append(" WHERE bucket_start >= ? AND bucket_start < ?");
+        List<Object> args = new ArrayList<>(5);
+        args.add(Timestamp.valueOf(from.truncatedTo(granularity.unit)));
+        args.add(Timestamp.valueOf(to));
+        if (appName != null) {
+            sql.append(" AND app_name = ?");
+            args.add(appName);
+        }
+        if (activity != null) {
+            sql.append(" AND activity = ?");
+            args.add(activity);
+        }
+        if (status != null) {
+            sql.append(" AND status = ?");
+            args.add(status);
+        }
+        sql.append(" ORDER BY bucket_start, app_name, activity, status");
+        return jdbcTemplate.query(sql.toString(),
+                (rs, rowNum) -> new ActivityStatsBucket(rs.getTimestamp(1).toLocalDateTime(), rs.getString(2),
+                        rs.getString(3), rs.getString(4), rs.getLong(5)),
+                args.toArray());
+    }
+
+    /**
+     * Get the number of live in-memory counters.
+     *
+     * @return The counter count
+     */
+    public int size() {
+        return counters.size();
+    }
+}
@@ -1,12 +1,15 @@
 package com.oldmutual.AwsCognitoMiddleware.service;
 
+import com.oldmutual.AwsCognitoMiddleware.config.Workload;
 import com.oldmutual.AwsCognitoMiddleware.dto.AppConfigRequest;
 import com.oldmutual.AwsCognitoMiddleware.dto.AppConfigResponse;
 import com.oldmutual.AwsCognitoMiddleware.model.CognitoAppConfig;
+import com.oldmutual.AwsCognitoMiddleware.model.EncryptedSecret;
 import com.oldmutual.AwsCognitoMiddleware.repository.CognitoAppConfigRepository;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,10 +24,13 @@ import java.util.stream.Collectors;
  */
 @Slf4j
 @Service
+@Lazy
 @RequiredArgsConstructor
+@Workload(Workload.Type.REPORTING)
 public class AdminService {
 
     private final CognitoAppConfigRepository appConfigRepository;
+    private final AppConfigChangeNotifier appConfigChangeNotifier;
 
     /**
      * Get all app configurations.
@@ -67,6 +73,7 @@ public class AdminService {
         updateAppFromRequest(appConfig, request);
         
         CognitoAppConfig savedConfig = appConfigRepository.save(appConfig);
+        appConfigChangeNotifier.appConfigChanged(savedConfig.getAppKey());
         log.info("Created new app configuration with ID: {} and app key: {}", savedConfig.getId(), savedConfig.getAppKey());
         
         return mapToResponse(savedConfig);
@@ -87,6 +94,7 @@ public class AdminService {
         
         updateAppFromRequest(appConfig, request);
         CognitoAppConfig updatedConfig = appConfigRepository.save(appConfig);
+        appConfigChangeNotifier.appConfigChanged(updatedConfig.getAppKey());
         log.info("Updated app configuration with ID: {}", updatedConfig.getId());
         
         return mapToResponse(updatedConfig);
@@ -105,6 +113,7 @@ public class AdminService {
         
         appConfig.setEnabled(true);
         appConfigRepository.save(appConfig);
+        appConfigChangeNotifier.appConfigChanged(appConfig.getAppKey());
         log.info("Enabled app configuration with ID: {}", id);
     }
 
@@ -121,6 +130,7 @@ public class AdminService {
         
         appConfig.setEnabled(false);
         appConfigRepository.save(appConfig);
+        appConfigChangeNotifier.appConfigChanged(appConfig.getAppKey());
         log.info("Disabled app configuration with ID: {}", id);
     }
 
@@ -132,11 +142,11 @@ public class AdminService {
      */
     @Transactional
     public void deleteApp(Long id) {
-        if (!appConfigRepository.existsById(id)) {
-            throw new EntityNotFoundException("App configuration not found with ID: " + id);
-        }
+        CognitoAppConfig appConfig = appConfigRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("App configuration not found with ID: " + id));
         
-        appConfigRepository.deleteById(id);
+        appConfigRepository.delete(appConfig);
+        appConfigChangeNotifier.appConfigChanged(appConfig.getAppKey());
         log.info("Deleted app configuration with ID: {}", id);
     }
 
@@ -151,10 +161,17 @@ public class AdminService {
         appConfig.setAwsRegion(request.getAwsRegion());
         appConfig.setUserPoolId(request.getUserPoolId());
         appConfig.setClientId(request.getClientId());
+        appConfig.setEndpointOverride(request.getEndpointOverride() == null || request.getEndpointOverride().isBlank()
+                ? null : request.getEndpointOverride());
+        appConfig.setMaxConnections(request.getMaxConnections());
+        appConfig.setConnectionTtlSeconds(request.getConnectionTtlSeconds());
+        appConfig.setApiCallTimeoutMillis(request.getApiCallTimeoutMillis());
+        appConfig.setApiCallAttemptTimeoutMillis(request.getApiCallAttemptTimeoutMillis());
+        appConfig.setRateLimitPerMinute(request.getRateLimitPerMinute());
         
         // Only set client secret if it's provided (it's optional)
         if (request.getClientSecret() != null && !request.getClientSecret().isEmpty()) {
-            appConfig.setClientSecret(request.getClientSecret());
+            appConfig.setClientSecret(EncryptedSecret.fromPlaintext(request.getClientSecret()));
         }
     }
 
@@ -172,6 +189,12 @@ public class AdminService {
                 appConfig.getAwsRegion(),
                 appConfig.getUserPoolId(),
                 appConfig.getClientId(),
+                appConfig.getEndpointOverride(),
+                appConfig.getMaxConnections(),
+                appConfig.getConnectionTtlSeconds(),
+                appConfig.getApiCallTimeoutMillis(),
+                appConfig.getApiCallAttemptTimeoutMillis(),
+                appConfig.getRateLimitPerMinute(),
                 appConfig.isEnabled()
         );
     }
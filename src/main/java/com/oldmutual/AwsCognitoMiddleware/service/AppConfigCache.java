@@ -0,0 +1,105 @@
+package com.oldmutual.AwsCognitoMiddleware.service;
+
+import com.oldmutual.AwsCognitoMiddleware.config.Workload;
+import com.oldmutual.AwsCognitoMiddleware.model.CognitoAppConfig;
+import com.oldmutual.AwsCognitoMiddleware.repository.CognitoAppConfigRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * In-process cache of app configurations keyed by app key.
+ * Entries are evicted on every node through {@link AppConfigChangeListener} when an admin changes an app,
+ * and expire after a TTL as a safety net for missed notifications.
+ */
+@Slf4j
+@Service
+@Workload(Workload.Type.AUTH_CONFIG)
+public class AppConfigCache {
+
+    private final CognitoAppConfigRepository cognitoAppConfigRepository;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+    private final ConcurrentHashMap<UUID, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Bumped on every eviction so a load that raced with an invalidation is not cached.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    @Autowired
+    public AppConfigCache(CognitoAppConfigRepository cognitoAppConfigRepository,
+                          @Value("${app.config-cache.ttl:5m}") Duration ttl) {
+        this(cognitoAppConfigRepository, ttl, System::nanoTime);
+    }
+
+    AppConfigCache(CognitoAppConfigRepository cognitoAppConfigRepository, Duration ttl, LongSupplier nanoClock) {
+        this.cognitoAppConfigRepository = cognitoAppConfigRepository;
+        this.ttlNanos = ttl.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Find a configuration by its appKey, loading it from the database on a miss.
+     *
+     * @param appKey The UUID of the application
+     * @return Optional containing the configuration if found, empty otherwise
+     */
+    public Optional<CognitoAppConfig> findByAppKey(UUID appKey) {
+        long now = nanoClock.getAsLong();
+        Entry entry = entries.get(appKey);
+        if (entry != null && now - entry.loadedAt() < ttlNanos) {
+            return Optional.of(entry.config());
+        }
+
+        long loadGeneration = generation.get();
+        Optional<CognitoAppConfig> loaded = cognitoAppConfigRepository.findByAppKey(appKey);
+        if (loaded.isPresent() && generation.get() == loadGeneration) {
+            entries.put(appKey, new Entry(loaded.get(), now));
+        } else if (loaded.isEmpty()) {
+            entries.remove(appKey);
+        }
+        return loaded;
+    }
+
+    /**
+     * Drop a single app configuration.
+     *
+     * @param appKey The UUID of the application
+     */
+    public void evict(UUID appKey) {
+        generation.incrementAndGet();
+        if (entries.remove(appKey) != null) {
+            log.debug("Evicted cached app configuration: {}", appKey);
+        }
+    }
+
+    /**
+     * Drop all cached app configurations.
+     */
+    public void evictAll() {
+        generation.incrementAndGet();
+        entries.clear();
+        log.debug("Evicted all cached app configurations");
+    }
+
+    /**
+     * Get the number of cached app configurations.
+     *
+     * @return The cache size
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    private record Entry(CognitoAppConfig config, long loadedAt) {
+    }
+}
@@ -0,0 +1,166 @@
+package com.oldmutual.AwsCognitoMiddleware.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+
+/**
+ * Listens on the {@value AppConfigChangeNotifier#CHANNEL} Postgres channel and evicts changed apps
+ * from the local {@link AppConfigCache} and {@link CognitoClientProvider}, so a deleted app's client and
+ * connection pool are closed on every node.
+ * Uses a dedicated connection outside the pool, since LISTEN keeps it busy for the lifetime of the node.
+ * After a reconnect everything is dropped, because notifications sent while disconnected are lost.
+ */
+@Slf4j
+@Service
+public class AppConfigChangeListener implements SmartLifecycle {
+
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+
+    /**
+     * Opens the dedicated LISTEN connection.
+     */
+    @FunctionalInterface
+    interface ConnectionFactory {
+        Connection open() throws SQLException;
+    }
+
+    private final AppConfigCache appConfigCache;
+    private final CognitoClientProvider cognitoClientProvider;
+    private final ConnectionFactory connectionFactory;
+    private final boolean enabled;
+    private final int pollMillis;
+
+    private volatile boolean running;
+    private volatile Connection connection;
+    private Thread worker;
+
+    @Autowired
+    public AppConfigChangeListener(AppConfigCache appConfigCache,
+                                   CognitoClientProvider cognitoClientProvider,
+                                   DataSourceProperties dataSourceProperties,
+                                   @Value("${app.config-cache.listen.enabled:true}") boolean enabled,
+                                   @Value("${app.config-cache.listen.poll-millis:10000}") int pollMillis) {
+        this(appConfigCache, cognitoClientProvider, () -> DriverManager.getConnection(
+                dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(),
+                dataSourceProperties.determinePassword()), enabled, pollMillis);
+    }
+
+    AppConfigChangeListener(AppConfigCache appConfigCache, CognitoClientProvider cognitoClientProvider,
+                            ConnectionFactory connectionFactory, boolean enabled, int pollMillis) {
+        this.appConfigCache = appConfigCache;
+        this.cognitoClientProvider = cognitoClientProvider;
+        this.connectionFactory = connectionFactory;
+        this.enabled = enabled;
+        this.pollMillis = pollMillis;
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            log.info("App config change listener is disabled");
+            return;
+        }
+        running = true;
+        worker = new Thread(this::listen, "app-config-listener");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        closeQuietly(connection);
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen() {
+        long backoff = 1_000;
+        while (running) {
+            try (Connection conn = connectionFactory.open()) {
+                connection = conn;
+                try (Statement statement = conn.createStatement()) {
+                    statement.execute("LISTEN " + AppConfigChangeNotifier.CHANNEL);
+                }
+                log.info("Listening for app config changes on channel: {}", AppConfigChangeNotifier.CHANNEL);
+
+                // Anything cached before this point may have missed a notification
+                evictAll();
+                backoff = 1_000;
+
+                PGConnection pgConnection = conn.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollMillis);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        handle(notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("App config change listener disconnected, retrying in {} ms: {}", backoff, e.getMessage());
+                evictAll();
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+            } finally {
+                connection = null;
+            }
+        }
+    }
+
+    private void handle(String payload) {
+        try {
+            UUID appKey = UUID.fromString(payload);
+            log.info("Received app config change, evicting: {}", appKey);
+            appConfigCache.evict(appKey);
+            cognitoClientProvider.evict(appKey);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            log.warn("Unexpected {} payload '{}', evicting all app configs", AppConfigChangeNotifier.CHANNEL, payload);
+            evictAll();
+        }
+    }
+
+    private void evictAll() {
+        appConfigCache.evictAll();
+        cognitoClientProvider.evictAll();
+    }
+
+    private static void closeQuietly(Connection conn) {
+        if (conn == null) {
+            return;
+        }
+        try {
+            conn.close();
+        } catch (SQLException ignored) {
+            // Closing only unblocks the listener thread
+        }
+    }
+}
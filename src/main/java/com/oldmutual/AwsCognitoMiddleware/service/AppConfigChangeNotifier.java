@@ -0,0 +1,54 @@
+package com.oldmutual.AwsCognitoMiddleware.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.UUID;
+
+/**
+ * Publishes app configuration changes to all middleware nodes through Postgres NOTIFY.
+ * The notification is sent on the caller's transaction, so Postgres only delivers it once the change commits.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AppConfigChangeNotifier {
+
+    public static final String CHANNEL = "app_config_changed";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AppConfigCache appConfigCache;
+    private final CognitoClientProvider cognitoClientProvider;
+
+    /**
+     * Announce that the configuration for an app key changed.
+     * The local cache entry and Cognito client are also evicted after commit so this node does not depend on
+     * its own listener, and a rolled-back change leaves them in place.
+     *
+     * @param appKey The UUID of the changed application
+     */
+    public void appConfigChanged(UUID appKey) {
+        jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", Object.class, CHANNEL, appKey.toString());
+        log.debug("Queued {} notification for app: {}", CHANNEL, appKey);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictLocally(appKey);
+                }
+            });
+        } else {
+            evictLocally(appKey);
+        }
+    }
+
+    private void evictLocally(UUID appKey) {
+        appConfigCache.evict(appKey);
+        cognitoClientProvider.evict(appKey);
+    }
+}
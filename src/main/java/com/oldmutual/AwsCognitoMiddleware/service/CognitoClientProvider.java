@@ -0,0 +1,180 @@
+package com.oldmutual.AwsCognitoMiddleware.service;
+
+import com.oldmutual.AwsCognitoMiddleware.config.EndpointOverridePolicy;
+import com.oldmutual.AwsCognitoMiddleware.model.CognitoAppConfig;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.auth.credentials.AnonymousCredentialsProvider;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderClient;
+import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderClientBuilder;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds one long-lived Cognito client per app, so connections and TLS sessions are reused across requests.
+ * Each client is built from the app's region, endpoint override and connection settings; when those change
+ * (picked up through the app config cache), the next request builds a new client and the old one is
+ * closed after a grace period so calls still using it can finish.
+ */
+@Slf4j
+@Service
+public class CognitoClientProvider {
+
+    /**
+     * The app settings a client is built from; a client is replaced when these change.
+     */
+    record ClientSettings(String awsRegion,
+                          String endpointOverride,
+                          Integer maxConnections,
+                          Integer connectionTtlSeconds,
+                          Integer apiCallTimeoutMillis,
+                          Integer apiCallAttemptTimeoutMillis) {
+
+        static ClientSettings of(CognitoAppConfig appConfig) {
+            return new ClientSettings(
+                    appConfig.getAwsRegion(),
+                    appConfig.getEndpointOverride(),
+                    appConfig.getMaxConnections(),
+                    appConfig.getConnectionTtlSeconds(),
+                    appConfig.getApiCallTimeoutMillis(),
+                    appConfig.getApiCallAttemptTimeoutMillis());
+        }
+    }
+
+    private record Holder(ClientSettings settings, CognitoIdentityProviderClient client) {
+    }
+
+    private final ConcurrentHashMap<UUID, Holder> clients = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService closer;
+    private final EndpointOverridePolicy endpointOverridePolicy;
+    private final int defaultMaxConnections;
+    private final Duration closeGracePeriod;
+
+    public CognitoClientProvider(EndpointOverridePolicy endpointOverridePolicy,
+                                 @Value("${app.cognito.client.max-connections:50}") int defaultMaxConnections,
+                                 @Value("${app.cognito.client.close-grace-period:60s}") Duration closeGracePeriod) {
+        this.endpointOverridePolicy = endpointOverridePolicy;
+        this.defaultMaxConnections = defaultMaxConnections;
+        this.closeGracePeriod = closeGracePeriod;
+        this.closer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cognito-client-closer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Get the client for an app, building it on first use or when the app's client settings changed.
+     *
+     * @param appConfig The app configuration
+     * @return The client for the app
+     * @throws IllegalStateException if the app's endpoint override is not allowed
+     */
+    public CognitoIdentityProviderClient clientFor(CognitoAppConfig appConfig) {
+        ClientSettings settings = ClientSettings.of(appConfig);
+        Holder holder = clients.get(appConfig.getAppKey());
+        if (holder != null && holder.settings().equals(settings)) {
+            return holder.client();
+        }
+        return clients.compute(appConfig.getAppKey(), (appKey, current) -> {
+            if (current != null && current.settings().equals(settings)) {
+                return current;
+            }
+            if (current != null) {
+                log.info("Client settings changed for app {}, replacing its Cognito client", appConfig.getAppName());
+                closeLater(current.client());
+            }
+            return new Holder(settings, build(appConfig.getAppName(), settings));
+        }).client();
+    }
+
+    /**
+     * Drop and close the client of an app whose configuration changed or was deleted.
+     * The next request for the app, if it still exists, builds a new client.
+     *
+     * @param appKey The UUID of the application
+     */
+    public void evict(UUID appKey) {
+        Holder holder = clients.remove(appKey);
+        if (holder != null) {
+            closeLater(holder.client());
+        }
+    }
+
+    /**
+     * Drop and close every client, used when app config changes may have been missed.
+     */
+    public void evictAll() {
+        clients.keySet().forEach(this::evict);
+    }
+
+    /**
+     * Get the number of live clients.
+     *
+     * @return The client count
+     */
+    public int size() {
+        return clients.size();
+    }
+
+    @PreDestroy
+    public void close() {
+        closer.shutdownNow();
+        clients.values().forEach(holder -> holder.client().close());
+        clients.clear();
+    }
+
+    private CognitoIdentityProviderClient build(String appName, ClientSettings settings) {
+        // Re-checked here for overrides written before the policy existed or outside the admin API
+        if (!endpointOverridePolicy.isAllowed(settings.endpointOverride())) {
+            throw new IllegalStateException("Endpoint override for app " + appName + " is not allowed: "
+                    + settings.endpointOverride());
+        }
+
+        ApacheHttpClient.Builder httpClient = ApacheHttpClient.builder()
+                .maxConnections(settings.maxConnections() != null ? settings.maxConnections() : defaultMaxConnections);
+        if (settings.connectionTtlSeconds() != null) {
+            httpClient.connectionTimeToLive(Duration.ofSeconds(settings.connectionTtlSeconds()));
+        }
+
+        ClientOverrideConfiguration.Builder overrides = ClientOverrideConfiguration.builder();
+        if (settings.apiCallTimeoutMillis() != null) {
+            overrides.apiCallTimeout(Duration.ofMillis(settings.apiCallTimeoutMillis()));
+        }
+        if (settings.apiCallAttemptTimeoutMillis() != null) {
+            overrides.apiCallAttemptTimeout(Duration.ofMillis(settings.apiCallAttemptTimeoutMillis()));
+        }
+
+        // Anonymous credentials prevent the SDK from looking for AWS credentials
+        CognitoIdentityProviderClientBuilder builder = CognitoIdentityProviderClient.builder()
+                .region(Region.of(settings.awsRegion()))
+                .credentialsProvider(AnonymousCredentialsProvider.create())
+                .httpClientBuilder(httpClient)
+                .overrideConfiguration(overrides.build());
+
+        // Point the client at a VPC endpoint or local Cognito stand-in when the app is configured with one
+        if (settings.endpointOverride() != null) {
+            builder.endpointOverride(URI.create(settings.endpointOverride()));
+        }
+        return builder.build();
+    }
+
+    private void closeLater(CognitoIdentityProviderClient client) {
+        try {
+            closer.schedule(client::close, closeGracePeriod.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            client.close();
+        }
+    }
+}
@@ -1,23 +1,31 @@
 package com.oldmutual.AwsCognitoMiddleware.service;
 
+import com.oldmutual.AwsCognitoMiddleware.exception.ErrorMessages;
+import com.oldmutual.AwsCognitoMiddleware.jfr.CognitoCallEvent;
+import com.oldmutual.AwsCognitoMiddleware.jfr.CognitoClientAcquireEvent;
+import com.oldmutual.AwsCognitoMiddleware.logging.RequestIdFilter;
 import com.oldmutual.AwsCognitoMiddleware.model.CognitoAppConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
 import org.springframework.stereotype.Service;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
-import software.amazon.awssdk.auth.credentials.AnonymousCredentialsProvider;
-import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.exception.SdkClientException;
 import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderClient;
 import software.amazon.awssdk.services.cognitoidentityprovider.model.*;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * Service for AWS Cognito operations.
- * Dynamically creates Cognito clients based on the configuration from the request.
+ * Uses the Cognito client of the app resolved for the request.
  * 
  * @author Genuslee Mapedze
  */
@@ -28,8 +36,11 @@ public class CognitoService {
 
     private static final String APP_CONFIG_ATTRIBUTE = "appConfig";
     private static final String AUTH_FLOW = "USER_PASSWORD_AUTH";
+    private static final String OPERATION_TIMER = "cognito.operation";
     
     private final UserActivityLogService userActivityLogService;
+    private final MeterRegistry meterRegistry;
+    private final CognitoClientProvider cognitoClientProvider;
 
     /**
      * Get the current request's Cognito configuration.
@@ -54,19 +65,64 @@ public class CognitoService {
     }
 
     /**
-     * Create a Cognito client for the current request.
+     * Get the Cognito client for the current request's app.
      *
      * @return A configured CognitoIdentityProviderClient
      */
-    private CognitoIdentityProviderClient createCognitoClient() {
+    private CognitoIdentityProviderClient getCognitoClient() {
         CognitoAppConfig appConfig = getCurrentAppConfig();
-        
-        // Create Cognito client with the region and anonymous credentials
-        // This prevents the SDK from looking for AWS credentials
-        return CognitoIdentityProviderClient.builder()
-                .region(Region.of(appConfig.getAwsRegion()))
-                .credentialsProvider(AnonymousCredentialsProvider.create())
-                .build();
+        CognitoClientAcquireEvent event = new CognitoClientAcquireEvent();
+        event.begin();
+
+        CognitoIdentityProviderClient client = cognitoClientProvider.clientFor(appConfig);
+
+        event.appName = appConfig.getAppName();
+        event.region = appConfig.getAwsRegion();
+        event.commit();
+        return client;
+    }
+
+    /**
+     * Call Cognito and record the call in the cognito.operation timer, tagged by operation,
+     * app, region and outcome (success, the Cognito error code, or the client-side exception).
+     *
+     * @param operation The Cognito API operation name
+     * @param appConfig The Cognito configuration of the calling app
+     * @param call      The call to make
+     * @return The result of the call
+     */
+    private <T> T invoke(String operation, CognitoAppConfig appConfig, Supplier<T> call) {
+        CognitoCallEvent event = new CognitoCallEvent();
+        event.begin();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        MDC.put(RequestIdFilter.OPERATION_MDC_KEY, operation);
+        try {
+            return call.get();
+        } catch (AwsServiceException ex) {
+            outcome = ErrorMessages.codeOf(ex);
+            throw ex;
+        } catch (SdkClientException ex) {
+            outcome = "SdkClientException";
+            throw ex;
+        } catch (RuntimeException ex) {
+            outcome = ex.getClass().getSimpleName();
+            throw ex;
+        } finally {
+            MDC.remove(RequestIdFilter.OPERATION_MDC_KEY);
+            sample.stop(Timer.builder(OPERATION_TIMER)
+                    .description("Latency of Cognito API calls")
+                    .tag("operation", operation)
+                    .tag("app", appConfig.getAppName())
+                    .tag("region", appConfig.getAwsRegion())
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+            event.appName = appConfig.getAppName();
+            event.operation = operation;
+            event.outcome = outcome;
+            event.commit();
+        }
     }
 
     /**
@@ -78,80 +134,73 @@ public class CognitoService {
      * @return The result of the registration
      */
     public SignUpResponse registerUser(String email, String password, Map<String, String> attributes) {
-        log.info("Registering new user with email: {}", email);
+        log.debug("Registering new user with email: {}", email);
         CognitoAppConfig appConfig = getCurrentAppConfig();
         log.debug("Using app config: {}", appConfig.getAppName());
-        CognitoIdentityProviderClient cognitoClient = createCognitoClient();
+        CognitoIdentityProviderClient cognitoClient = getCognitoClient();
         
         HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.getRequestAttributes()).getRequest();
         
+        // Create a list to hold all user attributes
+        java.util.List<AttributeType> userAttributes = new java.util.ArrayList<>();
+        
+        // Add required attributes
+        userAttributes.add(AttributeType.builder()
+                .name("email")
+                .value(email)
+                .build());
+        
+        // Add custom attributes if provided
+        if (attributes != null && !attributes.isEmpty()) {
+            for (Map.Entry<String, String> entry : attributes.entrySet()) {
+                if (entry.getValue() != null && !entry.getValue().isEmpty()) {
+                    userAttributes.add(AttributeType.builder()
+                            .name(entry.getKey())
+                            .value(entry.getValue())
+                            .build());
+                }
+            }
+        }
+        
+        // Create the user using SignUp instead of AdminCreateUser
+        SignUpRequest signUpRequest = SignUpRequest.builder()
+                .clientId(appConfig.getClientId())
+                .username(email)
+                .password(password)
+                .userAttributes(userAttributes)
+                .build();
+        
         try {
-            // Create a list to hold all user attributes
-            java.util.List<AttributeType> userAttributes = new java.util.ArrayList<>();
+            var response = invoke("SignUp", appConfig, () -> cognitoClient.signUp(signUpRequest));
+            log.info("User registration successful, user sub: {}", response.userSub());
             
-            // Add required attributes
-            userAttributes.add(AttributeType.builder()
-                    .name("email")
-                    .value(email)
-                    .build());
+            // Log successful registration
+            userActivityLogService.logActivity(
+                "REGISTER",
+                email,
+                appConfig.getUserPoolId(),
+                appConfig.getAppName(),
+                "SUCCESS",
+                null,
+                request
+            );
             
-            // Add custom attributes if provided
-            if (attributes != null && !attributes.isEmpty()) {
-                for (Map.Entry<String, String> entry : attributes.entrySet()) {
-                    if (entry.getValue() != null && !entry.getValue().isEmpty()) {
-                        userAttributes.add(AttributeType.builder()
-                                .name(entry.getKey())
-                                .value(entry.getValue())
-                                .build());
-                    }
-                }
-            }
+            return response;
+        } catch (CognitoIdentityProviderException ex) {
+            String errorMessage = ErrorMessages.of(ex);
             
-            // Create the user using SignUp instead of AdminCreateUser
-            SignUpRequest signUpRequest = SignUpRequest.builder()
-                    .clientId(appConfig.getClientId())
-                    .username(email)
-                    .password(password)
-                    .userAttributes(userAttributes)
-                    .build();
+            // Log failed registration
+            userActivityLogService.logActivity(
+                "REGISTER",
+                email,
+                appConfig.getUserPoolId(),
+                appConfig.getAppName(),
+                "FAILURE",
+                errorMessage,
+                request
+            );
             
-            try {
-                var response = cognitoClient.signUp(signUpRequest);
-                log.info("User registration successful: {}", response);
-                
-                // Log successful registration
-                userActivityLogService.logActivity(
-                    "REGISTER",
-                    email,
-                    appConfig.getUserPoolId(),
-                    appConfig.getAppName(),
-                    "SUCCESS",
-                    null,
-                    request
-                );
-                
-                return response;
-            } catch (CognitoIdentityProviderException ex) {
-                String errorMessage = ex.getMessage();
-                if (errorMessage.contains("(Service:")) {
-                    errorMessage = errorMessage.substring(0, errorMessage.indexOf("(Service:"));
-                }
-                
-                // Log failed registration
-                userActivityLogService.logActivity(
-                    "REGISTER",
-                    email,
-                    appConfig.getUserPoolId(),
-                    appConfig.getAppName(),
-                    "FAILURE",
-                    errorMessage,
-                    request
-                );
-                
-                throw ex;
-            }
-        } finally {
-            cognitoClient.close();
+            throw ex;
         }
     }
 
@@ -163,57 +212,50 @@ public class CognitoService {
      * @return The result of the verification
      */
     public ConfirmSignUpResponse verifyUser(String email, String confirmationCode) {
-        log.info("Verifying user with email: {}", email);
+        log.debug("Verifying user with email: {}", email);
         CognitoAppConfig appConfig = getCurrentAppConfig();
         log.debug("Using app config: {}", appConfig.getAppName());
-        CognitoIdentityProviderClient cognitoClient = createCognitoClient();
+        CognitoIdentityProviderClient cognitoClient = getCognitoClient();
         
         HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.getRequestAttributes()).getRequest();
         
+        ConfirmSignUpRequest confirmSignUpRequest = ConfirmSignUpRequest.builder()
+                .clientId(appConfig.getClientId())
+                .username(email)
+                .confirmationCode(confirmationCode)
+                .build();
+        
         try {
-            ConfirmSignUpRequest confirmSignUpRequest = ConfirmSignUpRequest.builder()
-                    .clientId(appConfig.getClientId())
-                    .username(email)
-                    .confirmationCode(confirmationCode)
-                    .build();
+            var response = invoke("ConfirmSignUp", appConfig, () -> cognitoClient.confirmSignUp(confirmSignUpRequest));
+            log.info("User verification successful for: {}", email);
             
-            try {
-                var response = cognitoClient.confirmSignUp(confirmSignUpRequest);
-                log.info("User verification successful for: {}", email);
-                
-                // Log successful verification
-                userActivityLogService.logActivity(
-                    "VERIFY",
-                    email,
-                    appConfig.getUserPoolId(),
-                    appConfig.getAppName(),
-                    "SUCCESS",
-                    null,
-                    request
-                );
-                
-                return response;
-            } catch (CognitoIdentityProviderException ex) {
-                String errorMessage = ex.getMessage();
-                if (errorMessage.contains("(Service:")) {
-                    errorMessage = errorMessage.substring(0, errorMessage.indexOf("(Service:"));
-                }
-                
-                // Log failed verification
-                userActivityLogService.logActivity(
-                    "VERIFY",
-                    email,
-                    appConfig.getUserPoolId(),
-                    appConfig.getAppName(),
-                    "FAILURE",
-                    errorMessage,
-                    request
-                );
-                
-                throw ex;
-            }
-        } finally {
-            cognitoClient.close();
+            // Log successful verification
+            userActivityLogService.logActivity(
+                "VERIFY",
+                email,
+                appConfig.getUserPoolId(),
+                appConfig.getAppName(),
+                "SUCCESS",
+                null,
+                request
+            );
+            
+            return response;
+        } catch (CognitoIdentityProviderException ex) {
+            String errorMessage = ErrorMessages.of(ex);
+            
+            // Log failed verification
+            userActivityLogService.logActivity(
+                "VERIFY",
+                email,
+                appConfig.getUserPoolId(),
+                appConfig.getAppName(),
+                "FAILURE",
+                errorMessage,
+                request
+            );
+            
+            throw ex;
         }
     }
 
@@ -225,61 +267,54 @@ public class CognitoService {
      * @return The authentication result
      */
     public InitiateAuthResponse authenticateUser(String email, String password) {
-        log.info("Authenticating user with email: {}", email);
+        log.debug("Authenticating user with email: {}", email);
         CognitoAppConfig appConfig = getCurrentAppConfig();
         log.debug("Using app config: {}", appConfig.getAppName());
-        CognitoIdentityProviderClient cognitoClient = createCognitoClient();
+        CognitoIdentityProviderClient cognitoClient = getCognitoClient();
         
         HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.getRequestAttributes()).getRequest();
         
+        Map<String, String> authParams = new HashMap<>();
+        authParams.put("USERNAME", email);
+        authParams.put("PASSWORD", password);
+        
+        InitiateAuthRequest authRequest = InitiateAuthRequest.builder()
+                .authFlow(AUTH_FLOW)
+                .clientId(appConfig.getClientId())
+                .authParameters(authParams)
+                .build();
+        
         try {
-            Map<String, String> authParams = new HashMap<>();
-            authParams.put("USERNAME", email);
-            authParams.put("PASSWORD", password);
+            var response = invoke("InitiateAuth", appConfig, () -> cognitoClient.initiateAuth(authRequest));
+            log.info("User authentication successful for: {}", email);
             
-            InitiateAuthRequest authRequest = InitiateAuthRequest.builder()
-                    .authFlow(AUTH_FLOW)
-                    .clientId(appConfig.getClientId())
-                    .authParameters(authParams)
-                    .build();
+            // Log successful login
+            userActivityLogService.logActivity(
+                "LOGIN",
+                email,
+                appConfig.getUserPoolId(),
+                appConfig.getAppName(),
+                "SUCCESS",
+                null,
+                request
+            );
             
-            try {
-                var response = cognitoClient.initiateAuth(authRequest);
-                log.info("User authentication successful for: {}", email);
-                
-                // Log successful login
-                userActivityLogService.logActivity(
-                    "LOGIN",
-                    email,
-                    appConfig.getUserPoolId(),
-                    appConfig.getAppName(),
-                    "SUCCESS",
-                    null,
-                    request
-                );
-                
-                return response;
-            } catch (CognitoIdentityProviderException ex) {
-                String errorMessage = ex.getMessage();
-                if (errorMessage.contains("(Service:")) {
-                    errorMessage = errorMessage.substring(0, errorMessage.indexOf("(Service:"));
-                }
-                
-                // Log failed login
-                userActivityLogService.logActivity(
-                    "LOGIN",
-                    email,
-                    appConfig.getUserPoolId(),
-                    appConfig.getAppName(),
-                    "FAILURE",
-                    errorMessage,
-                    request
-                );
-                
-                throw ex;
-            }
-        } finally {
-            cognitoClient.close();
+            return response;
+        } catch (CognitoIdentityProviderException ex) {
+            String errorMessage = ErrorMessages.of(ex);
+            
+            // Log failed login
+            userActivityLogService.logActivity(
+                "LOGIN",
+                email,
+                appConfig.getUserPoolId(),
+                appConfig.getAppName(),
+                "FAILURE",
+                errorMessage,
+                request
+            );
+            
+            throw ex;
         }
     }
 
@@ -290,56 +325,49 @@ public class CognitoService {
      * @return The result of the forgot password request
      */
     public ForgotPasswordResponse forgotPassword(String email) {
-        log.info("Initiating forgot password process for user with email: {}", email);
+        log.debug("Initiating forgot password process for user with email: {}", email);
         CognitoAppConfig appConfig = getCurrentAppConfig();
         log.debug("Using app config: {}", appConfig.getAppName());
-        CognitoIdentityProviderClient cognitoClient = createCognitoClient();
+        CognitoIdentityProviderClient cognitoClient = getCognitoClient();
         
         HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.getRequestAttributes()).getRequest();
         
+        ForgotPasswordRequest forgotPasswordRequest = ForgotPasswordRequest.builder()
+                .clientId(appConfig.getClientId())
+                .username(email)
+                .build();
+        
         try {
-            ForgotPasswordRequest forgotPasswordRequest = ForgotPasswordRequest.builder()
-                    .clientId(appConfig.getClientId())
-                    .username(email)
-                    .build();
+            var response = invoke("ForgotPassword", appConfig, () -> cognitoClient.forgotPassword(forgotPasswordRequest));
+            log.info("Forgot password request successful for: {}", email);
             
-            try {
-                var response = cognitoClient.forgotPassword(forgotPasswordRequest);
-                log.info("Forgot password request successful for: {}", email);
-                
-                // Log successful forgot password request
-                userActivityLogService.logActivity(
-                    "FORGOT_PASSWORD_REQUEST",
-                    email,
-                    appConfig.getUserPoolId(),
-                    appConfig.getAppName(),
-                    "SUCCESS",
-                    null,
-                    request
-                );
-                
-                return response;
-            } catch (CognitoIdentityProviderException ex) {
-                String errorMessage = ex.getMessage();
-                if (errorMessage.contains("(Service:")) {
-                    errorMessage = errorMessage.substring(0, errorMessage.indexOf("(Service:"));
-                }
-                
-                // Log failed forgot password request
-                userActivityLogService.logActivity(
-                    "FORGOT_PASSWORD_REQUEST",
-                    email,
-                    appConfig.getUserPoolId(),
-                    appConfig.getAppName(),
-                    "FAILURE",
-                    errorMessage,
-                    request
-                );
-                
-                throw ex;
-            }
-        } finally {
-            cognitoClient.close();
+            // Log successful forgot password request
+            userActivityLogService.logActivity(
+                "FORGOT_PASSWORD_REQUEST",
+                email,
+                appConfig.getUserPoolId(),
+                appConfig.getAppName(),
+                "SUCCESS",
+                null,
+                request
+            );
+            
+            return response;
+        } catch (CognitoIdentityProviderException ex) {
+            String errorMessage = ErrorMessages.of(ex);
+            
+            // Log failed forgot password request
+            userActivityLogService.logActivity(
+                "FORGOT_PASSWORD_REQUEST",
+                email,
+                appConfig.getUserPoolId(),
+                appConfig.getAppName(),
+                "FAILURE",
+                errorMessage,
+                request
+            );
+            
+            throw ex;
         }
     }
 
@@ -352,58 +380,51 @@ public class CognitoService {
      * @return The result of the confirmation
      */
     public ConfirmForgotPasswordResponse confirmForgotPassword(String email, String confirmationCode, String newPassword) {
-        log.info("Confirming forgot password for user with email: {}", email);
+        log.debug("Confirming forgot password for user with email: {}", email);
         CognitoAppConfig appConfig = getCurrentAppConfig();
         log.debug("Using app config: {}", appConfig.getAppName());
-        CognitoIdentityProviderClient cognitoClient = createCognitoClient();
+        CognitoIdentityProviderClient cognitoClient = getCognitoClient();
 
         HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.getRequestAttributes()).getRequest();
 
-        try {
-            ConfirmForgotPasswordRequest confirmRequest = ConfirmForgotPasswordRequest.builder()
-                    .clientId(appConfig.getClientId())
-                    .username(email)
-                    .confirmationCode(confirmationCode)
-                    .password(newPassword)
-                    .build();
+        ConfirmForgotPasswordRequest confirmRequest = ConfirmForgotPasswordRequest.builder()
+                .clientId(appConfig.getClientId())
+                .username(email)
+                .confirmationCode(confirmationCode)
+                .password(newPassword)
+                .build();
 
-            try {
-                var response = cognitoClient.confirmForgotPassword(confirmRequest);
-                log.info("Password reset confirmation successful for: {}", email);
+        try {
+            var response = invoke("ConfirmForgotPassword", appConfig, () -> cognitoClient.confirmForgotPassword(confirmRequest));
+            log.info("Password reset confirmation successful for: {}", email);
 
-                // Log successful password reset
-                userActivityLogService.logActivity(
-                    "RESET_PASSWORD",
-                    email,
-                    appConfig.getUserPoolId(),
-                    appConfig.getAppName(),
-                    "SUCCESS",
-                    null,
-                    request
-                );
+            // Log successful password reset
+            userActivityLogService.logActivity(
+                "RESET_PASSWORD",
+                email,
+                appConfig.getUserPoolId(),
+                appConfig.getAppName(),
+                "SUCCESS",
+                null,
+                request
+            );
 
-                return response;
-            } catch (CognitoIdentityProviderException ex) {
-                String errorMessage = ex.getMessage();
-                if (errorMessage.contains("(Service:")) {
-                    errorMessage = errorMessage.substring(0, errorMessage.indexOf("(Service:"));
-                }
+            return response;
+        } catch (CognitoIdentityProviderException ex) {
+            String errorMessage = ErrorMessages.of(ex);
 
-                // Log failed password reset
-                userActivityLogService.logActivity(
-                    "RESET_PASSWORD",
-                    email,
-                    appConfig.getUserPoolId(),
-                    appConfig.getAppName(),
-                    "FAILURE",
-                    errorMessage,
-                    request
-                );
+            // Log failed password reset
+            userActivityLogService.logActivity(
+                "RESET_PASSWORD",
+                email,
+                appConfig.getUserPoolId(),
+                appConfig.getAppName(),
+                "FAILURE",
+                errorMessage,
+                request
+            );
 
-                throw ex;
-            }
-        } finally {
-            cognitoClient.close();
+            throw ex;
         }
     }
 
@@ -415,71 +436,64 @@ public class CognitoService {
      * @param phoneNumber The phone number for SMS MFA (optional)
      */
     public void setUserMfaPreference(String accessToken, String mfaType, String phoneNumber) {
-        log.info("Setting user MFA preference to: {}", mfaType);
+        log.debug("Setting user MFA preference to: {}", mfaType);
         CognitoAppConfig appConfig = getCurrentAppConfig();
         log.debug("Using app config: {}", appConfig.getAppName());
-        CognitoIdentityProviderClient cognitoClient = createCognitoClient();
+        CognitoIdentityProviderClient cognitoClient = getCognitoClient();
 
         HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.getRequestAttributes()).getRequest();
 
-        try {
-            SetUserMfaPreferenceRequest.Builder requestBuilder = SetUserMfaPreferenceRequest.builder()
-                    .accessToken(accessToken);
-
-            if ("SMS_MFA".equals(mfaType)) {
-                // Set SMS MFA as preferred
-                requestBuilder.smsMfaSettings(SMSMfaSettingsType.builder()
-                        .enabled(true)
-                        .preferredMfa(true)
-                        .build());
-
-                // Update phone number if provided
-                if (phoneNumber != null && !phoneNumber.isEmpty()) {
-                    updateUserPhoneNumber(accessToken, phoneNumber);
-                }
-            } else if ("SOFTWARE_TOKEN_MFA".equals(mfaType)) {
-                // Set Software Token MFA as preferred
-                requestBuilder.softwareTokenMfaSettings(SoftwareTokenMfaSettingsType.builder()
-                        .enabled(true)
-                        .preferredMfa(true)
-                        .build());
+        SetUserMfaPreferenceRequest.Builder requestBuilder = SetUserMfaPreferenceRequest.builder()
+                .accessToken(accessToken);
+
+        if ("SMS_MFA".equals(mfaType)) {
+            // Set SMS MFA as preferred
+            requestBuilder.smsMfaSettings(SMSMfaSettingsType.builder()
+                    .enabled(true)
+                    .preferredMfa(true)
+                    .build());
+
+            // Update phone number if provided
+            if (phoneNumber != null && !phoneNumber.isEmpty()) {
+                updateUserPhoneNumber(accessToken, phoneNumber);
             }
+        } else if ("SOFTWARE_TOKEN_MFA".equals(mfaType)) {
+            // Set Software Token MFA as preferred
+            requestBuilder.softwareTokenMfaSettings(SoftwareTokenMfaSettingsType.builder()
+                    .enabled(true)
+                    .preferredMfa(true)
+                    .build());
+        }
 
-            try {
-                cognitoClient.setUserMFAPreference(requestBuilder.build());
-                log.info("MFA preference set successfully");
+        try {
+            invoke("SetUserMFAPreference", appConfig, () -> cognitoClient.setUserMFAPreference(requestBuilder.build()));
+            log.info("MFA preference set successfully");
 
-                // Log successful MFA setup
-                userActivityLogService.logActivity(
-                    "MFA_SETUP",
-                    "user",
-                    appConfig.getUserPoolId(),
-                    appConfig.getAppName(),
-                    "SUCCESS",
-                    "MFA type: " + mfaType,
-                    request
-                );
-            } catch (CognitoIdentityProviderException ex) {
-                String errorMessage = ex.getMessage();
-                if (errorMessage.contains("(Service:")) {
-                    errorMessage = errorMessage.substring(0, errorMessage.indexOf("(Service:"));
-                }
+            // Log successful MFA setup
+            userActivityLogService.logActivity(
+                "MFA_SETUP",
+                "user",
+                appConfig.getUserPoolId(),
+                appConfig.getAppName(),
+                "SUCCESS",
+                "MFA type: " + mfaType,
+                request
+            );
+        } catch (CognitoIdentityProviderException ex) {
+            String errorMessage = ErrorMessages.of(ex);
 
-                // Log failed MFA setup
-                userActivityLogService.logActivity(
-                    "MFA_SETUP",
-                    "user",
-                    appConfig.getUserPoolId(),
-                    appConfig.getAppName(),
-                    "FAILURE",
-                    errorMessage,
-                    request
-                );
+            // Log failed MFA setup
+            userActivityLogService.logActivity(
+                "MFA_SETUP",
+                "user",
+                appConfig.getUserPoolId(),
+                appConfig.getAppName(),
+                "FAILURE",
+                errorMessage,
+                request
+            );
 
-                throw ex;
-            }
-        } finally {
-            cognitoClient.close();
+            throw ex;
         }
     }
 
@@ -490,23 +504,20 @@ public class CognitoService {
      * @param phoneNumber The phone number to set
      */
     private void updateUserPhoneNumber(String accessToken, String phoneNumber) {
-        log.info("Updating user phone number");
-        CognitoIdentityProviderClient cognitoClient = createCognitoClient();
-
-        try {
-            UpdateUserAttributesRequest updateRequest = UpdateUserAttributesRequest.builder()
-                    .accessToken(accessToken)
-                    .userAttributes(AttributeType.builder()
-                            .name("phone_number")
-                            .value(phoneNumber)
-                            .build())
-                    .build();
+        log.debug("Updating user phone number");
+        CognitoAppConfig appConfig = getCurrentAppConfig();
+        CognitoIdentityProviderClient cognitoClient = getCognitoClient();
+
+        UpdateUserAttributesRequest updateRequest = UpdateUserAttributesRequest.builder()
+                .accessToken(accessToken)
+                .userAttributes(AttributeType.builder()
+                        .name("phone_number")
+                        .value(phoneNumber)
+                        .build())
+                .build();
 
-            cognitoClient.updateUserAttributes(updateRequest);
-            log.info("Phone number updated successfully");
-        } finally {
-            cognitoClient.close();
-        }
+        invoke("UpdateUserAttributes", appConfig, () -> cognitoClient.updateUserAttributes(updateRequest));
+        log.info("Phone number updated successfully");
     }
 
     /**
@@ -516,55 +527,48 @@ public class CognitoService {
      * @return The associate software token response containing the secret code
      */
     public AssociateSoftwareTokenResponse associateSoftwareToken(String accessToken) {
-        log.info("Associating software token for MFA");
+        log.debug("Associating software token for MFA");
         CognitoAppConfig appConfig = getCurrentAppConfig();
         log.debug("Using app config: {}", appConfig.getAppName());
-        CognitoIdentityProviderClient cognitoClient = createCognitoClient();
+        CognitoIdentityProviderClient cognitoClient = getCognitoClient();
 
         HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.getRequestAttributes()).getRequest();
 
-        try {
-            AssociateSoftwareTokenRequest tokenRequest = AssociateSoftwareTokenRequest.builder()
-                    .accessToken(accessToken)
-                    .build();
+        AssociateSoftwareTokenRequest tokenRequest = AssociateSoftwareTokenRequest.builder()
+                .accessToken(accessToken)
+                .build();
 
-            try {
-                var response = cognitoClient.associateSoftwareToken(tokenRequest);
-                log.info("Software token associated successfully");
+        try {
+            var response = invoke("AssociateSoftwareToken", appConfig, () -> cognitoClient.associateSoftwareToken(tokenRequest));
+            log.info("Software token associated successfully");
 
-                // Log successful token association
-                userActivityLogService.logActivity(
-                    "MFA_TOKEN_ASSOCIATE",
-                    "user",
-                    appConfig.getUserPoolId(),
-                    appConfig.getAppName(),
-                    "SUCCESS",
-                    null,
-                    request
-                );
+            // Log successful token association
+            userActivityLogService.logActivity(
+                "MFA_TOKEN_ASSOCIATE",
+                "user",
+                appConfig.getUserPoolId(),
+                appConfig.getAppName(),
+                "SUCCESS",
+                null,
+                request
+            );
 
-                return response;
-            } catch (CognitoIdentityProviderException ex) {
-                String errorMessage = ex.getMessage();
-                if (errorMessage.contains("(Service:")) {
-                    errorMessage = errorMessage.substring(0, errorMessage.indexOf("(Service:"));
-                }
+            return response;
+        } catch (CognitoIdentityProviderException ex) {
+            String errorMessage = ErrorMessages.of(ex);
 
-                // Log failed token association
-                userActivityLogService.logActivity(
-                    "MFA_TOKEN_ASSOCIATE",
-                    "user",
-                    appConfig.getUserPoolId(),
-                    appConfig.getAppName(),
-                    "FAILURE",
-                    errorMessage,
-                    request
-                );
+            // Log failed token association
+            userActivityLogService.logActivity(
+                "MFA_TOKEN_ASSOCIATE",
+                "user",
+                appConfig.getUserPoolId(),
+                appConfig.getAppName(),
+                "FAILURE",
+                errorMessage,
+                request
+            );
 
-                throw ex;
-            }
-        } finally {
-            cognitoClient.close();
+            throw ex;
         }
     }
 
@@ -577,57 +581,50 @@ public class CognitoService {
      * @return The verify software token response
      */
     public VerifySoftwareTokenResponse verifySoftwareToken(String accessToken, String userCode, String deviceName) {
-        log.info("Verifying software token for MFA");
+        log.debug("Verifying software token for MFA");
         CognitoAppConfig appConfig = getCurrentAppConfig();
         log.debug("Using app config: {}", appConfig.getAppName());
-        CognitoIdentityProviderClient cognitoClient = createCognitoClient();
+        CognitoIdentityProviderClient cognitoClient = getCognitoClient();
 
         HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.getRequestAttributes()).getRequest();
 
-        try {
-            VerifySoftwareTokenRequest verifyRequest = VerifySoftwareTokenRequest.builder()
-                    .accessToken(accessToken)
-                    .userCode(userCode)
-                    .friendlyDeviceName(deviceName)
-                    .build();
+        VerifySoftwareTokenRequest verifyRequest = VerifySoftwareTokenRequest.builder()
+                .accessToken(accessToken)
+                .userCode(userCode)
+                .friendlyDeviceName(deviceName)
+                .build();
 
-            try {
-                var response = cognitoClient.verifySoftwareToken(verifyRequest);
-                log.info("Software token verified successfully");
+        try {
+            var response = invoke("VerifySoftwareToken", appConfig, () -> cognitoClient.verifySoftwareToken(verifyRequest));
+            log.info("Software token verified successfully");
 
-                // Log successful token verification
-                userActivityLogService.logActivity(
-                    "MFA_TOKEN_VERIFY",
-                    "user",
-                    appConfig.getUserPoolId(),
-                    appConfig.getAppName(),
-                    "SUCCESS",
-                    null,
-                    request
-                );
+            // Log successful token verification
+            userActivityLogService.logActivity(
+                "MFA_TOKEN_VERIFY",
+                "user",
+                appConfig.getUserPoolId(),
+                appConfig.getAppName(),
+                "SUCCESS",
+                null,
+                request
+            );
 
-                return response;
-            } catch (CognitoIdentityProviderException ex) {
-                String errorMessage = ex.getMessage();
-                if (errorMessage.contains("(Service:")) {
-                    errorMessage = errorMessage.substring(0, errorMessage.indexOf("(Service:"));
-                }
+            return response;
+        } catch (CognitoIdentityProviderException ex) {
+            String errorMessage = ErrorMessages.of(ex);
 
-                // Log failed token verification
-                userActivityLogService.logActivity(
-                    "MFA_TOKEN_VERIFY",
-                    "user",
-                    appConfig.getUserPoolId(),
-                    appConfig.getAppName(),
-                    "FAILURE",
-                    errorMessage,
-                    request
-                );
+            // Log failed token verification
+            userActivityLogService.logActivity(
+                "MFA_TOKEN_VERIFY",
+                "user",
+                appConfig.getUserPoolId(),
+                appConfig.getAppName(),
+                "FAILURE",
+                errorMessage,
+                request
+            );
 
-                throw ex;
-            }
-        } finally {
-            cognitoClient.close();
+            throw ex;
         }
     }
 
@@ -641,72 +638,65 @@ public class CognitoService {
      * @return The authentication result with tokens
      */
     public RespondToAuthChallengeResponse respondToMfaChallenge(String email, String session, String mfaCode, String challengeName) {
-        log.info("Responding to MFA challenge for user: {}", email);
+        log.debug("Responding to MFA challenge for user: {}", email);
         CognitoAppConfig appConfig = getCurrentAppConfig();
         log.debug("Using app config: {}", appConfig.getAppName());
-        CognitoIdentityProviderClient cognitoClient = createCognitoClient();
+        CognitoIdentityProviderClient cognitoClient = getCognitoClient();
 
         HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.getRequestAttributes()).getRequest();
 
-        try {
-            Map<String, String> challengeResponses = new HashMap<>();
-            challengeResponses.put("USERNAME", email);
-
-            if ("SMS_MFA".equals(challengeName)) {
-                challengeResponses.put("SMS_MFA_CODE", mfaCode);
-            } else if ("SOFTWARE_TOKEN_MFA".equals(challengeName)) {
-                challengeResponses.put("SOFTWARE_TOKEN_MFA_CODE", mfaCode);
-            } else if ("EMAIL_OTP".equals(challengeName)) {
-                challengeResponses.put("EMAIL_OTP_CODE", mfaCode);
-            } else {
-                log.warn("Unknown challenge name: {}. Using default code parameter.", challengeName);
-                challengeResponses.put("ANSWER", mfaCode);
-            }
+        Map<String, String> challengeResponses = new HashMap<>();
+        challengeResponses.put("USERNAME", email);
+
+        if ("SMS_MFA".equals(challengeName)) {
+            challengeResponses.put("SMS_MFA_CODE", mfaCode);
+        } else if ("SOFTWARE_TOKEN_MFA".equals(challengeName)) {
+            challengeResponses.put("SOFTWARE_TOKEN_MFA_CODE", mfaCode);
+        } else if ("EMAIL_OTP".equals(challengeName)) {
+            challengeResponses.put("EMAIL_OTP_CODE", mfaCode);
+        } else {
+            log.warn("Unknown challenge name: {}. Using default code parameter.", challengeName);
+            challengeResponses.put("ANSWER", mfaCode);
+        }
 
-            RespondToAuthChallengeRequest challengeRequest = RespondToAuthChallengeRequest.builder()
-                    .clientId(appConfig.getClientId())
-                    .challengeName(ChallengeNameType.fromValue(challengeName))
-                    .session(session)
-                    .challengeResponses(challengeResponses)
-                    .build();
+        RespondToAuthChallengeRequest challengeRequest = RespondToAuthChallengeRequest.builder()
+                .clientId(appConfig.getClientId())
+                .challengeName(ChallengeNameType.fromValue(challengeName))
+                .session(session)
+                .challengeResponses(challengeResponses)
+                .build();
 
-            try {
-                var response = cognitoClient.respondToAuthChallenge(challengeRequest);
-                log.info("MFA challenge response successful for: {}", email);
+        try {
+            var response = invoke("RespondToAuthChallenge", appConfig, () -> cognitoClient.respondToAuthChallenge(challengeRequest));
+            log.info("MFA challenge response successful for: {}", email);
 
-                // Log successful MFA verification
-                userActivityLogService.logActivity(
-                    "MFA_VERIFY",
-                    email,
-                    appConfig.getUserPoolId(),
-                    appConfig.getAppName(),
-                    "SUCCESS",
-                    "Challenge: " + challengeName,
-                    request
-                );
+            // Log successful MFA verification
+            userActivityLogService.logActivity(
+                "MFA_VERIFY",
+                email,
+                appConfig.getUserPoolId(),
+                appConfig.getAppName(),
+                "SUCCESS",
+                "Challenge: " + challengeName,
+                request
+            );
 
-                return response;
-            } catch (CognitoIdentityProviderException ex) {
-                String errorMessage = ex.getMessage();
-                if (errorMessage.contains("(Service:")) {
-                    errorMessage = errorMessage.substring(0, errorMessage.indexOf("(Service:"));
-                }
+            return response;
+        } catch (CognitoIdentityProviderException ex) {
+            String errorMessage = ErrorMessages.of(ex);
 
-                // Log failed MFA verification
-                userActivityLogService.logActivity(
-                    "MFA_VERIFY",
-                    email,
-                    appConfig.getUserPoolId(),
-                    appConfig.getAppName(),
-                    "FAILURE",
-                    errorMessage,
-                    request
-                );
+            // Log failed MFA verification
+            userActivityLogService.logActivity(
+                "MFA_VERIFY",
+                email,
+                appConfig.getUserPoolId(),
+                appConfig.getAppName(),
+                "FAILURE",
+                errorMessage,
+                request
+            );
 
-                throw ex;
-            }
-        } finally {
-            cognitoClient.close();
+            throw ex;
         }
     }
 
@@ -717,56 +707,49 @@ public class CognitoService {
      * @return The result of the resend confirmation code request
      */
     public ResendConfirmationCodeResponse resendConfirmationCode(String email) {
-        log.info("Resending confirmation code for user with email: {}", email);
+        log.debug("Resending confirmation code for user with email: {}", email);
         CognitoAppConfig appConfig = getCurrentAppConfig();
         log.debug("Using app config: {}", appConfig.getAppName());
-        CognitoIdentityProviderClient cognitoClient = createCognitoClient();
+        CognitoIdentityProviderClient cognitoClient = getCognitoClient();
 
         HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.getRequestAttributes()).getRequest();
 
-        try {
-            ResendConfirmationCodeRequest resendRequest = ResendConfirmationCodeRequest.builder()
-                    .clientId(appConfig.getClientId())
-                    .username(email)
-                    .build();
+        ResendConfirmationCodeRequest resendRequest = ResendConfirmationCodeRequest.builder()
+                .clientId(appConfig.getClientId())
+                .username(email)
+                .build();
 
-            try {
-                var response = cognitoClient.resendConfirmationCode(resendRequest);
-                log.info("Confirmation code resent successfully for: {}", email);
+        try {
+            var response = invoke("ResendConfirmationCode", appConfig, () -> cognitoClient.resendConfirmationCode(resendRequest));
+            log.info("Confirmation code resent successfully for: {}", email);
 
-                // Log successful OTP resend
-                userActivityLogService.logActivity(
-                    "RESEND_OTP",
-                    email,
-                    appConfig.getUserPoolId(),
-                    appConfig.getAppName(),
-                    "SUCCESS",
-                    null,
-                    request
-                );
+            // Log successful OTP resend
+            userActivityLogService.logActivity(
+                "RESEND_OTP",
+                email,
+                appConfig.getUserPoolId(),
+                appConfig.getAppName(),
+                "SUCCESS",
+                null,
+                request
+            );
 
-                return response;
-            } catch (CognitoIdentityProviderException ex) {
-                String errorMessage = ex.getMessage();
-                if (errorMessage.contains("(Service:")) {
-                    errorMessage = errorMessage.substring(0, errorMessage.indexOf("(Service:"));
-                }
+            return response;
+        } catch (CognitoIdentityProviderException ex) {
+            String errorMessage = ErrorMessages.of(ex);
 
-                // Log failed OTP resend
-                userActivityLogService.logActivity(
-                    "RESEND_OTP",
-                    email,
-                    appConfig.getUserPoolId(),
-                    appConfig.getAppName(),
-                    "FAILURE",
-                    errorMessage,
-                    request
-                );
+            // Log failed OTP resend
+            userActivityLogService.logActivity(
+                "RESEND_OTP",
+                email,
+                appConfig.getUserPoolId(),
+                appConfig.getAppName(),
+                "FAILURE",
+                errorMessage,
+                request
+            );
 
-                throw ex;
-            }
-        } finally {
-            cognitoClient.close();
+            throw ex;
         }
     }
 
@@ -779,9 +762,9 @@ public class CognitoService {
      * @throws IllegalStateException if the Cognito configuration is not found
      */
     public GetUserResponse introspectToken(String accessToken) {
-        log.info("Introspecting access token");
+        log.debug("Introspecting access token");
         CognitoAppConfig appConfig = getCurrentAppConfig();
-        CognitoIdentityProviderClient cognitoClient = createCognitoClient();
+        CognitoIdentityProviderClient cognitoClient = getCognitoClient();
         HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.getRequestAttributes()).getRequest();
         String username = null;
 
@@ -790,16 +773,16 @@ public class CognitoService {
                     .accessToken(accessToken)
                     .build();
 
-            var response = cognitoClient.getUser(getUserRequest);
+            var response = invoke("GetUser", appConfig, () -> cognitoClient.getUser(getUserRequest));
             username = response.username();
 
             log.info("Token validated successfully for user: {}", username);
 
             // Log successful introspection
             userActivityLogService.logActivity(
-                    appConfig.getUserPoolId(),
-                    username,
                     "TOKEN_INTROSPECT",
+                    username,
+                    appConfig.getUserPoolId(),
                     appConfig.getAppName(),
                     "SUCCESS",
                     null,
@@ -809,18 +792,14 @@ public class CognitoService {
             return response;
 
         } catch (NotAuthorizedException ex) {
-            log.error("Token validation failed - invalid or expired token", ex);
-
-            String errorMessage = ex.getMessage();
-            if (errorMessage != null && errorMessage.contains("(Service:")) {
-                errorMessage = errorMessage.substring(0, errorMessage.indexOf("(Service:")).trim();
-            }
+            String errorMessage = ErrorMessages.of(ex);
+            log.info("Token validation failed - invalid or expired token: {}", errorMessage);
 
             // Log failed introspection
             userActivityLogService.logActivity(
-                    appConfig.getUserPoolId(),
-                    username != null ? username : "UNKNOWN",
                     "TOKEN_INTROSPECT",
+                    username != null ? username : "UNKNOWN",
+                    appConfig.getUserPoolId(),
                     appConfig.getAppName(),
                     "FAILURE",
                     errorMessage,
@@ -830,18 +809,15 @@ public class CognitoService {
             throw ex;
 
         } catch (Exception ex) {
-            log.error("Error during token introspection", ex);
-
-            String errorMessage = ex.getMessage();
-            if (errorMessage != null && errorMessage.contains("(Service:")) {
-                errorMessage = errorMessage.substring(0, errorMessage.indexOf("(Service:")).trim();
-            }
+            // Logged with its stack trace by GlobalExceptionHandler if unexpected
+            String errorMessage = ErrorMessages.of(ex);
+            log.warn("Error during token introspection: {}", errorMessage);
 
             // Log failed introspection
             userActivityLogService.logActivity(
-                    appConfig.getUserPoolId(),
-                    username != null ? username : "UNKNOWN",
                     "TOKEN_INTROSPECT",
+                    username != null ? username : "UNKNOWN",
+                    appConfig.getUserPoolId(),
                     appConfig.getAppName(),
                     "FAILURE",
                     errorMessage,
@@ -850,8 +826,6 @@ public class CognitoService {
 
             throw ex;
 
-        } finally {
-            cognitoClient.close();
         }
     }
 
@@ -869,9 +843,9 @@ public class CognitoService {
      */
     public software.amazon.awssdk.services.cognitoidentityprovider.model.ChangePasswordResponse changePassword(
             String accessToken, String previousPassword, String proposedPassword) {
-        log.info("Changing password for authenticated user");
+        log.debug("Changing password for authenticated user");
         CognitoAppConfig appConfig = getCurrentAppConfig();
-        CognitoIdentityProviderClient cognitoClient = createCognitoClient();
+        CognitoIdentityProviderClient cognitoClient = getCognitoClient();
         HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.getRequestAttributes()).getRequest();
         String username = null;
 
@@ -881,7 +855,7 @@ public class CognitoService {
                 GetUserRequest getUserRequest = GetUserRequest.builder()
                         .accessToken(accessToken)
                         .build();
-                var userResponse = cognitoClient.getUser(getUserRequest);
+                var userResponse = invoke("GetUser", appConfig, () -> cognitoClient.getUser(getUserRequest));
                 username = userResponse.username();
             } catch (Exception e) {
                 log.warn("Could not retrieve username from token", e);
@@ -894,15 +868,15 @@ public class CognitoService {
                             .proposedPassword(proposedPassword)
                             .build();
 
-            var response = cognitoClient.changePassword(changePasswordRequest);
+            var response = invoke("ChangePassword", appConfig, () -> cognitoClient.changePassword(changePasswordRequest));
 
             log.info("Password changed successfully for user: {}", username);
 
             // Log successful password change
             userActivityLogService.logActivity(
-                    appConfig.getUserPoolId(),
-                    username != null ? username : "UNKNOWN",
                     "CHANGE_PASSWORD",
+                    username != null ? username : "UNKNOWN",
+                    appConfig.getUserPoolId(),
                     appConfig.getAppName(),
                     "SUCCESS",
                     null,
@@ -912,18 +886,15 @@ public class CognitoService {
             return response;
 
         } catch (Exception ex) {
-            log.error("Error changing password", ex);
-
-            String errorMessage = ex.getMessage();
-            if (errorMessage != null && errorMessage.contains("(Service:")) {
-                errorMessage = errorMessage.substring(0, errorMessage.indexOf("(Service:")).trim();
-            }
+            // Logged with its stack trace by GlobalExceptionHandler if unexpected
+            String errorMessage = ErrorMessages.of(ex);
+            log.warn("Error changing password: {}", errorMessage);
 
             // Log failed password change
             userActivityLogService.logActivity(
-                    appConfig.getUserPoolId(),
-                    username != null ? username : "UNKNOWN",
                     "CHANGE_PASSWORD",
+                    username != null ? username : "UNKNOWN",
+                    appConfig.getUserPoolId(),
                     appConfig.getAppName(),
                     "FAILURE",
                     errorMessage,
@@ -932,8 +903,6 @@ public class CognitoService {
 
             throw ex;
 
-        } finally {
-            cognitoClient.close();
         }
     }
 }
\ No newline at end of file
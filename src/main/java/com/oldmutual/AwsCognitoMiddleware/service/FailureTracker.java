@@ -0,0 +1,159 @@
+package com.oldmutual.AwsCognitoMiddleware.service;
+
+import com.oldmutual.AwsCognitoMiddleware.config.FailureTrackerProperties;
+import com.oldmutual.AwsCognitoMiddleware.exception.TooManyRequestsException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Locale;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Tracks failed login, MFA and OTP attempts per IP and per username over a sliding window.
+ * IPs that exceed their threshold are temporarily blocked. Usernames that exceed theirs are only slowed down:
+ * a username is known to anyone, so a block would let anyone lock its owner out with a few bad attempts.
+ * Counting uses fixed-size sketches, so memory does not grow with the number of attacking sources;
+ * only the blocked and slowed sources themselves are held in (bounded) maps.
+ */
+@Slf4j
+@Service
+public class FailureTracker {
+
+    private static final String BLOCKED_MESSAGE = "Too many failed attempts. Please try again later.";
+
+    private final FailureTrackerProperties properties;
+    private final LongSupplier clock;
+    private final LongConsumer sleeper;
+    private final Semaphore delaySlots;
+    private final SlidingCountMinSketch ipFailures;
+    private final SlidingCountMinSketch userFailures;
+    private final ConcurrentHashMap<String, Long> blockedIps = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Long> slowedUsers = new ConcurrentHashMap<>();
+
+    @Autowired
+    public FailureTracker(FailureTrackerProperties properties) {
+        this(properties, System::nanoTime, FailureTracker::sleep);
+    }
+
+    FailureTracker(FailureTrackerProperties properties, LongSupplier clock, LongConsumer sleeper) {
+        this.properties = properties;
+        this.clock = clock;
+        this.sleeper = sleeper;
+        this.delaySlots = new Semaphore(properties.getMaxDelayedRequests());
+        long windowNanos = properties.getWindow().toNanos();
+        this.ipFailures = new SlidingCountMinSketch(windowNanos, properties.getSlots(),
+                properties.getSketchDepth(), properties.getSketchWidth());
+        this.userFailures = new SlidingCountMinSketch(windowNanos, properties.getSlots(),
+                properties.getSketchDepth(), properties.getSketchWidth());
+    }
+
+    /**
+     * Count a failed attempt; block the IP or slow down the username once they cross their thresholds.
+     *
+     * @param activity  The activity that failed
+     * @param ipAddress The client IP
+     * @param username  The username the attempt was made for
+     */
+    public void recordFailure(String activity, String ipAddress, String username) {
+        if (!properties.isEnabled() || !properties.getActivities().contains(activity)) {
+            return;
+        }
+        long now = clock.getAsLong();
+        if (ipAddress != null && ipFailures.add(ipAddress, now) >= properties.getIpThreshold()) {
+            block(blockedIps, ipAddress, now, properties.getIpBlockDuration().toNanos(), "IP");
+        }
+        if (username != null) {
+            String user = username.toLowerCase(Locale.ROOT);
+            if (userFailures.add(user, now) >= properties.getUserThreshold()) {
+                block(slowedUsers, user, now, properties.getUserSlowdownDuration().toNanos(), "username");
+            }
+        }
+    }
+
+    /**
+     * Refuse the request if the IP is blocked.
+     *
+     * @param ipAddress The client IP
+     * @throws TooManyRequestsException if the IP is blocked
+     */
+    public void checkIp(String ipAddress) {
+        long remaining = remaining(blockedIps, ipAddress);
+        if (remaining > 0) {
+            throw new TooManyRequestsException(BLOCKED_MESSAGE, toRetryAfterSeconds(remaining));
+        }
+    }
+
+    /**
+     * Delay the request if the username is slowed down.
+     *
+     * @param username The username
+     * @throws TooManyRequestsException if the username is slowed down and too many requests are already delayed
+     */
+    public void checkUser(String username) {
+        if (username == null || remaining(slowedUsers, username.toLowerCase(Locale.ROOT)) <= 0) {
+            return;
+        }
+        long delayNanos = properties.getUserDelay().toNanos();
+        if (!delaySlots.tryAcquire()) {
+            throw new TooManyRequestsException(BLOCKED_MESSAGE, toRetryAfterSeconds(delayNanos));
+        }
+        try {
+            sleeper.accept(delayNanos);
+        } finally {
+            delaySlots.release();
+        }
+    }
+
+    /**
+     * Get the number of currently blocked IPs and slowed usernames.
+     *
+     * @return The number of blocked sources
+     */
+    public int blockedCount() {
+        return blockedIps.size() + slowedUsers.size();
+    }
+
+    private long remaining(ConcurrentHashMap<String, Long> blocked, String key) {
+        if (key == null || !properties.isEnabled() || blocked.isEmpty()) {
+            return 0;
+        }
+        Long until = blocked.get(key);
+        if (until == null) {
+            return 0;
+        }
+        long remaining = until - clock.getAsLong();
+        if (remaining <= 0) {
+            blocked.remove(key, until);
+        }
+        return remaining;
+    }
+
+    private static long toRetryAfterSeconds(long nanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(nanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    private static void sleep(long nanos) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void block(ConcurrentHashMap<String, Long> blocked, String key, long now, long durationNanos, String kind) {
+        if (blocked.size() >= properties.getMaxBlocked() && !blocked.containsKey(key)) {
+            blocked.values().removeIf(until -> until - now <= 0);
+            if (blocked.size() >= properties.getMaxBlocked()) {
+                return;
+            }
+        }
+        if (blocked.put(key, now + durationNanos) == null) {
+            log.warn("Throttling {} {} after repeated failed attempts", kind, key);
+        }
+    }
+}
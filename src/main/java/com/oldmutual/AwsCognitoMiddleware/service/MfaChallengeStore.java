@@ -0,0 +1,150 @@
+package com.oldmutual.AwsCognitoMiddleware.service;
+
+import com.oldmutual.AwsCognitoMiddleware.config.Workload;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.security.SecureRandom;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Optional server-side store for pending MFA challenges, shared by all nodes through Postgres.
+ * Login hands out a short opaque handle instead of the Cognito session, and any node can complete
+ * the challenge from it, so the gateway does not need sticky sessions.
+ * The table is UNLOGGED: challenges only live for minutes, so they are not worth WAL traffic,
+ * and losing them on a database crash just means the user logs in again.
+ * Expiry is decided against this node's clock, the same one that sets it, not the database's.
+ */
+@Slf4j
+@Service
+@Workload(Workload.Type.AUTH_CONFIG)
+public class MfaChallengeStore {
+
+    private static final int HANDLE_BYTES = 24;
+
+    /**
+     * A pending challenge.
+     *
+     * @param username      The username the challenge was issued for
+     * @param challengeName The Cognito challenge name
+     * @param session       The Cognito session
+     */
+    public record PendingChallenge(String username, String challengeName, String session) {
+    }
+
+    /**
+     * A stored challenge row.
+     *
+     * @param appKey    The UUID of the application the challenge was issued for
+     * @param challenge The challenge
+     * @param expiresAt When the handle stops being accepted
+     */
+    record StoredChallenge(UUID appKey, PendingChallenge challenge, Instant expiresAt) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final Duration ttl;
+    private final Supplier<Instant> clock;
+    private final SecureRandom random = new SecureRandom();
+
+    @Autowired
+    public MfaChallengeStore(JdbcTemplate jdbcTemplate,
+                             @Value("${app.mfa-challenge-store.enabled:false}") boolean enabled,
+                             @Value("${app.mfa-challenge-store.ttl:3m}") Duration ttl) {
+        this(jdbcTemplate, enabled, ttl, Instant::now);
+    }
+
+    MfaChallengeStore(JdbcTemplate jdbcTemplate, boolean enabled, Duration ttl, Supplier<Instant> clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    /**
+     * Whether login should hand out challenge handles.
+     *
+     * @return true if the store is enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Store a challenge and get its handle.
+     *
+     * @param appKey        The UUID of the application the challenge belongs to
+     * @param username      The username
+     * @param challengeName The Cognito challenge name
+     * @param session       The Cognito session
+     * @return The opaque handle
+     */
+    public String save(UUID appKey, String username, String challengeName, String session) {
+        byte[] bytes = new byte[HANDLE_BYTES];
+        random.nextBytes(bytes);
+        String handle = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        jdbcTemplate.update("INSERT INTO mfa_challenge (handle, app_key, username, challenge_name, session, expires_at) "
+                        + "VALUES (?, ?, ?, ?, ?, ?)",
+                handle, appKey, username, challengeName, session, Timestamp.from(clock.get().plus(ttl)));
+        return handle;
+    }
+
+    /**
+     * Look up an unexpired challenge. The challenge stays stored so a mistyped code can be retried.
+     *
+     * @param handle   The handle
+     * @param appKey   The UUID of the application; handles of other apps are not found
+     * @param username The username completing the challenge; handles of other users are not found
+     * @return The challenge, or empty if unknown, expired or issued to another app or user
+     */
+    public Optional<PendingChallenge> find(String handle, UUID appKey, String username) {
+        List<StoredChallenge> found = jdbcTemplate.query(
+                "SELECT app_key, username, challenge_name, session, expires_at FROM mfa_challenge WHERE handle = ?",
+                (rs, rowNum) -> new StoredChallenge(rs.getObject(1, UUID.class),
+                        new PendingChallenge(rs.getString(2), rs.getString(3), rs.getString(4)),
+                        rs.getTimestamp(5).toInstant()),
+                handle);
+        Instant now = clock.get();
+        return found.stream()
+                .filter(stored -> stored.appKey().equals(appKey)
+                        && stored.challenge().username().equalsIgnoreCase(username)
+                        && stored.expiresAt().isAfter(now))
+                .map(StoredChallenge::challenge)
+                .findFirst();
+    }
+
+    /**
+     * Remove a challenge once it has been completed.
+     *
+     * @param handle The handle
+     */
+    public void remove(String handle) {
+        jdbcTemplate.update("DELETE FROM mfa_challenge WHERE handle = ?", handle);
+    }
+
+    /**
+     * Delete expired challenges.
+     */
+    @Scheduled(fixedDelayString = "${app.mfa-challenge-store.sweep-interval:1m}")
+    public void sweep() {
+        if (!enabled) {
+            return;
+        }
+        int deleted = jdbcTemplate.update("DELETE FROM mfa_challenge WHERE expires_at <= ?", Timestamp.from(clock.get()));
+        if (deleted > 0) {
+            log.debug("Swept {} expired MFA challenges", deleted);
+        }
+    }
+}
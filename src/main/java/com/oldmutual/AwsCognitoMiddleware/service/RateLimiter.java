@@ -0,0 +1,128 @@
+package com.oldmutual.AwsCognitoMiddleware.service;
+
+import com.oldmutual.AwsCognitoMiddleware.config.RateLimitProperties;
+import com.oldmutual.AwsCognitoMiddleware.config.RateLimitProperties.Limit;
+import com.oldmutual.AwsCognitoMiddleware.exception.TooManyRequestsException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free token bucket rate limiter.
+ * Each bucket is a single "theoretical arrival time" updated by CAS (the generic cell rate algorithm),
+ * which behaves like a token bucket without a refill thread or per-bucket locks.
+ * Buckets live in striped maps; a full stripe purges buckets that have refilled completely.
+ */
+@Service
+public class RateLimiter {
+
+    private static final String LIMITED_MESSAGE = "Too many requests. Please try again later.";
+
+    private final ConcurrentHashMap<String, AtomicLong>[] stripes;
+    private final int stripeMask;
+    private final int maxKeysPerStripe;
+    private final LongSupplier clock;
+
+    @Autowired
+    public RateLimiter(RateLimitProperties properties) {
+        this(properties.getStripes(), properties.getMaxKeysPerStripe(), System::nanoTime);
+    }
+
+    @SuppressWarnings("unchecked")
+    RateLimiter(int stripeCount, int maxKeysPerStripe, LongSupplier clock) {
+        if (Integer.bitCount(stripeCount) != 1) {
+            throw new IllegalArgumentException("Stripe count must be a power of two: " + stripeCount);
+        }
+        this.stripes = new ConcurrentHashMap[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+        }
+        this.stripeMask = stripeCount - 1;
+        this.maxKeysPerStripe = maxKeysPerStripe;
+        this.clock = clock;
+    }
+
+    /**
+     * Take one token for an endpoint and key dimension, or refuse the request.
+     *
+     * @param endpoint  The endpoint name
+     * @param dimension The key dimension (ip, user or app)
+     * @param value     The key value; no check is made if null
+     * @param limit     The limit; no check is made if null
+     * @throws TooManyRequestsException if the bucket is empty
+     */
+    public void check(String endpoint, String dimension, String value, Limit limit) {
+        if (limit == null || value == null) {
+            return;
+        }
+        long waitNanos = tryAcquire(endpoint + ':' + dimension + ':' + value, limit);
+        if (waitNanos > 0) {
+            long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+            throw new TooManyRequestsException(LIMITED_MESSAGE, retryAfterSeconds);
+        }
+    }
+
+    /**
+     * Try to take one token from the bucket for a key.
+     *
+     * @param key   The bucket key
+     * @param limit The limit that applies to the key
+     * @return 0 if the request is allowed, otherwise the nanoseconds until a token is available
+     */
+    public long tryAcquire(String key, Limit limit) {
+        long now = clock.getAsLong();
+        long emissionInterval = limit.getPeriod().toNanos() / Math.max(1, limit.getRequests());
+        long tolerance = emissionInterval * (limit.effectiveBurst() - 1L);
+
+        AtomicLong bucket = bucket(key, now);
+        if (bucket == null) {
+            // Stripe is saturated with active keys; fail open rather than reject legitimate users
+            return 0;
+        }
+
+        while (true) {
+            long arrival = bucket.get();
+            long base = Math.max(arrival, now);
+            if (base - now > tolerance) {
+                return base - now - tolerance;
+            }
+            if (bucket.compareAndSet(arrival, base + emissionInterval)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Get the number of live buckets across all stripes.
+     *
+     * @return The bucket count
+     */
+    public int size() {
+        int size = 0;
+        for (ConcurrentHashMap<String, AtomicLong> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    private AtomicLong bucket(String key, long now) {
+        int hash = key.hashCode();
+        ConcurrentHashMap<String, AtomicLong> stripe = stripes[(hash ^ (hash >>> 16)) & stripeMask];
+        AtomicLong bucket = stripe.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (stripe.size() >= maxKeysPerStripe) {
+            // A bucket whose arrival time has passed is full again and can be recreated on demand
+            stripe.values().removeIf(b -> b.get() <= now);
+            if (stripe.size() >= maxKeysPerStripe) {
+                return null;
+            }
+        }
+        return stripe.computeIfAbsent(key, k -> new AtomicLong(now));
+    }
+}
@@ -0,0 +1,205 @@
+package com.oldmutual.AwsCognitoMiddleware.service;
+
+import com.oldmutual.AwsCognitoMiddleware.dto.ActivityLogView;
+import com.oldmutual.AwsCognitoMiddleware.repository.UserActivityLogRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded in-memory cache of the most recent activity logs of recently active usernames.
+ * The audit write path appends every saved log to the user's entry; the first lookup of a user seeds the entry
+ * with the newest logs from the database and merges what was written meanwhile. Logs written by other nodes only
+ * reach this node's entry through the database, so an entry is re-seeded once it is older than the max age; the
+ * window may miss another node's newest logs for at most that long. Lookups deeper than the cached window fall back
+ * to keyset queries on the log id.
+ */
+@Slf4j
+@Service
+public class RecentActivityCache {
+
+    /**
+     * Newest logs of one user, keyed by log id, newest first.
+     */
+    private static final class UserHistory {
+        private final NavigableMap<Long, ActivityLogView> logs = new TreeMap<>(Collections.reverseOrder());
+        /**
+         * Held while querying the database, so concurrent lookups of a stale entry seed it once.
+         */
+        private final Object seedLock = new Object();
+        private volatile boolean seeded;
+        private volatile long seededNanos;
+        private boolean complete;
+        private volatile long lastUsedNanos;
+
+        private boolean isFresh(long now, long maxAgeNanos) {
+            return seeded && now - seededNanos <= maxAgeNanos;
+        }
+
+        private synchronized void add(ActivityLogView activityLog, int capacity) {
+            logs.put(activityLog.id(), activityLog);
+            trim(capacity);
+        }
+
+        private synchronized void seed(List<ActivityLogView> newest, boolean wholeHistory, int capacity, long queriedNanos) {
+            newest.forEach(activityLog -> logs.put(activityLog.id(), activityLog));
+            complete = wholeHistory;
+            seededNanos = queriedNanos;
+            seeded = true;
+            trim(capacity);
+        }
+
+        private void trim(int capacity) {
+            while (logs.size() > capacity) {
+                logs.pollLastEntry();
+                complete = false;
+            }
+        }
+
+        /**
+         * Read from the cached window.
+         *
+         * @return The logs, or null when the window cannot answer the lookup
+         */
+        private synchronized List<ActivityLogView> read(int limit, Long before) {
+            if (!seeded) {
+                return null;
+            }
+            Collection<ActivityLogView> candidates = (before == null ? logs : logs.tailMap(before, false)).values();
+            if (candidates.size() < limit && !complete) {
+                return null;
+            }
+            List<ActivityLogView> result = new ArrayList<>(Math.min(limit, candidates.size()));
+            for (ActivityLogView activityLog : candidates) {
+                if (result.size() == limit) {
+                    break;
+                }
+                result.add(activityLog);
+            }
+            return result;
+        }
+    }
+
+    private final UserActivityLogRepository userActivityLogRepository;
+    private final ConcurrentHashMap<String, UserHistory> histories = new ConcurrentHashMap<>();
+    private final int logsPerUser;
+    private final int maxUsers;
+    private final long idleNanos;
+    private final long maxAgeNanos;
+    private final LongSupplier nanoClock;
+
+    @Autowired
+    public RecentActivityCache(UserActivityLogRepository userActivityLogRepository,
+                               @Value("${app.recent-activity.logs-per-user:50}") int logsPerUser,
+                               @Value("${app.recent-activity.max-users:10000}") int maxUsers,
+                               @Value("${app.recent-activity.idle-timeout:15m}") Duration idleTimeout,
+                               @Value("${app.recent-activity.max-age:30s}") Duration maxAge) {
+        this(userActivityLogRepository, logsPerUser, maxUsers, idleTimeout, maxAge, System::nanoTime);
+    }
+
+    RecentActivityCache(UserActivityLogRepository userActivityLogRepository, int logsPerUser, int maxUsers,
+                        Duration idleTimeout, Duration maxAge, LongSupplier nanoClock) {
+        this.userActivityLogRepository = userActivityLogRepository;
+        this.logsPerUser = logsPerUser;
+        this.maxUsers = maxUsers;
+        this.idleNanos = idleTimeout.toNanos();
+        this.maxAgeNanos = maxAge.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Add a saved activity log to its user's entry.
+     *
+     * @param activityLog The saved activity log
+     */
+    public void record(ActivityLogView activityLog) {
+        if (activityLog.id() == null || activityLog.username() == null) {
+            return;
+        }
+        UserHistory history = history(activityLog.username());
+        if (history != null) {
+            history.add(activityLog, logsPerUser);
+        }
+    }
+
+    /**
+     * Get the activity logs of a user, newest first.
+     *
+     * @param username The username
+     * @param limit    The maximum number of logs
+     * @param before   Only return logs with an id below this cursor, or null for the newest
+     * @return The logs
+     */
+    public List<ActivityLogView> find(String username, int limit, Long before) {
+        UserHistory history = history(username);
+        if (history != null) {
+            if (!history.isFresh(nanoClock.getAsLong(), maxAgeNanos)) {
+                synchronized (history.seedLock) {
+                    long now = nanoClock.getAsLong();
+                    if (!history.isFresh(now, maxAgeNanos)) {
+                        List<ActivityLogView> newest = userActivityLogRepository.findByUsernameOrderByIdDesc(
+                                username, PageRequest.of(0, logsPerUser));
+                        history.seed(newest, newest.size() < logsPerUser, logsPerUser, now);
+                    }
+                }
+            }
+            List<ActivityLogView> cached = history.read(limit, before);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        return before == null
+                ? userActivityLogRepository.findByUsernameOrderByIdDesc(username, PageRequest.of(0, limit))
+                : userActivityLogRepository.findByUsernameAndIdLessThanOrderByIdDesc(username, before, PageRequest.of(0, limit));
+    }
+
+    /**
+     * Drop the entries of users not seen within the idle timeout.
+     */
+    @Scheduled(fixedDelayString = "${app.recent-activity.sweep-interval:1m}")
+    public void sweep() {
+        long now = nanoClock.getAsLong();
+        int before = histories.size();
+        histories.values().removeIf(history -> now - history.lastUsedNanos > idleNanos);
+        log.debug("Dropped {} idle recent-activity entries", before - histories.size());
+    }
+
+    /**
+     * Get the number of cached users.
+     *
+     * @return The user count
+     */
+    public int size() {
+        return histories.size();
+    }
+
+    /**
+     * Get the entry of a user, creating it while the cache has room.
+     *
+     * @return The entry, or null when the cache is full
+     */
+    private UserHistory history(String username) {
+        UserHistory history = histories.get(username);
+        if (history == null) {
+            if (histories.size() >= maxUsers) {
+                return null;
+            }
+            history = histories.computeIfAbsent(username, key -> new UserHistory());
+        }
+        history.lastUsedNanos = nanoClock.getAsLong();
+        return history;
+    }
+}
@@ -0,0 +1,109 @@
+package com.oldmutual.AwsCognitoMiddleware.service;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Approximate per-key event counter over a sliding time window, in fixed memory.
+ * The window is a ring of slots; each slot is a count-min sketch that is reset when the ring wraps
+ * around to it. Estimates never undercount except for increments racing with a slot reset.
+ */
+final class SlidingCountMinSketch {
+
+    private final int depth;
+    private final int widthMask;
+    private final int slots;
+    private final long slotNanos;
+    private final AtomicIntegerArray[] counters;
+    private final AtomicLongArray slotEpochs;
+
+    /**
+     * @param windowNanos The window length
+     * @param slots       The number of slots the window is divided into
+     * @param depth       The number of hash rows per sketch
+     * @param width       The number of counters per row; rounded up to a power of two
+     */
+    SlidingCountMinSketch(long windowNanos, int slots, int depth, int width) {
+        this.depth = depth;
+        this.widthMask = (width <= 1 ? 1 : Integer.highestOneBit(width - 1) << 1) - 1;
+        this.slots = slots;
+        this.slotNanos = Math.max(1, windowNanos / slots);
+        this.counters = new AtomicIntegerArray[slots];
+        for (int i = 0; i < slots; i++) {
+            counters[i] = new AtomicIntegerArray(depth * (widthMask + 1));
+        }
+        this.slotEpochs = new AtomicLongArray(slots);
+        for (int i = 0; i < slots; i++) {
+            slotEpochs.set(i, Long.MIN_VALUE);
+        }
+    }
+
+    /**
+     * Count one event for a key.
+     *
+     * @param key The key
+     * @param now The current time in nanoseconds
+     * @return The estimated number of events for the key in the window, including this one
+     */
+    int add(String key, long now) {
+        long epoch = Math.floorDiv(now, slotNanos);
+        AtomicIntegerArray slot = counters[currentSlot(epoch)];
+        int h1 = key.hashCode();
+        int h2 = mix(h1);
+        int width = widthMask + 1;
+        for (int row = 0; row < depth; row++) {
+            slot.incrementAndGet(row * width + ((h1 + row * h2) & widthMask));
+        }
+        return estimate(key, now);
+    }
+
+    /**
+     * Estimate the number of events for a key in the window.
+     *
+     * @param key The key
+     * @param now The current time in nanoseconds
+     * @return The estimated count
+     */
+    int estimate(String key, long now) {
+        long epoch = Math.floorDiv(now, slotNanos);
+        int h1 = key.hashCode();
+        int h2 = mix(h1);
+        int width = widthMask + 1;
+        int total = 0;
+        for (int i = 0; i < slots; i++) {
+            long age = epoch - slotEpochs.get(i);
+            if (age < 0 || age >= slots) {
+                continue;
+            }
+            AtomicIntegerArray slot = counters[i];
+            int min = Integer.MAX_VALUE;
+            for (int row = 0; row < depth; row++) {
+                min = Math.min(min, slot.get(row * width + ((h1 + row * h2) & widthMask)));
+            }
+            total += min;
+        }
+        return total;
+    }
+
+    private int currentSlot(long epoch) {
+        int index = (int) Math.floorMod(epoch, (long) slots);
+        long slotEpoch = slotEpochs.get(index);
+        if (slotEpoch != epoch && slotEpochs.compareAndSet(index, slotEpoch, epoch)) {
+            AtomicIntegerArray slot = counters[index];
+            for (int i = 0; i < slot.length(); i++) {
+                slot.set(i, 0);
+            }
+        }
+        return index;
+    }
+
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        // Odd step so the rows probe distinct counters
+        return h | 1;
+    }
+}
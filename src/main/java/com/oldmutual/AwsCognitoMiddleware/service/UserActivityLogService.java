@@ -1,5 +1,9 @@
 package com.oldmutual.AwsCognitoMiddleware.service;
 
+import com.oldmutual.AwsCognitoMiddleware.archive.ActivityArchive;
+import com.oldmutual.AwsCognitoMiddleware.config.Workload;
+import com.oldmutual.AwsCognitoMiddleware.dto.ActivityLogView;
+import com.oldmutual.AwsCognitoMiddleware.jfr.AuditWriteEvent;
 import com.oldmutual.AwsCognitoMiddleware.model.UserActivityLog;
 import com.oldmutual.AwsCognitoMiddleware.repository.UserActivityLogRepository;
 import jakarta.servlet.http.HttpServletRequest;
@@ -10,9 +14,14 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Service for managing user activity logs.
@@ -20,9 +29,15 @@ import java.util.List;
 @Service
 @RequiredArgsConstructor
 @Slf4j
+@Workload(Workload.Type.REPORTING)
 public class UserActivityLogService {
 
     private final UserActivityLogRepository userActivityLogRepository;
+    private final FailureTracker failureTracker;
+    private final ActivityStatsRollup activityStatsRollup;
+    private final ActivityEventBroadcaster activityEventBroadcaster;
+    private final RecentActivityCache recentActivityCache;
+    private final ActivityArchive activityArchive;
     
     /**
      * Log a user activity.
@@ -36,6 +51,7 @@ public class UserActivityLogService {
      * @param request the HTTP request
      * @return the created log entry
      */
+    @Workload(Workload.Type.AUDIT_WRITE)
     public UserActivityLog logActivity(
             String activity,
             String username,
@@ -46,8 +62,53 @@ public class UserActivityLogService {
             HttpServletRequest request
     ) {
         String ipAddress = extractIpAddress(request);
+
+        if ("FAILURE".equals(status)) {
+            failureTracker.recordFailure(activity, ipAddress, username);
+        }
+        activityStatsRollup.record(appName, activity, status);
         
-        UserActivityLog activityLog = UserActivityLog.builder()
+        UserActivityLog activityLog = buildActivityLog(activity, username, userPoolId, appName, status, errorMessage, ipAddress);
+        
+        log.debug("Logging user activity: {}", activityLog);
+        AuditWriteEvent event = new AuditWriteEvent();
+        event.begin();
+        try {
+            UserActivityLog saved = userActivityLogRepository.save(activityLog);
+            ActivityLogView view = ActivityLogView.of(saved);
+            activityEventBroadcaster.publish(view);
+            recentActivityCache.record(view);
+            return saved;
+        } finally {
+            event.appName = appName;
+            event.activity = activity;
+            event.status = status;
+            event.commit();
+        }
+    }
+    
+    /**
+     * Build an activity log entry stamped with the current time.
+     *
+     * @param activity the activity description
+     * @param username the username
+     * @param userPoolId the user pool ID
+     * @param appName the application name
+     * @param status the status of the activity (success/failure)
+     * @param errorMessage the error message if any
+     * @param ipAddress the client IP address
+     * @return the unsaved log entry
+     */
+    static UserActivityLog buildActivityLog(
+            String activity,
+            String username,
+            String userPoolId,
+            String appName,
+            String status,
+            String errorMessage,
+            String ipAddress
+    ) {
+        return UserActivityLog.builder()
                 .activity(activity)
                 .username(username)
                 .userPoolId(userPoolId)
@@ -57,9 +118,6 @@ public class UserActivityLogService {
                 .ipAddress(ipAddress)
                 .createdAt(LocalDateTime.now())
                 .build();
-        
-        log.debug("Logging user activity: {}", activityLog);
-        return userActivityLogRepository.save(activityLog);
     }
     
     /**
@@ -67,9 +125,9 @@ public class UserActivityLogService {
      *
      * @return list of all activity logs
      */
-    public List<UserActivityLog> getAllLogs() {
-        return userActivityLogRepository.findAll(org.springframework.data.domain.Sort.by(
-            org.springframework.data.domain.Sort.Direction.DESC, "createdAt"));
+    @Transactional(readOnly = true)
+    public List<ActivityLogView> getAllLogs() {
+        return userActivityLogRepository.findAllBy(Sort.by(Sort.Direction.DESC, "createdAt"));
     }
 
     /**
@@ -78,18 +136,23 @@ public class UserActivityLogService {
      * @param userPoolId the user pool ID
      * @return list of activity logs
      */
-    public List<UserActivityLog> getLogsByUserPool(String userPoolId) {
+    @Transactional(readOnly = true)
+    public List<ActivityLogView> getLogsByUserPool(String userPoolId) {
         return userActivityLogRepository.findByUserPoolIdOrderByCreatedAtDesc(userPoolId);
     }
 
     /**
-     * Get activity logs for a specific username ordered by creation date descending.
+     * Get activity logs for a specific username, newest first.
+     * Recent logs of recently active users are answered from memory.
      *
      * @param username the username
+     * @param limit the maximum number of logs
+     * @param before only return logs with an id below this cursor, or null for the newest
      * @return list of activity logs
      */
-    public List<UserActivityLog> getLogsByUsername(String username) {
-        return userActivityLogRepository.findByUsernameOrderByCreatedAtDesc(username);
+    @Transactional(readOnly = true)
+    public List<ActivityLogView> getLogsByUsername(String username, int limit, Long before) {
+        return recentActivityCache.find(username, limit, before);
     }
 
     /**
@@ -99,7 +162,8 @@ public class UserActivityLogService {
      * @param userPoolId the user pool ID
      * @return list of activity logs
      */
-    public List<UserActivityLog> getLogsByUsernameAndUserPool(String username, String userPoolId) {
+    @Transactional(readOnly = true)
+    public List<ActivityLogView> getLogsByUsernameAndUserPool(String username, String userPoolId) {
         return userActivityLogRepository.findByUsernameAndUserPoolIdOrderByCreatedAtDesc(username, userPoolId);
     }
 
@@ -109,19 +173,33 @@ public class UserActivityLogService {
      * @param appName the app name
      * @return list of activity logs
      */
-    public List<UserActivityLog> getLogsByAppName(String appName) {
+    @Transactional(readOnly = true)
+    public List<ActivityLogView> getLogsByAppName(String appName) {
         return userActivityLogRepository.findByAppNameOrderByCreatedAtDesc(appName);
     }
 
     /**
      * Get activity logs created between the specified dates ordered by creation date descending.
+     * When the range reaches past the hot window, archived logs are included.
      *
      * @param startDate the start date
      * @param endDate the end date
      * @return list of activity logs
      */
-    public List<UserActivityLog> getLogsByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
-        return userActivityLogRepository.findByCreatedAtBetweenOrderByCreatedAtDesc(startDate, endDate);
+    @Transactional(readOnly = true)
+    public List<ActivityLogView> getLogsByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
+        List<ActivityLogView> logs = userActivityLogRepository.findByCreatedAtBetweenOrderByCreatedAtDesc(startDate, endDate);
+        if (!startDate.isBefore(activityArchive.hotWindowStart())) {
+            return logs;
+        }
+
+        // The range reaches past the hot window: add the archived logs, which may overlap rows not yet deleted
+        Map<Long, ActivityLogView> merged = new HashMap<>();
+        activityArchive.find(startDate, endDate).forEach(archived -> merged.put(archived.id(), archived));
+        logs.forEach(hot -> merged.put(hot.id(), hot));
+        List<ActivityLogView> result = new ArrayList<>(merged.values());
+        result.sort(Comparator.comparing(ActivityLogView::createdAt).thenComparing(ActivityLogView::id).reversed());
+        return result;
     }
 
     /**
@@ -135,7 +213,8 @@ public class UserActivityLogService {
      * @param activity optional activity type filter
      * @return paginated activity logs
      */
-    public Page<UserActivityLog> getLogsPaginated(int page, int size, String username, String appName, String status, String activity) {
+    @Transactional(readOnly = true)
+    public Page<ActivityLogView> getLogsPaginated(int page, int size, String username, String appName, String status, String activity) {
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
 
         // Apply filters
@@ -164,26 +243,19 @@ public class UserActivityLogService {
             return userActivityLogRepository.findByActivityContainingIgnoreCase(activity, pageable);
         }
 
-        return userActivityLogRepository.findAll(pageable);
+        return userActivityLogRepository.findAllBy(pageable);
     }
 
     /**
      * Extract the client IP address from the request.
+     * Forwarding headers are not read here: with server.forward-headers-strategy=native, Tomcat replaces the remote
+     * address with the X-Forwarded-For client only when the request came through a trusted proxy
+     * (server.tomcat.remoteip.internal-proxies), so clients cannot choose the address they are limited by.
      *
      * @param request the HTTP request
      * @return the client IP address
      */
-    private String extractIpAddress(HttpServletRequest request) {
-        String ipAddress = request.getHeader("X-Forwarded-For");
-        if (ipAddress == null || ipAddress.isEmpty() || "unknown".equalsIgnoreCase(ipAddress)) {
-            ipAddress = request.getHeader("Proxy-Client-IP");
-        }
-        if (ipAddress == null || ipAddress.isEmpty() || "unknown".equalsIgnoreCase(ipAddress)) {
-            ipAddress = request.getHeader("WL-Proxy-Client-IP");
-        }
-        if (ipAddress == null || ipAddress.isEmpty() || "unknown".equalsIgnoreCase(ipAddress)) {
-            ipAddress = request.getRemoteAddr();
-        }
-        return ipAddress;
+    public static String extractIpAddress(HttpServletRequest request) {
+        return request.getRemoteAddr();
     }
 }
\ No newline at end of file
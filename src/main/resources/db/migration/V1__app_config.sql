@@ -0,0 +1,25 @@
+-- Cognito application configuration, one row per X-APP-KEY.
+-- Written to be a no-op on databases whose schema was created by Hibernate before migrations were introduced.
+CREATE TABLE IF NOT EXISTS app_config (
+    id BIGSERIAL PRIMARY KEY,
+    app_key UUID NOT NULL,
+    app_name VARCHAR(255) NOT NULL,
+    aws_region VARCHAR(255) NOT NULL,
+    user_pool_id VARCHAR(255) NOT NULL,
+    client_id VARCHAR(255) NOT NULL,
+    client_secret VARCHAR(255),
+    enabled BOOLEAN NOT NULL DEFAULT TRUE,
+    CONSTRAINT uk_app_config_app_key UNIQUE (app_key)
+);
+
+-- Optional per-app settings added over time; null means the service default applies
+ALTER TABLE app_config ADD COLUMN IF NOT EXISTS endpoint_override VARCHAR(255);
+ALTER TABLE app_config ADD COLUMN IF NOT EXISTS max_connections INTEGER;
+ALTER TABLE app_config ADD COLUMN IF NOT EXISTS connection_ttl_seconds INTEGER;
+ALTER TABLE app_config ADD COLUMN IF NOT EXISTS api_call_timeout_millis INTEGER;
+ALTER TABLE app_config ADD COLUMN IF NOT EXISTS api_call_attempt_timeout_millis INTEGER;
+ALTER TABLE app_config ADD COLUMN IF NOT EXISTS rate_limit_per_minute INTEGER;
+
+COMMENT ON TABLE app_config IS 'Cognito user pool and client settings per application';
+COMMENT ON COLUMN app_config.app_key IS 'Value of the X-APP-KEY header identifying the application';
+COMMENT ON COLUMN app_config.client_secret IS 'Cognito client secret, Jasypt encrypted';
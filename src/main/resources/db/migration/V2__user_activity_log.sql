@@ -0,0 +1,114 @@
+-- User activity logs, range partitioned by month on created_at.
+-- Rows outside every monthly partition land in the default partition, so inserts never fail when
+-- ensure_user_activity_log_partitions() has not run in time.
+-- A table created by Hibernate or the old user_activity_log.sql script is kept as the partition holding
+-- everything up to the end of the current month; new months get their own partitions.
+DO $$
+DECLARE
+    legacy_pkey TEXT;
+    next_id BIGINT := 1;
+    old_sequence TEXT;
+    month_end TIMESTAMP := date_trunc('month', now()) + INTERVAL '1 month';
+BEGIN
+    IF to_regclass('user_activity_log') IS NULL THEN
+        CREATE TABLE user_activity_log (
+            id BIGINT NOT NULL,
+            activity VARCHAR(50) NOT NULL,
+            username VARCHAR(255) NOT NULL,
+            user_pool_id VARCHAR(255) NOT NULL,
+            app_name VARCHAR(255),
+            status VARCHAR(20),
+            error_message TEXT,
+            ip_address VARCHAR(50),
+            created_at TIMESTAMP NOT NULL
+        ) PARTITION BY RANGE (created_at);
+    ELSIF NOT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = 'user_activity_log'::regclass) THEN
+        -- Ids continue after the highest one handed out so far, including rows already archived
+        old_sequence := pg_get_serial_sequence('user_activity_log', 'id');
+        IF old_sequence IS NOT NULL THEN
+            EXECUTE format('SELECT last_value + 1 FROM %s', old_sequence) INTO next_id;
+        END IF;
+        SELECT GREATEST(next_id, COALESCE(MAX(id), 0) + 1) INTO next_id FROM user_activity_log;
+
+        ALTER TABLE user_activity_log ALTER COLUMN id DROP IDENTITY IF EXISTS;
+        ALTER TABLE user_activity_log ALTER COLUMN id DROP DEFAULT;
+        IF old_sequence IS NOT NULL THEN
+            EXECUTE format('DROP SEQUENCE IF EXISTS %s', old_sequence);
+        END IF;
+
+        -- Replaced by the partitioned indexes below
+        DROP INDEX IF EXISTS idx_user_activity_log_username;
+        DROP INDEX IF EXISTS idx_user_activity_log_user_pool_id;
+        DROP INDEX IF EXISTS idx_user_activity_log_app_name;
+        DROP INDEX IF EXISTS idx_user_activity_log_created_at;
+        DROP INDEX IF EXISTS idx_user_activity_log_activity;
+        DROP INDEX IF EXISTS idx_user_activity_log_status;
+
+        ALTER TABLE user_activity_log RENAME TO user_activity_log_legacy;
+        SELECT conname INTO legacy_pkey FROM pg_constraint
+        WHERE conrelid = 'user_activity_log_legacy'::regclass AND contype = 'p';
+        IF legacy_pkey IS NOT NULL THEN
+            EXECUTE format('ALTER TABLE user_activity_log_legacy DROP CONSTRAINT %I', legacy_pkey);
+        END IF;
+
+        -- Same column types as the existing table, which ATTACH PARTITION requires
+        CREATE TABLE user_activity_log (LIKE user_activity_log_legacy INCLUDING COMMENTS)
+            PARTITION BY RANGE (created_at);
+        EXECUTE format('ALTER TABLE user_activity_log ATTACH PARTITION user_activity_log_legacy '
+                           || 'FOR VALUES FROM (MINVALUE) TO (%L)', month_end);
+    END IF;
+
+    IF to_regclass('user_activity_log_id_seq') IS NULL THEN
+        CREATE SEQUENCE user_activity_log_id_seq;
+        PERFORM setval('user_activity_log_id_seq', next_id, false);
+    END IF;
+END $$;
+
+ALTER SEQUENCE user_activity_log_id_seq OWNED BY user_activity_log.id;
+ALTER TABLE user_activity_log ALTER COLUMN id SET DEFAULT nextval('user_activity_log_id_seq');
+ALTER TABLE user_activity_log ADD CONSTRAINT pk_user_activity_log PRIMARY KEY (id, created_at);
+CREATE TABLE user_activity_log_default PARTITION OF user_activity_log DEFAULT;
+
+-- Indexes follow the repository finders: keyset pages per user, newest first per pool, app and status
+CREATE INDEX idx_user_activity_log_username_id ON user_activity_log (username, id DESC);
+CREATE INDEX idx_user_activity_log_user_pool_id_created_at ON user_activity_log (user_pool_id, created_at DESC);
+CREATE INDEX idx_user_activity_log_app_name_created_at ON user_activity_log (app_name, created_at DESC);
+CREATE INDEX idx_user_activity_log_status ON user_activity_log (status);
+CREATE INDEX idx_user_activity_log_created_at ON user_activity_log (created_at DESC);
+
+-- Creates the monthly partitions from the current month up to months_ahead months ahead.
+-- Months already covered, by the legacy partition or by rows sitting in the default partition, are skipped.
+CREATE OR REPLACE FUNCTION ensure_user_activity_log_partitions(months_ahead INTEGER) RETURNS INTEGER AS $$
+DECLARE
+    month_start TIMESTAMP;
+    partition_name TEXT;
+    created INTEGER := 0;
+BEGIN
+    FOR i IN 0..months_ahead LOOP
+        month_start := date_trunc('month', now()) + make_interval(months => i);
+        partition_name := 'user_activity_log_' || to_char(month_start, 'YYYY_MM');
+        CONTINUE WHEN to_regclass(partition_name) IS NOT NULL;
+        BEGIN
+            EXECUTE format('CREATE TABLE %I PARTITION OF user_activity_log FOR VALUES FROM (%L) TO (%L)',
+                           partition_name, month_start, month_start + INTERVAL '1 month');
+            created := created + 1;
+        EXCEPTION
+            WHEN invalid_object_definition OR check_violation THEN
+                RAISE NOTICE 'Skipping partition %: %', partition_name, SQLERRM;
+        END;
+    END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+SELECT ensure_user_activity_log_partitions(3);
+
+COMMENT ON TABLE user_activity_log IS 'Stores user activity logs for tracing activities per user pool';
+COMMENT ON COLUMN user_activity_log.activity IS 'Type of activity (LOGIN, REGISTER, VERIFY, etc.)';
+COMMENT ON COLUMN user_activity_log.username IS 'Username/email of the user';
+COMMENT ON COLUMN user_activity_log.user_pool_id IS 'AWS Cognito user pool ID';
+COMMENT ON COLUMN user_activity_log.app_name IS 'Application name';
+COMMENT ON COLUMN user_activity_log.status IS 'Status of the activity (SUCCESS, FAILURE)';
+COMMENT ON COLUMN user_activity_log.error_message IS 'Error message if activity failed';
+COMMENT ON COLUMN user_activity_log.ip_address IS 'IP address of the client';
+COMMENT ON COLUMN user_activity_log.created_at IS 'Timestamp when the activity was logged';
@@ -0,0 +1,18 @@
+-- Per-minute and per-hour activity counts written by ActivityStatsRollup
+CREATE TABLE IF NOT EXISTS activity_stats_minute (
+    bucket_start TIMESTAMP NOT NULL,
+    app_name VARCHAR(255) NOT NULL,
+    activity VARCHAR(50) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    count BIGINT NOT NULL,
+    PRIMARY KEY (bucket_start, app_name, activity, status)
+);
+
+CREATE TABLE IF NOT EXISTS activity_stats_hour (
+    bucket_start TIMESTAMP NOT NULL,
+    app_name VARCHAR(255) NOT NULL,
+    activity VARCHAR(50) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    count BIGINT NOT NULL,
+    PRIMARY KEY (bucket_start, app_name, activity, status)
+);
@@ -0,0 +1,12 @@
+-- Pending MFA challenges behind opaque handles (MfaChallengeStore).
+-- Unlogged: the rows live for minutes and losing them on a crash only means users log in again.
+CREATE UNLOGGED TABLE IF NOT EXISTS mfa_challenge (
+    handle VARCHAR(32) PRIMARY KEY,
+    app_key UUID NOT NULL,
+    username VARCHAR(255) NOT NULL,
+    challenge_name VARCHAR(64) NOT NULL,
+    session TEXT NOT NULL,
+    expires_at TIMESTAMPTZ NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_mfa_challenge_expires_at ON mfa_challenge (expires_at);
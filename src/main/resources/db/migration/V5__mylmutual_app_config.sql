@@ -0,0 +1,5 @@
+-- The "mylmutual" app configuration, formerly applied by hand with mylmutual_config.sql.
+-- Only inserted when missing, so settings changed through the admin API are kept.
+INSERT INTO app_config (app_key, app_name, aws_region, user_pool_id, client_id, client_secret, enabled)
+SELECT gen_random_uuid(), 'mylmutual', 'eu-west-1', 'eu-west-1_eugpZQ2pa', '67sh3qrs9kkekr23fj2li9ntlt', NULL, TRUE
+WHERE NOT EXISTS (SELECT 1 FROM app_config WHERE app_name = 'mylmutual');
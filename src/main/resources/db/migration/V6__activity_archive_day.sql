@@ -0,0 +1,5 @@
+-- Days moved to the activity archive by ActivityArchiver; nodes check it against their archive directory at startup
+CREATE TABLE IF NOT EXISTS activity_archive_day (
+    day DATE PRIMARY KEY,
+    archived_at TIMESTAMP NOT NULL DEFAULT now()
+);
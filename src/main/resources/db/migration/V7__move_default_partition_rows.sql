@@ -0,0 +1,46 @@
+-- Replaces the V2 function: a month whose rows already sit in the default partition (written while its partition
+-- was missing) used to be skipped for good. The rows are now moved into the new partition: the default partition
+-- is detached, the month's partition created, the rows moved, and the default partition attached again, all in
+-- the caller's transaction. Inserts wait on the table lock meanwhile.
+CREATE OR REPLACE FUNCTION ensure_user_activity_log_partitions(months_ahead INTEGER) RETURNS INTEGER AS $$
+DECLARE
+    month_start TIMESTAMP;
+    month_end TIMESTAMP;
+    partition_name TEXT;
+    moved BIGINT;
+    created INTEGER := 0;
+BEGIN
+    FOR i IN 0..months_ahead LOOP
+        month_start := date_trunc('month', now()) + make_interval(months => i);
+        month_end := month_start + INTERVAL '1 month';
+        partition_name := 'user_activity_log_' || to_char(month_start, 'YYYY_MM');
+        CONTINUE WHEN to_regclass(partition_name) IS NOT NULL;
+        BEGIN
+            IF EXISTS (SELECT 1 FROM user_activity_log_default
+                       WHERE created_at >= month_start AND created_at < month_end) THEN
+                ALTER TABLE user_activity_log DETACH PARTITION user_activity_log_default;
+                EXECUTE format('CREATE TABLE %I PARTITION OF user_activity_log FOR VALUES FROM (%L) TO (%L)',
+                               partition_name, month_start, month_end);
+                WITH moved_rows AS (
+                    DELETE FROM user_activity_log_default
+                    WHERE created_at >= month_start AND created_at < month_end
+                    RETURNING *
+                )
+                INSERT INTO user_activity_log SELECT * FROM moved_rows;
+                GET DIAGNOSTICS moved = ROW_COUNT;
+                ALTER TABLE user_activity_log ATTACH PARTITION user_activity_log_default DEFAULT;
+                RAISE NOTICE 'Moved % rows from the default partition to %', moved, partition_name;
+            ELSE
+                EXECUTE format('CREATE TABLE %I PARTITION OF user_activity_log FOR VALUES FROM (%L) TO (%L)',
+                               partition_name, month_start, month_end);
+            END IF;
+            created := created + 1;
+        EXCEPTION
+            -- The month overlaps the partition kept from a pre-partitioning table
+            WHEN invalid_object_definition THEN
+                RAISE NOTICE 'Skipping partition %: %', partition_name, SQLERRM;
+        END;
+    END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,68 @@
+package com.oldmutual.AwsCognitoMiddleware.archive;
+
+import com.oldmutual.AwsCognitoMiddleware.dto.ActivityLogView;
+import com.oldmutual.AwsCognitoMiddleware.model.UserActivityLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ActivityArchiveFileTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2025, 1, 15, 0, 0);
+
+    @TempDir
+    Path directory;
+
+    private static List<ActivityLogView> day(int rows) {
+        List<ActivityLogView> logs = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            logs.add(ActivityLogView.of(UserActivityLog.builder()
+                    .id(1000L + i * 3)
+                    .activity(i % 3 == 0 ? "LOGIN" : "TOKEN_INTROSPECT")
+                    .username("user" + (i % 40) + "@example.com")
+                    .userPoolId("eu-west-1_pool")
+                    .appName("app")
+                    .status(i % 10 == 0 ? "FAILURE" : "SUCCESS")
+                    .errorMessage(i % 10 == 0 ? "Incorrect username or password." : null)
+                    .ipAddress(i % 7 == 0 ? null : "10.0.0." + (i % 5))
+                    .createdAt(DAY.plusSeconds(i * 20L).plusNanos(123_456_000))
+                    .build()));
+        }
+        // Archived in creation order regardless of input order
+        logs.sort(Comparator.comparing(ActivityLogView::id).reversed());
+        return logs;
+    }
+
+    @Test
+    public void testRoundTripIsLosslessAndCompact() throws Exception {
+        List<ActivityLogView> logs = day(4000);
+        Path file = directory.resolve("2025-01-15").resolve("app.ual");
+        ActivityArchiveFile.write(file, logs, 1000);
+
+        List<ActivityLogView> read = ActivityArchiveFile.read(file, DAY, DAY.plusDays(1));
+        List<ActivityLogView> expected = new ArrayList<>(logs);
+        expected.sort(Comparator.comparing(ActivityLogView::createdAt));
+        assertEquals(expected, read);
+        assertTrue(Files.size(file) < 4000 * 8, "expected under 8 bytes per row, got " + Files.size(file));
+    }
+
+    @Test
+    public void testTimeRangeSelectsRows() throws Exception {
+        Path file = directory.resolve("app.ual");
+        ActivityArchiveFile.write(file, day(4000), 1000);
+
+        // Rows 1500..1504, all inside the second row group
+        List<ActivityLogView> read = ActivityArchiveFile.read(file, DAY.plusSeconds(30_000), DAY.plusSeconds(30_090));
+        assertEquals(List.of(5500L, 5503L, 5506L, 5509L, 5512L), read.stream().map(ActivityLogView::id).toList());
+        assertEquals(0, ActivityArchiveFile.read(file, DAY.minusDays(1), DAY.minusSeconds(1)).size());
+    }
+}
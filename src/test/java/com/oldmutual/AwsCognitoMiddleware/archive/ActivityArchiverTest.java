@@ -0,0 +1,128 @@
+package com.oldmutual.AwsCognitoMiddleware.archive;
+
+import com.oldmutual.AwsCognitoMiddleware.dto.ActivityLogView;
+import com.oldmutual.AwsCognitoMiddleware.model.UserActivityLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ActivityArchiverTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 1, 15);
+
+    @TempDir
+    Path directory;
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    private ActivityArchiver archiver(ActivityArchive archive) {
+        // Two rows per group, so merging and streaming cross row group boundaries
+        return new ActivityArchiver(jdbcTemplate, TransactionOperations.withoutTransaction(), archive, true, 7, 2);
+    }
+
+    /**
+     * Answer the day's select by feeding the rows to the row callback, as a streaming cursor would.
+     */
+    private void selectReturns(ActivityLogView... rows) {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (ActivityLogView row : rows) {
+                handler.processRow(resultSet(row));
+            }
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+
+    private static ResultSet resultSet(ActivityLogView row) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong("id")).thenReturn(row.id());
+        when(rs.getString("activity")).thenReturn(row.activity());
+        when(rs.getString("username")).thenReturn(row.username());
+        when(rs.getString("app_name")).thenReturn(row.appName());
+        when(rs.getString("status")).thenReturn(row.status());
+        when(rs.getTimestamp("created_at")).thenReturn(Timestamp.valueOf(row.createdAt()));
+        return rs;
+    }
+
+    private static ActivityLogView log(long id, String appName) {
+        return ActivityLogView.of(UserActivityLog.builder()
+                .id(id)
+                .activity("LOGIN")
+                .username("user@example.com")
+                .appName(appName)
+                .status("SUCCESS")
+                .createdAt(DAY.atTime(10, 0).plusMinutes(id))
+                .build());
+    }
+
+    @Test
+    public void testArchiveDayMergesExistingFileThenDeletesUpToHighestId() throws Exception {
+        ActivityArchive archive = new ActivityArchive(directory, 90);
+        // Written by a run that crashed before its delete, and a later row of the day archived since
+        ActivityArchiveFile.write(archive.file(DAY, "app"),
+                List.of(log(1, "app"), log(2, "app"), log(3, "app"), log(7, "app")), 2);
+        // Ordered by app, creation time and id, as the select returns them
+        selectReturns(log(2, "app"), log(3, "app"), log(5, "app"), log(6, "app"), log(4, null));
+
+        archiver(archive).archiveDay(DAY);
+
+        List<ActivityLogView> archived = ActivityArchiveFile.read(archive.file(DAY, "app"),
+                DAY.atStartOfDay(), DAY.plusDays(1).atStartOfDay());
+        assertEquals(List.of(1L, 2L, 3L, 5L, 6L, 7L), archived.stream().map(ActivityLogView::id).toList());
+        assertEquals(1, ActivityArchiveFile.read(archive.file(DAY, null),
+                DAY.atStartOfDay(), DAY.plusDays(1).atStartOfDay()).size());
+
+        verify(jdbcTemplate).update(startsWith("INSERT INTO activity_archive_day"), eq(DAY));
+        verify(jdbcTemplate).update(startsWith("DELETE FROM user_activity_log"),
+                eq(Timestamp.valueOf(DAY.atStartOfDay())), eq(Timestamp.valueOf(DAY.plusDays(1).atStartOfDay())), eq(6L));
+        try (Stream<Path> files = Files.list(directory.resolve(DAY.toString()))) {
+            assertEquals(2, files.count(), "no temporary files are left behind");
+        }
+    }
+
+    @Test
+    public void testRowsOutOfOrderFailWithoutDeleting() throws Exception {
+        ActivityArchive archive = new ActivityArchive(directory, 90);
+        selectReturns(log(3, "app"), log(2, "app"));
+
+        assertThrows(IllegalArgumentException.class, () -> archiver(archive).archiveDay(DAY));
+
+        assertFalse(Files.exists(archive.file(DAY, "app")));
+        verify(jdbcTemplate, never()).update(startsWith("DELETE FROM user_activity_log"), any(), any(), any());
+    }
+
+    @Test
+    public void testStartupFailsWhenArchivedDaysAreMissingLocally() throws Exception {
+        when(jdbcTemplate.queryForObject(anyString(), eq(LocalDate.class))).thenReturn(DAY);
+
+        assertThrows(IllegalStateException.class,
+                () -> archiver(new ActivityArchive(directory.resolve("missing"), 90)).verifyArchiveDirectory());
+
+        Files.createDirectories(directory.resolve(DAY.toString()));
+        archiver(new ActivityArchive(directory, 90)).verifyArchiveDirectory();
+    }
+}
@@ -0,0 +1,80 @@
+package com.oldmutual.AwsCognitoMiddleware.config;
+
+import com.oldmutual.AwsCognitoMiddleware.model.EncryptedSecret;
+import org.jasypt.encryption.StringEncryptor;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class DecryptedSecretCacheTest {
+
+    private final AtomicInteger decryptCalls = new AtomicInteger();
+
+    private final StringEncryptor encryptor = new StringEncryptor() {
+        @Override
+        public String encrypt(String message) {
+            return "enc:" + message;
+        }
+
+        @Override
+        public String decrypt(String encryptedMessage) {
+            decryptCalls.incrementAndGet();
+            return encryptedMessage.substring("enc:".length());
+        }
+    };
+
+    @Test
+    public void testHydrationDoesNotDecrypt() {
+        DecryptedSecretCache cache = new DecryptedSecretCache(encryptor, 4);
+        AttributeEncryptor converter = new AttributeEncryptor(encryptor, cache);
+
+        EncryptedSecret secret = converter.convertToEntityAttribute("enc:s3cret");
+
+        assertEquals(0, decryptCalls.get());
+        assertEquals("enc:s3cret", converter.convertToDatabaseColumn(secret));
+        assertEquals(0, decryptCalls.get());
+        assertFalse(secret.toString().contains("s3cret"));
+    }
+
+    @Test
+    public void testRevealIsMemoizedByCiphertext() {
+        DecryptedSecretCache cache = new DecryptedSecretCache(encryptor, 4);
+        AttributeEncryptor converter = new AttributeEncryptor(encryptor, cache);
+
+        char[] first = converter.convertToEntityAttribute("enc:s3cret").reveal();
+        assertArrayEquals("s3cret".toCharArray(), first);
+
+        // Callers get their own copy: zeroing it does not wipe the memoized plaintext
+        Arrays.fill(first, '\0');
+        assertArrayEquals("s3cret".toCharArray(), converter.convertToEntityAttribute("enc:s3cret").reveal());
+
+        assertEquals(1, decryptCalls.get());
+    }
+
+    @Test
+    public void testCacheIsBounded() {
+        DecryptedSecretCache cache = new DecryptedSecretCache(encryptor, 2);
+
+        cache.decrypt("enc:a");
+        cache.decrypt("enc:b");
+        cache.decrypt("enc:c");
+        assertEquals(2, cache.size());
+
+        // "a" was evicted, so it has to be decrypted again
+        cache.decrypt("enc:a");
+        assertEquals(4, decryptCalls.get());
+    }
+
+    @Test
+    public void testNewSecretIsEncryptedOnWrite() {
+        DecryptedSecretCache cache = new DecryptedSecretCache(encryptor, 4);
+        AttributeEncryptor converter = new AttributeEncryptor(encryptor, cache);
+
+        assertEquals("enc:fresh", converter.convertToDatabaseColumn(EncryptedSecret.fromPlaintext("fresh")));
+    }
+}
@@ -0,0 +1,39 @@
+package com.oldmutual.AwsCognitoMiddleware.config;
+
+import com.oldmutual.AwsCognitoMiddleware.dto.ActivityLogView;
+import com.oldmutual.AwsCognitoMiddleware.dto.LoginResult;
+import com.oldmutual.AwsCognitoMiddleware.model.CognitoAppConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class NativeHintsTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    public NativeHintsTest() {
+        new NativeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    public void testEntitiesAndProjectionAreReflective() {
+        assertTrue(RuntimeHintsPredicates.reflection().onType(CognitoAppConfig.class)
+                .withMemberCategory(MemberCategory.DECLARED_FIELDS).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onConstructor(ActivityLogView.class.getDeclaredConstructors()[0])
+                .test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(LoginResult.class).test(hints),
+                "DTOs should be found by scanning the dto package");
+    }
+
+    @Test
+    public void testJasyptAndSwaggerUiAreIncluded() {
+        assertTrue(RuntimeHintsPredicates.reflection().onType(TypeReference.of("org.jasypt.iv.NoIvGenerator"))
+                .withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS).test(hints));
+        assertTrue(RuntimeHintsPredicates.resource()
+                .forResource("META-INF/maven/org.webjars/swagger-ui/pom.properties").test(hints));
+    }
+}
@@ -0,0 +1,97 @@
+package com.oldmutual.AwsCognitoMiddleware.config;
+
+import com.oldmutual.AwsCognitoMiddleware.config.WorkloadRoutingDataSource.Route;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class WorkloadRoutingDataSourceTest {
+
+    private final Map<Route, DataSource> pools = new EnumMap<>(Route.class);
+    private final Map<Route, Connection> connections = new EnumMap<>(Route.class);
+    private final WorkloadRoutingDataSource routing;
+
+    public WorkloadRoutingDataSourceTest() throws SQLException {
+        for (Route route : Route.values()) {
+            DataSource pool = mock(DataSource.class);
+            Connection connection = mock(Connection.class);
+            when(pool.getConnection()).thenReturn(connection);
+            when(connection.isValid(2)).thenReturn(true);
+            pools.put(route, pool);
+            connections.put(route, connection);
+        }
+        routing = new WorkloadRoutingDataSource(pools);
+    }
+
+    @Workload(Workload.Type.REPORTING)
+    public static class Reports {
+        private final WorkloadRoutingDataSource routing;
+
+        public Reports(WorkloadRoutingDataSource routing) {
+            this.routing = routing;
+        }
+
+        public Connection report() throws SQLException {
+            return routing.getConnection();
+        }
+
+        @Workload(Workload.Type.AUDIT_WRITE)
+        public Connection audit() throws SQLException {
+            return routing.getConnection();
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        WorkloadRoutingDataSource.setWorkload(null);
+    }
+
+    @Test
+    public void testWorkloadsUseTheirOwnPools() throws Exception {
+        AspectJProxyFactory factory = new AspectJProxyFactory(new Reports(routing));
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new WorkloadAspect());
+        Reports reports = factory.getProxy();
+
+        assertSame(connections.get(Route.AUTH_CONFIG), routing.getConnection());
+        assertSame(connections.get(Route.REPORTING), reports.report());
+        assertSame(connections.get(Route.AUDIT_WRITE), reports.audit());
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertSame(connections.get(Route.REPLICA), routing.getConnection());
+        assertSame(connections.get(Route.REPLICA), reports.report());
+        assertSame(connections.get(Route.AUDIT_WRITE), reports.audit());
+    }
+
+    @Test
+    public void testReadOnlyWorkFallsBackToPrimaryWhileReplicaIsDown() throws Exception {
+        DataSource replica = pools.get(Route.REPLICA);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        doThrow(new SQLException("Connection refused")).when(replica).getConnection();
+        assertSame(connections.get(Route.REPORTING), routing.getConnection());
+        assertFalse(routing.isReplicaUp());
+        assertSame(connections.get(Route.REPORTING), routing.getConnection());
+
+        doReturn(connections.get(Route.REPLICA)).when(replica).getConnection();
+        routing.checkReplica();
+        assertTrue(routing.isReplicaUp());
+        assertSame(connections.get(Route.REPLICA), routing.getConnection());
+    }
+}
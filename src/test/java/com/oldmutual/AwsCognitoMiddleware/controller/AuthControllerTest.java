@@ -1,5 +1,7 @@
 package com.oldmutual.AwsCognitoMiddleware.controller;
 
+import com.oldmutual.AwsCognitoMiddleware.dto.ApiResponse;
+import com.oldmutual.AwsCognitoMiddleware.dto.ConfirmForgotPasswordDto;
 import com.oldmutual.AwsCognitoMiddleware.dto.RegisterRequest;
 import com.oldmutual.AwsCognitoMiddleware.service.CognitoService;
 import org.junit.jupiter.api.Test;
@@ -15,6 +17,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
@@ -85,4 +88,18 @@ public class AuthControllerTest {
         
         System.out.println("[DEBUG_LOG] All custom attributes were passed correctly to the service");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testConfirmForgotPasswordKeepsEmptyDataObject() {
+        ConfirmForgotPasswordDto request = new ConfirmForgotPasswordDto();
+        request.setEmail("test@example.com");
+        request.setConfirmationCode("123456");
+        request.setNewPassword("Password123!");
+
+        ApiResponse<Map<String, Object>> response = authController.confirmForgotPassword(request).getBody();
+
+        // Serialized as "data": {} for clients that read data.*
+        assertTrue(response.isSuccess());
+        assertEquals(Map.of(), response.getData());
+    }
+}
@@ -0,0 +1,115 @@
+package com.oldmutual.AwsCognitoMiddleware.exception;
+
+import com.oldmutual.AwsCognitoMiddleware.dto.ApiResponse;
+import com.oldmutual.AwsCognitoMiddleware.dto.ErrorDetail;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.HttpRequestMethodNotSupportedException;
+import org.springframework.web.servlet.HandlerMapping;
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.CodeMismatchException;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.CognitoIdentityProviderException;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.NotAuthorizedException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class GlobalExceptionHandlerTest {
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+    private static MockHttpServletRequest request(String pattern) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", pattern);
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+        return request;
+    }
+
+    private static <T extends CognitoIdentityProviderException.Builder> CognitoIdentityProviderException cognito(
+            T builder, String code, String message) {
+        return (CognitoIdentityProviderException) builder
+                .message(message + " (Service: CognitoIdentityProvider, Status Code: 400, Request ID: 1)")
+                .awsErrorDetails(AwsErrorDetails.builder().errorCode(code).errorMessage(message).build())
+                .build();
+    }
+
+    @Test
+    public void testCognitoErrorsUseTheEndpointTemplate() {
+        ResponseEntity<? extends ApiResponse<?>> response = handler.handleCognitoException(
+                cognito(NotAuthorizedException.builder(), "NotAuthorizedException", "Incorrect username or password."),
+                request("/api/auth/login"));
+
+        assertEquals(400, response.getStatusCode().value());
+        assertEquals("Invalid credentials", response.getBody().getMessage());
+        ErrorDetail detail = (ErrorDetail) response.getBody().getData();
+        assertEquals("NotAuthorizedException", detail.errorType());
+        assertEquals("Incorrect username or password.", detail.errorMessage());
+        assertNull(detail.valid());
+
+        response = handler.handleCognitoException(
+                cognito(CodeMismatchException.builder(), "CodeMismatchException", "Invalid code provided."),
+                request("/api/auth/verify"));
+        detail = (ErrorDetail) response.getBody().getData();
+        assertEquals("The verification code you entered is incorrect", detail.errorMessage());
+        assertEquals("/api/auth/resend-otp", detail.resendEndpoint());
+    }
+
+    @Test
+    public void testConditionalTemplatesAndTokenValidity() {
+        CognitoIdentityProviderException wrongPassword =
+                cognito(NotAuthorizedException.builder(), "NotAuthorizedException", "Incorrect username or password.");
+        ResponseEntity<? extends ApiResponse<?>> response =
+                handler.handleCognitoException(wrongPassword, request("/api/auth/change-password"));
+        assertEquals(401, response.getStatusCode().value());
+        assertEquals("Previous password is incorrect", response.getBody().getMessage());
+
+        CognitoIdentityProviderException expired =
+                cognito(NotAuthorizedException.builder(), "NotAuthorizedException", "Access Token has expired");
+        response = handler.handleCognitoException(expired, request("/api/auth/change-password"));
+        assertEquals("Invalid or expired access token", response.getBody().getMessage());
+
+        response = handler.handleCognitoException(expired, request("/api/auth/token/introspect"));
+        assertEquals(401, response.getStatusCode().value());
+        assertFalse(((ErrorDetail) response.getBody().getData()).valid());
+    }
+
+    @Test
+    public void testUnmappedAndClientErrors() {
+        ResponseEntity<? extends ApiResponse<?>> response = handler.handleGeneralException(
+                new IllegalArgumentException("boom"), request("/api/auth/register"));
+        assertEquals(400, response.getStatusCode().value());
+        assertEquals("Error registering user: boom", response.getBody().getMessage());
+        assertEquals("UnexpectedException", ((ErrorDetail) response.getBody().getData()).errorType());
+
+        response = handler.handleGeneralException(
+                SdkClientException.create("Unable to execute HTTP request"), request("/api/auth/login"));
+        assertEquals("AwsCredentialsError", ((ErrorDetail) response.getBody().getData()).errorType());
+
+        response = handler.handleGeneralException(new MfaChallengeExpiredException(), request("/api/auth/mfa/verify"));
+        assertEquals("ExpiredChallenge", ((ErrorDetail) response.getBody().getData()).errorType());
+
+        response = handler.handleGeneralException(new IllegalArgumentException("boom"), request("/api/admin/apps"));
+        assertEquals(500, response.getStatusCode().value());
+    }
+
+    @Test
+    public void testFrameworkClientErrorsKeepTheirStatus() {
+        ResponseEntity<ApiResponse<Void>> response = handler.handleClientError(
+                new HttpMessageNotReadableException("JSON parse error", new MockHttpInputMessage(new byte[0])),
+                request("/api/auth/login"));
+        assertEquals(400, response.getStatusCode().value());
+        assertEquals("Malformed request body", response.getBody().getMessage());
+
+        response = handler.handleClientError(
+                new HttpRequestMethodNotSupportedException("GET", List.of("POST")), request("/api/auth/login"));
+        assertEquals(405, response.getStatusCode().value());
+        assertEquals("POST", response.getHeaders().getFirst(HttpHeaders.ALLOW));
+    }
+}
@@ -0,0 +1,69 @@
+package com.oldmutual.AwsCognitoMiddleware.interceptor;
+
+import com.oldmutual.AwsCognitoMiddleware.interceptor.AppKeyRejectionTracker.Rejection;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AppKeyRejectionTrackerTest {
+
+    private static final Rejection INVALID_KEY = new Rejection(401, "Invalid X-APP-KEY".getBytes(StandardCharsets.UTF_8));
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+
+    private AppKeyRejectionTracker tracker(int maxEntries) {
+        return new AppKeyRejectionTracker(Duration.ofSeconds(30), Duration.ofMinutes(1), 3, maxEntries, clock::get);
+    }
+
+    @Test
+    public void testRejectedKeyIsReplayedUntilTtl() {
+        AppKeyRejectionTracker tracker = tracker(100);
+        tracker.rememberRejection("not-a-key", INVALID_KEY);
+        assertSame(INVALID_KEY, tracker.cachedRejection("not-a-key"));
+        assertNull(tracker.cachedRejection("other-key"));
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        assertSame(INVALID_KEY, tracker.cachedRejection("not-a-key"));
+        clock.addAndGet(1);
+        assertNull(tracker.cachedRejection("not-a-key"));
+        assertEquals(0, tracker.rejectedKeyCount());
+    }
+
+    @Test
+    public void testIpBlockedWithinWindowAndReleasedOnRollover() {
+        AppKeyRejectionTracker tracker = tracker(100);
+        assertTrue(tracker.recordRejection("10.0.0.1"), "first rejection starts a window");
+        assertFalse(tracker.recordRejection("10.0.0.1"));
+        assertFalse(tracker.isBlocked("10.0.0.1"));
+        tracker.recordRejection("10.0.0.1");
+        assertTrue(tracker.isBlocked("10.0.0.1"));
+        assertFalse(tracker.isBlocked("10.0.0.2"));
+
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(1));
+        assertFalse(tracker.isBlocked("10.0.0.1"));
+        assertTrue(tracker.recordRejection("10.0.0.1"), "rejection after the window starts a new one");
+        assertFalse(tracker.isBlocked("10.0.0.1"));
+    }
+
+    @Test
+    public void testFullMapsPurgeExpiredEntriesAndDropNewOnes() {
+        AppKeyRejectionTracker tracker = tracker(2);
+        tracker.recordRejection("10.0.0.1");
+        tracker.recordRejection("10.0.0.2");
+        assertFalse(tracker.recordRejection("10.0.0.3"));
+        assertEquals(2, tracker.trackedIpCount());
+
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(1));
+        assertTrue(tracker.recordRejection("10.0.0.3"));
+        assertEquals(1, tracker.trackedIpCount());
+    }
+}
@@ -0,0 +1,49 @@
+package com.oldmutual.AwsCognitoMiddleware.interceptor;
+
+import com.oldmutual.AwsCognitoMiddleware.config.RateLimitProperties;
+import com.oldmutual.AwsCognitoMiddleware.exception.TooManyRequestsException;
+import com.oldmutual.AwsCognitoMiddleware.model.CognitoAppConfig;
+import com.oldmutual.AwsCognitoMiddleware.service.FailureTracker;
+import com.oldmutual.AwsCognitoMiddleware.service.RateLimiter;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class AuthThrottleInterceptorTest {
+
+    private final RateLimitProperties properties = new RateLimitProperties();
+    private final AuthThrottleInterceptor interceptor = new AuthThrottleInterceptor(
+            properties, new RateLimiter(properties), mock(FailureTracker.class));
+
+    private static CognitoAppConfig appConfig(String appName, int rateLimitPerMinute) {
+        CognitoAppConfig appConfig = new CognitoAppConfig();
+        appConfig.setAppKey(UUID.randomUUID());
+        appConfig.setAppName(appName);
+        appConfig.setRateLimitPerMinute(rateLimitPerMinute);
+        return appConfig;
+    }
+
+    private boolean login(CognitoAppConfig appConfig) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/login");
+        request.setAttribute("appConfig", appConfig);
+        return interceptor.preHandle(request, new MockHttpServletResponse(), null);
+    }
+
+    @Test
+    public void testAppRateLimitIsPerAppKeyNotAppName() {
+        CognitoAppConfig first = appConfig("shared-name", 1);
+        CognitoAppConfig second = appConfig("shared-name", 1);
+
+        assertTrue(login(first));
+        assertThrows(TooManyRequestsException.class, () -> login(first));
+
+        // Same app name, different app key: its own budget
+        assertTrue(login(second));
+    }
+}
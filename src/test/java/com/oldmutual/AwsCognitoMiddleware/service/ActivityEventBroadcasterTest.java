@@ -0,0 +1,128 @@
+package com.oldmutual.AwsCognitoMiddleware.service;
+
+import com.oldmutual.AwsCognitoMiddleware.dto.ActivityLogView;
+import com.oldmutual.AwsCognitoMiddleware.model.UserActivityLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ActivityEventBroadcasterTest {
+
+    private final ExecutorService senders = Executors.newSingleThreadExecutor();
+    private final ActivityEventBroadcaster broadcaster =
+            new ActivityEventBroadcaster(8, 2, Duration.ofMinutes(1), senders);
+
+    /**
+     * Emitter that records what would be written to the client.
+     */
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<String> events = new ArrayList<>();
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            events.add(builder.build().stream()
+                    .map(part -> part.getData() instanceof ActivityLogView log ? log.activity() : part.getData().toString())
+                    .collect(Collectors.joining()));
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        senders.shutdownNow();
+    }
+
+    private void publish(String activity, String status) {
+        broadcaster.publish(ActivityLogView.of(
+                UserActivityLog.builder().activity(activity).status(status).appName("app").build()));
+    }
+
+    private void dispatchAndWait() throws Exception {
+        broadcaster.dispatch();
+        senders.submit(() -> { }).get();
+    }
+
+    @Test
+    public void testFilteredEventsAreStreamed() throws Exception {
+        RecordingEmitter failures = new RecordingEmitter();
+        broadcaster.subscribe(failures, new ActivityEventBroadcaster.Filter("app", "FAILURE", null), null);
+
+        publish("LOGIN", "SUCCESS");
+        publish("LOGIN", "FAILURE");
+        publish("MFA_VERIFY", "FAILURE");
+        dispatchAndWait();
+
+        assertEquals(2, failures.events.size());
+        assertTrue(failures.events.get(0).contains("id:1\n") && failures.events.get(0).contains("LOGIN"));
+        assertTrue(failures.events.get(1).contains("MFA_VERIFY"));
+    }
+
+    @Test
+    public void testSlowSubscriberSkipsAheadAndLimitIsEnforced() throws Exception {
+        RecordingEmitter slow = new RecordingEmitter();
+        assertNotNull(broadcaster.subscribe(slow, new ActivityEventBroadcaster.Filter(null, null, null), null));
+        assertNotNull(broadcaster.subscribe(new RecordingEmitter(), new ActivityEventBroadcaster.Filter(null, null, null), null));
+        assertNull(broadcaster.subscribe(new RecordingEmitter(), new ActivityEventBroadcaster.Filter(null, null, null), null));
+
+        for (int i = 0; i < 20; i++) {
+            publish("EVENT_" + i, "SUCCESS");
+        }
+        dispatchAndWait();
+
+        // The ring holds 8 events; each subscriber is told it missed 13 and resumes at the 14th
+        assertEquals(8, slow.events.size());
+        assertTrue(slow.events.get(0).contains("event:dropped") && slow.events.get(0).contains("13"));
+        assertTrue(slow.events.get(1).contains("EVENT_13"));
+        assertTrue(slow.events.get(7).contains("EVENT_19"));
+        assertEquals(26, broadcaster.droppedCount());
+    }
+
+    @Test
+    public void testConcurrentSubscribersNeverExceedTheLimitAndGoneOnesFreeTheirSlot() throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<SseEmitter>> attempts = new ArrayList<>();
+        try {
+            for (int i = 0; i < 8; i++) {
+                attempts.add(clients.submit(() -> {
+                    start.await();
+                    return broadcaster.subscribe(new SseEmitter() {
+                        @Override
+                        public void send(SseEventBuilder builder) throws IOException {
+                            throw new IOException("client gone");
+                        }
+                    }, new ActivityEventBroadcaster.Filter(null, null, null), null);
+                }));
+            }
+            start.countDown();
+            int accepted = 0;
+            for (Future<SseEmitter> attempt : attempts) {
+                accepted += attempt.get(5, TimeUnit.SECONDS) != null ? 1 : 0;
+            }
+            assertEquals(2, accepted);
+        } finally {
+            clients.shutdownNow();
+        }
+
+        publish("LOGIN", "SUCCESS");
+        dispatchAndWait();
+        dispatchAndWait();
+        assertEquals(0, broadcaster.subscriberCount());
+        assertNotNull(broadcaster.subscribe(new RecordingEmitter(), new ActivityEventBroadcaster.Filter(null, null, null), null));
+    }
+}
@@ -0,0 +1,107 @@
+package com.oldmutual.AwsCognitoMiddleware.service;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ActivityStatsRollupTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final AtomicReference<LocalDateTime> now = new AtomicReference<>(LocalDateTime.of(2026, 3, 1, 10, 15, 20));
+    private final AtomicInteger rollbacks = new AtomicInteger();
+    private final TransactionOperations transactions = new TransactionOperations() {
+        @Override
+        public <T> T execute(TransactionCallback<T> action) {
+            try {
+                return action.doInTransaction(new SimpleTransactionStatus());
+            } catch (RuntimeException e) {
+                rollbacks.incrementAndGet();
+                throw e;
+            }
+        }
+    };
+    private final ActivityStatsRollup rollup = new ActivityStatsRollup(jdbcTemplate, transactions, Duration.ofDays(2), now::get);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testFlushUpsertsMinuteAndHourCounts() {
+        rollup.record("app", "LOGIN", "SUCCESS");
+        rollup.record("app", "LOGIN", "SUCCESS");
+        now.set(now.get().plusMinutes(1));
+        rollup.record("app", "LOGIN", "SUCCESS");
+        rollup.record(null, "LOGIN", "FAILURE");
+
+        rollup.flush();
+
+        ArgumentCaptor<List<Object[]>> minutes = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<List<Object[]>> hours = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(contains("activity_stats_minute"), minutes.capture());
+        verify(jdbcTemplate).batchUpdate(contains("activity_stats_hour"), hours.capture());
+        assertEquals(3, minutes.getValue().size());
+        assertEquals(2, hours.getValue().size());
+        Object[] appHour = hours.getValue().stream().filter(row -> "app".equals(row[1])).findFirst().orElseThrow();
+        assertArrayEquals(new Object[]{Timestamp.valueOf(LocalDateTime.of(2026, 3, 1, 10, 0)), "app", "LOGIN", "SUCCESS", 3L},
+                appHour);
+
+        // Nothing new since the last flush: no writes, and drained buckets of past minutes are dropped
+        now.set(now.get().plusMinutes(5));
+        rollup.flush();
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyList());
+        assertEquals(0, rollup.size());
+    }
+
+    @Test
+    public void testFailedFlushKeepsCounts() {
+        rollup.record("app", "LOGIN", "SUCCESS");
+        when(jdbcTemplate.batchUpdate(contains("activity_stats_minute"), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+        rollup.flush();
+        verify(jdbcTemplate, never()).batchUpdate(contains("activity_stats_hour"), anyList());
+
+        when(jdbcTemplate.batchUpdate(contains("activity_stats_minute"), anyList())).thenReturn(new int[]{1});
+        rollup.flush();
+        verify(jdbcTemplate).batchUpdate(contains("activity_stats_hour"), anyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testFailedHourUpsertRollsBackAndRetriesBoth() {
+        rollup.record("app", "LOGIN", "SUCCESS");
+        rollup.record("app", "LOGIN", "SUCCESS");
+        when(jdbcTemplate.batchUpdate(contains("activity_stats_hour"), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("down"))
+                .thenReturn(new int[]{1});
+
+        rollup.flush();
+        assertEquals(1, rollbacks.get());
+
+        // The rolled back minute rows are written again, once, with the same count
+        rollup.flush();
+        ArgumentCaptor<List<Object[]>> minutes = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(contains("activity_stats_minute"), minutes.capture());
+        assertEquals(2L, minutes.getAllValues().get(1).get(0)[4]);
+        assertEquals(1, rollbacks.get());
+    }
+}
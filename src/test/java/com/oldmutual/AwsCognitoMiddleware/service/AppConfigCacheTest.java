@@ -0,0 +1,153 @@
+package com.oldmutual.AwsCognitoMiddleware.service;
+
+import com.oldmutual.AwsCognitoMiddleware.model.CognitoAppConfig;
+import com.oldmutual.AwsCognitoMiddleware.repository.CognitoAppConfigRepository;
+import org.junit.jupiter.api.Test;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AppConfigCacheTest {
+
+    private final CognitoAppConfigRepository repository = mock(CognitoAppConfigRepository.class);
+    private final AtomicLong clock = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+    private final AppConfigCache cache = new AppConfigCache(repository, Duration.ofMinutes(5), clock::get);
+    private final CognitoClientProvider cognitoClientProvider = mock(CognitoClientProvider.class);
+    private final UUID appKey = UUID.randomUUID();
+
+    private CognitoAppConfig appConfig(String appName) {
+        CognitoAppConfig appConfig = new CognitoAppConfig();
+        appConfig.setAppKey(appKey);
+        appConfig.setAppName(appName);
+        return appConfig;
+    }
+
+    @Test
+    public void testLoadedOnceUntilTtlAndUnknownKeysNotCached() {
+        CognitoAppConfig config = appConfig("app");
+        when(repository.findByAppKey(appKey)).thenReturn(Optional.of(config));
+
+        assertSame(config, cache.findByAppKey(appKey).orElseThrow());
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(5) - 1);
+        assertSame(config, cache.findByAppKey(appKey).orElseThrow());
+        verify(repository, times(1)).findByAppKey(appKey);
+
+        clock.addAndGet(1);
+        cache.findByAppKey(appKey);
+        verify(repository, times(2)).findByAppKey(appKey);
+
+        UUID unknown = UUID.randomUUID();
+        when(repository.findByAppKey(unknown)).thenReturn(Optional.empty());
+        assertTrue(cache.findByAppKey(unknown).isEmpty());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testLoadRacingAnEvictionIsNotCached() {
+        CognitoAppConfig stale = appConfig("before-change");
+        CognitoAppConfig fresh = appConfig("after-change");
+        when(repository.findByAppKey(appKey))
+                .thenAnswer(invocation -> {
+                    // An admin change commits while this load is in flight
+                    cache.evict(appKey);
+                    return Optional.of(stale);
+                })
+                .thenReturn(Optional.of(fresh));
+
+        assertSame(stale, cache.findByAppKey(appKey).orElseThrow());
+        assertEquals(0, cache.size());
+        assertSame(fresh, cache.findByAppKey(appKey).orElseThrow());
+        assertSame(fresh, cache.findByAppKey(appKey).orElseThrow());
+        verify(repository, times(2)).findByAppKey(appKey);
+    }
+
+    @Test
+    public void testNotifierEvictsCacheAndClientOnlyAfterCommit() {
+        when(repository.findByAppKey(appKey)).thenReturn(Optional.of(appConfig("app")));
+        cache.findByAppKey(appKey);
+        AppConfigChangeNotifier notifier = new AppConfigChangeNotifier(mock(JdbcTemplate.class), cache, cognitoClientProvider);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            notifier.appConfigChanged(appKey);
+            assertEquals(1, cache.size());
+            verify(cognitoClientProvider, never()).evict(appKey);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(0, cache.size());
+        verify(cognitoClientProvider).evict(appKey);
+    }
+
+    @Test
+    public void testListenerEvictsNotifiedAppsAndEverythingOnReconnect() throws Exception {
+        UUID other = UUID.randomUUID();
+        when(repository.findByAppKey(appKey)).thenReturn(Optional.of(appConfig("app")));
+        when(repository.findByAppKey(other)).thenReturn(Optional.of(appConfig("other")));
+
+        PGNotification notification = mock(PGNotification.class);
+        when(notification.getParameter()).thenReturn(appKey.toString());
+        PGConnection pgConnection = mock(PGConnection.class);
+        when(pgConnection.getNotifications(anyInt()))
+                .thenAnswer(invocation -> {
+                    // Cached after the first LISTEN, then the change for appKey arrives
+                    cache.findByAppKey(appKey);
+                    cache.findByAppKey(other);
+                    return new PGNotification[]{notification};
+                })
+                .thenAnswer(invocation -> {
+                    assertEquals(1, cache.size(), "only the notified app is evicted");
+                    verify(cognitoClientProvider).evict(appKey);
+                    verify(cognitoClientProvider, never()).evict(other);
+                    throw new SQLException("connection lost");
+                })
+                .thenAnswer(invocation -> {
+                    cache.findByAppKey(other);
+                    return null;
+                });
+        Connection connection = mock(Connection.class);
+        when(connection.createStatement()).thenReturn(mock(Statement.class));
+        when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+        AtomicLong opened = new AtomicLong();
+
+        AppConfigChangeListener listener = new AppConfigChangeListener(cache, cognitoClientProvider, () -> {
+            opened.incrementAndGet();
+            return connection;
+        }, true, 10);
+        listener.start();
+        try {
+            verify(pgConnection, timeout(5000).atLeast(3)).getNotifications(anyInt());
+        } finally {
+            listener.stop();
+        }
+
+        // Notifications sent while disconnected are lost, so the reconnect dropped everything cached before it
+        assertEquals(2, opened.get());
+        verify(repository, times(2)).findByAppKey(other);
+        verify(cognitoClientProvider, atLeast(2)).evictAll();
+    }
+}
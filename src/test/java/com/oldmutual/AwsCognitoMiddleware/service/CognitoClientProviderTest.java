@@ -0,0 +1,85 @@
+package com.oldmutual.AwsCognitoMiddleware.service;
+
+import com.oldmutual.AwsCognitoMiddleware.config.EndpointOverridePolicy;
+import com.oldmutual.AwsCognitoMiddleware.model.CognitoAppConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderClient;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CognitoClientProviderTest {
+
+    private final CognitoClientProvider provider = new CognitoClientProvider(new EndpointOverridePolicy(List.of()), 10, Duration.ofMillis(10));
+
+    @AfterEach
+    public void tearDown() {
+        provider.close();
+    }
+
+    private static CognitoAppConfig appConfig(UUID appKey) {
+        CognitoAppConfig appConfig = new CognitoAppConfig();
+        appConfig.setAppKey(appKey);
+        appConfig.setAppName("app-" + appKey);
+        appConfig.setAwsRegion("eu-west-1");
+        return appConfig;
+    }
+
+    @Test
+    public void testClientReusedUntilSettingsChange() {
+        UUID appKey = UUID.randomUUID();
+        CognitoAppConfig appConfig = appConfig(appKey);
+        CognitoIdentityProviderClient first = provider.clientFor(appConfig);
+
+        // A reloaded config with the same settings keeps the client
+        assertSame(first, provider.clientFor(appConfig(appKey)));
+
+        CognitoAppConfig changed = appConfig(appKey);
+        changed.setMaxConnections(5);
+        CognitoIdentityProviderClient second = provider.clientFor(changed);
+        assertNotSame(first, second);
+        assertSame(second, provider.clientFor(changed));
+        assertEquals(1, provider.size());
+    }
+
+    @Test
+    public void testClientsArePerApp() {
+        CognitoIdentityProviderClient a = provider.clientFor(appConfig(UUID.randomUUID()));
+        UUID appKey = UUID.randomUUID();
+        CognitoIdentityProviderClient b = provider.clientFor(appConfig(appKey));
+        assertNotSame(a, b);
+
+        provider.evict(appKey);
+        assertEquals(1, provider.size());
+        provider.evictAll();
+        assertEquals(0, provider.size());
+    }
+
+    @Test
+    public void testPlainHttpOverrideOnlyForLoopbackOrAllowedHosts() {
+        EndpointOverridePolicy policy = new EndpointOverridePolicy(List.of("cognito-stub.internal"));
+        assertTrue(policy.isAllowed(null));
+        assertTrue(policy.isAllowed("https://cognito-idp.eu-west-1.amazonaws.com"));
+        assertTrue(policy.isAllowed("http://127.0.0.1:9229"));
+        assertTrue(policy.isAllowed("http://localhost:9229"));
+        assertTrue(policy.isAllowed("http://Cognito-Stub.internal:9229"));
+        assertFalse(policy.isAllowed("http://attacker.example.com"));
+        assertFalse(policy.isAllowed("http://127.0.0.1.attacker.example.com"));
+        assertFalse(policy.isAllowed("ftp://127.0.0.1"));
+
+        // Overrides stored before the policy, or written directly to the table, are rejected when the client is built
+        CognitoAppConfig appConfig = appConfig(UUID.randomUUID());
+        appConfig.setEndpointOverride("http://attacker.example.com");
+        assertThrows(IllegalStateException.class, () -> provider.clientFor(appConfig));
+        assertEquals(0, provider.size());
+    }
+}
@@ -0,0 +1,134 @@
+package com.oldmutual.AwsCognitoMiddleware.service;
+
+import com.oldmutual.AwsCognitoMiddleware.config.EndpointOverridePolicy;
+import com.oldmutual.AwsCognitoMiddleware.model.CognitoAppConfig;
+import com.oldmutual.AwsCognitoMiddleware.support.LocalCognitoServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import software.amazon.awssdk.core.exception.ApiCallTimeoutException;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.ChallengeNameType;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.InitiateAuthResponse;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.InternalErrorException;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.NotAuthorizedException;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.RespondToAuthChallengeResponse;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Runs CognitoService against the local Cognito stand-in instead of AWS.
+ */
+public class CognitoServiceLocalTest {
+
+    private static LocalCognitoServer server;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CognitoClientProvider cognitoClientProvider = new CognitoClientProvider(new EndpointOverridePolicy(List.of()), 10, Duration.ofSeconds(1));
+    private final CognitoService cognitoService =
+            new CognitoService(mock(UserActivityLogService.class), meterRegistry, cognitoClientProvider);
+
+    @BeforeAll
+    public static void startServer() throws Exception {
+        server = LocalCognitoServer.start();
+    }
+
+    @AfterAll
+    public static void stopServer() {
+        server.close();
+    }
+
+    private CognitoAppConfig appConfig;
+
+    @BeforeEach
+    public void setUp() {
+        appConfig = new CognitoAppConfig();
+        appConfig.setAppKey(UUID.randomUUID());
+        appConfig.setAppName("local-test");
+        appConfig.setAwsRegion("eu-west-1");
+        appConfig.setUserPoolId("eu-west-1_local");
+        appConfig.setClientId("local-client");
+        appConfig.setEndpointOverride(server.endpoint());
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute("appConfig", appConfig);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        server.setProfile(LocalCognitoServer.Profile.FAST);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        cognitoClientProvider.close();
+    }
+
+    @Test
+    public void testRegisterVerifyLoginWithMfa() {
+        String email = "new-user-" + UUID.randomUUID() + "@example.com";
+        cognitoService.registerUser(email, "Password123!", Map.of("name", "Local User"));
+        cognitoService.verifyUser(email, LocalCognitoServer.CODE);
+
+        InitiateAuthResponse login = cognitoService.authenticateUser(email, "Password123!");
+        String accessToken = login.authenticationResult().accessToken();
+        assertNotNull(accessToken);
+        assertEquals(email, cognitoService.introspectToken(accessToken).username());
+
+        cognitoService.associateSoftwareToken(accessToken);
+        cognitoService.verifySoftwareToken(accessToken, LocalCognitoServer.CODE, "phone");
+        cognitoService.setUserMfaPreference(accessToken, "SOFTWARE_TOKEN_MFA", null);
+
+        InitiateAuthResponse challenged = cognitoService.authenticateUser(email, "Password123!");
+        assertEquals(ChallengeNameType.SOFTWARE_TOKEN_MFA, challenged.challengeName());
+        RespondToAuthChallengeResponse verified = cognitoService.respondToMfaChallenge(
+                email, challenged.session(), LocalCognitoServer.CODE, "SOFTWARE_TOKEN_MFA");
+        assertNotNull(verified.authenticationResult().accessToken());
+
+        assertEquals(2, meterRegistry.get("cognito.operation")
+                .tags("operation", "InitiateAuth", "app", "local-test", "outcome", "success").timer().count());
+    }
+
+    @Test
+    public void testCognitoErrorsAreMappedAndTagged() {
+        server.addConfirmedUser("existing@example.com", "Password123!");
+
+        NotAuthorizedException e = assertThrows(NotAuthorizedException.class,
+                () -> cognitoService.authenticateUser("existing@example.com", "wrong"));
+        assertEquals("Incorrect username or password.", e.awsErrorDetails().errorMessage());
+        assertEquals(1, meterRegistry.get("cognito.operation")
+                .tags("operation", "InitiateAuth", "outcome", "NotAuthorizedException").timer().count());
+    }
+
+    @Test
+    public void testInjectedErrorsSurfaceAfterRetries() {
+        server.addConfirmedUser("flaky@example.com", "Password123!");
+        server.setProfile(LocalCognitoServer.Profile.FAST.withErrorRate(1.0));
+        long before = server.requestCount("ForgotPassword");
+
+        assertThrows(InternalErrorException.class, () -> cognitoService.forgotPassword("flaky@example.com"));
+        assertFalse(server.requestCount("ForgotPassword") - before < 2, "the SDK should have retried");
+    }
+
+    @Test
+    public void testTimeoutChangeAppliesToNextCall() {
+        server.addConfirmedUser("slow@example.com", "Password123!");
+        server.setProfile(LocalCognitoServer.Profile.FAST.withLatency(Duration.ofMillis(600), Duration.ZERO));
+        cognitoService.forgotPassword("slow@example.com");
+
+        appConfig.setApiCallTimeoutMillis(300);
+        assertThrows(ApiCallTimeoutException.class, () -> cognitoService.forgotPassword("slow@example.com"));
+    }
+}
@@ -0,0 +1,95 @@
+package com.oldmutual.AwsCognitoMiddleware.service;
+
+import com.oldmutual.AwsCognitoMiddleware.config.FailureTrackerProperties;
+import com.oldmutual.AwsCognitoMiddleware.exception.TooManyRequestsException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class FailureTrackerTest {
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+    private final List<Long> sleeps = new ArrayList<>();
+
+    private FailureTracker tracker() {
+        FailureTrackerProperties properties = new FailureTrackerProperties();
+        properties.setWindow(Duration.ofMinutes(10));
+        properties.setIpThreshold(5);
+        properties.setUserThreshold(3);
+        properties.setIpBlockDuration(Duration.ofMinutes(15));
+        properties.setUserSlowdownDuration(Duration.ofMinutes(5));
+        properties.setUserDelay(Duration.ofSeconds(2));
+        properties.setMaxDelayedRequests(1);
+        return new FailureTracker(properties, clock::get, sleeps::add);
+    }
+
+    @Test
+    public void testUserSlowedDownAfterThresholdAndReleased() {
+        FailureTracker tracker = tracker();
+        tracker.recordFailure("LOGIN", "10.0.0.1", "User@example.com");
+        tracker.recordFailure("LOGIN", "10.0.0.2", "user@example.com");
+        tracker.checkUser("user@example.com");
+        assertEquals(List.of(), sleeps);
+
+        // Delayed, never refused, so failing on purpose does not lock the owner out
+        tracker.recordFailure("MFA_VERIFY", "10.0.0.3", "user@example.com");
+        assertDoesNotThrow(() -> tracker.checkUser("USER@example.com"));
+        assertEquals(List.of(TimeUnit.SECONDS.toNanos(2)), sleeps);
+        tracker.checkUser("other@example.com");
+        assertDoesNotThrow(() -> tracker.checkIp("10.0.0.1"));
+        assertEquals(1, sleeps.size());
+
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(5));
+        tracker.checkUser("user@example.com");
+        assertEquals(1, sleeps.size());
+        assertEquals(0, tracker.blockedCount());
+    }
+
+    @Test
+    public void testDelayedRequestsAreBounded() {
+        FailureTrackerProperties properties = new FailureTrackerProperties();
+        properties.setUserThreshold(1);
+        properties.setUserDelay(Duration.ofSeconds(2));
+        properties.setMaxDelayedRequests(1);
+        List<TooManyRequestsException> refused = new ArrayList<>();
+        FailureTracker[] tracker = new FailureTracker[1];
+        // A second attempt arriving while the first is still delayed finds no free slot
+        tracker[0] = new FailureTracker(properties, clock::get, nanos -> refused.add(
+                assertThrows(TooManyRequestsException.class, () -> tracker[0].checkUser("user@example.com"))));
+
+        tracker[0].recordFailure("LOGIN", "10.0.0.1", "user@example.com");
+        tracker[0].checkUser("user@example.com");
+        assertEquals(1, refused.size());
+        assertEquals(2, refused.get(0).getRetryAfterSeconds());
+    }
+
+    @Test
+    public void testIpBlockedAcrossUsernames() {
+        FailureTracker tracker = tracker();
+        for (int i = 0; i < 5; i++) {
+            tracker.recordFailure("LOGIN", "10.0.0.1", "user" + i + "@example.com");
+        }
+        assertThrows(TooManyRequestsException.class, () -> tracker.checkIp("10.0.0.1"));
+        assertDoesNotThrow(() -> tracker.checkIp("10.0.0.2"));
+    }
+
+    @Test
+    public void testFailuresExpireOutOfWindowAndUntrackedActivitiesIgnored() {
+        FailureTracker tracker = tracker();
+        tracker.recordFailure("LOGIN", "10.0.0.1", "user@example.com");
+        tracker.recordFailure("LOGIN", "10.0.0.1", "user@example.com");
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(11));
+
+        tracker.recordFailure("LOGIN", "10.0.0.1", "user@example.com");
+        tracker.recordFailure("CHANGE_PASSWORD", "10.0.0.1", "user@example.com");
+        assertDoesNotThrow(() -> tracker.checkUser("user@example.com"));
+    }
+}
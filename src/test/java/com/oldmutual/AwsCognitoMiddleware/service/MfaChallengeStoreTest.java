@@ -0,0 +1,80 @@
+package com.oldmutual.AwsCognitoMiddleware.service;
+
+import com.oldmutual.AwsCognitoMiddleware.service.MfaChallengeStore.PendingChallenge;
+import com.oldmutual.AwsCognitoMiddleware.service.MfaChallengeStore.StoredChallenge;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class MfaChallengeStoreTest {
+
+    private static final UUID APP_KEY = UUID.randomUUID();
+    private static final Instant LOGIN = Instant.parse("2025-01-15T10:00:00Z");
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final AtomicReference<Instant> now = new AtomicReference<>(LOGIN);
+    private final MfaChallengeStore store = new MfaChallengeStore(jdbcTemplate, true, Duration.ofMinutes(3), now::get);
+
+    /**
+     * Save a challenge and make the mocked table return it for its handle.
+     */
+    @SuppressWarnings("unchecked")
+    private String saved() {
+        String handle = store.save(APP_KEY, "User@example.com", "SOFTWARE_TOKEN_MFA", "session");
+        ArgumentCaptor<Object> expiresAt = ArgumentCaptor.forClass(Object.class);
+        verify(jdbcTemplate).update(startsWith("INSERT INTO mfa_challenge"), eq(handle), eq(APP_KEY),
+                eq("User@example.com"), eq("SOFTWARE_TOKEN_MFA"), eq("session"), expiresAt.capture());
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(handle))).thenReturn(List.of(new StoredChallenge(
+                APP_KEY, new PendingChallenge("User@example.com", "SOFTWARE_TOKEN_MFA", "session"),
+                ((Timestamp) expiresAt.getValue()).toInstant())));
+        return handle;
+    }
+
+    @Test
+    public void testHandleExpiresAfterTtl() {
+        String handle = saved();
+        assertEquals(32, handle.length());
+
+        now.set(LOGIN.plus(Duration.ofMinutes(3)).minusMillis(1));
+        assertEquals("session", store.find(handle, APP_KEY, "user@example.com").orElseThrow().session());
+        now.set(LOGIN.plus(Duration.ofMinutes(3)));
+        assertTrue(store.find(handle, APP_KEY, "user@example.com").isEmpty());
+    }
+
+    @Test
+    public void testHandleOfAnotherAppOrUserIsNotFound() {
+        String handle = saved();
+        assertTrue(store.find(handle, UUID.randomUUID(), "user@example.com").isEmpty());
+        assertTrue(store.find(handle, APP_KEY, "other@example.com").isEmpty());
+        assertTrue(store.find("unknown", APP_KEY, "user@example.com").isEmpty());
+    }
+
+    @Test
+    public void testSweepDeletesWhatThisClockConsidersExpired() {
+        store.sweep();
+        verify(jdbcTemplate).update("DELETE FROM mfa_challenge WHERE expires_at <= ?", Timestamp.from(LOGIN));
+
+        JdbcTemplate disabledJdbc = mock(JdbcTemplate.class);
+        new MfaChallengeStore(disabledJdbc, false, Duration.ofMinutes(3), now::get).sweep();
+        verify(disabledJdbc, never()).update(anyString(), any(Object[].class));
+    }
+}
@@ -0,0 +1,74 @@
+package com.oldmutual.AwsCognitoMiddleware.service;
+
+import com.oldmutual.AwsCognitoMiddleware.config.RateLimitProperties.Limit;
+import com.oldmutual.AwsCognitoMiddleware.exception.TooManyRequestsException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+
+    private static Limit limit(int requests, Duration period, int burst) {
+        Limit limit = new Limit();
+        limit.setRequests(requests);
+        limit.setPeriod(period);
+        limit.setBurst(burst);
+        return limit;
+    }
+
+    @Test
+    public void testBurstThenRefill() {
+        RateLimiter rateLimiter = new RateLimiter(4, 100, clock::get);
+        Limit limit = limit(60, Duration.ofMinutes(1), 3);
+
+        assertEquals(0, rateLimiter.tryAcquire("login:ip:1.2.3.4", limit));
+        assertEquals(0, rateLimiter.tryAcquire("login:ip:1.2.3.4", limit));
+        assertEquals(0, rateLimiter.tryAcquire("login:ip:1.2.3.4", limit));
+
+        long wait = rateLimiter.tryAcquire("login:ip:1.2.3.4", limit);
+        assertEquals(TimeUnit.SECONDS.toNanos(1), wait);
+
+        // Other keys have their own bucket
+        assertEquals(0, rateLimiter.tryAcquire("login:ip:5.6.7.8", limit));
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertEquals(0, rateLimiter.tryAcquire("login:ip:1.2.3.4", limit));
+    }
+
+    @Test
+    public void testCheckThrowsWithRetryAfter() {
+        RateLimiter rateLimiter = new RateLimiter(4, 100, clock::get);
+        Limit limit = limit(1, Duration.ofSeconds(30), 1);
+
+        rateLimiter.check("resend-otp", "user", "a@example.com", limit);
+        TooManyRequestsException ex = assertThrows(TooManyRequestsException.class,
+                () -> rateLimiter.check("resend-otp", "user", "a@example.com", limit));
+        assertEquals(30, ex.getRetryAfterSeconds());
+
+        // A missing limit or key value is never throttled
+        rateLimiter.check("resend-otp", "user", null, limit);
+        rateLimiter.check("resend-otp", "user", "a@example.com", null);
+    }
+
+    @Test
+    public void testFullStripePurgesRefilledBuckets() {
+        RateLimiter rateLimiter = new RateLimiter(1, 2, clock::get);
+        Limit limit = limit(60, Duration.ofMinutes(1), 1);
+
+        rateLimiter.tryAcquire("a", limit);
+        rateLimiter.tryAcquire("b", limit);
+        assertEquals(2, rateLimiter.size());
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(5));
+        assertEquals(0, rateLimiter.tryAcquire("c", limit));
+        assertTrue(rateLimiter.size() <= 2);
+    }
+}
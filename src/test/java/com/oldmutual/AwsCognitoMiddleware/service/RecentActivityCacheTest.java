@@ -0,0 +1,116 @@
+package com.oldmutual.AwsCognitoMiddleware.service;
+
+import com.oldmutual.AwsCognitoMiddleware.dto.ActivityLogView;
+import com.oldmutual.AwsCognitoMiddleware.model.UserActivityLog;
+import com.oldmutual.AwsCognitoMiddleware.repository.UserActivityLogRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RecentActivityCacheTest {
+
+    private final UserActivityLogRepository repository = mock(UserActivityLogRepository.class);
+    private final AtomicLong clock = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+    private final RecentActivityCache cache = new RecentActivityCache(repository, 5, 100, Duration.ofMinutes(15),
+            Duration.ofSeconds(30), clock::get);
+
+    private static ActivityLogView log(long id) {
+        return ActivityLogView.of(UserActivityLog.builder().id(id).username("user@example.com").activity("LOGIN").build());
+    }
+
+    private static List<Long> ids(List<ActivityLogView> logs) {
+        return logs.stream().map(ActivityLogView::id).toList();
+    }
+
+    @Test
+    public void testSeededOnceThenFedByWrites() {
+        when(repository.findByUsernameOrderByIdDesc("user@example.com", PageRequest.of(0, 5)))
+                .thenReturn(LongStream.of(10, 9, 8, 7, 6).mapToObj(RecentActivityCacheTest::log).toList());
+        // Written before the first lookup, but after the seed query's snapshot
+        cache.record(log(11));
+
+        assertEquals(List.of(11L, 10L, 9L), ids(cache.find("user@example.com", 3, null)));
+        cache.record(log(12));
+        assertEquals(List.of(12L, 11L, 10L, 9L, 8L), ids(cache.find("user@example.com", 5, null)));
+        assertEquals(List.of(10L, 9L), ids(cache.find("user@example.com", 2, 11L)));
+        verify(repository, times(1)).findByUsernameOrderByIdDesc(any(), any());
+
+        // Older than the cached window: keyset query
+        cache.find("user@example.com", 5, 9L);
+        verify(repository).findByUsernameAndIdLessThanOrderByIdDesc(eq("user@example.com"), eq(9L), eq(PageRequest.of(0, 5)));
+    }
+
+    @Test
+    public void testShortHistoryIsAnsweredFromMemoryAndIdleUsersAreDropped() {
+        when(repository.findByUsernameOrderByIdDesc("user@example.com", PageRequest.of(0, 5)))
+                .thenReturn(List.of(log(2), log(1)));
+
+        assertEquals(List.of(2L, 1L), ids(cache.find("user@example.com", 50, null)));
+        assertEquals(List.of(1L), ids(cache.find("user@example.com", 50, 2L)));
+        verify(repository, times(0)).findByUsernameAndIdLessThanOrderByIdDesc(any(), anyLong(), any());
+
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(16));
+        cache.sweep();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testEntryIsReseededAfterMaxAge() {
+        when(repository.findByUsernameOrderByIdDesc("user@example.com", PageRequest.of(0, 5)))
+                .thenReturn(List.of(log(2), log(1)))
+                // Log 3 was written on another node
+                .thenReturn(List.of(log(3), log(2), log(1)));
+
+        assertEquals(List.of(2L, 1L), ids(cache.find("user@example.com", 5, null)));
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertEquals(List.of(2L, 1L), ids(cache.find("user@example.com", 5, null)));
+
+        // Frequent lookups keep the entry alive, but do not keep it fresh
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(25));
+        assertEquals(List.of(3L, 2L, 1L), ids(cache.find("user@example.com", 5, null)));
+        verify(repository, times(2)).findByUsernameOrderByIdDesc(any(), any());
+    }
+
+    @Test
+    public void testConcurrentFirstLookupsSeedOnce() throws Exception {
+        CountDownLatch querying = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(repository.findByUsernameOrderByIdDesc("user@example.com", PageRequest.of(0, 5))).thenAnswer(invocation -> {
+            querying.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of(log(2), log(1));
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<List<ActivityLogView>> first = executor.submit(() -> cache.find("user@example.com", 5, null));
+            querying.await(5, TimeUnit.SECONDS);
+            Future<List<ActivityLogView>> second = executor.submit(() -> cache.find("user@example.com", 5, null));
+            release.countDown();
+
+            assertEquals(List.of(2L, 1L), ids(first.get(5, TimeUnit.SECONDS)));
+            assertEquals(List.of(2L, 1L), ids(second.get(5, TimeUnit.SECONDS)));
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(repository, times(1)).findByUsernameOrderByIdDesc(any(), any());
+    }
+}
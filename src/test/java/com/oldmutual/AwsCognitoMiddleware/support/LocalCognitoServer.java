@@ -0,0 +1,464 @@
+package com.oldmutual.AwsCognitoMiddleware.support;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process stand-in for the Cognito Identity Provider JSON API (AWS JSON 1.1), for offline
+ * integration and load testing. Point an app at it through CognitoAppConfig.endpointOverride.
+ * <p>
+ * Covers the operations CognitoService uses: SignUp, ConfirmSignUp, ResendConfirmationCode, InitiateAuth,
+ * RespondToAuthChallenge, ForgotPassword, ConfirmForgotPassword, GetUser, ChangePassword,
+ * AssociateSoftwareToken, VerifySoftwareToken and SetUserMFAPreference. Every confirmation and MFA code is
+ * {@link #CODE}. Latency, error injection and throttling are controlled by the current {@link Profile}.
+ * <p>
+ * Can also be run standalone for load tests:
+ * {@code mvn exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.oldmutual.AwsCognitoMiddleware.support.LocalCognitoServer -Dexec.args="9229 50 0.01 500"}
+ * where the arguments are port, mean latency in millis, error rate and max requests per second.
+ */
+@Slf4j
+public class LocalCognitoServer implements AutoCloseable {
+
+    /**
+     * The confirmation, password reset and MFA code accepted for every user.
+     */
+    public static final String CODE = "123456";
+
+    private static final String TARGET_PREFIX = "AWSCognitoIdentityProviderService.";
+    private static final String CONTENT_TYPE = "application/x-amz-json-1.1";
+
+    /**
+     * Behaviour applied to every request.
+     *
+     * @param latency             Base latency added to every response
+     * @param jitter              Random extra latency, uniform between zero and this value
+     * @param errorRate           Fraction of requests answered with InternalErrorException (HTTP 500)
+     * @param maxRequestsPerSecond Requests per second above which TooManyRequestsException is returned; 0 for unlimited
+     */
+    public record Profile(Duration latency, Duration jitter, double errorRate, int maxRequestsPerSecond) {
+
+        public static final Profile FAST = new Profile(Duration.ZERO, Duration.ZERO, 0, 0);
+
+        /**
+         * Roughly what a regional Cognito endpoint looks like from inside AWS.
+         */
+        public static final Profile REALISTIC = new Profile(Duration.ofMillis(40), Duration.ofMillis(60), 0, 0);
+
+        public Profile withLatency(Duration latency, Duration jitter) {
+            return new Profile(latency, jitter, errorRate, maxRequestsPerSecond);
+        }
+
+        public Profile withErrorRate(double errorRate) {
+            return new Profile(latency, jitter, errorRate, maxRequestsPerSecond);
+        }
+
+        public Profile withMaxRequestsPerSecond(int maxRequestsPerSecond) {
+            return new Profile(latency, jitter, errorRate, maxRequestsPerSecond);
+        }
+    }
+
+    private static final class User {
+        final String username;
+        final String sub = UUID.randomUUID().toString();
+        final Map<String, String> attributes = new LinkedHashMap<>();
+        volatile String password;
+        volatile boolean confirmed;
+        volatile boolean totpEnabled;
+
+        User(String username, String password) {
+            this.username = username;
+            this.password = password;
+        }
+    }
+
+    private static final class CognitoError extends RuntimeException {
+        final int status;
+        final String type;
+
+        CognitoError(int status, String type, String message) {
+            super(message, null, false, false);
+            this.status = status;
+            this.type = type;
+        }
+
+        static CognitoError badRequest(String type, String message) {
+            return new CognitoError(400, type, message);
+        }
+    }
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<String, User> users = new ConcurrentHashMap<>();
+    private final Map<String, String> accessTokens = new ConcurrentHashMap<>();
+    private final Map<String, String> sessions = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> requestCounts = new ConcurrentHashMap<>();
+    private final AtomicLong throttleSecond = new AtomicLong();
+    private final AtomicLong throttleCount = new AtomicLong();
+    private volatile Profile profile = Profile.FAST;
+
+    private LocalCognitoServer(int port) throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "local-cognito");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    /**
+     * Start a server on an ephemeral loopback port.
+     *
+     * @return The running server
+     * @throws IOException if the server cannot be bound
+     */
+    public static LocalCognitoServer start() throws IOException {
+        return start(0);
+    }
+
+    /**
+     * Start a server on the given loopback port.
+     *
+     * @param port The port, or 0 for an ephemeral one
+     * @return The running server
+     * @throws IOException if the server cannot be bound
+     */
+    public static LocalCognitoServer start(int port) throws IOException {
+        LocalCognitoServer localCognitoServer = new LocalCognitoServer(port);
+        localCognitoServer.server.start();
+        log.info("Local Cognito stand-in listening on {}", localCognitoServer.endpoint());
+        return localCognitoServer;
+    }
+
+    /**
+     * Get the URL to use as the endpoint override.
+     *
+     * @return The endpoint URL
+     */
+    public String endpoint() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public Profile getProfile() {
+        return profile;
+    }
+
+    public void setProfile(Profile profile) {
+        this.profile = profile;
+    }
+
+    /**
+     * Create a confirmed user directly, bypassing SignUp.
+     *
+     * @param username The username
+     * @param password The password
+     */
+    public void addConfirmedUser(String username, String password) {
+        User user = new User(username, password);
+        user.confirmed = true;
+        user.attributes.put("email", username);
+        user.attributes.put("sub", user.sub);
+        users.put(username, user);
+    }
+
+    /**
+     * Get the number of requests received for an operation.
+     *
+     * @param operation The operation name, e.g. InitiateAuth
+     * @return The request count
+     */
+    public long requestCount(String operation) {
+        AtomicLong count = requestCounts.get(operation);
+        return count == null ? 0 : count.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String target = exchange.getRequestHeaders().getFirst("X-Amz-Target");
+            String operation = target != null && target.startsWith(TARGET_PREFIX)
+                    ? target.substring(TARGET_PREFIX.length()) : String.valueOf(target);
+            requestCounts.computeIfAbsent(operation, key -> new AtomicLong()).incrementAndGet();
+
+            Profile current = profile;
+            int status = 200;
+            ObjectNode body;
+            try (InputStream in = exchange.getRequestBody()) {
+                JsonNode request = objectMapper.readTree(in.readAllBytes());
+                applyProfile(current);
+                body = dispatch(operation, request == null ? objectMapper.createObjectNode() : request);
+            } catch (CognitoError e) {
+                status = e.status;
+                body = objectMapper.createObjectNode().put("__type", e.type).put("message", e.getMessage());
+                exchange.getResponseHeaders().set("x-amzn-ErrorType", e.type);
+            }
+
+            byte[] bytes = objectMapper.writeValueAsBytes(body);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.getResponseHeaders().set("x-amzn-RequestId", UUID.randomUUID().toString());
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    private void applyProfile(Profile current) {
+        long sleepNanos = current.latency().toNanos();
+        if (!current.jitter().isZero()) {
+            sleepNanos += ThreadLocalRandom.current().nextLong(current.jitter().toNanos() + 1);
+        }
+        if (sleepNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(sleepNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        if (current.maxRequestsPerSecond() > 0) {
+            long second = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+            long seen = throttleSecond.get();
+            if (seen != second && throttleSecond.compareAndSet(seen, second)) {
+                throttleCount.set(0);
+            }
+            if (throttleCount.incrementAndGet() > current.maxRequestsPerSecond()) {
+                throw CognitoError.badRequest("TooManyRequestsException", "Rate exceeded");
+            }
+        }
+
+        if (current.errorRate() > 0 && ThreadLocalRandom.current().nextDouble() < current.errorRate()) {
+            throw new CognitoError(500, "InternalErrorException", "Injected internal error");
+        }
+    }
+
+    private ObjectNode dispatch(String operation, JsonNode request) {
+        return switch (operation) {
+            case "SignUp" -> signUp(request);
+            case "ConfirmSignUp" -> confirmSignUp(request);
+            case "ResendConfirmationCode" -> resendConfirmationCode(request);
+            case "InitiateAuth" -> initiateAuth(request);
+            case "RespondToAuthChallenge" -> respondToAuthChallenge(request);
+            case "ForgotPassword" -> forgotPassword(request);
+            case "ConfirmForgotPassword" -> confirmForgotPassword(request);
+            case "GetUser" -> getUser(request);
+            case "ChangePassword" -> changePassword(request);
+            case "AssociateSoftwareToken" -> associateSoftwareToken(request);
+            case "VerifySoftwareToken" -> verifySoftwareToken(request);
+            case "SetUserMFAPreference" -> setUserMfaPreference(request);
+            default -> throw CognitoError.badRequest("UnknownOperationException", "Unknown operation " + operation);
+        };
+    }
+
+    private ObjectNode signUp(JsonNode request) {
+        String username = text(request, "Username");
+        User user = new User(username, text(request, "Password"));
+        user.attributes.put("sub", user.sub);
+        for (JsonNode attribute : request.path("UserAttributes")) {
+            user.attributes.put(attribute.path("Name").asText(), attribute.path("Value").asText());
+        }
+        if (users.putIfAbsent(username, user) != null) {
+            throw CognitoError.badRequest("UsernameExistsException", "User already exists");
+        }
+        ObjectNode response = objectMapper.createObjectNode()
+                .put("UserConfirmed", false)
+                .put("UserSub", user.sub);
+        response.set("CodeDeliveryDetails", codeDeliveryDetails(user));
+        return response;
+    }
+
+    private ObjectNode confirmSignUp(JsonNode request) {
+        User user = user(text(request, "Username"));
+        checkCode(text(request, "ConfirmationCode"));
+        user.confirmed = true;
+        return objectMapper.createObjectNode();
+    }
+
+    private ObjectNode resendConfirmationCode(JsonNode request) {
+        User user = user(text(request, "Username"));
+        ObjectNode response = objectMapper.createObjectNode();
+        response.set("CodeDeliveryDetails", codeDeliveryDetails(user));
+        return response;
+    }
+
+    private ObjectNode initiateAuth(JsonNode request) {
+        JsonNode parameters = request.path("AuthParameters");
+        User user = users.get(parameters.path("USERNAME").asText());
+        if (user == null || !user.password.equals(parameters.path("PASSWORD").asText())) {
+            throw CognitoError.badRequest("NotAuthorizedException", "Incorrect username or password.");
+        }
+        if (!user.confirmed) {
+            throw CognitoError.badRequest("UserNotConfirmedException", "User is not confirmed.");
+        }
+        if (user.totpEnabled) {
+            String session = UUID.randomUUID().toString();
+            sessions.put(session, user.username);
+            ObjectNode response = objectMapper.createObjectNode()
+                    .put("ChallengeName", "SOFTWARE_TOKEN_MFA")
+                    .put("Session", session);
+            response.putObject("ChallengeParameters").put("USER_ID_FOR_SRP", user.username);
+            return response;
+        }
+        return authenticationResult(user);
+    }
+
+    private ObjectNode respondToAuthChallenge(JsonNode request) {
+        String username = sessions.remove(text(request, "Session"));
+        if (username == null) {
+            throw CognitoError.badRequest("NotAuthorizedException", "Invalid session for the user, session is expired.");
+        }
+        JsonNode responses = request.path("ChallengeResponses");
+        String code = responses.path("SOFTWARE_TOKEN_MFA_CODE").asText(responses.path("SMS_MFA_CODE").asText());
+        checkCode(code);
+        return authenticationResult(user(username));
+    }
+
+    private ObjectNode forgotPassword(JsonNode request) {
+        User user = user(text(request, "Username"));
+        ObjectNode response = objectMapper.createObjectNode();
+        response.set("CodeDeliveryDetails", codeDeliveryDetails(user));
+        return response;
+    }
+
+    private ObjectNode confirmForgotPassword(JsonNode request) {
+        User user = user(text(request, "Username"));
+        checkCode(text(request, "ConfirmationCode"));
+        user.password = text(request, "Password");
+        return objectMapper.createObjectNode();
+    }
+
+    private ObjectNode getUser(JsonNode request) {
+        User user = authenticated(request);
+        ObjectNode response = objectMapper.createObjectNode().put("Username", user.username);
+        ArrayNode attributes = response.putArray("UserAttributes");
+        user.attributes.forEach((name, value) -> attributes.addObject().put("Name", name).put("Value", value));
+        return response;
+    }
+
+    private ObjectNode changePassword(JsonNode request) {
+        User user = authenticated(request);
+        if (!user.password.equals(text(request, "PreviousPassword"))) {
+            throw CognitoError.badRequest("NotAuthorizedException", "Incorrect username or password.");
+        }
+        user.password = text(request, "ProposedPassword");
+        return objectMapper.createObjectNode();
+    }
+
+    private ObjectNode associateSoftwareToken(JsonNode request) {
+        authenticated(request);
+        return objectMapper.createObjectNode().put("SecretCode", "JBSWY3DPEHPK3PXPJBSWY3DPEHPK3PXP");
+    }
+
+    private ObjectNode verifySoftwareToken(JsonNode request) {
+        authenticated(request);
+        checkCode(text(request, "UserCode"));
+        return objectMapper.createObjectNode().put("Status", "SUCCESS");
+    }
+
+    private ObjectNode setUserMfaPreference(JsonNode request) {
+        User user = authenticated(request);
+        JsonNode totp = request.path("SoftwareTokenMfaSettings");
+        if (!totp.isMissingNode()) {
+            user.totpEnabled = totp.path("Enabled").asBoolean();
+        }
+        return objectMapper.createObjectNode();
+    }
+
+    private ObjectNode authenticationResult(User user) {
+        String accessToken = "local-access-" + UUID.randomUUID();
+        accessTokens.put(accessToken, user.username);
+        ObjectNode response = objectMapper.createObjectNode();
+        response.putObject("ChallengeParameters");
+        response.putObject("AuthenticationResult")
+                .put("AccessToken", accessToken)
+                .put("ExpiresIn", 3600)
+                .put("TokenType", "Bearer")
+                .put("RefreshToken", "local-refresh-" + UUID.randomUUID())
+                .put("IdToken", "local-id-" + UUID.randomUUID());
+        return response;
+    }
+
+    private ObjectNode codeDeliveryDetails(User user) {
+        return objectMapper.createObjectNode()
+                .put("AttributeName", "email")
+                .put("DeliveryMedium", "EMAIL")
+                .put("Destination", user.username);
+    }
+
+    private User authenticated(JsonNode request) {
+        String username = accessTokens.get(text(request, "AccessToken"));
+        if (username == null) {
+            throw CognitoError.badRequest("NotAuthorizedException", "Invalid Access Token");
+        }
+        return user(username);
+    }
+
+    private User user(String username) {
+        User user = users.get(username);
+        if (user == null) {
+            throw CognitoError.badRequest("UserNotFoundException", "Username/client id combination not found.");
+        }
+        return user;
+    }
+
+    private static void checkCode(String code) {
+        if (!CODE.equals(code)) {
+            throw CognitoError.badRequest("CodeMismatchException", "Invalid verification code provided, please try again.");
+        }
+    }
+
+    private static String text(JsonNode request, String field) {
+        JsonNode value = request.get(field);
+        if (value == null || value.isNull()) {
+            throw CognitoError.badRequest("InvalidParameterException", "Missing required parameter " + field);
+        }
+        return value.asText();
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 9229;
+        LocalCognitoServer localCognitoServer = start(port);
+        Profile profile = Profile.FAST;
+        if (args.length > 1) {
+            long latencyMillis = Long.parseLong(args[1]);
+            profile = profile.withLatency(Duration.ofMillis(latencyMillis / 2), Duration.ofMillis(latencyMillis));
+        }
+        if (args.length > 2) {
+            profile = profile.withErrorRate(Double.parseDouble(args[2]));
+        }
+        if (args.length > 3) {
+            profile = profile.withMaxRequestsPerSecond(Integer.parseInt(args[3]));
+        }
+        localCognitoServer.setProfile(profile);
+        log.info("Profile: {}", profile);
+        Thread.currentThread().join();
+    }
+}
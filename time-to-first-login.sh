@@ -0,0 +1,56 @@
+#!/bin/bash
+
+# Measures the time from launching the middleware to its first answered login, i.e. what a node added by the
+# autoscaler costs before it serves traffic, and its resident memory at that point. Everything after -- is the
+# command that starts it (the JVM jar or the native image).
+# Any HTTP status counts as answered; the status is printed so a failing login is not mistaken for a fast one.
+# Usage: ./time-to-first-login.sh <email> <password> <app-key> [api-url] -- <command...>
+# Example:
+#   ./time-to-first-login.sh user@example.com 'Password123!' your-app-key http://localhost:80 \
+#     -- java -Dspring.profiles.active=local -jar target/cognito_middleware.jar
+#   ./time-to-first-login.sh user@example.com 'Password123!' your-app-key http://localhost:80 \
+#     -- java -XX:SharedArchiveFile=target/fast-start/application.jsa -Dspring.aot.enabled=true \
+#        -Dspring.profiles.active=local -jar target/fast-start/cognito_middleware.jar
+
+set -uo pipefail
+
+if [ "$#" -lt 5 ]; then
+    echo "Usage: $0 <email> <password> <app-key> [api-url] -- <command...>"
+    exit 1
+fi
+
+EMAIL=$1
+PASSWORD=$2
+APP_KEY=$3
+shift 3
+API_URL="http://localhost:80"
+if [ "$1" != "--" ]; then
+    API_URL=$1
+    shift
+fi
+shift
+
+LOG=$(mktemp)
+START=$(date +%s%N)
+"$@" > "$LOG" 2>&1 &
+PID=$!
+trap 'kill $PID 2>/dev/null; wait $PID 2>/dev/null; rm -f "$LOG"' EXIT
+
+STATUS=000
+while [ "$STATUS" = "000" ]; do
+    if ! kill -0 $PID 2>/dev/null; then
+        echo "The application exited before answering:"
+        tail -20 "$LOG"
+        exit 1
+    fi
+    STATUS=$(curl -s -o /dev/null -w '%{http_code}' --max-time 10 -X POST "$API_URL/api/auth/login" \
+      -H "Content-Type: application/json" \
+      -H "X-APP-KEY: $APP_KEY" \
+      -d "{\"email\": \"$EMAIL\", \"password\": \"$PASSWORD\"}")
+    [ "$STATUS" = "000" ] && sleep 0.05
+done
+END=$(date +%s%N)
+
+echo "First login answered with HTTP $STATUS after $(( (END - START) / 1000000 )) ms"
+echo "Resident memory: $(( $(awk '/VmRSS/ {print $2}' /proc/$PID/status) / 1024 )) MB"
+grep -o "Started AwsCognitoMiddlewareApplication in .*" "$LOG"